@@ -0,0 +1,63 @@
+package com.example.farm_planner;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.core.io.Resource;
+
+import com.example.farm_planner.analysis.model.EconomicInputs;
+import com.example.farm_planner.parcel.dto.ParcelResponse;
+import com.example.farm_planner.rules.RulesService;
+
+/**
+ * Shared, reproducible inputs for the JMH benchmarks. Everything derives from fixed
+ * values or a fixed seed so runs on different machines/commits see the same data.
+ */
+public final class BenchmarkFixtures {
+
+  public static final long SEED = 20_251_018L;
+
+  private BenchmarkFixtures() {}
+
+  /** Rules as the app builds them: application.yml defaults plus rules/Worcester.yml. */
+  public static RulesService rules() {
+    return new RulesService(66, 650, 40_000, 8, 0.20, 0.10, 5.0, 200, 50,
+        new Resource[] { new ClassPathResource("rules/Worcester.yml") }, "", "worcester");
+  }
+
+  public static ParcelResponse parcel(double acres) {
+    return new ParcelResponse("BENCH" + (long) (acres * 100), acres, null);
+  }
+
+  /**
+   * Mixed workload: mostly farm-sized parcels with a share of undersized, missing-area
+   * and very large ones, so every branch of fit() is exercised.
+   */
+  public static List<ParcelResponse> parcelMix(int n) {
+    SplittableRandom rnd = new SplittableRandom(SEED);
+    List<ParcelResponse> out = new ArrayList<>(n);
+    for (int i = 0; i < n; i++) {
+      int bucket = rnd.nextInt(10);
+      Double acres = switch (bucket) {
+        case 0 -> null;                              // missing area
+        case 1, 2 -> rnd.nextDouble(0.1, 5.0);       // below minimum
+        case 9 -> rnd.nextDouble(100, 2_000);        // hits the house cap
+        default -> rnd.nextDouble(5.0, 60.0);
+      };
+      out.add(new ParcelResponse("BENCH" + i, acres, null));
+    }
+    return out;
+  }
+
+  /** Named economics scenarios (JMH @Param values). */
+  public static EconomicInputs econ(String scenario) {
+    return switch (scenario) {
+      case "cash" -> new EconomicInputs(2, 750, 250_000, 250_000.0, null, 0, 1);
+      case "pctDown" -> new EconomicInputs(4, 800, 600_000, null, 0.20, 6.5, 30);
+      case "zeroRate" -> new EconomicInputs(3, 700, 400_000, 50_000.0, null, 0, 15);
+      default -> throw new IllegalArgumentException("Unknown scenario " + scenario);
+    };
+  }
+}
@@ -0,0 +1,67 @@
+package com.example.farm_planner.analysis;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.example.farm_planner.BenchmarkFixtures;
+import com.example.farm_planner.analysis.model.EconomicInputs;
+import com.example.farm_planner.analysis.model.QuickAnalysisResult;
+import com.example.farm_planner.parcel.dto.ParcelResponse;
+
+/** AnalysisService.fit / econ on fixed parcels and economics scenarios. */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class AnalysisBenchmark {
+
+    /** Below minimum, typical farm, house-capped. */
+    @Param({"3.5", "12.75", "250"})
+    public double acres;
+
+    @Param({"cash", "pctDown", "zeroRate"})
+    public String scenario;
+
+    private AnalysisService service;
+    private ParcelResponse parcel;
+    private QuickAnalysisResult fit;
+    private EconomicInputs econ;
+    private List<ParcelResponse> mix;
+
+    @Setup
+    public void setUp() {
+        service = new AnalysisService(BenchmarkFixtures.rules());
+        parcel = BenchmarkFixtures.parcel(acres);
+        fit = service.fit(parcel);
+        econ = BenchmarkFixtures.econ(scenario);
+        mix = BenchmarkFixtures.parcelMix(1024);
+    }
+
+    @Benchmark
+    public QuickAnalysisResult fit() {
+        return service.fit(parcel);
+    }
+
+    @Benchmark
+    public Object econ() {
+        return service.econ(fit, econ);
+    }
+
+    /** fit + econ over 1024 seeded parcels; reported per batch. */
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public void fitAndEconMix(Blackhole bh) {
+        for (ParcelResponse p : mix) {
+            bh.consume(service.econ(service.fit(p), econ));
+        }
+    }
+}
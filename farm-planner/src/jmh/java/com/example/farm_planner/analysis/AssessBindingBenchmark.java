@@ -0,0 +1,92 @@
+package com.example.farm_planner.analysis;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import com.example.farm_planner.BenchmarkFixtures;
+import com.example.farm_planner.analysis.model.EconAssessRequest;
+import com.example.farm_planner.analysis.model.EconResult;
+import com.example.farm_planner.analysis.model.EconomicInputs;
+import com.example.farm_planner.analysis.model.QuickAnalysisResult;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * One /econ/assess request end to end (bind body, econ, write response): the old
+ * Map-and-cast binding against the typed EconAssessRequest. Run with -prof gc to see
+ * bytes allocated per request.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class AssessBindingBenchmark {
+
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    private AnalysisService service;
+    private byte[] body;
+
+    @Setup
+    public void setUp() throws Exception {
+        service = new AnalysisService(BenchmarkFixtures.rules());
+        QuickAnalysisResult fit = service.fit(BenchmarkFixtures.parcel(12.75));
+        // same payload test.html posts
+        body = mapper.writeValueAsBytes(Map.of(
+                "fit", fit,
+                "workers", 4,
+                "weeklyPayPerWorker", 800,
+                "landPrice", 450_000,
+                "downPaymentPct", 0.2,
+                "annualInterestRatePct", 6.5,
+                "years", 20));
+    }
+
+    @Benchmark
+    public byte[] typed() throws Exception {
+        EconAssessRequest req = mapper.readValue(body, EconAssessRequest.class);
+        return mapper.writeValueAsBytes(service.econ(req.fit(), req.inputs()));
+    }
+
+    @Benchmark
+    @SuppressWarnings("unchecked")
+    public byte[] untypedMap() throws Exception {
+        Map<String, Object> req = mapper.readValue(body, Map.class);
+        Map<String, Object> fitMap = (Map<String, Object>) req.get("fit");
+        QuickAnalysisResult fit = new QuickAnalysisResult(
+                (boolean) fitMap.getOrDefault("found", false),
+                (String) fitMap.get("acctId"),
+                toD(fitMap.get("parcelAcres")),
+                toD(fitMap.get("usableAcres")),
+                toD(fitMap.get("perHouseSqFt")),
+                ((Number) fitMap.getOrDefault("maxHouses", 0)).intValue(),
+                (List<String>) fitMap.getOrDefault("messages", List.of()));
+        EconomicInputs econ = new EconomicInputs(
+                ((Number) req.getOrDefault("workers", 0)).intValue(),
+                toD(req.getOrDefault("weeklyPayPerWorker", 0)),
+                toD(req.getOrDefault("landPrice", 0)),
+                req.containsKey("downPaymentAmount") ? toD(req.get("downPaymentAmount")) : null,
+                req.containsKey("downPaymentPct") ? toD(req.get("downPaymentPct")) : null,
+                toD(req.getOrDefault("annualInterestRatePct", 0)),
+                ((Number) req.getOrDefault("years", 1)).intValue());
+        EconResult result = service.econ(fit, econ);
+        return mapper.writeValueAsBytes(result);
+    }
+
+    // the controller's former number coercion
+    private static double toD(Object o) {
+        if (o instanceof Integer i) return i.doubleValue();
+        if (o instanceof Long l) return l.doubleValue();
+        if (o instanceof Float f) return f.doubleValue();
+        if (o instanceof Double d) return d;
+        if (o instanceof String s) try { return Double.parseDouble(s); } catch (Exception ignored) {}
+        return 0.0;
+    }
+}
@@ -0,0 +1,59 @@
+package com.example.farm_planner.analysis;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import com.example.farm_planner.BenchmarkFixtures;
+import com.example.farm_planner.analysis.model.EconResult;
+import com.example.farm_planner.analysis.model.QuickAnalysisResult;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/** Jackson round trips of the two analysis responses. */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class JsonBenchmark {
+
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    private QuickAnalysisResult fit;
+    private EconResult econ;
+    private byte[] fitJson;
+    private byte[] econJson;
+
+    @Setup
+    public void setUp() throws Exception {
+        AnalysisService service = new AnalysisService(BenchmarkFixtures.rules());
+        fit = service.fit(BenchmarkFixtures.parcel(12.75));
+        econ = service.econ(fit, BenchmarkFixtures.econ("pctDown"));
+        fitJson = mapper.writeValueAsBytes(fit);
+        econJson = mapper.writeValueAsBytes(econ);
+    }
+
+    @Benchmark
+    public byte[] writeQuickAnalysisResult() throws Exception {
+        return mapper.writeValueAsBytes(fit);
+    }
+
+    @Benchmark
+    public QuickAnalysisResult readQuickAnalysisResult() throws Exception {
+        return mapper.readValue(fitJson, QuickAnalysisResult.class);
+    }
+
+    @Benchmark
+    public byte[] writeEconResult() throws Exception {
+        return mapper.writeValueAsBytes(econ);
+    }
+
+    @Benchmark
+    public EconResult readEconResult() throws Exception {
+        return mapper.readValue(econJson, EconResult.class);
+    }
+}
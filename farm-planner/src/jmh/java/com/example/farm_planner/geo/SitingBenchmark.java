@@ -0,0 +1,65 @@
+package com.example.farm_planner.geo;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import com.example.farm_planner.BenchmarkFixtures;
+
+/** Orientation search on a seeded irregular ~200-acre parcel, serial vs all cores. */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class SitingBenchmark {
+
+  @Param({"1", "0"}) // 0 = one thread per core
+  public int parallelism;
+
+  /** County cap vs effectively uncapped (full packing of every orientation). */
+  @Param({"8", "1000"})
+  public int maxHouses;
+
+  private double[][][] parcel;
+  private ForkJoinPool pool;
+  private SitingEngine.Spec spec;
+
+  @Setup
+  public void setUp() {
+    // star-shaped polygon: 64 vertices at radius 1500-2000 ft around a point in Worcester
+    SplittableRandom rnd = new SplittableRandom(BenchmarkFixtures.SEED);
+    double lat0 = 38.2, lon0 = -75.4;
+    double ftPerDegLon = SitingEngine.FT_PER_DEG_LAT * Math.cos(Math.toRadians(lat0));
+    int n = 64;
+    double[] ring = new double[2 * (n + 1)];
+    for (int i = 0; i < n; i++) {
+      double a = 2 * Math.PI * i / n, r = rnd.nextDouble(1500, 2000);
+      ring[2 * i] = lon0 + r * Math.cos(a) / ftPerDegLon;
+      ring[2 * i + 1] = lat0 + r * Math.sin(a) / SitingEngine.FT_PER_DEG_LAT;
+    }
+    ring[2 * n] = ring[0];
+    ring[2 * n + 1] = ring[1];
+    parcel = new double[][][] { { ring } };
+    pool = new ForkJoinPool(parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors());
+    spec = new SitingEngine.Spec(66, 606, 50, 200, maxHouses, 2, 10);
+  }
+
+  @TearDown
+  public void tearDown() {
+    pool.shutdown();
+  }
+
+  @Benchmark
+  public SitingEngine.Layout plan() {
+    return SitingEngine.plan(parcel, spec, pool);
+  }
+}
@@ -0,0 +1,45 @@
+package com.example.farm_planner.rules;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import com.example.farm_planner.BenchmarkFixtures;
+
+/** RulesService accessors, which fit() calls several times per parcel. */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class RulesBenchmark {
+
+    private RulesService rules;
+
+    @Setup
+    public void setUp() {
+        rules = BenchmarkFixtures.rules();
+    }
+
+    @Benchmark
+    public double houseWidthFt() {
+        return rules.houseWidthFt();
+    }
+
+    @Benchmark
+    public int maxHousesPerParcel() {
+        return rules.maxHousesPerParcel();
+    }
+
+    /** Every accessor once, as a single fit() reads them. */
+    @Benchmark
+    public double allAccessors() {
+        return rules.houseWidthFt() + rules.houseLengthFt() + rules.perHouseAreaLimitSqFt()
+                + rules.maxHousesPerParcel() + rules.setbackLossPct() + rules.infraLossPct()
+                + rules.minParcelAcres();
+    }
+}
@@ -0,0 +1,35 @@
+package com.example.farm_planner.Auth;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.authentication.ReactiveAuthenticationManager;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.AuthenticationException;
+import org.springframework.web.bind.annotation.*;
+
+import reactor.core.publisher.Mono;
+
+/** Same JSON login as {@link AuthController}, for the "reactive" (WebFlux) profile. */
+@RestController
+@RequestMapping("/api/auth")
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveAuthController {
+
+  private final ReactiveAuthenticationManager authManager;
+
+  public ReactiveAuthController(ReactiveAuthenticationManager authManager) {
+    this.authManager = authManager;
+  }
+
+  @PostMapping("/login")
+  public Mono<ResponseEntity<LoginResponse>> login(@RequestBody LoginRequest req) {
+    return authManager.authenticate(
+            new UsernamePasswordAuthenticationToken(req.username(), req.password()))
+        .map(auth -> ResponseEntity.ok(new LoginResponse(auth.getName())))
+        .onErrorResume(AuthenticationException.class,
+            e -> Mono.just(ResponseEntity.status(HttpStatus.UNAUTHORIZED).build()));
+  }
+
+  // /api/auth/logout is handled by Spring Security (configured in ReactiveSecurityConfig)
+}
@@ -1,21 +1,40 @@
 package com.example.farm_planner.analysis;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
+import java.util.Optional;
 
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
 
+import com.example.farm_planner.analysis.model.BatchItemResult;
+import com.example.farm_planner.analysis.model.BatchRequest;
+import com.example.farm_planner.analysis.model.EconAssessRequest;
 import com.example.farm_planner.analysis.model.EconResult;
-import com.example.farm_planner.analysis.model.EconomicInputs;
+import com.example.farm_planner.analysis.model.EconSweepRequest;
+import com.example.farm_planner.analysis.model.EconSweepResult;
 import com.example.farm_planner.analysis.model.QuickAnalysisResult;
+import com.example.farm_planner.analysis.model.SimulationRequest;
+import com.example.farm_planner.analysis.model.SimulationResult;
+import com.example.farm_planner.config.OutboundScheduler;
+import com.example.farm_planner.config.PipelineMetrics;
 import com.example.farm_planner.parcel.GeocoderService;
 import com.example.farm_planner.parcel.ParcelService;
 import com.example.farm_planner.parcel.dto.ParcelResponse;
+import com.example.farm_planner.rules.CountyRules;
+import com.example.farm_planner.rules.RulesService;
 
+import jakarta.validation.Valid;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 @RestController
@@ -25,85 +44,226 @@ public class AnalysisController {
     private final ParcelService parcelService;
     private final GeocoderService geocoderService;
     private final AnalysisService analysisService;
+    private final SitingService sitingService;
+    private final EconSweepService sweepService;
+    private final SimulationService simulationService;
+    private final RulesService rulesService;
+    private final PipelineMetrics metrics;
+    private final int batchConcurrency;
+    private final int batchMaxItems;
 
     public AnalysisController(ParcelService parcelService,
                               GeocoderService geocoderService,
-                              AnalysisService analysisService) {
+                              AnalysisService analysisService,
+                              SitingService sitingService,
+                              EconSweepService sweepService,
+                              SimulationService simulationService,
+                              RulesService rulesService,
+                              PipelineMetrics metrics,
+                              @Value("${app.analysis.batch.concurrency:8}") int batchConcurrency,
+                              @Value("${app.analysis.batch.maxItems:5000}") int batchMaxItems) {
         this.parcelService = parcelService;
         this.geocoderService = geocoderService;
         this.analysisService = analysisService;
+        this.sitingService = sitingService;
+        this.sweepService = sweepService;
+        this.simulationService = simulationService;
+        this.rulesService = rulesService;
+        this.metrics = metrics;
+        this.batchConcurrency = Math.max(1, batchConcurrency);
+        this.batchMaxItems = batchMaxItems;
     }
 
-    /** STEP 1: Address -> Parcel -> Fit analysis (reactive) */
-    @PostMapping("/quick")
-    public Mono<ResponseEntity<?>> search(@RequestBody Map<String, String> body) {
+    // STEP 1 (POST /quick) lives in QuickAnalysisController / BlockingQuickAnalysisController
+
+    /** STEP 2: Fit result + user inputs -> Economics analysis */
+    @PostMapping("/econ/assess")
+    public ResponseEntity<EconResult> assess(@Valid @RequestBody EconAssessRequest body) {
+        return ResponseEntity.ok(metrics.timed("analysis.econ", () -> analysisService.econ(body.fit(), body.inputs())));
+    }
+
+    /**
+     * STEP 2b: econ over the full grid of parameter ranges, evaluated in parallel.
+     * Returns axis values plus primitive result columns and summary stats (see EconSweepResult).
+     */
+    @PostMapping("/econ/sweep")
+    public Mono<EconSweepResult> sweep(@RequestBody EconSweepRequest body) {
+        return Mono.defer(() -> Mono.fromFuture(sweepService.sweepAsync(body)));
+    }
+
+    /**
+     * STEP 2c: Monte Carlo cash flow over the loan term with uncertain income, costs, wages
+     * and rate. Returns yearly percentile bands and the chance of negative cash flow.
+     */
+    @PostMapping("/econ/simulate")
+    public Mono<SimulationResult> simulate(@RequestBody SimulationRequest body) {
+        return Mono.defer(() -> Mono.fromFuture(simulationService.simulateAsync(body)));
+    }
+
+    /**
+     * SITING: lay out house footprints on the actual parcel polygon.
+     * Body: {"address": ...} or {"acctId": ...}, optional "county". Returns GeoJSON footprints.
+     */
+    @PostMapping("/siting")
+    public Mono<ResponseEntity<Object>> siting(@RequestBody Map<String, String> body) {
         String address = body.get("address");
-        if (address == null || address.isBlank()) {
-            return Mono.just(ResponseEntity.badRequest()
-                    .body(Map.of("error", "Missing 'address'")));
+        String acctId = body.get("acctId");
+        if ((address == null || address.isBlank()) && (acctId == null || acctId.isBlank())) {
+            return Mono.just(ResponseEntity.badRequest().body(Map.of("error", "Missing 'address' or 'acctId'")));
         }
+        String countyName = body.get("county");
+        Optional<CountyRules> county = rulesService.forCounty(countyName);
+        if (countyName != null && !countyName.isBlank() && county.isEmpty()) {
+            return Mono.just(QuickAnalysisController.unknownCounty(countyName));
+        }
+
+        Mono<ParcelResponse> parcel = acctId != null && !acctId.isBlank()
+            ? parcelService.findByAcctId(acctId.trim())
+            : geocoderService.findParcel(address)
+                .switchIfEmpty(Mono.defer(() -> geocoderService.geocode(address)
+                    .flatMap(this::toLatLon)
+                    .flatMap(ll -> parcelService.findByPoint(ll.lat(), ll.lon()))));
 
-        return geocoderService.geocode(address)          // Mono<double[]> (lat, lon)
-            .flatMap(this::toLatLon)                     // Mono<LatLon>
-            .flatMap(latlon -> parcelService.findByPoint(latlon.lat(), latlon.lon())
-                .map(parcel -> {
-                    QuickAnalysisResult fit = analysisService.fit(parcel);
-                    if (!fit.found()) {
-                        return ResponseEntity.ok(Map.of(
-                            "found", false,
-                            "address", address,
-                            "messages", fit.messages()
-                        ));
-                    }
-                    return ResponseEntity.ok(fit);
-                })
-                .defaultIfEmpty(ResponseEntity.ok(Map.of(
-                    "found", false,
-                    "address", address,
-                    "messages", List.of("Parcel not found.")
-                )))
-            )
-            .onErrorResume(ex -> Mono.just(ResponseEntity.ok(Map.of(
-                "found", false,
-                "address", address,
-                "messages", List.of("Geocoding/parcel lookup failed: " + ex.getMessage())
-            ))))
-            .defaultIfEmpty(ResponseEntity.ok(Map.of(
-                "found", false,
-                "address", address,
-                "messages", List.of("Address could not be geocoded.")
-            )));
+        return parcel
+            .flatMap(p -> Mono.fromFuture(sitingService.siteAsync(p, county.map(CountyRules::rules).orElse(null))))
+            .map(r -> ResponseEntity.ok((Object) r))
+            .defaultIfEmpty(ResponseEntity.ok(sitingService.site(null, null)));
     }
 
-    /** STEP 2: Fit result + user inputs -> Economics analysis */
-    @PostMapping("/econ/assess")
-    public ResponseEntity<EconResult> assess(@RequestBody Map<String, Object> body) {
-        Map<String, Object> fitMap = (Map<String, Object>) body.get("fit");
-        if (fitMap == null) {
-            return ResponseEntity.badRequest().build();
+    /**
+     * BATCH: many addresses and/or acctIds -> Fit analysis for each, streamed back as
+     * NDJSON in completion order (SSE instead with Accept: text/event-stream).
+     * Body is either {"addresses": [...], "acctIds": [...]} or CSV (see parseCsv).
+     */
+    @PostMapping(value = "/batch", consumes = MediaType.APPLICATION_JSON_VALUE,
+            produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<BatchItemResult> batch(@RequestBody BatchRequest body) {
+        return runBatch(items(body));
+    }
+
+    @PostMapping(value = "/batch", consumes = MediaType.APPLICATION_JSON_VALUE,
+            produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public Flux<BatchItemResult> batchSse(@RequestBody BatchRequest body) {
+        return runBatch(items(body));
+    }
+
+    @PostMapping(value = "/batch", consumes = "text/csv", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<BatchItemResult> batchCsv(@RequestBody String csv) {
+        return runBatch(parseCsv(csv));
+    }
+
+    @PostMapping(value = "/batch", consumes = "text/csv", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public Flux<BatchItemResult> batchCsvSse(@RequestBody String csv) {
+        return runBatch(parseCsv(csv));
+    }
+
+    private static List<BatchItem> items(BatchRequest body) {
+        List<BatchItem> items = new ArrayList<>();
+        if (body.addresses() != null) body.addresses().forEach(a -> items.add(new BatchItem(a, false)));
+        if (body.acctIds() != null) body.acctIds().forEach(a -> items.add(new BatchItem(a, true)));
+        return items;
+    }
+
+    private Flux<BatchItemResult> runBatch(List<BatchItem> items) {
+        if (items.size() > batchMaxItems) {
+            return Flux.error(new ResponseStatusException(HttpStatus.PAYLOAD_TOO_LARGE,
+                    "Batch limited to " + batchMaxItems + " items"));
         }
+        return Flux.fromIterable(items)
+            .index()
+            // bounded fan-out; each result is written as soon as it completes
+            .flatMap(t -> analyzeItem(t.getT2())
+                .map(fit -> new BatchItemResult(t.getT1(), t.getT2().value(), fit)), batchConcurrency)
+            // background priority so interactive /quick calls are served first upstream
+            .contextWrite(OutboundScheduler.batch());
+    }
 
-        QuickAnalysisResult fit = new QuickAnalysisResult(
-                (boolean) fitMap.getOrDefault("found", false),
-                (String) fitMap.get("acctId"),
-                toD(fitMap.get("parcelAcres")),
-                toD(fitMap.get("usableAcres")),
-                toD(fitMap.get("perHouseSqFt")),
-                ((Number) fitMap.getOrDefault("maxHouses", 0)).intValue(),
-                (List<String>) fitMap.getOrDefault("messages", List.of())
-        );
-
-        EconomicInputs econ = new EconomicInputs(
-                ((Number) body.getOrDefault("workers", 0)).intValue(),
-                toD(body.getOrDefault("weeklyPayPerWorker", 0)),
-                toD(body.getOrDefault("landPrice", 0)),
-                body.containsKey("downPaymentAmount") ? toD(body.get("downPaymentAmount")) : null,
-                body.containsKey("downPaymentPct") ? toD(body.get("downPaymentPct")) : null,
-                toD(body.getOrDefault("annualInterestRatePct", 0)),
-                ((Number) body.getOrDefault("years", 1)).intValue()
-        );
-
-        return ResponseEntity.ok(analysisService.econ(fit, econ));
+    private Mono<QuickAnalysisResult> analyzeItem(BatchItem item) {
+        String value = item.value() == null ? "" : item.value().trim();
+        if (value.isEmpty()) return Mono.just(notFound("Empty input."));
+
+        if (item.acctId()) {
+            return parcelService.findByAcctId(value)
+                .flatMap(this::fit)
+                .defaultIfEmpty(notFound("Parcel not found."))
+                .onErrorResume(ex -> Mono.just(notFound("Parcel lookup failed: " + ex.getMessage())));
+        }
+        return geocoderService.findParcel(value)
+            .flatMap(this::fit)
+            .switchIfEmpty(Mono.defer(() -> geocoderService.geocode(value)
+                .flatMap(this::toLatLon)
+                .flatMap(latlon -> parcelService.findByPoint(latlon.lat(), latlon.lon())
+                    .flatMap(this::fit)
+                    .defaultIfEmpty(notFound("Parcel not found.")))
+                .defaultIfEmpty(notFound("Address could not be geocoded."))))
+            .onErrorResume(ex -> Mono.just(notFound("Geocoding/parcel lookup failed: " + ex.getMessage())));
+    }
+
+    private Mono<QuickAnalysisResult> fit(ParcelResponse parcel) {
+        return metrics.timed("analysis.fit", Mono.fromFuture(() -> analysisService.fitAsync(parcel, null)));
+    }
+
+    /**
+     * CSV input: with a header row, the "address" and/or "acctId" columns are used
+     * (quoted fields may contain commas); without one, each non-blank line is an address.
+     */
+    static List<BatchItem> parseCsv(String csv) {
+        List<BatchItem> out = new ArrayList<>();
+        if (csv == null) return out;
+        String[] lines = csv.split("\\r?\\n");
+        int addrCol = -1, acctCol = -1, start = 0;
+        if (lines.length > 0) {
+            List<String> header = splitCsvLine(lines[0]);
+            for (int i = 0; i < header.size(); i++) {
+                String h = header.get(i).trim().toLowerCase(Locale.ROOT);
+                if (h.equals("address")) addrCol = i;
+                if (h.equals("acctid")) acctCol = i;
+            }
+            if (addrCol >= 0 || acctCol >= 0) start = 1;
+        }
+        for (int n = start; n < lines.length; n++) {
+            if (lines[n].isBlank()) continue;
+            if (start == 0) {
+                out.add(new BatchItem(unquote(lines[n].trim()), false));
+                continue;
+            }
+            List<String> cols = splitCsvLine(lines[n]);
+            String acct = acctCol >= 0 && acctCol < cols.size() ? cols.get(acctCol).trim() : "";
+            String addr = addrCol >= 0 && addrCol < cols.size() ? cols.get(addrCol).trim() : "";
+            // prefer the acctId when a row has both: it skips geocoding entirely
+            out.add(acct.isEmpty() ? new BatchItem(addr, false) : new BatchItem(acct, true));
+        }
+        return out;
+    }
+
+    private static List<String> splitCsvLine(String line) {
+        List<String> cols = new ArrayList<>();
+        StringBuilder cur = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (c == '"') {
+                if (quoted && i + 1 < line.length() && line.charAt(i + 1) == '"') { cur.append('"'); i++; }
+                else quoted = !quoted;
+            } else if (c == ',' && !quoted) {
+                cols.add(cur.toString());
+                cur.setLength(0);
+            } else {
+                cur.append(c);
+            }
+        }
+        cols.add(cur.toString());
+        return cols;
+    }
+
+    private static String unquote(String s) {
+        return s.length() >= 2 && s.startsWith("\"") && s.endsWith("\"")
+            ? s.substring(1, s.length() - 1).replace("\"\"", "\"")
+            : s;
+    }
+
+    private static QuickAnalysisResult notFound(String message) {
+        return new QuickAnalysisResult(false, null, 0, 0, 0, 0, List.of(message));
     }
 
     /* ---------------- Helpers ---------------- */
@@ -116,14 +276,7 @@ public class AnalysisController {
         return Mono.just(new LatLon(lat, lon));
     }
 
-    private static double toD(Object o) {
-        if (o instanceof Integer i) return i.doubleValue();
-        if (o instanceof Long l) return l.doubleValue();
-        if (o instanceof Float f) return f.doubleValue();
-        if (o instanceof Double d) return d;
-        if (o instanceof String s) try { return Double.parseDouble(s); } catch (Exception ignored) {}
-        return 0.0;
-    }
-
     private record LatLon(double lat, double lon) {}
+
+    record BatchItem(String value, boolean acctId) {}
 }
@@ -6,28 +6,84 @@ import static java.lang.Math.min;
 import static java.lang.Math.pow;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
 import com.example.farm_planner.analysis.model.EconResult;
 import com.example.farm_planner.analysis.model.EconomicInputs;
 import com.example.farm_planner.analysis.model.QuickAnalysisResult;
+import com.example.farm_planner.geo.GeoJsonGeometry;
 import com.example.farm_planner.parcel.dto.ParcelResponse;
+import com.example.farm_planner.rules.Rules;
 import com.example.farm_planner.rules.RulesService;
 
+/**
+ * Fit and economics. The fit is a flat-rate estimate (usable area after the setback and
+ * infrastructure percentages, divided by the per-house area) capped by the houses the
+ * siting search actually places on the parcel's polygon, so a long narrow strip is not
+ * credited with houses its setback leaves no room for. Without geometry, or without a
+ * {@link SitingService} (tests, benchmarks), only the flat-rate estimate is used.
+ */
 @Service
 public class AnalysisService {
 
     private final RulesService rules;
+    private final SitingService siting;
 
+    /** Flat-rate estimate only. */
     public AnalysisService(RulesService rules) {
+        this(rules, null);
+    }
+
+    @Autowired
+    public AnalysisService(RulesService rules, SitingService siting) {
         this.rules = rules;
+        this.siting = siting;
     }
 
     /* =========================================================
        STEP 1: FIT — Given a parcel, decide how many houses fit
        ========================================================= */
     public QuickAnalysisResult fit(ParcelResponse parcel) {
+        return fit(parcel, rules.forGeometry(parcel == null ? null : parcel.geometry()));
+    }
+
+    /** Fit against an explicit county's rules (one consistent snapshot for the whole call). */
+    public QuickAnalysisResult fit(ParcelResponse parcel, Rules r) {
+        QuickAnalysisResult flat = flatFit(parcel, r);
+        if (siting == null || flat.maxHouses() == 0) return flat;
+        double[][][] polygons = GeoJsonGeometry.polygons(parcel.geometry());
+        return polygons.length == 0 ? flat : byShape(flat, siting.houses(polygons, r, flat.maxHouses()), r);
+    }
+
+    /**
+     * Fit of a snapshot parcel, for passes over the whole snapshot: the shape is checked with the
+     * coarser bulk search of {@link SitingService#housesEstimate}.
+     */
+    public QuickAnalysisResult fit(ParcelResponse parcel, double[][][] polygons, Rules r) {
+        QuickAnalysisResult flat = flatFit(parcel, r);
+        if (siting == null || flat.maxHouses() == 0 || polygons.length == 0) return flat;
+        return byShape(flat, siting.housesEstimate(polygons, r, flat.maxHouses()), r);
+    }
+
+    /** {@link #fit(ParcelResponse, Rules)} on the compute pool; null rules pick the parcel's county. */
+    public CompletableFuture<QuickAnalysisResult> fitAsync(ParcelResponse parcel, Rules r) {
+        if (siting == null) return CompletableFuture.completedFuture(r == null ? fit(parcel) : fit(parcel, r));
+        return siting.async(() -> r == null ? fit(parcel) : fit(parcel, r));
+    }
+
+    private static QuickAnalysisResult byShape(QuickAnalysisResult flat, int placed, Rules r) {
+        if (placed >= flat.maxHouses()) return flat;
+        List<String> notes = new ArrayList<>(flat.messages());
+        notes.add("Parcel shape leaves room for " + placed + " house" + (placed == 1 ? "" : "s")
+                + " inside the " + Math.round(r.setbackFt()) + " ft setback.");
+        return new QuickAnalysisResult(true, flat.acctId(), flat.parcelAcres(), flat.usableAcres(),
+                flat.perHouseSqFt(), placed, notes);
+    }
+
+    private QuickAnalysisResult flatFit(ParcelResponse parcel, Rules r) {
         List<String> notes = new ArrayList<>();
 
         if (parcel == null) {
@@ -37,22 +93,22 @@ public class AnalysisService {
 
         double acres = round2(nz(parcel.acres()));
         if (acres <= 0) {
-            return new QuickAnalysisResult(true, parcel.acctId(), 0, 0, perHouseSqFtCapped(), 0,
+            return new QuickAnalysisResult(true, parcel.acctId(), 0, 0, r.perHouseSqFtCapped(), 0,
                     List.of("Parcel area is missing or zero."));
         }
-        if (acres < rules.minParcelAcres()) {
-            notes.add("Parcel below minimum size (" + rules.minParcelAcres() + " acres).");
-            return new QuickAnalysisResult(true, parcel.acctId(), acres, 0, perHouseSqFtCapped(), 0, notes);
+        if (acres < r.minParcelAcres()) {
+            notes.add("Parcel below minimum size (" + r.minParcelAcres() + " acres).");
+            return new QuickAnalysisResult(true, parcel.acctId(), acres, 0, r.perHouseSqFtCapped(), 0, notes);
         }
 
         // Usable acreage after losses
         double usable = acres;
-        usable *= (1 - clampPct(rules.setbackLossPct(), notes, "setbackLossPct"));
-        usable *= (1 - clampPct(rules.infraLossPct(), notes, "infraLossPct"));
+        usable *= (1 - clampPct(r.setbackLossPct(), notes, "setbackLossPct"));
+        usable *= (1 - clampPct(r.infraLossPct(), notes, "infraLossPct"));
         usable = max(0, round2(usable));
 
         // Per-house size (capped by county to 40,000 ft²)
-        double perHouseSqFt = perHouseSqFtCapped();
+        double perHouseSqFt = r.perHouseSqFtCapped();
         if (perHouseSqFt <= 0) {
             notes.add("Invalid house dimensions/cap.");
             return new QuickAnalysisResult(true, parcel.acctId(), acres, usable, 0, 0, notes);
@@ -61,17 +117,16 @@ public class AnalysisService {
         // How many houses fit?
         double usableSqFt = acresToSqFt(usable);
         int theoretical = (int) floor(usableSqFt / perHouseSqFt);
-        int houses = min(theoretical, rules.maxHousesPerParcel());
+        int houses = min(theoretical, r.maxHousesPerParcel());
         houses = max(0, houses);
 
         if (houses == 0) notes.add("Usable area too small for one house (<= 40,000 ft² cap).");
 
-        double rawHouseSqFt = rules.houseWidthFt() * rules.houseLengthFt();
-        if (perHouseSqFt < rawHouseSqFt) {
+        if (perHouseSqFt < r.rawHouseSqFt()) {
             notes.add("Per-house area limited to 40,000 ft² by county rules.");
         }
         if (theoretical > houses) {
-            notes.add("Capped by county max of " + rules.maxHousesPerParcel() + " houses.");
+            notes.add("Capped by county max of " + r.maxHousesPerParcel() + " houses.");
         }
 
         return new QuickAnalysisResult(true, parcel.acctId(), acres, usable, perHouseSqFt, houses, notes);
@@ -99,8 +154,8 @@ public class AnalysisService {
         double totalCoveredSqFt = houses * fit.perHouseSqFt();
 
         // Your given rules
-        double annualIncome      = round2(totalCoveredSqFt * 2.5); // income = area * 2.5
-        double annualOpsExpense  = round2(totalCoveredSqFt * 0.5); // ops = area * 0.5
+        double annualIncome      = annualIncome(totalCoveredSqFt);     // income = area * 2.5
+        double annualOpsExpense  = annualOpsExpense(totalCoveredSqFt); // ops = area * 0.5
         double annualWorkerCost  = workerCost(econ);               // workers * weekly * 52
         double annualLoanPayment = loanAnnual(econ);               // annuity (annual compounding)
         double annualNetRevenue  = round2(annualIncome - (annualOpsExpense + annualWorkerCost + annualLoanPayment));
@@ -113,11 +168,6 @@ public class AnalysisService {
        Helpers / calculations
        ====================== */
 
-    private double perHouseSqFtCapped() {
-        return min(rules.houseWidthFt() * rules.houseLengthFt(),
-                   rules.perHouseAreaLimitSqFt());
-    }
-
     private double clampPct(double v, List<String> notes, String name) {
         if (v < 0) { notes.add(name + " < 0; clamped to 0."); return 0; }
         if (v > 0.95) { notes.add(name + " > 0.95; clamped to 0.95."); return 0.95; }
@@ -125,12 +175,9 @@ public class AnalysisService {
     }
 
     private double workerCost(EconomicInputs econ) {
-        int workers = max(0, econ.workers());
-        double weekly = max(0, econ.weeklyPayPerWorker());
-        return round2(workers * weekly * 52.0);
+        return workerCost(econ.workers(), econ.weeklyPayPerWorker());
     }
 
-    /** Annual amortized payment with annual compounding & payments (demo-friendly). */
     private double loanAnnual(EconomicInputs econ) {
         double price = max(0, econ.landPrice());
         double down = 0;
@@ -139,19 +186,31 @@ public class AnalysisService {
         } else if (econ.downPaymentPct() != null) {
             down = price * clamp01(econ.downPaymentPct());
         }
-        double principal = max(0, price - down);
+        return loanAnnual(max(0, price - down), econ.annualInterestRatePct(), econ.years());
+    }
 
-        int years = max(1, econ.years());
-        double r = max(0, econ.annualInterestRatePct()) / 100.0;
+    // The econ model itself; static so EconSweepService evaluates exactly the same arithmetic.
+
+    static double annualIncome(double coveredSqFt)     { return round2(coveredSqFt * 2.5); }
+    static double annualOpsExpense(double coveredSqFt) { return round2(coveredSqFt * 0.5); }
+
+    static double workerCost(int workers, double weeklyPay) {
+        return round2(max(0, workers) * max(0, weeklyPay) * 52.0);
+    }
+
+    /** Annual amortized payment with annual compounding & payments (demo-friendly). */
+    static double loanAnnual(double principal, double annualInterestRatePct, int years) {
+        int n = max(1, years);
+        double r = max(0, annualInterestRatePct) / 100.0;
 
-        if (r == 0) return round2(principal / years);
+        if (r == 0) return round2(principal / n);
 
-        double annuity = principal * r / (1 - pow(1 + r, -years));
+        double annuity = principal * r / (1 - pow(1 + r, -n));
         return round2(annuity);
     }
 
-    private double clamp01(double v) { return max(0, min(1, v)); }
+    static double clamp01(double v) { return max(0, min(1, v)); }
+    static double round2(double v) { return Math.round(v * 100.0) / 100.0; }
     private double acresToSqFt(double a) { return a * 43_560.0; }
     private double nz(Double d) { return d == null ? 0.0 : d; }
-    private double round2(double v) { return Math.round(v * 100.0) / 100.0; }
 }
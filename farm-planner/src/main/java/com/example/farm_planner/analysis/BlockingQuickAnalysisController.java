@@ -0,0 +1,82 @@
+package com.example.farm_planner.analysis;
+
+import java.util.Map;
+import java.util.Optional;
+
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.example.farm_planner.config.PipelineMetrics;
+import com.example.farm_planner.parcel.BlockingGeocoderService;
+import com.example.farm_planner.parcel.BlockingParcelService;
+import com.example.farm_planner.parcel.dto.ParcelResponse;
+import com.example.farm_planner.rules.CountyRules;
+import com.example.farm_planner.rules.RulesService;
+
+/**
+ * STEP 1 written straight-line for the "virtual" profile: each request runs on its own
+ * virtual thread and simply blocks on the upstream calls. Same responses as
+ * {@link QuickAnalysisController}.
+ */
+@RestController
+@RequestMapping("/api/analysis")
+@Profile("virtual")
+public class BlockingQuickAnalysisController {
+
+    private final BlockingParcelService parcelService;
+    private final BlockingGeocoderService geocoderService;
+    private final AnalysisService analysisService;
+    private final RulesService rulesService;
+    private final PipelineMetrics metrics;
+
+    public BlockingQuickAnalysisController(BlockingParcelService parcelService,
+                                           BlockingGeocoderService geocoderService,
+                                           AnalysisService analysisService,
+                                           RulesService rulesService,
+                                           PipelineMetrics metrics) {
+        this.parcelService = parcelService;
+        this.geocoderService = geocoderService;
+        this.analysisService = analysisService;
+        this.rulesService = rulesService;
+        this.metrics = metrics;
+    }
+
+    /** STEP 1: Address -> Parcel -> Fit analysis (blocking) */
+    @PostMapping("/quick")
+    public ResponseEntity<Object> search(@RequestBody Map<String, String> body) {
+        String address = body.get("address");
+        if (address == null || address.isBlank()) {
+            return ResponseEntity.badRequest().body(Map.of("error", "Missing 'address'"));
+        }
+        String countyName = body.get("county");
+        Optional<CountyRules> county = rulesService.forCounty(countyName);
+        if (countyName != null && !countyName.isBlank() && county.isEmpty()) {
+            return QuickAnalysisController.unknownCounty(countyName);
+        }
+
+        try {
+            Optional<ParcelResponse> parcel = geocoderService.findParcel(address);
+            if (parcel.isEmpty()) {
+                Optional<double[]> ll = geocoderService.geocode(address)
+                    .filter(QuickAnalysisController::validLatLon);
+                if (ll.isEmpty()) {
+                    return QuickAnalysisController.notFound(address, "Address could not be geocoded.");
+                }
+                parcel = parcelService.findByPoint(ll.get()[0], ll.get()[1]);
+            }
+            if (parcel.isEmpty()) {
+                return QuickAnalysisController.notFound(address, "Parcel not found.");
+            }
+            ParcelResponse found = parcel.get();
+            return QuickAnalysisController.found(address, metrics.timed("analysis.fit",
+                () -> QuickAnalysisController.fit(analysisService, found, county)));
+        } catch (RuntimeException ex) {
+            if (QuickAnalysisController.overloaded(ex)) return QuickAnalysisController.unavailable(address, ex);
+            return QuickAnalysisController.notFound(address, "Geocoding/parcel lookup failed: " + ex.getMessage());
+        }
+    }
+}
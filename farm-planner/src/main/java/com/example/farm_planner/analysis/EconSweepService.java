@@ -0,0 +1,229 @@
+package com.example.farm_planner.analysis;
+
+import static java.lang.Math.max;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+
+import com.example.farm_planner.analysis.model.EconSweepRequest;
+import com.example.farm_planner.analysis.model.EconSweepRequest.Range;
+import com.example.farm_planner.analysis.model.EconSweepResult;
+import com.example.farm_planner.analysis.model.QuickAnalysisResult;
+
+/**
+ * Evaluates the econ model over the cartesian grid of an {@link EconSweepRequest}.
+ *
+ * Work is split by rows (every axis but landPrice) with fork-join on the shared compute
+ * pool. Summary statistics are folded per task, so memory does not grow with the grid:
+ * the per-point net column and the per-row break-even column are only materialized while
+ * they fit {@code maxColumnPoints}; beyond that only the summary is returned. Grids above
+ * {@code maxPoints} are rejected.
+ */
+@Service
+public class EconSweepService {
+
+    // split until a task covers at most this many points
+    private static final long LEAF_POINTS = 1 << 15;
+
+    private final ForkJoinPool pool;
+    private final long maxPoints;
+    private final int maxColumnPoints;
+
+    public EconSweepService(ForkJoinPool computePool,
+                            @Value("${app.analysis.sweep.maxPoints:50000000}") long maxPoints,
+                            @Value("${app.analysis.sweep.maxColumnPoints:1000000}") int maxColumnPoints) {
+        this.pool = computePool;
+        this.maxPoints = maxPoints;
+        this.maxColumnPoints = maxColumnPoints;
+    }
+
+    public CompletableFuture<EconSweepResult> sweepAsync(EconSweepRequest req) {
+        Grid grid = grid(req); // validate on the caller's thread
+        return CompletableFuture.supplyAsync(() -> sweep(req.fit(), grid), pool);
+    }
+
+    public EconSweepResult sweep(EconSweepRequest req) {
+        return sweep(req.fit(), grid(req));
+    }
+
+    private EconSweepResult sweep(QuickAnalysisResult fit, Grid g) {
+        List<String> notes = new ArrayList<>();
+        if (!fit.found()) {
+            return new EconSweepResult(false, 0, g.shape(), g.landPrice, g.downPct, g.ratePct, g.years, g.workers,
+                    null, null, null, List.of("Parcel not found. Run /api/parcels/search first."));
+        }
+        boolean eligible = fit.maxHouses() > 0;
+        double covered = eligible ? fit.maxHouses() * fit.perHouseSqFt() : 0;
+        double income = eligible ? AnalysisService.annualIncome(covered) : 0;
+        double ops = eligible ? AnalysisService.annualOpsExpense(covered) : 0;
+        if (!eligible) notes.add("No houses fit on this parcel — net revenue is costs only.");
+
+        double[] workerCost = new double[g.workers.length];
+        for (int w = 0; w < workerCost.length; w++) {
+            workerCost[w] = AnalysisService.workerCost(g.workers[w], g.weeklyPay);
+        }
+
+        long rows = g.points / g.landPrice.length;
+        double[] net = g.points <= maxColumnPoints ? new double[(int) g.points] : null;
+        double[] frontier = rows <= maxColumnPoints ? new double[(int) rows] : null;
+        if (net == null) {
+            notes.add("Per-point results omitted: " + g.points + " points exceed the column budget of "
+                    + maxColumnPoints + "; the summary covers every point.");
+        }
+
+        Acc acc = pool.invoke(new RowTask(g, income, ops, workerCost, net, frontier, 0, rows));
+
+        var summary = new EconSweepResult.Summary(g.point(acc.maxIdx, acc.max), g.point(acc.minIdx, acc.min),
+                AnalysisService.round2(acc.sum / g.points), acc.profitable);
+        return new EconSweepResult(eligible, g.points, g.shape(), g.landPrice, g.downPct, g.ratePct,
+                g.years, g.workers, net, frontier, summary, notes);
+    }
+
+    /* ---------- grid ---------- */
+
+    private Grid grid(EconSweepRequest req) {
+        if (req == null || req.fit() == null || req.landPrice() == null) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "'fit' and 'landPrice' are required");
+        }
+        long points = 1;
+        for (Range axis : new Range[] { req.landPrice(), req.downPaymentPct(), req.annualInterestRatePct(),
+                req.years(), req.workers() }) {
+            // checked per axis, so a product past Long.MAX_VALUE cannot wrap under the limit
+            points = Math.multiplyExact(points, size(axis));
+            if (points > maxPoints) {
+                throw new ResponseStatusException(HttpStatus.PAYLOAD_TOO_LARGE,
+                        "Sweep of " + describe(req) + " points exceeds the limit of " + maxPoints);
+            }
+        }
+        return new Grid(points, req.weeklyPayPerWorker(),
+                req.landPrice().values(),
+                values(req.downPaymentPct(), 0),
+                values(req.annualInterestRatePct(), 0),
+                whole(values(req.years(), 1)),
+                whole(values(req.workers(), 0)));
+    }
+
+    private static long size(Range r) {
+        return r == null ? 1 : r.size();
+    }
+
+    private static String describe(EconSweepRequest req) {
+        return size(req.landPrice()) + "x" + size(req.downPaymentPct()) + "x" + size(req.annualInterestRatePct())
+                + "x" + size(req.years()) + "x" + size(req.workers());
+    }
+
+    private static double[] values(Range r, double dflt) {
+        return r == null ? new double[] { dflt } : r.values();
+    }
+
+    private static int[] whole(double[] v) {
+        int[] out = new int[v.length];
+        for (int i = 0; i < v.length; i++) out[i] = (int) Math.round(v[i]);
+        return out;
+    }
+
+    private record Grid(long points, double weeklyPay, double[] landPrice, double[] downPct, double[] ratePct,
+                        int[] years, int[] workers) {
+
+        int[] shape() {
+            return new int[] { workers.length, years.length, ratePct.length, downPct.length, landPrice.length };
+        }
+
+        EconSweepResult.Point point(long index, double net) {
+            if (index < 0) return null;
+            int l = (int) (index % landPrice.length);
+            long row = index / landPrice.length;
+            int d = (int) (row % downPct.length); row /= downPct.length;
+            int r = (int) (row % ratePct.length); row /= ratePct.length;
+            int y = (int) (row % years.length);   row /= years.length;
+            int w = (int) row;
+            return new EconSweepResult.Point(landPrice[l], downPct[d], ratePct[r], years[y], workers[w], net);
+        }
+    }
+
+    /* ---------- fork-join ---------- */
+
+    /** Running summary of a range of points; merged pairwise up the task tree. */
+    private static final class Acc {
+        double max = Double.NEGATIVE_INFINITY, min = Double.POSITIVE_INFINITY, sum;
+        long maxIdx = -1, minIdx = -1, profitable;
+
+        Acc merge(Acc o) {
+            // ties keep the lower index, so results do not depend on scheduling
+            if (o.max > max || (o.max == max && o.maxIdx < maxIdx)) { max = o.max; maxIdx = o.maxIdx; }
+            if (o.min < min || (o.min == min && o.minIdx < minIdx)) { min = o.min; minIdx = o.minIdx; }
+            sum += o.sum;
+            profitable += o.profitable;
+            return this;
+        }
+    }
+
+    private static final class RowTask extends RecursiveTask<Acc> {
+        private final Grid g;
+        private final double income, ops;
+        private final double[] workerCost, net, frontier;
+        private final long lo, hi;
+
+        RowTask(Grid g, double income, double ops, double[] workerCost, double[] net, double[] frontier,
+                long lo, long hi) {
+            this.g = g;
+            this.income = income;
+            this.ops = ops;
+            this.workerCost = workerCost;
+            this.net = net;
+            this.frontier = frontier;
+            this.lo = lo;
+            this.hi = hi;
+        }
+
+        @Override
+        protected Acc compute() {
+            if (hi - lo > 1 && (hi - lo) * g.landPrice.length > LEAF_POINTS) {
+                long mid = (lo + hi) >>> 1;
+                RowTask left = new RowTask(g, income, ops, workerCost, net, frontier, lo, mid);
+                left.fork();
+                Acc right = new RowTask(g, income, ops, workerCost, net, frontier, mid, hi).compute();
+                return left.join().merge(right);
+            }
+            Acc acc = new Acc();
+            int nl = g.landPrice.length;
+            for (long row = lo; row < hi; row++) {
+                long rest = row;
+                double downPct = AnalysisService.clamp01(g.downPct[(int) (rest % g.downPct.length)]);
+                rest /= g.downPct.length;
+                double ratePct = g.ratePct[(int) (rest % g.ratePct.length)];
+                rest /= g.ratePct.length;
+                int years = g.years[(int) (rest % g.years.length)];
+                rest /= g.years.length;
+                double fixed = ops + workerCost[(int) rest];
+
+                double breakEven = -1;
+                long base = row * nl;
+                for (int l = 0; l < nl; l++) {
+                    double price = max(0, g.landPrice[l]);
+                    double loan = AnalysisService.loanAnnual(max(0, price - price * downPct), ratePct, years);
+                    double v = AnalysisService.round2(income - (fixed + loan));
+                    long idx = base + l;
+                    if (net != null) net[(int) idx] = v;
+                    if (v > acc.max) { acc.max = v; acc.maxIdx = idx; }
+                    if (v < acc.min) { acc.min = v; acc.minIdx = idx; }
+                    acc.sum += v;
+                    if (v >= 0) {
+                        acc.profitable++;
+                        breakEven = max(breakEven, g.landPrice[l]);
+                    }
+                }
+                if (frontier != null) frontier[(int) row] = breakEven;
+            }
+            return acc;
+        }
+    }
+}
@@ -0,0 +1,141 @@
+package com.example.farm_planner.analysis;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.example.farm_planner.analysis.model.QuickAnalysisResult;
+import com.example.farm_planner.config.OutboundRejectedException;
+import com.example.farm_planner.config.PipelineMetrics;
+import com.example.farm_planner.config.UpstreamUnavailableException;
+import com.example.farm_planner.parcel.GeocoderService;
+import com.example.farm_planner.parcel.ParcelService;
+import com.example.farm_planner.rules.CountyRules;
+import com.example.farm_planner.parcel.dto.ParcelResponse;
+import com.example.farm_planner.rules.RulesService;
+
+import reactor.core.publisher.Mono;
+
+/** STEP 1 on the reactive clients (servlet and reactive run modes). */
+@RestController
+@RequestMapping("/api/analysis")
+@Profile("!virtual")
+public class QuickAnalysisController {
+
+    private final ParcelService parcelService;
+    private final GeocoderService geocoderService;
+    private final AnalysisService analysisService;
+    private final RulesService rulesService;
+    private final PipelineMetrics metrics;
+
+    public QuickAnalysisController(ParcelService parcelService,
+                                   GeocoderService geocoderService,
+                                   AnalysisService analysisService,
+                                   RulesService rulesService,
+                                   PipelineMetrics metrics) {
+        this.parcelService = parcelService;
+        this.geocoderService = geocoderService;
+        this.analysisService = analysisService;
+        this.rulesService = rulesService;
+        this.metrics = metrics;
+    }
+
+    /**
+     * STEP 1: Address -> Parcel -> Fit analysis (reactive).
+     * Optional "county" picks that county's rules; otherwise the parcel's location decides.
+     * A full outbound queue or an open circuit answers 503 with Retry-After, not "not found".
+     */
+    @PostMapping("/quick")
+    public Mono<ResponseEntity<Object>> search(@RequestBody Map<String, String> body) {
+        String address = body.get("address");
+        if (address == null || address.isBlank()) {
+            return Mono.just(ResponseEntity.badRequest()
+                    .body(Map.of("error", "Missing 'address'")));
+        }
+        String countyName = body.get("county");
+        Optional<CountyRules> county = rulesService.forCounty(countyName);
+        if (countyName != null && !countyName.isBlank() && county.isEmpty()) {
+            return Mono.just(unknownCounty(countyName));
+        }
+
+        // the shape check runs on the compute pool, off the event loop
+        Function<ParcelResponse, Mono<ResponseEntity<Object>>> analyzed =
+            parcel -> metrics.timed("analysis.fit", Mono.fromFuture(() -> analysisService.fitAsync(parcel,
+                    county.map(CountyRules::rules).orElse(null))))
+                .map(fit -> found(address, fit));
+        return geocoderService.findParcel(address)       // in-county: straight from the snapshot
+            .flatMap(analyzed)
+            .switchIfEmpty(Mono.defer(() -> geocoderService.geocode(address)  // Mono<double[]> (lat, lon)
+                .filter(QuickAnalysisController::validLatLon)
+                .flatMap(ll -> parcelService.findByPoint(ll[0], ll[1])
+                    .flatMap(analyzed)
+                    .defaultIfEmpty(notFound(address, "Parcel not found."))
+                )
+                .defaultIfEmpty(notFound(address, "Address could not be geocoded."))))
+            .onErrorResume(QuickAnalysisController::overloaded, ex -> Mono.just(unavailable(address, ex)))
+            .onErrorResume(ex -> Mono.just(notFound(address, "Geocoding/parcel lookup failed: " + ex.getMessage())));
+    }
+
+    /* ---------------- Helpers (shared with BlockingQuickAnalysisController) ---------------- */
+
+    static QuickAnalysisResult fit(AnalysisService analysis, ParcelResponse parcel, Optional<CountyRules> county) {
+        return county.map(c -> analysis.fit(parcel, c.rules())).orElseGet(() -> analysis.fit(parcel));
+    }
+
+    static ResponseEntity<Object> unknownCounty(String county) {
+        return ResponseEntity.badRequest().body(Map.of("error", "Unknown county '" + county + "'"));
+    }
+
+    static boolean validLatLon(double[] coords) {
+        if (coords == null || coords.length < 2) return false;
+        double lat = coords[0], lon = coords[1];
+        return lat >= -90 && lat <= 90 && lon >= -180 && lon <= 180;
+    }
+
+    static ResponseEntity<Object> found(String address, QuickAnalysisResult fit) {
+        if (!fit.found()) {
+            return ResponseEntity.ok(Map.of(
+                "found", false,
+                "address", address,
+                "messages", fit.messages()
+            ));
+        }
+        return ResponseEntity.ok((Object) fit);
+    }
+
+    /** Upstream queue full or circuit open: worth retrying later, unlike a failed lookup. */
+    static boolean overloaded(Throwable ex) {
+        return ex instanceof OutboundRejectedException || ex instanceof UpstreamUnavailableException;
+    }
+
+    static ResponseEntity<Object> unavailable(String address, Throwable ex) {
+        long retryAfter = ex instanceof OutboundRejectedException rejected
+            ? rejected.retryAfterSeconds()
+            : ((UpstreamUnavailableException) ex).retryInSeconds();
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+            .header(HttpHeaders.RETRY_AFTER, Long.toString(retryAfter))
+            .body(Map.of(
+                "found", false,
+                "address", address,
+                "messages", List.of(ex.getMessage())
+            ));
+    }
+
+    static ResponseEntity<Object> notFound(String address, String message) {
+        return ResponseEntity.ok(Map.of(
+            "found", false,
+            "address", address,
+            "messages", List.of(message)
+        ));
+    }
+}
@@ -0,0 +1,284 @@
+package com.example.farm_planner.analysis;
+
+import static java.lang.Math.max;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.SplittableRandom;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.stream.IntStream;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+
+import com.example.farm_planner.analysis.model.SimulationRequest;
+import com.example.farm_planner.analysis.model.SimulationRequest.Dist;
+import com.example.farm_planner.analysis.model.SimulationResult;
+import com.example.farm_planner.analysis.model.SimulationResult.Bands;
+import com.example.farm_planner.analysis.model.QuickAnalysisResult;
+
+/**
+ * Monte Carlo projection of yearly cash flows over the loan term.
+ *
+ * Each path draws its loan rate once, then per year draws income and ops cost per sq ft
+ * and compounds wage growth. Paths are split into fork-join tasks on the shared compute
+ * pool; every task gets its own {@link SplittableRandom} split off the parent in a fixed
+ * order, so a given seed reproduces the same result however the tasks are scheduled.
+ *
+ * Results go straight into per-year float columns (no per-path objects); percentiles are
+ * then picked out of each year's column with in-place quickselect rather than a full sort.
+ */
+@Service
+public class SimulationService {
+
+    private static final int LEAF_PATHS = 2_048;
+
+    private final ForkJoinPool pool;
+    private final int defaultPaths;
+    private final int maxPaths;
+    private final int maxYears;
+
+    public SimulationService(ForkJoinPool computePool,
+                             @Value("${app.analysis.simulation.defaultPaths:20000}") int defaultPaths,
+                             @Value("${app.analysis.simulation.maxPaths:200000}") int maxPaths,
+                             @Value("${app.analysis.simulation.maxYears:50}") int maxYears) {
+        this.pool = computePool;
+        this.defaultPaths = defaultPaths;
+        this.maxPaths = maxPaths;
+        this.maxYears = maxYears;
+    }
+
+    public CompletableFuture<SimulationResult> simulateAsync(SimulationRequest req) {
+        validate(req);
+        return CompletableFuture.supplyAsync(() -> simulate(req), pool);
+    }
+
+    public SimulationResult simulate(SimulationRequest req) {
+        validate(req);
+        QuickAnalysisResult fit = req.fit();
+        int years = max(1, req.years());
+        int paths = req.paths() == null ? defaultPaths : req.paths();
+        long seed = req.seed() != null ? req.seed() : new SplittableRandom().nextLong();
+        List<String> notes = new ArrayList<>();
+
+        if (!fit.found()) {
+            return new SimulationResult(false, 0, years, seed, 0, null, null, null, 0, 0,
+                    List.of("Parcel not found. Run /api/parcels/search first."));
+        }
+        boolean eligible = fit.maxHouses() > 0;
+        if (!eligible) notes.add("No houses fit on this parcel — cash flow is costs only.");
+
+        double price = max(0, req.landPrice());
+        double down = req.downPaymentAmount() != null ? max(0, req.downPaymentAmount())
+                : req.downPaymentPct() != null ? price * AnalysisService.clamp01(req.downPaymentPct()) : 0;
+
+        Model m = new Model(
+                eligible ? fit.maxHouses() * fit.perHouseSqFt() : 0,
+                AnalysisService.workerCost(req.workers(), req.weeklyPayPerWorker()),
+                max(0, price - down),
+                years,
+                Sampler.of(req.incomePerSqFt(), 2.5),
+                Sampler.of(req.opsPerSqFt(), 0.5),
+                Sampler.of(req.wageGrowthPct(), 0),
+                Sampler.of(req.interestRatePct(), 0));
+
+        float[] annual = new float[years * paths];       // [year * paths + path]
+        float[] cumulative = new float[years * paths];
+        float[] payment = new float[paths];
+        long anyNegative = pool.invoke(new PathTask(m, paths, annual, cumulative, payment,
+                new SplittableRandom(seed), 0, paths));
+
+        double[] probNeg = new double[years];
+        double[] cumulativeNeg = new double[years];
+        Bands annualBands = bands(annual, years, paths, probNeg);
+        Bands cumulativeBands = bands(cumulative, years, paths, cumulativeNeg);
+        select(payment, 0, paths, paths / 2);
+
+        return new SimulationResult(eligible, paths, years, seed, AnalysisService.round2(payment[paths / 2]),
+                annualBands, cumulativeBands, probNeg, (double) anyNegative / paths,
+                cumulativeNeg[years - 1], notes);
+    }
+
+    private void validate(SimulationRequest req) {
+        if (req == null || req.fit() == null) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "'fit' is required");
+        }
+        int paths = req.paths() == null ? defaultPaths : req.paths();
+        if (paths < 1 || paths > maxPaths || req.years() > maxYears) {
+            throw new ResponseStatusException(HttpStatus.PAYLOAD_TOO_LARGE,
+                    "Simulation limited to " + maxPaths + " paths and " + maxYears + " years");
+        }
+        Sampler.of(req.incomePerSqFt(), 0);
+        Sampler.of(req.opsPerSqFt(), 0);
+        Sampler.of(req.wageGrowthPct(), 0);
+        Sampler.of(req.interestRatePct(), 0);
+    }
+
+    /* ---------- per-path simulation ---------- */
+
+    private record Model(double coveredSqFt, double baseWorkerCost, double principal, int years,
+                         Sampler income, Sampler ops, Sampler wageGrowth, Sampler rate) {}
+
+    /** Simulates paths [lo, hi); returns how many had at least one negative year. */
+    private static final class PathTask extends RecursiveTask<Long> {
+        private final Model m;
+        private final int paths;
+        private final float[] annual, cumulative, payment;
+        private final SplittableRandom rnd;
+        private final int lo, hi;
+
+        PathTask(Model m, int paths, float[] annual, float[] cumulative, float[] payment,
+                 SplittableRandom rnd, int lo, int hi) {
+            this.m = m;
+            this.paths = paths;
+            this.annual = annual;
+            this.cumulative = cumulative;
+            this.payment = payment;
+            this.rnd = rnd;
+            this.lo = lo;
+            this.hi = hi;
+        }
+
+        @Override
+        protected Long compute() {
+            if (hi - lo > LEAF_PATHS) {
+                int mid = (lo + hi) >>> 1;
+                // split before forking so each subtree's stream is fixed by the seed alone
+                PathTask left = new PathTask(m, paths, annual, cumulative, payment, rnd.split(), lo, mid);
+                PathTask right = new PathTask(m, paths, annual, cumulative, payment, rnd, mid, hi);
+                left.fork();
+                long r = right.compute();
+                return left.join() + r;
+            }
+            long anyNegative = 0;
+            for (int p = lo; p < hi; p++) {
+                double loan = AnalysisService.loanAnnual(m.principal(), m.rate().sample(rnd), m.years());
+                payment[p] = (float) loan;
+                double wage = m.baseWorkerCost();
+                double cum = 0;
+                boolean negative = false;
+                for (int y = 0; y < m.years(); y++) {
+                    double net = m.coveredSqFt() * (m.income().sample(rnd) - m.ops().sample(rnd)) - wage - loan;
+                    cum += net;
+                    annual[y * paths + p] = (float) net;
+                    cumulative[y * paths + p] = (float) cum;
+                    negative |= net < 0;
+                    wage *= 1 + m.wageGrowth().sample(rnd) / 100.0;
+                }
+                if (negative) anyNegative++;
+            }
+            return anyNegative;
+        }
+    }
+
+    /* ---------- distributions ---------- */
+
+    private enum Kind { FIXED, NORMAL, UNIFORM, TRIANGULAR }
+
+    /** Immutable, primitive-only sampler compiled from a {@link Dist}. */
+    private record Sampler(Kind kind, double mean, double sd, double min, double max, double mode) {
+
+        static Sampler of(Dist d, double dflt) {
+            if (d == null) return new Sampler(Kind.FIXED, dflt, 0, dflt, dflt, dflt);
+            String type = d.type() == null ? "fixed" : d.type().toLowerCase(Locale.ROOT);
+            double lo = d.min() == null ? Double.NEGATIVE_INFINITY : d.min();
+            double hi = d.max() == null ? Double.POSITIVE_INFINITY : d.max();
+            Sampler s = switch (type) {
+                case "fixed" -> new Sampler(Kind.FIXED, require(d.mean(), "mean"), 0, lo, hi, 0);
+                case "normal" -> new Sampler(Kind.NORMAL, require(d.mean(), "mean"), require(d.sd(), "sd"), lo, hi, 0);
+                case "uniform" -> new Sampler(Kind.UNIFORM, 0, 0, require(d.min(), "min"), require(d.max(), "max"), 0);
+                case "triangular" -> new Sampler(Kind.TRIANGULAR, 0, 0, require(d.min(), "min"), require(d.max(), "max"),
+                        require(d.mode(), "mode"));
+                default -> throw bad("Unknown distribution '" + d.type() + "'");
+            };
+            if (s.min > s.max || s.sd < 0 || (s.kind == Kind.TRIANGULAR && (s.mode < s.min || s.mode > s.max))) {
+                throw bad("Invalid " + type + " distribution " + d);
+            }
+            return s;
+        }
+
+        double sample(SplittableRandom r) {
+            return switch (kind) {
+                case FIXED -> mean;
+                case NORMAL -> Math.min(max, Math.max(min, mean + sd * r.nextGaussian()));
+                case UNIFORM -> min == max ? min : min + (max - min) * r.nextDouble();
+                case TRIANGULAR -> {
+                    double u = r.nextDouble(), span = max - min;
+                    if (span == 0) yield min;
+                    double f = (mode - min) / span;
+                    yield u < f ? min + Math.sqrt(u * span * (mode - min))
+                                : max - Math.sqrt((1 - u) * span * (max - mode));
+                }
+            };
+        }
+
+        private static double require(Double v, String name) {
+            if (v == null || !Double.isFinite(v)) throw bad("Distribution needs '" + name + "'");
+            return v;
+        }
+
+        private static ResponseStatusException bad(String msg) {
+            return new ResponseStatusException(HttpStatus.BAD_REQUEST, msg);
+        }
+    }
+
+    /* ---------- statistics ---------- */
+
+    private static final double[] PCTS = {0.05, 0.25, 0.50, 0.75, 0.95};
+
+    /** Percentiles, mean and share below zero for every year; column order is destroyed. */
+    private Bands bands(float[] cols, int years, int paths, double[] belowZero) {
+        double[][] out = new double[6][years];
+        pool.submit(() -> IntStream.range(0, years).parallel().forEach(y -> {
+            int from = y * paths, to = from + paths;
+            double sum = 0;
+            int negative = 0;
+            for (int i = from; i < to; i++) {
+                sum += cols[i];
+                if (cols[i] < 0) negative++;
+            }
+            // select p50 first, then the outer ranks inside the halves it leaves behind
+            int[] k = new int[PCTS.length];
+            for (int j = 0; j < PCTS.length; j++) k[j] = from + (int) Math.min(paths - 1, Math.floor(PCTS[j] * paths));
+            select(cols, from, to, k[2]);
+            select(cols, from, k[2], k[1]);
+            select(cols, from, k[1], k[0]);
+            select(cols, k[2] + 1, to, k[3]);
+            select(cols, k[3] + 1, to, k[4]);
+            for (int j = 0; j < PCTS.length; j++) out[j][y] = Math.round(cols[k[j]]);
+            out[5][y] = AnalysisService.round2(sum / paths);
+            if (belowZero != null) belowZero[y] = (double) negative / paths;
+        })).join();
+        return new Bands(out[0], out[1], out[2], out[3], out[4], out[5]);
+    }
+
+    /** Quickselect: afterwards a[k] holds the value it would have if a[lo, hi) were sorted. */
+    private static void select(float[] a, int lo, int hi, int k) {
+        if (k < lo || k >= hi) return;
+        int l = lo, r = hi - 1;
+        while (r > l) {
+            int m = (l + r) >>> 1;
+            // median of three as pivot
+            float x = a[l], y = a[m], z = a[r];
+            float pivot = x < y ? (y < z ? y : Math.max(x, z)) : (x < z ? x : Math.max(y, z));
+            int i = l, j = r;
+            while (i <= j) {
+                while (a[i] < pivot) i++;
+                while (a[j] > pivot) j--;
+                if (i <= j) {
+                    float t = a[i]; a[i] = a[j]; a[j] = t;
+                    i++;
+                    j--;
+                }
+            }
+            if (k <= j) r = j;
+            else if (k >= i) l = i;
+            else return;
+        }
+    }
+}
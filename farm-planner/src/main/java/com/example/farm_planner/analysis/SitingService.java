@@ -0,0 +1,125 @@
+package com.example.farm_planner.analysis;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.example.farm_planner.analysis.model.SitingResult;
+import com.example.farm_planner.geo.GeoJsonGeometry;
+import com.example.farm_planner.geo.SitingEngine;
+import com.example.farm_planner.parcel.dto.ParcelResponse;
+import com.example.farm_planner.rules.Rules;
+import com.example.farm_planner.rules.RulesService;
+
+/**
+ * Lays out house footprints on the parcel polygon (see {@link SitingEngine}).
+ *
+ * Runs on the shared compute pool (see ComputeConfig) so the orientation search never
+ * ties up request threads. {@link #houses} is the same search reduced to a count, which
+ * caps the flat-rate estimate of {@link AnalysisService#fit}; {@link #housesEstimate} uses
+ * the coarser bulk steps for passes over the whole snapshot (tiles, suitability index).
+ */
+@Service
+public class SitingService {
+
+    private final RulesService rules;
+    private final ForkJoinPool pool;
+    private final double angleStepDeg;
+    private final double slideStepFt;
+    private final double bulkAngleStepDeg;
+    private final double bulkSlideStepFt;
+
+    public SitingService(RulesService rules,
+                         ForkJoinPool computePool,
+                         @Value("${app.siting.angleStepDeg:2}") double angleStepDeg,
+                         @Value("${app.siting.slideStepFt:10}") double slideStepFt,
+                         @Value("${app.siting.bulkAngleStepDeg:10}") double bulkAngleStepDeg,
+                         @Value("${app.siting.bulkSlideStepFt:25}") double bulkSlideStepFt) {
+        this.rules = rules;
+        this.pool = computePool;
+        this.angleStepDeg = angleStepDeg;
+        this.slideStepFt = slideStepFt;
+        this.bulkAngleStepDeg = bulkAngleStepDeg;
+        this.bulkSlideStepFt = bulkSlideStepFt;
+    }
+
+    /** Houses {@link #site} would place on the polygons, counting no further than {@code upTo}. */
+    public int houses(double[][][] polygons, Rules r, int upTo) {
+        return SitingEngine.plan(polygons, spec(r, upTo, angleStepDeg, slideStepFt), pool).houses();
+    }
+
+    /** {@link #houses} with the bulk steps: a few ms for a large parcel instead of tens. */
+    public int housesEstimate(double[][][] polygons, Rules r, int upTo) {
+        return SitingEngine.plan(polygons, spec(r, upTo, bulkAngleStepDeg, bulkSlideStepFt), pool).houses();
+    }
+
+    /** Runs {@code call} on the compute pool. */
+    <T> CompletableFuture<T> async(Supplier<T> call) {
+        return CompletableFuture.supplyAsync(call, pool);
+    }
+
+    /** Site the parcel off the caller's thread; rules come from the parcel's county. */
+    public CompletableFuture<SitingResult> siteAsync(ParcelResponse parcel, Rules county) {
+        return CompletableFuture.supplyAsync(() -> site(parcel, county), pool);
+    }
+
+    /** @param county explicit rules, or null to pick them by the parcel's location */
+    public SitingResult site(ParcelResponse parcel, Rules county) {
+        if (parcel == null) {
+            return new SitingResult(false, null, 0, false, 0, 0, 0, 0, 0, null, List.of("Parcel not found."));
+        }
+        Rules r = county != null ? county : rules.forGeometry(parcel.geometry());
+        List<String> notes = new ArrayList<>();
+
+        double width = r.houseWidthFt();
+        double length = length(r);
+        if (length < r.houseLengthFt()) {
+            notes.add("House length shortened to " + Math.round(length) + " ft to stay within the per-house area cap.");
+        }
+
+        double[][][] polygons = GeoJsonGeometry.polygons(parcel.geometry());
+        if (polygons.length == 0) {
+            notes.add("Parcel has no polygon geometry.");
+            return new SitingResult(true, parcel.acctId(), 0, false, 0, width, length, r.setbackFt(), 0,
+                    featureCollection(new double[0][][]), notes);
+        }
+
+        var layout = SitingEngine.plan(polygons, spec(r, r.maxHousesPerParcel(), angleStepDeg, slideStepFt), pool);
+
+        boolean capped = layout.houses() >= r.maxHousesPerParcel();
+        if (layout.houses() == 0) notes.add("No house fits inside the " + r.setbackFt() + " ft setback.");
+        if (capped) notes.add("Capped by county max of " + r.maxHousesPerParcel() + " houses.");
+
+        return new SitingResult(true, parcel.acctId(), layout.houses(), capped, layout.angleDeg(),
+                width, length, r.setbackFt(), layout.orientations(),
+                featureCollection(layout.polygons()), notes);
+    }
+
+    // footprint keeps the house width and shortens the length to honour the area cap
+    private static double length(Rules r) {
+        return r.perHouseSqFtCapped() < r.rawHouseSqFt() && r.houseWidthFt() > 0
+                ? r.perHouseSqFtCapped() / r.houseWidthFt() : r.houseLengthFt();
+    }
+
+    private static SitingEngine.Spec spec(Rules r, int maxHouses, double angleStepDeg, double slideStepFt) {
+        return new SitingEngine.Spec(r.houseWidthFt(), length(r), r.houseSpacingFt(), r.setbackFt(),
+                maxHouses, angleStepDeg, slideStepFt);
+    }
+
+    private static Map<String, Object> featureCollection(double[][][] houses) {
+        List<Object> features = new ArrayList<>(houses.length);
+        for (int i = 0; i < houses.length; i++) {
+            features.add(Map.of(
+                    "type", "Feature",
+                    "properties", Map.of("house", i + 1),
+                    "geometry", GeoJsonGeometry.toGeometry(new double[][][] { houses[i] })));
+        }
+        return Map.of("type", "FeatureCollection", "features", features);
+    }
+}
@@ -0,0 +1,42 @@
+package com.example.farm_planner.analysis;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.example.farm_planner.analysis.model.SuitabilityResult;
+
+/**
+ * Ranked parcel queries over the precomputed {@link SuitabilityIndex}; the local
+ * counterpart of /api/parcels/addresses without the ArcGIS round trip.
+ */
+@RestController
+@RequestMapping("/api/parcels")
+public class SuitabilityController {
+
+    private static final int MAX_LIMIT = 1000;
+
+    private final SuitabilityIndex index;
+
+    public SuitabilityController(SuitabilityIndex index) {
+        this.index = index;
+    }
+
+    /**
+     * GET /api/parcels/suitability?town=Snow%20Hill&minHouses=4&minAcres=0&limit=50
+     * Parcels by house capacity (then usable acres), most first. 503 until the index is built
+     * (needs app.parcels.source=snapshot).
+     */
+    @GetMapping("/suitability")
+    public ResponseEntity<SuitabilityResult> suitability(
+            @RequestParam(required = false) String town,
+            @RequestParam(defaultValue = "1") int minHouses,
+            @RequestParam(defaultValue = "0") double minAcres,
+            @RequestParam(defaultValue = "50") int limit) {
+        SuitabilityResult res = index.query(town, minHouses, minAcres, Math.max(0, Math.min(limit, MAX_LIMIT)));
+        return res.ready() ? ResponseEntity.ok(res) : ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(res);
+    }
+}
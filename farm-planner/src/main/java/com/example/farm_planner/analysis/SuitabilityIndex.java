@@ -0,0 +1,379 @@
+package com.example.farm_planner.analysis;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.example.farm_planner.analysis.model.SuitabilityResult;
+import com.example.farm_planner.analysis.model.SuitabilityResult.Row;
+import com.example.farm_planner.geo.GeoJsonGeometry;
+import com.example.farm_planner.parcel.ParcelSnapshot;
+import com.example.farm_planner.parcel.ParcelSnapshotStore;
+import com.example.farm_planner.parcel.dto.ParcelResponse;
+import com.example.farm_planner.rules.CountyRules;
+import com.example.farm_planner.rules.RulesService;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * County-wide {@link AnalysisService#fit} results for every parcel in the local snapshot,
+ * held as a columnar table (primitive arrays plus a dictionary for SITUS) with rows
+ * pre-sorted by capacity, so ranked and filtered queries are a single array scan.
+ *
+ * A background thread checks every {@code app.suitability.checkInterval} whether the
+ * snapshot or any county's rules changed. A new snapshot is a full rebuild; a rules change
+ * only refits the rows of the counties whose version changed (everything, if county bounds
+ * moved). The table is written to {@code app.suitability.file} after each build and read
+ * back at startup when it still matches the snapshot file.
+ */
+@Service
+public class SuitabilityIndex {
+
+    private static final Logger log = LoggerFactory.getLogger(SuitabilityIndex.class);
+    private static final int FILE_MAGIC = 0x53554954; // "SUIT"
+    private static final int FILE_VERSION = 2; // 2: houses capped by the parcel shape
+
+    /** Rules a county's rows were fitted with. */
+    private record CountyStamp(String county, String version, double[] bounds) {}
+
+    /** One immutable build of the index; {@code order} lists rows by maxHouses, then usable acres, descending. */
+    private record Table(String snapshotKey, Instant builtAt, List<CountyStamp> counties,
+                         String[] acctId, String[] address, int[] situs, String[] situsDict,
+                         float[] acres, float[] usable, short[] houses, byte[] county, int[] order) {
+
+        int size() { return acctId.length; }
+    }
+
+    private final ParcelSnapshotStore store;
+    private final RulesService rules;
+    private final AnalysisService analysis;
+    private final ForkJoinPool pool;
+    private final Path file;
+    private final Duration checkInterval;
+    private volatile Table table;
+    private ScheduledExecutorService checker;
+
+    public SuitabilityIndex(ParcelSnapshotStore store, RulesService rules, AnalysisService analysis,
+                            ForkJoinPool computePool,
+                            @Value("${app.suitability.file:data/suitability-index.bin}") String file,
+                            @Value("${app.suitability.checkInterval:15s}") Duration checkInterval) {
+        this.store = store;
+        this.rules = rules;
+        this.analysis = analysis;
+        this.pool = computePool;
+        this.file = Path.of(file);
+        this.checkInterval = checkInterval;
+    }
+
+    @PostConstruct
+    void start() {
+        if (!store.enabled()) return;
+        checker = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "suitability-index");
+            t.setDaemon(true);
+            return t;
+        });
+        checker.scheduleWithFixedDelay(this::refreshQuietly, 0, checkInterval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    void stop() {
+        if (checker != null) checker.shutdownNow();
+    }
+
+    public boolean ready() {
+        return table != null;
+    }
+
+    /* ---------- queries ---------- */
+
+    /**
+     * Rows in capacity order matching every given filter: SITUS containing {@code town}
+     * (case-insensitive, like the ArcGIS LIKE in /api/parcels/addresses), at least
+     * {@code minHouses} houses and at least {@code minAcres} acres.
+     */
+    public SuitabilityResult query(String town, int minHouses, double minAcres, int limit) {
+        Table t = table;
+        if (t == null) return new SuitabilityResult(false, 0, null, Map.of(), List.of());
+
+        boolean[] townMatch = null;
+        if (town != null && !town.isBlank()) {
+            String needle = town.trim().toUpperCase(Locale.ROOT);
+            townMatch = new boolean[t.situsDict().length];
+            for (int d = 0; d < townMatch.length; d++) {
+                townMatch[d] = t.situsDict()[d].toUpperCase(Locale.ROOT).contains(needle);
+            }
+        }
+
+        List<Row> rows = new ArrayList<>(Math.min(limit, 256));
+        int matched = 0;
+        for (int r : t.order()) {
+            if (t.houses()[r] < minHouses) break; // sorted by houses: nothing further qualifies
+            if (t.acres()[r] < minAcres) continue;
+            if (townMatch != null && (t.situs()[r] < 0 || !townMatch[t.situs()[r]])) continue;
+            if (matched++ < limit) rows.add(row(t, r));
+        }
+        return new SuitabilityResult(true, matched, t.builtAt(), versions(t), rows);
+    }
+
+    private static Row row(Table t, int r) {
+        int s = t.situs()[r];
+        return new Row(t.acctId()[r], t.address()[r], s < 0 ? null : t.situsDict()[s],
+                t.counties().get(t.county()[r]).county(),
+                AnalysisService.round2(t.acres()[r]), AnalysisService.round2(t.usable()[r]), t.houses()[r]);
+    }
+
+    private static Map<String, String> versions(Table t) {
+        Map<String, String> out = new LinkedHashMap<>();
+        for (CountyStamp c : t.counties()) out.put(c.county(), c.version());
+        return out;
+    }
+
+    /* ---------- building ---------- */
+
+    private void refreshQuietly() {
+        try {
+            refresh();
+        } catch (Exception e) {
+            log.warn("Suitability index refresh failed: {}", e.toString());
+        }
+    }
+
+    /** Bring the index up to date with the current snapshot and rules (no-op when it is). */
+    synchronized void refresh() {
+        ParcelSnapshot s = store.current();
+        if (s == null) return;
+        String key = snapshotKey(s);
+        List<CountyStamp> now = stamps();
+
+        Table cur = table;
+        Table prev = cur != null && cur.snapshotKey().equals(key) ? cur : load(key);
+        boolean sameSnapshot = prev != null && prev.snapshotKey().equals(key);
+        boolean sameBounds = sameSnapshot && sameCountyBounds(prev.counties(), now);
+        if (sameBounds && sameVersions(prev.counties(), now)) {
+            table = prev;
+            return;
+        }
+
+        long t0 = System.nanoTime();
+        Table next;
+        int refitted;
+        if (sameBounds) {
+            boolean[] changed = new boolean[now.size()];
+            for (int c = 0; c < now.size(); c++) changed[c] = !now.get(c).version().equals(prev.counties().get(c).version());
+            next = refit(prev, s, now, changed);
+            refitted = (int) IntStream.range(0, prev.size()).filter(r -> changed[prev.county()[r]]).count();
+        } else {
+            next = build(s, key, now);
+            refitted = next.size();
+        }
+        table = next;
+        log.info("Suitability index: {} {} of {} parcels in {} ms", sameBounds ? "refitted" : "built",
+                refitted, next.size(), (System.nanoTime() - t0) / 1_000_000);
+        save(next);
+    }
+
+    private List<CountyStamp> stamps() {
+        List<CountyStamp> out = new ArrayList<>();
+        for (CountyRules c : rules.counties()) out.add(new CountyStamp(c.county(), c.version(), c.bounds()));
+        return out;
+    }
+
+    // record equals compares arrays by reference; compare names + bounds by value here
+    private static boolean sameCountyBounds(List<CountyStamp> a, List<CountyStamp> b) {
+        if (a.size() != b.size()) return false;
+        for (int i = 0; i < a.size(); i++) {
+            if (!a.get(i).county().equals(b.get(i).county()) || !Arrays.equals(a.get(i).bounds(), b.get(i).bounds())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean sameVersions(List<CountyStamp> a, List<CountyStamp> b) {
+        for (int i = 0; i < a.size(); i++) {
+            if (!a.get(i).version().equals(b.get(i).version())) return false;
+        }
+        return true;
+    }
+
+    private Table build(ParcelSnapshot s, String key, List<CountyStamp> counties) {
+        int n = s.size();
+        String[] acct = new String[n], address = new String[n];
+        int[] situs = new int[n];
+        Map<String, Integer> dict = new HashMap<>();
+        List<String> dictList = new ArrayList<>();
+        float[] acres = new float[n];
+        for (int i = 0; i < n; i++) {
+            acct[i] = s.acctId(i);
+            address[i] = s.siteAddress(i);
+            String town = s.situs(i);
+            situs[i] = town == null ? -1 : dict.computeIfAbsent(town, k -> { dictList.add(k); return dictList.size() - 1; });
+            Double a = s.acres(i);
+            acres[i] = a == null ? 0 : a.floatValue();
+        }
+        Map<String, Integer> countyIdx = new HashMap<>();
+        for (int c = 0; c < counties.size(); c++) countyIdx.put(counties.get(c).county(), c);
+        byte[] county = new byte[n];
+        pool.submit(() -> IntStream.range(0, n).parallel().forEach(i -> {
+            double[] b = GeoJsonGeometry.bounds(s.polygons(i));
+            county[i] = countyIdx.get(rules.forPoint((b[1] + b[3]) / 2, (b[0] + b[2]) / 2).county()).byteValue();
+        })).join();
+
+        Table empty = new Table(key, null, counties, acct, address, situs, dictList.toArray(new String[0]),
+                acres, new float[n], new short[n], county, new int[0]);
+        boolean[] all = new boolean[counties.size()];
+        Arrays.fill(all, true);
+        return refit(empty, s, counties, all);
+    }
+
+    /** Copy of {@code t} with the rows of the changed counties refitted and the order rebuilt. */
+    private Table refit(Table t, ParcelSnapshot s, List<CountyStamp> counties, boolean[] changed) {
+        int n = t.size();
+        float[] usable = t.usable().clone();
+        short[] houses = t.houses().clone();
+        Map<String, CountyRules> byName = new HashMap<>();
+        for (CountyRules c : rules.counties()) byName.put(c.county(), c);
+        pool.submit(() -> IntStream.range(0, n).parallel().forEach(r -> {
+            if (!changed[t.county()[r]]) return;
+            CountyRules c = byName.get(counties.get(t.county()[r]).county());
+            var fit = analysis.fit(new ParcelResponse(s.acctId(r), s.acres(r), null), s.polygons(r), c.rules());
+            usable[r] = (float) fit.usableAcres();
+            houses[r] = (short) fit.maxHouses();
+        })).join();
+        int[] order = IntStream.range(0, n).boxed()
+                .sorted((a, b) -> houses[a] != houses[b] ? Short.compare(houses[b], houses[a]) : Float.compare(usable[b], usable[a]))
+                .mapToInt(Integer::intValue).toArray();
+        return new Table(t.snapshotKey(), Instant.now(), counties, t.acctId(), t.address(), t.situs(), t.situsDict(),
+                t.acres(), usable, houses, t.county(), order);
+    }
+
+    // identifies the snapshot file contents across restarts (loadedAt changes every start)
+    private String snapshotKey(ParcelSnapshot s) {
+        try {
+            return s.source() + "|" + s.size() + "|" + Files.getLastModifiedTime(store.file()).toMillis();
+        } catch (IOException e) {
+            return s.source() + "|" + s.size() + "|" + s.loadedAt().toEpochMilli();
+        }
+    }
+
+    /* ---------- persistence ---------- */
+
+    private void save(Table t) {
+        try {
+            Path dir = file.toAbsolutePath().getParent();
+            Files.createDirectories(dir);
+            Path tmp = Files.createTempFile(dir, "suitability", ".tmp");
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp)))) {
+                out.writeInt(FILE_MAGIC);
+                out.writeInt(FILE_VERSION);
+                out.writeUTF(t.snapshotKey());
+                out.writeLong(t.builtAt().toEpochMilli());
+                out.writeInt(t.counties().size());
+                for (CountyStamp c : t.counties()) {
+                    out.writeUTF(c.county());
+                    out.writeUTF(c.version());
+                    out.writeBoolean(c.bounds() != null);
+                    if (c.bounds() != null) for (double v : c.bounds()) out.writeDouble(v);
+                }
+                out.writeInt(t.situsDict().length);
+                for (String d : t.situsDict()) out.writeUTF(d);
+                int n = t.size();
+                out.writeInt(n);
+                for (int i = 0; i < n; i++) {
+                    writeNullable(out, t.acctId()[i]);
+                    writeNullable(out, t.address()[i]);
+                    out.writeInt(t.situs()[i]);
+                    out.writeFloat(t.acres()[i]);
+                    out.writeFloat(t.usable()[i]);
+                    out.writeShort(t.houses()[i]);
+                    out.writeByte(t.county()[i]);
+                }
+                for (int r : t.order()) out.writeInt(r);
+            }
+            Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            log.warn("Could not save suitability index to {}: {}", file, e.toString());
+        }
+    }
+
+    /** The saved table if it was built from this snapshot, else null. */
+    private Table load(String snapshotKey) {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            if (in.readInt() != FILE_MAGIC || in.readInt() != FILE_VERSION) return null;
+            if (!in.readUTF().equals(snapshotKey)) return null;
+            Instant builtAt = Instant.ofEpochMilli(in.readLong());
+            List<CountyStamp> counties = new ArrayList<>();
+            for (int c = in.readInt(); c > 0; c--) {
+                String name = in.readUTF(), version = in.readUTF();
+                double[] bounds = null;
+                if (in.readBoolean()) {
+                    bounds = new double[4];
+                    for (int k = 0; k < 4; k++) bounds[k] = in.readDouble();
+                }
+                counties.add(new CountyStamp(name, version, bounds));
+            }
+            String[] dict = new String[in.readInt()];
+            for (int d = 0; d < dict.length; d++) dict[d] = in.readUTF();
+            int n = in.readInt();
+            String[] acct = new String[n], address = new String[n];
+            int[] situs = new int[n];
+            float[] acres = new float[n], usable = new float[n];
+            short[] houses = new short[n];
+            byte[] county = new byte[n];
+            for (int i = 0; i < n; i++) {
+                acct[i] = readNullable(in);
+                address[i] = readNullable(in);
+                situs[i] = in.readInt();
+                acres[i] = in.readFloat();
+                usable[i] = in.readFloat();
+                houses[i] = in.readShort();
+                county[i] = in.readByte();
+            }
+            int[] order = new int[n];
+            for (int i = 0; i < n; i++) order[i] = in.readInt();
+            log.info("Suitability index: loaded {} parcels from {}", n, file);
+            return new Table(snapshotKey, builtAt, counties, acct, address, situs, dict, acres, usable, houses, county, order);
+        } catch (NoSuchFileException e) {
+            return null;
+        } catch (IOException e) {
+            log.warn("Ignoring unreadable suitability index {}: {}", file, e.toString());
+            return null;
+        }
+    }
+
+    private static void writeNullable(DataOutputStream out, String s) throws IOException {
+        out.writeBoolean(s != null);
+        if (s != null) out.writeUTF(s);
+    }
+
+    private static String readNullable(DataInputStream in) throws IOException {
+        return in.readBoolean() ? in.readUTF() : null;
+    }
+}
@@ -0,0 +1,8 @@
+package com.example.farm_planner.analysis.model;
+
+/** One streamed line of a batch analysis; index is the item's position in the request. */
+public record BatchItemResult(
+    long index,
+    String input,       // address or acctId as submitted
+    QuickAnalysisResult fit
+) {}
@@ -0,0 +1,9 @@
+package com.example.farm_planner.analysis.model;
+
+import java.util.List;
+
+/** Body for POST /api/analysis/batch (JSON form); either list may be omitted. */
+public record BatchRequest(
+    List<String> addresses,
+    List<String> acctIds
+) {}
@@ -0,0 +1,33 @@
+package com.example.farm_planner.analysis.model;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.NotNull;
+
+/**
+ * Request body for POST /api/analysis/econ/assess: the STEP 1 fit plus the economic inputs,
+ * flat as test.html sends them. Numeric strings ("800") still bind; missing numbers are 0,
+ * missing years is 1. Out-of-range numbers are clamped by the econ model as they always were
+ * (negatives to 0, downPaymentPct to 0..1, years to at least 1), not rejected; what cannot be
+ * clamped into sense is a 400: a fit without perHouseSqFt or with negative maxHouses, and
+ * worker counts or loan terms no farm has.
+ */
+public record EconAssessRequest(
+    @NotNull @Valid QuickAnalysisResult fit,
+    @Max(MAX_WORKERS) int workers,
+    double weeklyPayPerWorker,
+    double landPrice,
+    Double downPaymentAmount,   // optional; if set, used over pct
+    Double downPaymentPct,      // optional (0..1)
+    double annualInterestRatePct,
+    @Max(MAX_YEARS) Integer years
+) {
+
+    public static final int MAX_WORKERS = 1_000;
+    public static final int MAX_YEARS = 100;
+
+    public EconomicInputs inputs() {
+        return new EconomicInputs(workers, weeklyPayPerWorker, landPrice, downPaymentAmount, downPaymentPct,
+                annualInterestRatePct, years == null ? 1 : years);
+    }
+}
@@ -0,0 +1,33 @@
+package com.example.farm_planner.analysis.model;
+
+/**
+ * Econ scenario sweep: every combination of the ranges below is evaluated.
+ * A missing range means a single default value (0 down, 0% rate, 1 year, 0 workers).
+ */
+public record EconSweepRequest(
+    QuickAnalysisResult fit,
+    double weeklyPayPerWorker,
+    Range landPrice,
+    Range downPaymentPct,       // 0..1
+    Range annualInterestRatePct,
+    Range years,                // rounded to whole years
+    Range workers               // rounded to whole workers
+) {
+
+    /** {@code steps} evenly spaced values from {@code from} to {@code to} inclusive. */
+    public record Range(double from, double to, int steps) {
+
+        public double[] values() {
+            int n = Math.max(1, steps);
+            double[] out = new double[n];
+            for (int i = 0; i < n; i++) {
+                out[i] = n == 1 ? from : from + (to - from) * i / (n - 1);
+            }
+            return out;
+        }
+
+        public int size() {
+            return Math.max(1, steps);
+        }
+    }
+}
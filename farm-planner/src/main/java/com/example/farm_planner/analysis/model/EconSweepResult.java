@@ -0,0 +1,40 @@
+package com.example.farm_planner.analysis.model;
+
+import java.util.List;
+
+/**
+ * Columnar sweep result. Points are laid out row-major over the axes in {@code shape}
+ * order (landPrice varies fastest):
+ * {@code index = (((w * Y + y) * R + r) * D + d) * L + l}.
+ */
+public record EconSweepResult(
+    boolean eligible,
+    long points,
+    int[] shape,                        // [workers, years, rate, downPct, landPrice]
+    double[] landPrice,
+    double[] downPaymentPct,
+    double[] annualInterestRatePct,
+    int[] years,
+    int[] workers,
+    double[] annualNetRevenue,          // per point; null when over the column budget
+    double[] breakEvenLandPrice,        // per row (all axes but landPrice): highest price with net >= 0, -1 if none
+    Summary summary,
+    List<String> messages
+) {
+
+    public record Summary(
+        Point maxNet,
+        Point minNet,
+        double meanNet,
+        long profitablePoints           // net >= 0
+    ) {}
+
+    public record Point(
+        double landPrice,
+        double downPaymentPct,
+        double annualInterestRatePct,
+        int years,
+        int workers,
+        double annualNetRevenue
+    ) {}
+}
@@ -2,12 +2,21 @@ package com.example.farm_planner.analysis.model;
 
 import java.util.List;
 
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import jakarta.validation.constraints.PositiveOrZero;
+
+/**
+ * STEP 1 result, also posted back as the {@code fit} of the econ requests. When it is read back,
+ * {@code perHouseSqFt} must be present (a missing primitive would silently be 0) and the
+ * constraints are checked where the request is {@code @Valid}.
+ */
 public record QuickAnalysisResult(
     boolean found,
     String acctId,
     double parcelAcres,
     double usableAcres,
-    double perHouseSqFt,
-    int maxHouses,
+    @JsonProperty(required = true) double perHouseSqFt,
+    @PositiveOrZero int maxHouses,
     List<String> messages
 ) {}
@@ -0,0 +1,33 @@
+package com.example.farm_planner.analysis.model;
+
+/**
+ * Multi-year Monte Carlo cash-flow simulation over the loan term ({@code years}).
+ * Distributions left out fall back to the static econ model's values with no spread.
+ */
+public record SimulationRequest(
+    QuickAnalysisResult fit,
+    int workers,
+    double weeklyPayPerWorker,
+    double landPrice,
+    Double downPaymentAmount,   // optional; if set, used over pct
+    Double downPaymentPct,      // optional (0..1)
+    int years,
+    Integer paths,              // default app.analysis.simulation.defaultPaths
+    Long seed,                  // fixed seed = reproducible run
+    Dist incomePerSqFt,         // drawn every year (default 2.5)
+    Dist opsPerSqFt,            // drawn every year (default 0.5)
+    Dist wageGrowthPct,         // drawn every year, compounds (default 0)
+    Dist interestRatePct        // drawn once per path, fixed for the loan
+) {
+
+    /**
+     * A distribution: "fixed" (mean), "normal" (mean, sd; clipped to min/max when given),
+     * "uniform" (min, max) or "triangular" (min, mode, max).
+     */
+    public record Dist(String type, Double mean, Double sd, Double min, Double max, Double mode) {
+
+        public static Dist fixed(double value) {
+            return new Dist("fixed", value, null, null, null, null);
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package com.example.farm_planner.analysis.model;
+
+import java.util.List;
+
+/** Percentile bands per simulated year (index 0 = year 1) and downside probabilities. */
+public record SimulationResult(
+    boolean eligible,
+    int paths,
+    int years,
+    long seed,
+    double annualLoanPaymentP50,
+    Bands annualNet,
+    Bands cumulativeNet,
+    double[] probNegativeByYear,        // share of paths with a negative annual net that year
+    double probAnyNegativeYear,         // share of paths with at least one negative year
+    double probNegativeCumulative,      // share of paths still under water at the end of the term
+    List<String> messages
+) {
+
+    public record Bands(double[] p5, double[] p25, double[] p50, double[] p75, double[] p95, double[] mean) {}
+}
@@ -0,0 +1,19 @@
+package com.example.farm_planner.analysis.model;
+
+import java.util.List;
+import java.util.Map;
+
+/** Geometry-based house layout for one parcel. */
+public record SitingResult(
+    boolean found,
+    String acctId,
+    int houses,
+    boolean capped,             // stopped at the county's max houses per parcel
+    double orientationDeg,      // house long axis, degrees counter-clockwise from east
+    double houseWidthFt,
+    double houseLengthFt,
+    double setbackFt,
+    int orientationsTried,
+    Map<String, Object> footprints,   // GeoJSON FeatureCollection, one Polygon per house
+    List<String> messages
+) {}
@@ -0,0 +1,25 @@
+package com.example.farm_planner.analysis.model;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+
+/** Ranked parcels from the county-wide suitability index (most houses first). */
+public record SuitabilityResult(
+    boolean ready,                      // false until the first index build finished
+    int matched,                        // all rows matching the filters (rows holds at most limit)
+    Instant builtAt,
+    Map<String, String> rulesVersions,  // county -> rules version the index was fitted with
+    List<Row> rows
+) {
+
+    public record Row(
+        String acctId,
+        String siteAddress,
+        String situs,
+        String county,
+        double acres,
+        double usableAcres,
+        int maxHouses
+    ) {}
+}
@@ -0,0 +1,21 @@
+package com.example.farm_planner.config;
+
+import java.util.concurrent.ForkJoinPool;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Fork-join pool for CPU-bound analysis (siting, econ sweeps), kept apart from request
+ * threads, Reactor schedulers and the JVM-wide common pool.
+ */
+@Configuration
+public class ComputeConfig {
+
+  @Bean(destroyMethod = "shutdownNow")
+  ForkJoinPool computePool(@Value("${app.compute.parallelism:0}") int parallelism) {
+    // 0 = one worker per core
+    return new ForkJoinPool(parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors());
+  }
+}
@@ -1,12 +1,18 @@
 package com.example.farm_planner.config;
 
+import java.time.Duration;
 import java.util.Map;
+import java.util.Optional;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Primary;
 import org.springframework.context.annotation.Profile;
 
+import com.example.farm_planner.parcel.BlockingGeocoderService;
+import com.example.farm_planner.parcel.BlockingParcelService;
+import com.example.farm_planner.parcel.GeocodeCache;
 import com.example.farm_planner.parcel.GeocoderService;
 import com.example.farm_planner.parcel.ParcelService;
 import com.example.farm_planner.parcel.dto.ParcelResponse;
@@ -21,15 +27,48 @@ import reactor.core.publisher.Mono;
 @Profile("mock")
 public class MockConfig {
 
+  /** Simulated upstream latency (app.mock.latencyMs), non-blocking; 0 = answer immediately. */
+  @Value("${app.mock.latencyMs:0}")
+  private long latencyMs;
+
+  private <T> Mono<T> upstream(T value) {
+    Mono<T> m = Mono.just(value);
+    return latencyMs > 0 ? m.delayElement(Duration.ofMillis(latencyMs)) : m;
+  }
+
+  /** Blocking variant of the simulated latency for the "virtual" profile. */
+  private <T> T upstreamBlocking(T value) {
+    if (latencyMs > 0) {
+      try {
+        Thread.sleep(latencyMs);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+    }
+    return value;
+  }
+
   /** Mock geocoder returns fixed coords near Snow Hill, MD. */
   @Bean
   @Primary
-  GeocoderService mockGeocoderService() {
-    return new GeocoderService(null, "FarmPlanner/0.1 (mock)") {
+  GeocoderService mockGeocoderService(GeocodeCache cache, PipelineMetrics metrics) {
+    return new GeocoderService(null, "FarmPlanner/0.1 (mock)", cache, null, metrics) {
       @Override
       public Mono<double[]> geocodeOne(String address) {
         // Lat/Lon near Snow Hill
-        return Mono.just(new double[] { 38.1779, -75.3924 });
+        return metrics.timed("geocode", upstream(new double[] { 38.1779, -75.3924 }));
+      }
+    };
+  }
+
+  @Bean
+  @Primary
+  @Profile("virtual")
+  BlockingGeocoderService mockBlockingGeocoderService(GeocodeCache cache, PipelineMetrics metrics) {
+    return new BlockingGeocoderService(null, "FarmPlanner/0.1 (mock)", cache, null, metrics) {
+      @Override
+      public Optional<double[]> geocode(String address) {
+        return metrics.timed("geocode", () -> Optional.of(upstreamBlocking(new double[] { 38.1779, -75.3924 })));
       }
     };
   }
@@ -37,28 +76,40 @@ public class MockConfig {
   /** Mock parcel service returns a tiny square polygon and fake attributes. */
   @Bean
   @Primary
-  ParcelService mockParcelService() {
-    return new ParcelService(null, "mock://layer") {
+  ParcelService mockParcelService(PipelineMetrics metrics) {
+    return new ParcelService(null, "mock://layer", null, 0, metrics) {
       @Override
       public Mono<ParcelResponse> findByPoint(double lat, double lon) {
-        return Mono.just(mockParcel());
+        return metrics.timed("parcel.point", upstream(mockParcel()));
       }
 
       @Override
       public Mono<ParcelResponse> findByAcctId(String acctId) {
-        return Mono.just(mockParcel());
+        return metrics.timed("parcel.acct", upstream(mockParcel()));
       }
+    };
+  }
 
-      private ParcelResponse mockParcel() {
-        // Simple square polygon around a point
-        Map<String, Object> geometry = Map.of(
-            "type", "Polygon",
-            "coordinates", new double[][][] {
-                { { -75.3926, 38.1778 }, { -75.3922, 38.1778 }, { -75.3922, 38.1780 }, { -75.3926, 38.1780 }, { -75.3926, 38.1778 } }
-            }
-        );
-        return new ParcelResponse("MOCK123", 5.25, geometry);
+  @Bean
+  @Primary
+  @Profile("virtual")
+  BlockingParcelService mockBlockingParcelService(PipelineMetrics metrics) {
+    return new BlockingParcelService(null, "mock://layer", null, metrics) {
+      @Override
+      public Optional<ParcelResponse> findByPoint(double lat, double lon) {
+        return metrics.timed("parcel.point", () -> Optional.of(upstreamBlocking(mockParcel())));
       }
     };
   }
+
+  private static ParcelResponse mockParcel() {
+    // Simple square polygon around a point
+    Map<String, Object> geometry = Map.of(
+        "type", "Polygon",
+        "coordinates", new double[][][] {
+            { { -75.3926, 38.1778 }, { -75.3922, 38.1778 }, { -75.3922, 38.1780 }, { -75.3926, 38.1780 }, { -75.3926, 38.1778 } }
+        }
+    );
+    return new ParcelResponse("MOCK123", 5.25, geometry);
+  }
 }
@@ -0,0 +1,123 @@
+package com.example.farm_planner.config;
+
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.ToIntFunction;
+
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import reactor.netty.resources.ConnectionPoolMetrics;
+import reactor.netty.resources.ConnectionProvider;
+import reactor.netty.transport.AddressUtils;
+
+/**
+ * Connection pools for the shared WebClient, one per upstream host and port
+ * ({@code app.outbound.pools}, keyed by host or host:port; unlisted hosts get
+ * {@link OutboundProperties.Pool#DEFAULTS}).
+ *
+ * Idle connections are evicted in the background, and connections are retired after
+ * maxLifeTime so DNS changes get picked up. The pools register with this class, which
+ * publishes {@code farm.outbound.pool.connections} gauges (state = active, idle, allocated,
+ * max, pending; per host and pool) and sums them per host in {@link #stats()}.
+ */
+@Component
+public class OutboundPools implements ConnectionProvider.MeterRegistrar {
+
+  private static final Duration EVICTION_INTERVAL = Duration.ofSeconds(15);
+
+  private record Registered(String host, ConnectionPoolMetrics metrics, List<Meter> meters) {}
+
+  private final ConnectionProvider provider;
+  private final MeterRegistry registry;
+  private final Map<String, Registered> registered = new ConcurrentHashMap<>();
+
+  public OutboundPools(OutboundProperties props, MeterRegistry registry) {
+    this.registry = registry;
+    ConnectionProvider.Builder builder = configure(ConnectionProvider.builder("upstreams"), OutboundProperties.Pool.DEFAULTS);
+    props.pools().forEach((key, pool) -> {
+      // pools are keyed by the request URL's host:port as Reactor Netty builds it (IP literals
+      // come out resolved); a bare host means 443 and 80
+      int colon = key.lastIndexOf(':');
+      String host = colon < 0 ? key : key.substring(0, colon);
+      int[] ports = colon < 0 ? new int[] { 443, 80 } : new int[] { Integer.parseInt(key.substring(colon + 1)) };
+      for (int port : ports) {
+        builder.forRemoteHost(AddressUtils.createUnresolved(host, port), spec -> configure(spec, pool));
+      }
+    });
+    this.provider = builder.build();
+  }
+
+  private <S extends ConnectionProvider.ConnectionPoolSpec<S>> S configure(S spec, OutboundProperties.Pool pool) {
+    return spec.maxConnections(pool.maxConnections())
+        .pendingAcquireMaxCount(pool.pendingAcquireMax())
+        .pendingAcquireTimeout(pool.pendingAcquireTimeout())
+        .maxIdleTime(pool.maxIdleTime())
+        .maxLifeTime(pool.maxLifeTime())
+        .evictInBackground(EVICTION_INTERVAL)
+        .metrics(true, () -> this);
+  }
+
+  public ConnectionProvider provider() {
+    return provider;
+  }
+
+  @Override
+  public void registerMetrics(String poolName, String id, SocketAddress remoteAddress, ConnectionPoolMetrics metrics) {
+    String host = remoteAddress instanceof InetSocketAddress a ? a.getHostString() + ":" + a.getPort()
+        : String.valueOf(remoteAddress);
+    List<Meter> meters = List.of(
+        gauge(host, id, "active", metrics, ConnectionPoolMetrics::acquiredSize),
+        gauge(host, id, "idle", metrics, ConnectionPoolMetrics::idleSize),
+        gauge(host, id, "allocated", metrics, ConnectionPoolMetrics::allocatedSize),
+        gauge(host, id, "max", metrics, ConnectionPoolMetrics::maxAllocatedSize),
+        gauge(host, id, "pending", metrics, ConnectionPoolMetrics::pendingAcquireSize));
+    registered.put(id, new Registered(host, metrics, meters));
+  }
+
+  private Meter gauge(String host, String id, String state, ConnectionPoolMetrics metrics,
+                      ToIntFunction<ConnectionPoolMetrics> value) {
+    return Gauge.builder("farm.outbound.pool.connections", metrics, m -> value.applyAsInt(m))
+        .tag("host", host)
+        .tag("pool", id)
+        .tag("state", state)
+        .register(registry);
+  }
+
+  @Override
+  public void deRegisterMetrics(String poolName, String id, SocketAddress remoteAddress) {
+    Registered r = registered.remove(id);
+    if (r != null) r.meters().forEach(registry::remove);
+  }
+
+  /** Per host:port: connections in use ("active"), idle, total, the limit, and waiting requests. */
+  public Map<String, Object> stats() {
+    Map<String, int[]> sums = new TreeMap<>();
+    registered.values().forEach(r -> {
+      int[] s = sums.computeIfAbsent(r.host(), h -> new int[5]);
+      ConnectionPoolMetrics m = r.metrics();
+      s[0] += m.acquiredSize();
+      s[1] += m.idleSize();
+      s[2] += m.allocatedSize();
+      s[3] += m.maxAllocatedSize();
+      s[4] += m.pendingAcquireSize();
+    });
+    Map<String, Object> out = new TreeMap<>();
+    sums.forEach((host, s) -> out.put(host, Map.of(
+        "active", s[0], "idle", s[1], "allocated", s[2], "maxConnections", s[3], "pending", s[4])));
+    return out;
+  }
+
+  @PreDestroy
+  void close() {
+    provider.disposeLater().block(Duration.ofSeconds(5));
+  }
+}
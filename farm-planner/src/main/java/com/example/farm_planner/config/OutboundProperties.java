@@ -0,0 +1,90 @@
+package com.example.farm_planner.config;
+
+import java.time.Duration;
+import java.util.Map;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Per-host outbound limits, resilience policies and connection pools, e.g.
+ * <pre>
+ * app.outbound.hosts.[nominatim.openstreetmap.org]:
+ *   ratePerSecond: 1
+ *   burst: 1
+ *   maxQueue: 100
+ * app.outbound.upstreams.[wcg-gisweb.co.worcester.md.us]:
+ *   timeout: 8s
+ *   hedgeAfter: 1500ms
+ * app.outbound.pools.[wcg-gisweb.co.worcester.md.us]:
+ *   maxConnections: 16
+ * </pre>
+ * Hosts without a limit are not limited; hosts without an upstream policy or pool use
+ * {@link Upstream#DEFAULTS} / {@link Pool#DEFAULTS}.
+ */
+@ConfigurationProperties(prefix = "app.outbound")
+public record OutboundProperties(Map<String, HostLimit> hosts, Map<String, Upstream> upstreams,
+                                 Map<String, Pool> pools) {
+
+  public OutboundProperties {
+    hosts = hosts == null ? Map.of() : Map.copyOf(hosts);
+    upstreams = upstreams == null ? Map.of() : Map.copyOf(upstreams);
+    pools = pools == null ? Map.of() : Map.copyOf(pools);
+  }
+
+  /** Token bucket refilled at ratePerSecond up to burst tokens; at most maxQueue waiters. */
+  public record HostLimit(double ratePerSecond, int burst, int maxQueue) {}
+
+  /**
+   * Resilience policy for one upstream host; unset fields take the defaults below.
+   *
+   * @param timeout          per attempt, from sending the request to each response read
+   * @param maxRetries       extra attempts for idempotent requests after a timeout, connection
+   *                         error, 5xx or 429
+   * @param backoff          first retry delay, doubling up to maxBackoff
+   * @param jitter           random fraction (0..1) of each backoff delay
+   * @param failureThreshold consecutive failed attempts that open the circuit
+   * @param openFor          how long an open circuit fails fast before letting one probe through
+   * @param hedgeAfter       send a second copy of an idempotent request when the first has not
+   *                         answered after this long (unset = no hedging)
+   */
+  public record Upstream(Duration timeout, Integer maxRetries, Duration backoff, Duration maxBackoff,
+                         Double jitter, Integer failureThreshold, Duration openFor, Duration hedgeAfter) {
+
+    public static final Upstream DEFAULTS = new Upstream(null, null, null, null, null, null, null, null);
+
+    public Upstream {
+      timeout = timeout == null ? Duration.ofSeconds(10) : timeout;
+      maxRetries = maxRetries == null ? 2 : Math.max(0, maxRetries);
+      backoff = backoff == null ? Duration.ofMillis(200) : backoff;
+      maxBackoff = maxBackoff == null ? Duration.ofSeconds(2) : maxBackoff;
+      jitter = jitter == null ? 0.5 : Math.max(0, Math.min(1, jitter));
+      failureThreshold = failureThreshold == null ? 5 : Math.max(1, failureThreshold);
+      openFor = openFor == null ? Duration.ofSeconds(30) : openFor;
+      hedgeAfter = hedgeAfter == null || hedgeAfter.isZero() || hedgeAfter.isNegative() ? null : hedgeAfter;
+    }
+  }
+
+  /**
+   * Connection pool for one upstream host; unset fields take the defaults below.
+   *
+   * @param maxConnections        open connections (HTTP/2: connections, each multiplexing streams)
+   * @param pendingAcquireMax     requests waiting for a connection before new ones are refused
+   * @param pendingAcquireTimeout how long a request waits for a connection
+   * @param maxIdleTime           idle connections are closed after this (keep below the server's
+   *                              keep-alive timeout so we never reuse a half-closed socket)
+   * @param maxLifeTime           connections are retired after this, so DNS changes are picked up
+   */
+  public record Pool(Integer maxConnections, Integer pendingAcquireMax, Duration pendingAcquireTimeout,
+                     Duration maxIdleTime, Duration maxLifeTime) {
+
+    public static final Pool DEFAULTS = new Pool(null, null, null, null, null);
+
+    public Pool {
+      maxConnections = maxConnections == null ? 16 : Math.max(1, maxConnections);
+      pendingAcquireMax = pendingAcquireMax == null ? 512 : Math.max(1, pendingAcquireMax);
+      pendingAcquireTimeout = pendingAcquireTimeout == null ? Duration.ofSeconds(10) : pendingAcquireTimeout;
+      maxIdleTime = maxIdleTime == null ? Duration.ofSeconds(30) : maxIdleTime;
+      maxLifeTime = maxLifeTime == null ? Duration.ofMinutes(5) : maxLifeTime;
+    }
+  }
+}
@@ -0,0 +1,20 @@
+package com.example.farm_planner.config;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/** Raised instead of waiting when an upstream host's outbound queue is full. */
+@ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+public class OutboundRejectedException extends RuntimeException {
+  private final long retryAfterSeconds;
+
+  public OutboundRejectedException(String host, long retryAfterSeconds) {
+    super("Too many queued requests for " + host + "; try again shortly");
+    this.retryAfterSeconds = retryAfterSeconds;
+  }
+
+  /** Roughly how long the queue takes to drain at the host's rate. */
+  public long retryAfterSeconds() {
+    return retryAfterSeconds;
+  }
+}
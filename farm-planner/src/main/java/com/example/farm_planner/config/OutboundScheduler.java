@@ -0,0 +1,219 @@
+package com.example.farm_planner.config;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.ExchangeFilterFunction;
+
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.MonoSink;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+import reactor.util.context.Context;
+
+/**
+ * Non-blocking outbound rate limiter for the shared WebClient.
+ *
+ * Each configured host gets a token bucket. A request that finds no token waits in a
+ * per-priority queue (INTERACTIVE before BATCH) without holding a thread; a timer hands
+ * out tokens as they refill. When the queue is full the request fails immediately with
+ * {@link OutboundRejectedException}. A waiter cancelled after its token was handed out
+ * puts the token back.
+ *
+ * Priority travels in the Reactor context: requests default to INTERACTIVE, background
+ * work marks itself with {@code .contextWrite(OutboundScheduler.batch())}.
+ */
+@Component
+public class OutboundScheduler {
+
+  public enum Priority { INTERACTIVE, BATCH }
+
+  private static final String PRIORITY_KEY = OutboundScheduler.class.getName() + ".priority";
+
+  private final Map<String, HostLimiter> limiters = new ConcurrentHashMap<>();
+
+  @Autowired
+  public OutboundScheduler(OutboundProperties props) {
+    this(props, Schedulers.parallel(), System::nanoTime);
+  }
+
+  /** With the timer that runs queue drains and the clock they refill by (tests: virtual time). */
+  OutboundScheduler(OutboundProperties props, Scheduler timer, LongSupplier nanoClock) {
+    props.hosts().forEach((host, limit) -> limiters.put(host, new HostLimiter(host, limit, timer, nanoClock)));
+  }
+
+  /** Context marking downstream outbound calls as background/batch work. */
+  public static Context batch() {
+    return Context.of(PRIORITY_KEY, Priority.BATCH);
+  }
+
+  /** WebClient filter delaying each request until its host has a token. */
+  public ExchangeFilterFunction filter() {
+    return (request, next) -> {
+      HostLimiter limiter = limiters.get(request.url().getHost());
+      if (limiter == null) return next.exchange(request);
+      return Mono.deferContextual(ctx -> limiter.acquire(ctx.getOrDefault(PRIORITY_KEY, Priority.INTERACTIVE)))
+          .then(Mono.defer(() -> next.exchange(request)));
+    };
+  }
+
+  /**
+   * Token for one request to {@code host} outside the WebClient (blocking clients block on
+   * it). Completes immediately for hosts without a configured limit.
+   */
+  public Mono<Void> acquire(String host, Priority priority) {
+    HostLimiter limiter = limiters.get(host);
+    return limiter == null ? Mono.empty() : limiter.acquire(priority);
+  }
+
+  public Map<String, Object> stats() {
+    Map<String, Object> out = new LinkedHashMap<>();
+    limiters.forEach((host, l) -> out.put(host, l.stats()));
+    return out;
+  }
+
+  /* ---------- per-host token bucket + priority queues ---------- */
+
+  private static final class HostLimiter {
+    private final String host;
+    private final double tokensPerNano;
+    private final double capacity;
+    private final int maxQueue;
+    private final Scheduler timer;
+    private final LongSupplier clock;
+
+    private final ArrayDeque<Waiter> interactive = new ArrayDeque<>();
+    private final ArrayDeque<Waiter> batch = new ArrayDeque<>();
+    private double tokens;
+    private long refilledAt;
+    private boolean drainScheduled;
+
+    // stats (guarded by this); waitedGranted/totalWaitNanos only count requests that queued
+    private long granted, queued, waitedGranted, cancelled, rejected, totalWaitNanos, maxWaitNanos;
+
+    private static final class Waiter {
+      final MonoSink<Void> sink;
+      final long enqueuedAt;
+      boolean granted;   // guarded by the limiter: holds a token not yet delivered
+      boolean cancelled; // guarded by the limiter
+
+      Waiter(MonoSink<Void> sink, long enqueuedAt) {
+        this.sink = sink;
+        this.enqueuedAt = enqueuedAt;
+      }
+    }
+
+    HostLimiter(String host, OutboundProperties.HostLimit limit, Scheduler timer, LongSupplier clock) {
+      this.host = host;
+      this.tokensPerNano = Math.max(1e-9, limit.ratePerSecond()) / 1e9;
+      this.capacity = Math.max(1, limit.burst());
+      this.maxQueue = Math.max(0, limit.maxQueue());
+      this.timer = timer;
+      this.clock = clock;
+      this.tokens = capacity;
+      this.refilledAt = clock.getAsLong();
+    }
+
+    Mono<Void> acquire(Priority priority) {
+      return Mono.create(sink -> {
+        Waiter w = new Waiter(sink, clock.getAsLong());
+        // before the waiter is visible to drain(), so no cancel is missed
+        sink.onCancel(() -> cancel(w));
+        boolean grant;
+        synchronized (this) {
+          if (w.cancelled) return;
+          refill(w.enqueuedAt);
+          grant = interactive.isEmpty() && batch.isEmpty() && tokens >= 1;
+          if (grant) {
+            tokens -= 1;
+            granted++;
+            w.granted = true;
+          } else if (interactive.size() + batch.size() >= maxQueue) {
+            rejected++;
+            long drainNanos = (long) ((interactive.size() + batch.size() + 1) / tokensPerNano);
+            sink.error(new OutboundRejectedException(host, Math.max(1, (drainNanos + 999_999_999) / 1_000_000_000)));
+            return;
+          } else {
+            (priority == Priority.INTERACTIVE ? interactive : batch).add(w);
+            queued++;
+            scheduleDrain();
+          }
+        }
+        if (grant) sink.success();
+      });
+    }
+
+    // MonoSink only calls this before success(): a queued waiter leaves the queue, a granted one
+    // gives its token back to the next waiter
+    private synchronized void cancel(Waiter w) {
+      w.cancelled = true;
+      cancelled++;
+      if (interactive.remove(w) || batch.remove(w)) return;
+      if (w.granted) {
+        w.granted = false;
+        tokens = Math.min(capacity, tokens + 1);
+        granted--;
+        if (!interactive.isEmpty() || !batch.isEmpty()) scheduleDrain();
+      }
+    }
+
+    private void drain() {
+      List<Waiter> ready = new ArrayList<>();
+      long now = clock.getAsLong();
+      synchronized (this) {
+        drainScheduled = false;
+        refill(now);
+        while (tokens >= 1) {
+          Waiter w = interactive.isEmpty() ? batch.poll() : interactive.poll();
+          if (w == null) break;
+          tokens -= 1;
+          granted++;
+          waitedGranted++;
+          w.granted = true;
+          long waited = now - w.enqueuedAt;
+          totalWaitNanos += waited;
+          maxWaitNanos = Math.max(maxWaitNanos, waited);
+          ready.add(w);
+        }
+        if (!interactive.isEmpty() || !batch.isEmpty()) scheduleDrain();
+      }
+      ready.forEach(w -> w.sink.success());
+    }
+
+    // caller holds the lock
+    private void scheduleDrain() {
+      if (drainScheduled) return;
+      drainScheduled = true;
+      long delay = (long) Math.ceil(Math.max(0, 1 - tokens) / tokensPerNano);
+      timer.schedule(this::drain, delay, TimeUnit.NANOSECONDS);
+    }
+
+    // caller holds the lock
+    private void refill(long now) {
+      tokens = Math.min(capacity, tokens + (now - refilledAt) * tokensPerNano);
+      refilledAt = now;
+    }
+
+    synchronized Map<String, Object> stats() {
+      Map<String, Object> out = new LinkedHashMap<>();
+      out.put("queuedInteractive", interactive.size());
+      out.put("queuedBatch", batch.size());
+      out.put("granted", granted);
+      out.put("waited", queued);
+      out.put("cancelled", cancelled);
+      out.put("rejected", rejected);
+      // over requests that queued; immediate grants did not wait
+      out.put("avgWaitMs", waitedGranted == 0 ? 0.0 : totalWaitNanos / 1e6 / waitedGranted);
+      out.put("maxWaitMs", maxWaitNanos / 1e6);
+      return out;
+    }
+  }
+}
@@ -0,0 +1,118 @@
+package com.example.farm_planner.config;
+
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.ExchangeFilterFunction;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
+import io.micrometer.observation.contextpropagation.ObservationThreadLocalAccessor;
+import reactor.core.publisher.Mono;
+
+/**
+ * Micrometer meters and trace spans for the geocode → parcel → fit pipeline (scraped from
+ * {@code /actuator/prometheus}).
+ *
+ * <ul>
+ *   <li>{@code farm.pipeline.stage} – an observation per stage, tagged with the outcome
+ *       (found, empty, error, cancelled) and the error class. It yields a timer and a span
+ *       named after the stage; the span is parented on the caller's observation, carried in
+ *       the Reactor context (or the thread for blocking stages), and wraps any WebClient calls
+ *       made inside the stage;</li>
+ *   <li>{@code farm.upstream.results} – empty, failed (swallowed or surfaced) and stale
+ *       answers per upstream;</li>
+ *   <li>{@code farm.upstream.payload} – decoded response body sizes per upstream host.</li>
+ * </ul>
+ * Histogram buckets are switched on in {@code management.metrics.distribution}.
+ */
+@Component
+public class PipelineMetrics {
+
+  public static final String STAGE = "farm.pipeline.stage";
+  public static final String RESULTS = "farm.upstream.results";
+  public static final String PAYLOAD = "farm.upstream.payload";
+
+  private final MeterRegistry registry;
+  private final ObservationRegistry observations;
+
+  public PipelineMetrics(MeterRegistry registry, ObservationRegistry observations) {
+    this.registry = registry;
+    this.observations = observations;
+  }
+
+  /** Observe {@code call} from subscription to its terminal signal. */
+  public <T> Mono<T> timed(String stage, Mono<T> call) {
+    return Mono.deferContextual(ctx -> {
+      Observation observation = start(stage, ctx.getOrDefault(ObservationThreadLocalAccessor.KEY,
+          observations.getCurrentObservation()));
+      return call
+          .doOnSuccess(v -> stop(observation, v == null ? "empty" : "found", null))
+          .doOnError(e -> stop(observation, "error", e))
+          .doOnCancel(() -> stop(observation, "cancelled", null))
+          .contextWrite(c -> c.put(ObservationThreadLocalAccessor.KEY, observation));
+    });
+  }
+
+  /** Observe a blocking call; null and empty Optionals count as "empty". */
+  public <T> T timed(String stage, Supplier<T> call) {
+    Observation observation = start(stage, observations.getCurrentObservation());
+    T result;
+    try (Observation.Scope scope = observation.openScope()) {
+      result = call.get();
+    } catch (RuntimeException e) {
+      stop(observation, "error", e);
+      throw e;
+    }
+    boolean empty = result == null || (result instanceof Optional<?> o && o.isEmpty());
+    stop(observation, empty ? "empty" : "found", null);
+    return result;
+  }
+
+  /** Count an upstream answer that was empty, failed or served stale (error may be null). */
+  public void upstreamResult(String upstream, String result, Throwable error) {
+    Counter.builder(RESULTS)
+        .description("Upstream lookups that returned nothing, failed or were answered from stale data")
+        .tag("upstream", upstream)
+        .tag("result", result)
+        .tag("exception", error == null ? "none" : error.getClass().getSimpleName())
+        .register(registry)
+        .increment();
+  }
+
+  /** WebClient filter recording each response body's size once it has been read. */
+  public ExchangeFilterFunction payloadSizes() {
+    return (request, next) -> next.exchange(request).map(resp -> {
+      DistributionSummary summary = DistributionSummary.builder(PAYLOAD)
+          .description("Decoded upstream response body size")
+          .baseUnit("bytes")
+          .tag("host", request.url().getHost())
+          .tag("status", resp.statusCode().is2xxSuccessful() ? "2xx" : Integer.toString(resp.statusCode().value()))
+          .register(registry);
+      AtomicLong bytes = new AtomicLong();
+      return resp.mutate()
+          .body(body -> body
+              .doOnNext(buf -> bytes.addAndGet(buf.readableByteCount()))
+              .doOnComplete(() -> summary.record(bytes.get())))
+          .build();
+    });
+  }
+
+  private Observation start(String stage, Observation parent) {
+    return Observation.createNotStarted(STAGE, observations)
+        .contextualName(stage)
+        .parentObservation(parent)
+        .lowCardinalityKeyValue("stage", stage)
+        .start();
+  }
+
+  private static void stop(Observation observation, String outcome, Throwable error) {
+    if (error != null) observation.error(error);
+    observation.lowCardinalityKeyValue("outcome", outcome).stop();
+  }
+}
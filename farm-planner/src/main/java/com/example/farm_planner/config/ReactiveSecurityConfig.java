@@ -0,0 +1,131 @@
+package com.example.farm_planner.config;
+
+import java.util.List;
+import java.util.Set;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpMethod;
+import org.springframework.security.authentication.ReactiveAuthenticationManager;
+import org.springframework.security.authentication.UserDetailsRepositoryReactiveAuthenticationManager;
+import org.springframework.security.config.Customizer;
+import org.springframework.security.config.annotation.web.reactive.EnableWebFluxSecurity;
+import org.springframework.security.config.web.server.ServerHttpSecurity;
+import org.springframework.security.core.userdetails.MapReactiveUserDetailsService;
+import org.springframework.security.core.userdetails.ReactiveUserDetailsService;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.web.server.SecurityWebFilterChain;
+import org.springframework.security.web.server.csrf.CookieServerCsrfTokenRepository;
+import org.springframework.security.web.server.csrf.CsrfWebFilter;
+import org.springframework.security.web.server.util.matcher.AndServerWebExchangeMatcher;
+import org.springframework.security.web.server.util.matcher.NegatedServerWebExchangeMatcher;
+import org.springframework.security.web.server.util.matcher.ServerWebExchangeMatcher;
+import org.springframework.security.web.server.util.matcher.ServerWebExchangeMatchers;
+import org.springframework.web.cors.CorsConfiguration;
+
+/**
+ * WebFlux port of {@link SecurityConfig} for the "reactive" profile: same CORS, CSRF,
+ * URL rules, HTTP Basic and logout endpoint, on a SecurityWebFilterChain.
+ */
+@Configuration
+@EnableWebFluxSecurity
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveSecurityConfig {
+
+  @Value("${app.cors.allowedOrigins:http://localhost:5173,http://localhost:3000}")
+  private List<String> allowedOrigins;
+
+  private static final Set<String> STATIC_EXTENSIONS = Set.of(".css", ".js", ".map", ".png", ".jpg", ".svg");
+
+  @Bean
+  SecurityWebFilterChain securityWebFilterChain(ServerHttpSecurity http) {
+    http
+      // CORS for the frontend dev server
+      .cors(c -> c.configurationSource(exchange -> {
+        CorsConfiguration cfg = new CorsConfiguration();
+        cfg.setAllowedOrigins(allowedOrigins);
+        cfg.setAllowedMethods(List.of("GET","POST","PUT","DELETE","OPTIONS"));
+        cfg.setAllowedHeaders(List.of("Content-Type","Authorization","X-CSRF-Token"));
+        cfg.setAllowCredentials(true);
+        return cfg;
+      }))
+      // Dev: ignore CSRF for API routes so static test.html can POST without token
+      .csrf(csrf -> csrf
+        .csrfTokenRepository(CookieServerCsrfTokenRepository.withHttpOnlyFalse())
+        .requireCsrfProtectionMatcher(new AndServerWebExchangeMatcher(
+            CsrfWebFilter.DEFAULT_CSRF_MATCHER,
+            new NegatedServerWebExchangeMatcher(ServerWebExchangeMatchers.pathMatchers("/api/**"))))
+      )
+      // URL rules
+      .authorizeExchange(auth -> auth
+        .pathMatchers(HttpMethod.POST, "/api/auth/login").permitAll()
+        .pathMatchers(HttpMethod.POST, "/api/parcels/search").permitAll() // keep open for now
+        .pathMatchers(HttpMethod.GET, "/api/parcels/**").permitAll()      // keep open for now
+        .pathMatchers(HttpMethod.POST, "/api/analysis/**").permitAll()    // allow analysis POSTs during dev
+        .pathMatchers(HttpMethod.GET, "/tiles/**").permitAll()            // parcel vector tiles
+        .pathMatchers(HttpMethod.GET, "/actuator/prometheus").hasRole("METRICS") // scrape with HTTP Basic
+        // static assets and test page
+        .pathMatchers(HttpMethod.GET, "/", "/index.html", "/test.html", "/favicon.ico").permitAll()
+        .matchers(staticAssets()).permitAll()
+        .pathMatchers("/actuator/health", "/error").permitAll()
+        .anyExchange().authenticated()
+      )
+      // We’re doing our own JSON login endpoint; no default form
+      .httpBasic(Customizer.withDefaults())
+      .formLogin(f -> f.disable())
+      .logout(lo -> lo.logoutUrl("/api/auth/logout"));
+
+    return http.build();
+  }
+
+  // PathPattern does not allow "/**/*.css", so match GETs by file extension instead
+  private static ServerWebExchangeMatcher staticAssets() {
+    return exchange -> {
+      var req = exchange.getRequest();
+      String path = req.getPath().value();
+      boolean match = req.getMethod() == HttpMethod.GET
+          && STATIC_EXTENSIONS.stream().anyMatch(path::endsWith);
+      return match ? ServerWebExchangeMatcher.MatchResult.match() : ServerWebExchangeMatcher.MatchResult.notMatch();
+    };
+  }
+
+  // Simple in-memory user for now; later swap to DB-backed service. The metrics scrape user
+  // (role METRICS, nothing else) only exists when app.metrics.password is set.
+  @Bean
+  ReactiveUserDetailsService reactiveUserDetailsService(
+      @Value("${app.auth.username:user}") String username,
+      @Value("${app.auth.password:user}") String rawPassword,
+      @Value("${app.metrics.username:prometheus}") String metricsUsername,
+      @Value("${app.metrics.password:}") String metricsPassword,
+      PasswordEncoder encoder
+  ) {
+    var u = User.withUsername(username)
+                .password(encoder.encode(rawPassword))
+                .roles("USER")
+                .build();
+    if (!metricsPassword.isBlank()) {
+      var metrics = User.withUsername(metricsUsername)
+                        .password(encoder.encode(metricsPassword))
+                        .roles("METRICS")
+                        .build();
+      return new MapReactiveUserDetailsService(u, metrics);
+    }
+    return new MapReactiveUserDetailsService(u);
+  }
+
+  @Bean
+  PasswordEncoder passwordEncoder() {
+    return new BCryptPasswordEncoder();
+  }
+
+  @Bean
+  ReactiveAuthenticationManager reactiveAuthenticationManager(ReactiveUserDetailsService uds, PasswordEncoder enc) {
+    var manager = new UserDetailsRepositoryReactiveAuthenticationManager(uds);
+    manager.setPasswordEncoder(enc);
+    return manager;
+  }
+}
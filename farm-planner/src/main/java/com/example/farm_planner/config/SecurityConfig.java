@@ -3,6 +3,7 @@ package com.example.farm_planner.config;
 import java.util.List;
 
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.http.HttpMethod;
@@ -21,7 +22,9 @@ import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.csrf.CookieCsrfTokenRepository;
 import org.springframework.web.cors.CorsConfiguration;
 
+/** Servlet (default) mode; the "reactive" profile uses ReactiveSecurityConfig instead. */
 @Configuration
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 public class SecurityConfig {
 
   @Value("${app.cors.allowedOrigins:http://localhost:5173,http://localhost:3000}")
@@ -52,6 +55,8 @@ public class SecurityConfig {
         .requestMatchers(HttpMethod.POST, "/api/parcels/search").permitAll() // keep open for now
         .requestMatchers(HttpMethod.GET, "/api/parcels/**").permitAll()      // keep open for now
         .requestMatchers(HttpMethod.POST, "/api/analysis/**").permitAll()    // allow analysis POSTs during dev
+        .requestMatchers(HttpMethod.GET, "/tiles/**").permitAll()            // parcel vector tiles
+        .requestMatchers(HttpMethod.GET, "/actuator/prometheus").hasRole("METRICS") // scrape with HTTP Basic
         // static assets and test page
         .requestMatchers(HttpMethod.GET, "/", "/index.html", "/test.html", "/favicon.ico",
             "/**/*.css", "/**/*.js", "/**/*.map", "/**/*.png", "/**/*.jpg", "/**/*.svg").permitAll()
@@ -66,17 +71,27 @@ public class SecurityConfig {
     return http.build();
   }
 
-  // Simple in-memory user for now; later swap to DB-backed service
+  // Simple in-memory user for now; later swap to DB-backed service. The metrics scrape user
+  // (role METRICS, nothing else) only exists when app.metrics.password is set.
   @Bean
   UserDetailsService userDetailsService(
       @Value("${app.auth.username:user}") String username,
       @Value("${app.auth.password:user}") String rawPassword,
+      @Value("${app.metrics.username:prometheus}") String metricsUsername,
+      @Value("${app.metrics.password:}") String metricsPassword,
       PasswordEncoder encoder
   ) {
     var u = User.withUsername(username)
                 .password(encoder.encode(rawPassword))
                 .roles("USER")
                 .build();
+    if (!metricsPassword.isBlank()) {
+      var metrics = User.withUsername(metricsUsername)
+                        .password(encoder.encode(metricsPassword))
+                        .roles("METRICS")
+                        .build();
+      return new InMemoryUserDetailsManager(u, metrics);
+    }
     return new InMemoryUserDetailsManager(u);
   }
 
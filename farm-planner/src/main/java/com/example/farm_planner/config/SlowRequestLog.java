@@ -0,0 +1,125 @@
+package com.example.farm_planner.config;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.stream.Collectors;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import io.opentelemetry.api.trace.SpanContext;
+import io.opentelemetry.api.trace.StatusCode;
+import io.opentelemetry.context.Context;
+import io.opentelemetry.sdk.trace.ReadWriteSpan;
+import io.opentelemetry.sdk.trace.ReadableSpan;
+import io.opentelemetry.sdk.trace.SpanProcessor;
+import io.opentelemetry.sdk.trace.data.SpanData;
+
+/**
+ * Logs the span breakdown of every request slower than {@code app.tracing.slowRequestThreshold}
+ * (0 = off).
+ *
+ * Ended spans are held per trace until the trace's local root (normally the server span) ends.
+ * A slow root gets the whole tree logged at WARN: each span's start offset, duration, status and
+ * attributes (stage, outcome, host, status...). Otherwise the spans are dropped. Spans of traces
+ * whose root never ends here expire after a minute.
+ */
+@Component
+public class SlowRequestLog implements SpanProcessor {
+
+  private static final Logger log = LoggerFactory.getLogger(SlowRequestLog.class);
+
+  private final long thresholdNanos;
+  private final Cache<String, Queue<SpanData>> pending = Caffeine.newBuilder()
+      .expireAfterWrite(Duration.ofMinutes(1))
+      .maximumSize(10_000)
+      .build();
+
+  public SlowRequestLog(@Value("${app.tracing.slowRequestThreshold:2s}") Duration threshold) {
+    this.thresholdNanos = threshold.toNanos();
+  }
+
+  @Override
+  public void onStart(Context parentContext, ReadWriteSpan span) {
+  }
+
+  @Override
+  public boolean isStartRequired() {
+    return false;
+  }
+
+  @Override
+  public void onEnd(ReadableSpan span) {
+    SpanData data = span.toSpanData();
+    SpanContext parent = data.getParentSpanContext();
+    if (parent.isValid() && !parent.isRemote()) {
+      pending.get(data.getTraceId(), id -> new ConcurrentLinkedQueue<>()).add(data);
+      return;
+    }
+    Queue<SpanData> children = pending.asMap().remove(data.getTraceId());
+    if (duration(data) >= thresholdNanos && log.isWarnEnabled()) {
+      log.warn(breakdown(data, children == null ? List.of() : children));
+    }
+  }
+
+  @Override
+  public boolean isEndRequired() {
+    return thresholdNanos > 0;
+  }
+
+  /** The root's line, then its descendants indented by depth in start order. */
+  String breakdown(SpanData root, Collection<SpanData> spans) {
+    Set<String> ids = spans.stream().map(SpanData::getSpanId).collect(Collectors.toSet());
+    Map<String, List<SpanData>> byParent = new HashMap<>();
+    for (SpanData s : spans) {
+      // a span whose parent ended after the root (or never) is shown under the root
+      String parent = ids.contains(s.getParentSpanId()) ? s.getParentSpanId() : root.getSpanId();
+      byParent.computeIfAbsent(parent, p -> new ArrayList<>()).add(s);
+    }
+    StringBuilder out = new StringBuilder()
+        .append("Slow request: ").append(root.getName())
+        .append(" took ").append(duration(root) / 1_000_000).append(" ms")
+        .append(" (threshold ").append(thresholdNanos / 1_000_000).append(" ms), trace ")
+        .append(root.getTraceId());
+    append(out, root, root.getStartEpochNanos(), 0, byParent);
+    return out.toString();
+  }
+
+  private static void append(StringBuilder out, SpanData span, long t0, int depth,
+                             Map<String, List<SpanData>> byParent) {
+    out.append(String.format("%n%8.1f ms %8.1f ms  ", (span.getStartEpochNanos() - t0) / 1e6, duration(span) / 1e6))
+        .append("  ".repeat(depth))
+        .append(span.getName());
+    if (span.getStatus().getStatusCode() == StatusCode.ERROR) {
+      out.append(" ERROR");
+      if (!span.getStatus().getDescription().isEmpty()) out.append(' ').append(span.getStatus().getDescription());
+    }
+    Map<String, Object> attributes = new TreeMap<>();
+    span.getAttributes().forEach((k, v) -> {
+      if (!"none".equals(v)) attributes.put(k.getKey(), v);
+    });
+    if (!attributes.isEmpty()) out.append(' ').append(attributes);
+    List<SpanData> children = byParent.get(span.getSpanId());
+    if (children == null) return;
+    children.sort(Comparator.comparingLong(SpanData::getStartEpochNanos));
+    for (SpanData child : children) append(out, child, t0, depth + 1, byParent);
+  }
+
+  private static long duration(SpanData span) {
+    return span.getEndEpochNanos() - span.getStartEpochNanos();
+  }
+}
@@ -0,0 +1,61 @@
+package com.example.farm_planner.config;
+
+import java.time.Duration;
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import io.opentelemetry.api.common.Attributes;
+import io.opentelemetry.api.trace.SpanKind;
+import io.opentelemetry.context.Context;
+import io.opentelemetry.exporter.logging.otlp.OtlpJsonLoggingSpanExporter;
+import io.opentelemetry.sdk.trace.data.LinkData;
+import io.opentelemetry.sdk.trace.export.SpanExporter;
+import io.opentelemetry.sdk.trace.samplers.Sampler;
+import io.opentelemetry.sdk.trace.samplers.SamplingDecision;
+import io.opentelemetry.sdk.trace.samplers.SamplingResult;
+
+/**
+ * Tracing on top of Boot's Micrometer / OpenTelemetry setup ({@code management.tracing.*}).
+ *
+ * Spans go to an OTLP collector when {@code management.otlp.tracing.endpoint} is set, and as
+ * OTLP JSON lines into the application log with {@code app.tracing.logSpans} (a collector's
+ * file receiver can pick those up). While {@link SlowRequestLog} is on, every span is recorded
+ * so slow requests are always caught; {@code management.tracing.sampling.probability} then only
+ * decides which traces are exported.
+ */
+@Configuration
+public class TracingConfig {
+
+  @Bean
+  Sampler otelSampler(@Value("${management.tracing.sampling.probability:0.1}") double probability,
+                      @Value("${app.tracing.slowRequestThreshold:2s}") Duration slowRequestThreshold) {
+    Sampler exported = Sampler.parentBased(Sampler.traceIdRatioBased(probability));
+    return slowRequestThreshold.isZero() ? exported : new RecordAll(exported);
+  }
+
+  @Bean
+  @ConditionalOnProperty("app.tracing.logSpans")
+  SpanExporter otlpJsonLogExporter() {
+    return OtlpJsonLoggingSpanExporter.create();
+  }
+
+  /** Keeps the delegate's sampled/not-sampled decision but records the spans it would drop. */
+  private record RecordAll(Sampler delegate) implements Sampler {
+
+    @Override
+    public SamplingResult shouldSample(Context parentContext, String traceId, String name, SpanKind spanKind,
+                                       Attributes attributes, List<LinkData> parentLinks) {
+      SamplingResult result = delegate.shouldSample(parentContext, traceId, name, spanKind, attributes, parentLinks);
+      return result.getDecision() == SamplingDecision.DROP ? SamplingResult.recordOnly() : result;
+    }
+
+    @Override
+    public String getDescription() {
+      return "RecordAll{" + delegate.getDescription() + "}";
+    }
+  }
+}
@@ -0,0 +1,12 @@
+package com.example.farm_planner.config;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/** An upstream call that still failed (timeout, connection error, 5xx) after its retries. */
+@ResponseStatus(HttpStatus.BAD_GATEWAY)
+public class UpstreamException extends RuntimeException {
+  public UpstreamException(String host, String detail, Throwable cause) {
+    super(host + " failed: " + detail, cause);
+  }
+}
@@ -0,0 +1,333 @@
+package com.example.farm_planner.config;
+
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
+
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.ExchangeFilterFunction;
+import org.springframework.web.reactive.function.client.ExchangeFunction;
+import org.springframework.web.reactive.function.client.WebClientRequestException;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
+import io.micrometer.observation.contextpropagation.ObservationThreadLocalAccessor;
+import io.netty.handler.timeout.ReadTimeoutException;
+import reactor.core.Disposable;
+import reactor.core.Disposables;
+import reactor.core.publisher.Mono;
+import reactor.netty.http.client.HttpClientRequest;
+import reactor.util.retry.Retry;
+
+/**
+ * Timeouts, retries, circuit breaking and hedging for the shared WebClient, per upstream
+ * host ({@code app.outbound.upstreams}).
+ *
+ * Every attempt gets the host's response timeout. Idempotent requests that time out, fail to
+ * connect, or answer 5xx/429 are retried with jittered exponential backoff; when retries run
+ * out the caller gets {@link UpstreamException}. Consecutive failed attempts open the host's
+ * circuit: calls then fail fast with {@link UpstreamUnavailableException} until {@code openFor}
+ * has passed and a single probe succeeds. With {@code hedgeAfter} set, a slow GET gets a
+ * second copy and the first answer wins.
+ *
+ * Registered outside {@link OutboundScheduler}, so every attempt (retries and hedges too)
+ * takes its own rate-limit token; latencies therefore include any local queueing.
+ *
+ * Meters per host: {@code farm.upstream.circuit.state} (0 closed, 1 half-open, 2 open),
+ * {@code farm.upstream.circuit.transitions}, and {@code farm.upstream.retries} / {@code .hedges} /
+ * {@code .hedge.wins} / {@code .short.circuited}. Each attempt is a {@code farm.upstream.attempt}
+ * observation under the WebClient's http.client.requests one, so it shows up both as a timer
+ * (by outcome) and as its own span in the trace.
+ */
+@Component
+public class UpstreamResilience {
+
+  private final OutboundProperties props;
+  private final MeterRegistry registry;
+  private final ObservationRegistry observations;
+  private final Map<String, Host> hosts = new ConcurrentHashMap<>();
+
+  public UpstreamResilience(OutboundProperties props, MeterRegistry registry, ObservationRegistry observations) {
+    this.props = props;
+    this.registry = registry;
+    this.observations = observations;
+  }
+
+  public ExchangeFilterFunction filter() {
+    return (request, next) -> {
+      Host h = hosts.computeIfAbsent(request.url().getHost(),
+          host -> new Host(host, props.upstreams().getOrDefault(host, OutboundProperties.Upstream.DEFAULTS), registry, observations));
+      OutboundProperties.Upstream p = h.policy;
+      boolean idempotent = request.method() == HttpMethod.GET || request.method() == HttpMethod.HEAD;
+
+      ClientRequest timed = ClientRequest.from(request)
+          .httpRequest(r -> {
+            if (r.getNativeRequest() instanceof HttpClientRequest netty) netty.responseTimeout(p.timeout());
+          })
+          .build();
+      Mono<ClientResponse> attempt = Mono.deferContextual(ctx ->
+          h.attempt(timed, next, ctx.getOrDefault(ObservationThreadLocalAccessor.KEY, null)));
+      Mono<ClientResponse> call = idempotent && p.hedgeAfter() != null ? hedged(h, attempt) : attempt;
+
+      return call
+          .retryWhen(Retry.backoff(idempotent ? p.maxRetries() : 0, p.backoff())
+              .maxBackoff(p.maxBackoff())
+              .jitter(p.jitter())
+              .filter(UpstreamResilience::retryable)
+              .doBeforeRetry(s -> h.retries.incrementAndGet())
+              .onRetryExhaustedThrow((spec, s) -> s.failure()))
+          .onErrorMap(UpstreamResilience::retryable, e -> new UpstreamException(h.name, detail(e, p), e));
+    };
+  }
+
+  /** Per-host circuit state, counters and latency percentiles. */
+  public Map<String, Object> stats() {
+    Map<String, Object> out = new LinkedHashMap<>();
+    hosts.forEach((host, h) -> out.put(host, h.stats()));
+    return out;
+  }
+
+  private static boolean retryable(Throwable e) {
+    return e instanceof WebClientRequestException || e instanceof TimeoutException || e instanceof StatusFailure;
+  }
+
+  private static String detail(Throwable e, OutboundProperties.Upstream p) {
+    if (e.getCause() instanceof ReadTimeoutException) return "no response within " + p.timeout().toMillis() + " ms";
+    return e.getMessage() == null ? e.toString() : e.getMessage();
+  }
+
+  private static boolean failureStatus(HttpStatusCode sc) {
+    return sc.is5xxServerError() || sc.value() == HttpStatus.TOO_MANY_REQUESTS.value();
+  }
+
+  /**
+   * First response of {@code attempt} and a copy started after hedgeAfter. An error before
+   * the copy starts is returned at once (retries handle it); afterwards the survivor wins.
+   */
+  private static Mono<ClientResponse> hedged(Host h, Mono<ClientResponse> attempt) {
+    return Mono.create(sink -> {
+      AtomicBoolean done = new AtomicBoolean();
+      AtomicInteger pending = new AtomicInteger(1);
+      AtomicReference<Throwable> firstError = new AtomicReference<>();
+      Disposable.Composite running = Disposables.composite();
+      sink.onDispose(running);
+
+      Consumer<Boolean> launch = isHedge -> running.add(attempt
+          .contextWrite(sink.contextView())
+          .subscribe(resp -> {
+            if (done.compareAndSet(false, true)) {
+              if (isHedge) h.hedgeWins.incrementAndGet();
+              sink.success(resp);
+            } else {
+              resp.releaseBody().subscribe();
+            }
+          }, err -> {
+            firstError.compareAndSet(null, err);
+            if (pending.decrementAndGet() == 0 && done.compareAndSet(false, true)) sink.error(firstError.get());
+          }));
+
+      launch.accept(false);
+      running.add(Mono.delay(h.policy.hedgeAfter()).subscribe(t -> {
+        if (done.get()) return;
+        pending.incrementAndGet();
+        h.hedges.incrementAndGet();
+        launch.accept(true);
+      }));
+    });
+  }
+
+  /** 5xx/429 turned into an error so retry and breaker treat it like a timeout. */
+  private static final class StatusFailure extends RuntimeException {
+    StatusFailure(HttpStatusCode status) {
+      super("HTTP " + status.value(), null, false, false);
+    }
+  }
+
+  /* ---------- per-host breaker + counters ---------- */
+
+  private enum State { CLOSED, HALF_OPEN, OPEN } // ordinal = circuit.state gauge value
+
+  private static final class Host {
+    private static final int LATENCY_SAMPLES = 1024;
+
+    final String name;
+    final OutboundProperties.Upstream policy;
+    private final MeterRegistry registry;
+    private final ObservationRegistry observations;
+    final AtomicInteger retries = new AtomicInteger();
+    final AtomicInteger hedges = new AtomicInteger();
+    final AtomicInteger hedgeWins = new AtomicInteger();
+
+    // guarded by this
+    private State state = State.CLOSED;
+    private int failuresInARow;
+    private long openUntil;
+    private boolean probing;
+    private long attempts, failures, shortCircuited;
+    private final Map<String, Long> transitions = new LinkedHashMap<>();
+    private Instant lastTransition;
+    private final long[] latencies = new long[LATENCY_SAMPLES];
+    private long latencyCount;
+
+    Host(String name, OutboundProperties.Upstream policy, MeterRegistry registry, ObservationRegistry observations) {
+      this.name = name;
+      this.policy = policy;
+      this.registry = registry;
+      this.observations = observations;
+      Gauge.builder("farm.upstream.circuit.state", this, h -> h.state().ordinal())
+          .description("0 = closed, 1 = half-open, 2 = open")
+          .tag("host", name)
+          .register(registry);
+      FunctionCounter.builder("farm.upstream.retries", retries, AtomicInteger::get).tag("host", name).register(registry);
+      FunctionCounter.builder("farm.upstream.hedges", hedges, AtomicInteger::get).tag("host", name).register(registry);
+      FunctionCounter.builder("farm.upstream.hedge.wins", hedgeWins, AtomicInteger::get).tag("host", name).register(registry);
+      FunctionCounter.builder("farm.upstream.short.circuited", this, Host::shortCircuited).tag("host", name).register(registry);
+    }
+
+    private synchronized State state() {
+      return state;
+    }
+
+    private synchronized double shortCircuited() {
+      return shortCircuited;
+    }
+
+    Mono<ClientResponse> attempt(ClientRequest request, ExchangeFunction next, Observation parent) {
+      long waitNanos = tryAcquire();
+      if (waitNanos > 0) {
+        return Mono.error(new UpstreamUnavailableException(name, (waitNanos + 999_999_999) / 1_000_000_000));
+      }
+      Observation observation = Observation.createNotStarted("farm.upstream.attempt", observations)
+          .contextualName("attempt " + name)
+          .parentObservation(parent)
+          .lowCardinalityKeyValue("host", name)
+          .start();
+      long t0 = System.nanoTime();
+      AtomicBoolean recorded = new AtomicBoolean();
+      BooleanSupplier once = () -> recorded.compareAndSet(false, true);
+      return next.exchange(request)
+          .flatMap(resp -> {
+            if (!once.getAsBoolean()) return Mono.just(resp);
+            boolean failed = failureStatus(resp.statusCode());
+            record(System.nanoTime() - t0, !failed);
+            observation.highCardinalityKeyValue("status", Integer.toString(resp.statusCode().value()));
+            stop(observation, failed ? "failure" : "success", null);
+            return failed ? resp.releaseBody().then(Mono.error(new StatusFailure(resp.statusCode()))) : Mono.just(resp);
+          })
+          .doOnError(e -> {
+            if (!once.getAsBoolean()) return;
+            if (e instanceof OutboundRejectedException) {
+              release();
+              stop(observation, "rejected", e);
+            } else {
+              record(System.nanoTime() - t0, false);
+              stop(observation, "failure", e);
+            }
+          })
+          .doOnCancel(() -> {
+            if (!once.getAsBoolean()) return;
+            release();
+            stop(observation, "cancelled", null);
+          });
+    }
+
+    private static void stop(Observation observation, String outcome, Throwable error) {
+      if (error != null) observation.error(error);
+      observation.lowCardinalityKeyValue("outcome", outcome).stop();
+    }
+
+    /** 0 when the call may proceed, else nanos until the circuit lets a probe through. */
+    private synchronized long tryAcquire() {
+      long now = System.nanoTime();
+      if (state == State.OPEN && now - openUntil >= 0) transition(State.HALF_OPEN);
+      if (state == State.CLOSED || (state == State.HALF_OPEN && !probing)) {
+        if (state == State.HALF_OPEN) probing = true;
+        return 0;
+      }
+      shortCircuited++;
+      return Math.max(1, openUntil - now);
+    }
+
+    private synchronized void record(long nanos, boolean ok) {
+      attempts++;
+      latencies[(int) (latencyCount++ % LATENCY_SAMPLES)] = nanos;
+      if (ok) {
+        failuresInARow = 0;
+        if (state == State.HALF_OPEN) transition(State.CLOSED);
+      } else {
+        failures++;
+        failuresInARow++;
+        if (state == State.HALF_OPEN || (state == State.CLOSED && failuresInARow >= policy.failureThreshold())) {
+          openUntil = System.nanoTime() + policy.openFor().toNanos();
+          transition(State.OPEN);
+        }
+      }
+      probing = false;
+    }
+
+    // an attempt that never reached the upstream (cancelled, or rejected by the rate limiter)
+    private synchronized void release() {
+      probing = false;
+    }
+
+    private void transition(State to) {
+      transitions.merge(state + "->" + to, 1L, Long::sum);
+      Counter.builder("farm.upstream.circuit.transitions")
+          .tag("host", name)
+          .tag("from", state.name())
+          .tag("to", to.name())
+          .register(registry)
+          .increment();
+      state = to;
+      lastTransition = Instant.now();
+    }
+
+    synchronized Map<String, Object> stats() {
+      int n = (int) Math.min(latencyCount, LATENCY_SAMPLES);
+      long[] sorted = Arrays.copyOf(latencies, n);
+      Arrays.sort(sorted);
+      Map<String, Object> latency = new LinkedHashMap<>();
+      latency.put("samples", n);
+      latency.put("p50Ms", percentileMs(sorted, 0.50));
+      latency.put("p95Ms", percentileMs(sorted, 0.95));
+      latency.put("p99Ms", percentileMs(sorted, 0.99));
+      latency.put("maxMs", n == 0 ? 0.0 : sorted[n - 1] / 1e6);
+
+      Map<String, Object> out = new LinkedHashMap<>();
+      out.put("state", state.name());
+      out.put("attempts", attempts);
+      out.put("failures", failures);
+      out.put("failuresInARow", failuresInARow);
+      out.put("retries", retries.get());
+      out.put("shortCircuited", shortCircuited);
+      out.put("hedges", hedges.get());
+      out.put("hedgeWins", hedgeWins.get());
+      out.put("transitions", new LinkedHashMap<>(transitions));
+      out.put("lastTransition", lastTransition == null ? null : lastTransition.toString());
+      out.put("latency", latency);
+      return out;
+    }
+
+    private static double percentileMs(long[] sorted, double q) {
+      if (sorted.length == 0) return 0.0;
+      return sorted[Math.min(sorted.length - 1, (int) Math.ceil(q * sorted.length) - 1)] / 1e6;
+    }
+  }
+}
@@ -0,0 +1,20 @@
+package com.example.farm_planner.config;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/** Raised without calling out while an upstream host's circuit breaker is open. */
+@ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+public class UpstreamUnavailableException extends RuntimeException {
+  private final long retryInSeconds;
+
+  public UpstreamUnavailableException(String host, long retryInSeconds) {
+    super(host + " is failing; not calling it for another " + retryInSeconds + "s");
+    this.retryInSeconds = retryInSeconds;
+  }
+
+  /** Seconds until the circuit lets a trial call through. */
+  public long retryInSeconds() {
+    return retryInSeconds;
+  }
+}
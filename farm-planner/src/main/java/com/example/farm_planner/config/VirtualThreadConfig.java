@@ -0,0 +1,57 @@
+package com.example.farm_planner.config;
+
+import java.net.http.HttpClient;
+import java.time.Duration;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.client.JdkClientHttpRequestFactory;
+import org.springframework.web.client.RestClient;
+
+/**
+ * Virtual-thread run mode (profile "virtual", see application-virtual.yml): Tomcat hands
+ * each request to a virtual thread and the quick lookup calls Nominatim/ArcGIS through a
+ * blocking {@link RestClient}, so a slow upstream parks a cheap virtual thread instead of
+ * pinning one of Tomcat's 200 platform workers.
+ *
+ * Needs a Java 21+ runtime (a JDK 21 build targets 21, see the pom's java21 profile). On
+ * anything older the context refuses to start: Boot would silently ignore
+ * spring.threads.virtual.enabled and run the blocking code on the regular worker pool.
+ */
+@Configuration
+@Profile("virtual")
+public class VirtualThreadConfig {
+
+  private static final Logger log = LoggerFactory.getLogger(VirtualThreadConfig.class);
+
+  @Bean
+  RestClient restClient(@Value("${app.nominatimUserAgent}") String ua,
+                        @Value("${app.outbound.connectTimeout:5s}") Duration connectTimeout,
+                        @Value("${app.outbound.readTimeout:30s}") Duration readTimeout,
+                        OutboundScheduler outbound) {
+    if (Runtime.version().feature() < 21) {
+      throw new IllegalStateException("Profile 'virtual' needs a Java 21+ runtime, running " + Runtime.version());
+    }
+    log.info("Profile 'virtual': requests run on virtual threads");
+    var factory = new JdkClientHttpRequestFactory(HttpClient.newBuilder()
+        .connectTimeout(connectTimeout)
+        .followRedirects(HttpClient.Redirect.NORMAL)
+        .build());
+    factory.setReadTimeout(readTimeout);
+
+    return RestClient.builder()
+        .requestFactory(factory)
+        // Nominatim requires a real User-Agent (ideally with an email)
+        .defaultHeader("User-Agent", ua)
+        // same per-host token buckets as the WebClient; parking here is cheap on a virtual thread
+        .requestInterceptor((request, body, execution) -> {
+          outbound.acquire(request.getURI().getHost(), OutboundScheduler.Priority.INTERACTIVE).block();
+          return execution.execute(request, body);
+        })
+        .build();
+  }
+}
@@ -1,23 +1,58 @@
 package com.example.farm_planner.config;
 
+import java.time.Duration;
+
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
 import org.springframework.web.reactive.function.client.ExchangeStrategies;
 import org.springframework.web.reactive.function.client.WebClient;
 
+import io.netty.channel.ChannelOption;
+import reactor.netty.http.HttpProtocol;
+import reactor.netty.http.client.HttpClient;
+
 @Configuration
+@EnableConfigurationProperties(OutboundProperties.class)
 public class WebConfig {
 
   @Bean
-  WebClient webClient(@Value("${app.nominatimUserAgent}") String ua) {
-    return WebClient.builder()
+  WebClient webClient(WebClient.Builder builder,
+                      @Value("${app.nominatimUserAgent}") String ua,
+                      @Value("${app.outbound.connectTimeout:5s}") Duration connectTimeout,
+                      @Value("${app.outbound.http2:true}") boolean http2,
+                      @Value("${app.outbound.compression:true}") boolean compression,
+                      @Value("${app.outbound.dnsCacheTtl:5m}") Duration dnsCacheTtl,
+                      OutboundPools pools,
+                      UpstreamResilience resilience,
+                      OutboundScheduler outbound,
+                      PipelineMetrics metrics) {
+    HttpClient http = HttpClient.create(pools.provider())
+        .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, (int) connectTimeout.toMillis())
+        .option(ChannelOption.SO_KEEPALIVE, true)
+        // HTTP/2 is negotiated via ALPN on https and falls back to HTTP/1.1; plain http stays 1.1
+        .protocol(http2 ? new HttpProtocol[] { HttpProtocol.H2, HttpProtocol.HTTP11 } : new HttpProtocol[] { HttpProtocol.HTTP11 })
+        // Accept-Encoding: gzip, decoded transparently (also deflate if a server sends it)
+        .compress(compression)
+        // Netty's async resolver with a bounded cache instead of a blocking lookup per connection
+        .resolver(spec -> spec.cacheMaxTimeToLive(dnsCacheTtl).cacheNegativeTimeToLive(Duration.ofSeconds(30)));
+    // Boot's builder: http.client.requests observations per exchange
+    return builder
+        .clientConnector(new ReactorClientHttpConnector(http))
         // Nominatim requires a real User-Agent (ideally with an email)
         .defaultHeader("User-Agent", ua)
+        // Per-host timeouts, retries, circuit breaker and hedging (app.outbound.upstreams)
+        .filter(resilience.filter())
+        // Per-host token buckets (app.outbound.hosts) with interactive-first queuing, per attempt
+        .filter(outbound.filter())
+        // Decoded body size of every response that reaches us (farm.upstream.payload)
+        .filter(metrics.payloadSizes())
         // Allow slightly larger JSON payloads from GIS (polygons can be big)
         .exchangeStrategies(ExchangeStrategies.builder()
             .codecs(c -> c.defaultCodecs().maxInMemorySize(10 * 1024 * 1024)) // 10 MB
             .build())
         .build();
   }
-}
\ No newline at end of file
+}
@@ -0,0 +1,185 @@
+package com.example.farm_planner.geo;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Compact polygon representation for GeoJSON Polygon / MultiPolygon geometries.
+ *
+ * A geometry is held as {@code double[polygon][ring][x0,y0,x1,y1,...]} (x = lon, y = lat),
+ * which is far smaller than the nested List/Double maps Jackson produces and lets ring
+ * tests run over primitive arrays.
+ */
+public final class GeoJsonGeometry {
+
+  private GeoJsonGeometry() {}
+
+  /** Parse a GeoJSON geometry map ({type, coordinates}); returns an empty array for anything else. */
+  public static double[][][] polygons(Map<String, Object> geometry) {
+    if (geometry == null) return new double[0][][];
+    Object type = geometry.get("type");
+    Object coords = geometry.get("coordinates");
+    if ("Polygon".equals(type)) {
+      return new double[][][] { polygon(coords) };
+    }
+    if ("MultiPolygon".equals(type)) {
+      List<Object> polys = elements(coords);
+      double[][][] out = new double[polys.size()][][];
+      for (int i = 0; i < out.length; i++) out[i] = polygon(polys.get(i));
+      return out;
+    }
+    return new double[0][][];
+  }
+
+  /** Build a GeoJSON geometry map back from the compact form (Polygon when there is one part). */
+  public static Map<String, Object> toGeometry(double[][][] polygons) {
+    if (polygons.length == 1) {
+      return Map.of("type", "Polygon", "coordinates", coordinates(polygons[0]));
+    }
+    List<Object> parts = new ArrayList<>(polygons.length);
+    for (double[][] p : polygons) parts.add(coordinates(p));
+    return Map.of("type", "MultiPolygon", "coordinates", parts);
+  }
+
+  /**
+   * Convert an esri JSON polygon ({rings: [...]}) to a GeoJSON geometry map. Esri rings are
+   * clockwise for outer boundaries and counter-clockwise for holes; each hole is attached
+   * to the outer ring that contains it. Rings are reversed to GeoJSON's right-hand rule.
+   */
+  public static Map<String, Object> fromEsri(Map<String, Object> esriGeometry) {
+    if (esriGeometry == null) return null;
+    List<Object> rings = elements(esriGeometry.get("rings"));
+    double[][] parsed = polygon(rings);
+    List<List<double[]>> polys = new ArrayList<>();
+    List<double[]> holes = new ArrayList<>();
+    for (double[] ring : parsed) {
+      if (ring.length < 6) continue;
+      if (signedArea(ring) <= 0) {
+        polys.add(new ArrayList<>(List.of(reverse(ring))));
+      } else {
+        holes.add(reverse(ring));
+      }
+    }
+    for (double[] hole : holes) {
+      List<double[]> owner = null;
+      for (List<double[]> p : polys) {
+        if (contains(new double[][][] { { p.get(0) } }, hole[0], hole[1])) { owner = p; break; }
+      }
+      if (owner == null) polys.add(new ArrayList<>(List.of(hole))); // orphan: treat as its own part
+      else owner.add(hole);
+    }
+    if (polys.isEmpty()) return null;
+    double[][][] out = new double[polys.size()][][];
+    for (int i = 0; i < out.length; i++) out[i] = polys.get(i).toArray(new double[0][]);
+    return toGeometry(out);
+  }
+
+  /** Bounding box {minX, minY, maxX, maxY}; NaNs when there are no coordinates. */
+  public static double[] bounds(double[][][] polygons) {
+    double minX = Double.POSITIVE_INFINITY, minY = Double.POSITIVE_INFINITY;
+    double maxX = Double.NEGATIVE_INFINITY, maxY = Double.NEGATIVE_INFINITY;
+    for (double[][] poly : polygons) {
+      for (double[] ring : poly) {
+        for (int i = 0; i + 1 < ring.length; i += 2) {
+          double x = ring[i], y = ring[i + 1];
+          if (x < minX) minX = x;
+          if (x > maxX) maxX = x;
+          if (y < minY) minY = y;
+          if (y > maxY) maxY = y;
+        }
+      }
+    }
+    if (minX > maxX) return new double[] { Double.NaN, Double.NaN, Double.NaN, Double.NaN };
+    return new double[] { minX, minY, maxX, maxY };
+  }
+
+  /**
+   * Even-odd point-in-polygon test across every ring (outer rings and holes alike).
+   * For valid geometry this matches "inside an outer ring and not inside one of its holes".
+   */
+  public static boolean contains(double[][][] polygons, double x, double y) {
+    boolean inside = false;
+    for (double[][] poly : polygons) {
+      for (double[] ring : poly) {
+        int n = ring.length / 2;
+        for (int i = 0, j = n - 1; i < n; j = i++) {
+          double xi = ring[2 * i], yi = ring[2 * i + 1];
+          double xj = ring[2 * j], yj = ring[2 * j + 1];
+          if ((yi > y) != (yj > y) && x < (xj - xi) * (y - yi) / (yj - yi) + xi) {
+            inside = !inside;
+          }
+        }
+      }
+    }
+    return inside;
+  }
+
+  /* ---------- helpers ---------- */
+
+  private static double[][] polygon(Object coords) {
+    List<Object> rings = elements(coords);
+    double[][] out = new double[rings.size()][];
+    for (int r = 0; r < out.length; r++) {
+      List<Object> pts = elements(rings.get(r));
+      double[] ring = new double[pts.size() * 2];
+      for (int i = 0; i < pts.size(); i++) {
+        List<Object> pt = elements(pts.get(i));
+        ring[2 * i] = num(pt.get(0));
+        ring[2 * i + 1] = num(pt.get(1));
+      }
+      out[r] = ring;
+    }
+    return out;
+  }
+
+  /** Shoelace area of a flat ring; positive when counter-clockwise. */
+  public static double signedArea(double[] ring) {
+    double a = 0;
+    int n = ring.length / 2;
+    for (int i = 0, j = n - 1; i < n; j = i++) {
+      a += ring[2 * j] * ring[2 * i + 1] - ring[2 * i] * ring[2 * j + 1];
+    }
+    return a / 2;
+  }
+
+  private static double[] reverse(double[] ring) {
+    int n = ring.length / 2;
+    double[] out = new double[ring.length];
+    for (int i = 0; i < n; i++) {
+      out[2 * i] = ring[2 * (n - 1 - i)];
+      out[2 * i + 1] = ring[2 * (n - 1 - i) + 1];
+    }
+    return out;
+  }
+
+  private static List<double[]> coordinates(double[] ring) {
+    List<double[]> pts = new ArrayList<>(ring.length / 2);
+    for (int i = 0; i + 1 < ring.length; i += 2) pts.add(new double[] { ring[i], ring[i + 1] });
+    return pts;
+  }
+
+  private static List<List<double[]>> coordinates(double[][] polygon) {
+    List<List<double[]>> rings = new ArrayList<>(polygon.length);
+    for (double[] ring : polygon) rings.add(coordinates(ring));
+    return rings;
+  }
+
+  // Coordinates may arrive as Jackson Lists or as Java arrays (e.g. the mock profile).
+  @SuppressWarnings("unchecked")
+  private static List<Object> elements(Object o) {
+    if (o instanceof List<?> l) return (List<Object>) l;
+    if (o instanceof Object[] a) return List.of(a);
+    if (o instanceof double[] d) {
+      List<Object> out = new ArrayList<>(d.length);
+      for (double v : d) out.add(v);
+      return out;
+    }
+    return List.of();
+  }
+
+  private static double num(Object o) {
+    if (o instanceof Number n) return n.doubleValue();
+    return Double.parseDouble(String.valueOf(o));
+  }
+}
@@ -0,0 +1,173 @@
+package com.example.farm_planner.geo;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Douglas-Peucker simplification and compact encodings for parcel polygons in the
+ * {@code double[polygon][ring][x0,y0,...]} form of {@link GeoJsonGeometry}.
+ *
+ * Tolerances are in metres, measured on a local equirectangular projection (good to well
+ * under 1% at parcel scale). Rings stay closed and never drop below a triangle; holes no
+ * bigger than the tolerance are removed instead.
+ */
+public final class GeometrySimplifier {
+
+  private static final double M_PER_DEG_LAT = 111_320;
+  // Web Mercator ground resolution at the equator, zoom 0, 256 px tiles
+  private static final double M_PER_PX_Z0 = 156_543.034;
+
+  private GeometrySimplifier() {}
+
+  /** Tolerance (metres) of one screen pixel at the given web-map zoom and latitude. */
+  public static double pixelMetres(int zoom, double lat) {
+    return M_PER_PX_Z0 * Math.cos(Math.toRadians(lat)) / Math.pow(2, zoom);
+  }
+
+  /** Simplify every ring; tolerance <= 0 returns the input unchanged. */
+  public static double[][][] simplify(double[][][] polygons, double toleranceM) {
+    if (toleranceM <= 0) return polygons;
+    List<double[][]> out = new ArrayList<>(polygons.length);
+    for (double[][] poly : polygons) {
+      if (poly.length == 0) continue;
+      List<double[]> rings = new ArrayList<>(poly.length);
+      for (int r = 0; r < poly.length; r++) {
+        double[] ring = simplifyRing(poly[r], toleranceM, r == 0);
+        if (ring != null) rings.add(ring);
+        else if (r == 0) rings.add(poly[0]); // degenerate outer ring: keep as is
+      }
+      out.add(rings.toArray(new double[0][]));
+    }
+    return out.toArray(new double[0][][]);
+  }
+
+  /** Total vertex count across all rings. */
+  public static int vertices(double[][][] polygons) {
+    int n = 0;
+    for (double[][] poly : polygons) for (double[] ring : poly) n += ring.length / 2;
+    return n;
+  }
+
+  /**
+   * Simplified closed ring, or null when it is degenerate (or, unless {@code keepSmall},
+   * fits within the tolerance). The ring is split at the vertex farthest from its start so
+   * both halves have a real baseline; each half then runs iterative Douglas-Peucker.
+   */
+  static double[] simplifyRing(double[] ring, double toleranceM, boolean keepSmall) {
+    int n = ring.length / 2;
+    if (n < 4) return null;
+    double kx = M_PER_DEG_LAT * Math.cos(Math.toRadians(ring[1])), ky = M_PER_DEG_LAT;
+    double tol2 = toleranceM * toleranceM;
+
+    int far = 0;
+    double farD = -1;
+    for (int i = 1; i < n - 1; i++) {
+      double dx = (ring[2 * i] - ring[0]) * kx, dy = (ring[2 * i + 1] - ring[1]) * ky;
+      double d = dx * dx + dy * dy;
+      if (d > farD) { farD = d; far = i; }
+    }
+    if (far == 0 || (!keepSmall && farD <= tol2)) return null;
+
+    boolean[] keep = new boolean[n];
+    keep[0] = keep[far] = keep[n - 1] = true;
+    int[] stack = new int[2 * n];
+    int sp = 0;
+    stack[sp++] = 0; stack[sp++] = far;
+    stack[sp++] = far; stack[sp++] = n - 1;
+    int kept = 3;
+    int bestAny = -1;
+    double bestAnyD = -1;
+    while (sp > 0) {
+      int b = stack[--sp], a = stack[--sp];
+      int best = -1;
+      double bestD = -1;
+      for (int i = a + 1; i < b; i++) {
+        double d = segDist2(ring, i, a, b, kx, ky);
+        if (d > bestD) { bestD = d; best = i; }
+      }
+      if (best < 0) continue;
+      if (bestD > tol2) {
+        keep[best] = true;
+        kept++;
+        stack[sp++] = a; stack[sp++] = best;
+        stack[sp++] = best; stack[sp++] = b;
+      } else if (bestD > bestAnyD) {
+        bestAnyD = bestD;
+        bestAny = best;
+      }
+    }
+    if (kept < 4) {
+      // start, far point and closure alone are a line: keep the next most significant vertex
+      if (bestAny < 0 || bestAnyD < tol2 * 1e-4) return null;
+      keep[bestAny] = true;
+      kept++;
+    }
+
+    double[] out = new double[kept * 2];
+    for (int i = 0, j = 0; i < n; i++) {
+      if (!keep[i]) continue;
+      out[j++] = ring[2 * i];
+      out[j++] = ring[2 * i + 1];
+    }
+    return out;
+  }
+
+  // squared distance (m^2) from vertex i to segment a-b
+  private static double segDist2(double[] r, int i, int a, int b, double kx, double ky) {
+    double ax = r[2 * a] * kx, ay = r[2 * a + 1] * ky;
+    double bx = r[2 * b] * kx - ax, by = r[2 * b + 1] * ky - ay;
+    double px = r[2 * i] * kx - ax, py = r[2 * i + 1] * ky - ay;
+    double len2 = bx * bx + by * by;
+    double t = len2 == 0 ? 0 : Math.max(0, Math.min(1, (px * bx + py * by) / len2));
+    double dx = px - t * bx, dy = py - t * by;
+    return dx * dx + dy * dy;
+  }
+
+  /* ---------- encoded polyline ---------- */
+
+  /**
+   * GeoJSON-shaped geometry whose rings are encoded polylines (Google's algorithm, lat
+   * before lon, {@code 10^precision} scaling) instead of coordinate arrays:
+   * {@code {"type":"Polygon","encoding":"polyline6","coordinates":["...", ...]}}.
+   */
+  public static Map<String, Object> toEncodedGeometry(double[][][] polygons, int precision) {
+    String encoding = "polyline" + precision;
+    if (polygons.length == 1) {
+      return Map.of("type", "Polygon", "encoding", encoding, "coordinates", encodeRings(polygons[0], precision));
+    }
+    List<List<String>> parts = new ArrayList<>(polygons.length);
+    for (double[][] poly : polygons) parts.add(encodeRings(poly, precision));
+    return Map.of("type", "MultiPolygon", "encoding", encoding, "coordinates", parts);
+  }
+
+  private static List<String> encodeRings(double[][] poly, int precision) {
+    List<String> rings = new ArrayList<>(poly.length);
+    for (double[] ring : poly) rings.add(encodePolyline(ring, precision));
+    return rings;
+  }
+
+  /** Encode a flat x,y (lon,lat) ring as a polyline string. */
+  public static String encodePolyline(double[] ring, int precision) {
+    double factor = Math.pow(10, precision);
+    StringBuilder sb = new StringBuilder(ring.length * 3);
+    long prevLat = 0, prevLon = 0;
+    for (int i = 0; i + 1 < ring.length; i += 2) {
+      long lat = Math.round(ring[i + 1] * factor), lon = Math.round(ring[i] * factor);
+      encodeValue(lat - prevLat, sb);
+      encodeValue(lon - prevLon, sb);
+      prevLat = lat;
+      prevLon = lon;
+    }
+    return sb.toString();
+  }
+
+  private static void encodeValue(long v, StringBuilder sb) {
+    long s = v < 0 ? ~(v << 1) : v << 1;
+    while (s >= 0x20) {
+      sb.append((char) ((0x20 | (s & 0x1f)) + 63));
+      s >>= 5;
+    }
+    sb.append((char) (s + 63));
+  }
+}
@@ -0,0 +1,312 @@
+package com.example.farm_planner.geo;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Minimal Mapbox Vector Tile (v2) writer for one polygon layer.
+ *
+ * Polygons in the {@link GeoJsonGeometry} form are projected to Web Mercator tile units,
+ * clipped to the tile plus a buffer, snapped to the integer grid and written with the
+ * spec's winding (exterior rings positive area in tile coordinates, holes negative).
+ * The protobuf wire format is written by hand; only the fields MVT needs are covered.
+ */
+public final class MvtEncoder {
+
+  public static final int EXTENT = 4096;
+
+  private static final int GEOM_POLYGON = 3;
+  private static final int CMD_MOVE_TO = 1, CMD_LINE_TO = 2, CMD_CLOSE_PATH = 7;
+
+  private final String layer;
+  private final int z, x, y;
+  private final double buffer;
+
+  private final List<String> keys = new ArrayList<>();
+  private final Map<String, Integer> keyIndex = new HashMap<>();
+  private final List<Object> values = new ArrayList<>();
+  private final Map<Object, Integer> valueIndex = new HashMap<>();
+  private final Pbf features = new Pbf(4096);
+  private int featureCount;
+
+  // scratch reused across features
+  private int[] geom = new int[256];
+  private double[] clipA = new double[64], clipB = new double[64];
+  private int lastX, lastY; // command cursor within the current feature
+
+  /** @param buffer extra tile units kept around the tile edge (clients clip it away) */
+  public MvtEncoder(String layer, int z, int x, int y, int buffer) {
+    this.layer = layer;
+    this.z = z;
+    this.x = x;
+    this.y = y;
+    this.buffer = buffer;
+  }
+
+  /** Longitude/latitude bounds {minX, minY, maxX, maxY} of tile z/x/y grown by {@code buffer} units. */
+  public static double[] bounds(int z, int x, int y, int buffer) {
+    double pad = (double) buffer / EXTENT;
+    return new double[] { tileLon(x - pad, z), tileLat(y + 1 + pad, z), tileLon(x + 1 + pad, z), tileLat(y - pad, z) };
+  }
+
+  private static double tileLon(double tx, int z) {
+    return tx / (1 << z) * 360 - 180;
+  }
+
+  private static double tileLat(double ty, int z) {
+    return Math.toDegrees(Math.atan(Math.sinh(Math.PI * (1 - 2 * ty / (1 << z)))));
+  }
+
+  /**
+   * Add one polygon feature; null property values are skipped. Returns false (and writes
+   * nothing) when no exterior ring survives clipping.
+   */
+  public boolean addPolygon(long id, double[][][] polygons, Map<String, ?> properties) {
+    int n = 0;
+    for (double[][] poly : polygons) {
+      for (int r = 0; r < poly.length; r++) {
+        int before = n;
+        n = ring(poly[r], r == 0, n);
+        if (r == 0 && n == before) break; // exterior gone: skip its holes
+      }
+    }
+    if (n == 0) return false;
+
+    Pbf f = new Pbf(64 + n * 2);
+    f.varintField(1, id);
+    int[] tags = new int[properties.size() * 2];
+    int t = 0;
+    for (Map.Entry<String, ?> e : properties.entrySet()) {
+      if (e.getValue() == null) continue;
+      tags[t++] = keyIndex.computeIfAbsent(e.getKey(), k -> { keys.add(k); return keys.size() - 1; });
+      tags[t++] = valueIndex.computeIfAbsent(e.getValue(), v -> { values.add(v); return values.size() - 1; });
+    }
+    f.packedField(2, tags, t);
+    f.varintField(3, GEOM_POLYGON);
+    f.packedField(4, geom, n);
+    features.bytesField(2, f);
+    featureCount++;
+    return true;
+  }
+
+  public int features() {
+    return featureCount;
+  }
+
+  /** The complete tile (one layer); empty when no feature was added. */
+  public byte[] encode() {
+    if (featureCount == 0) return new byte[0];
+    Pbf l = new Pbf(features.size + 256);
+    l.varintField(15, 2);
+    l.stringField(1, layer);
+    l.raw(features);
+    for (String k : keys) l.stringField(3, k);
+    for (Object v : values) l.bytesField(4, value(v));
+    l.varintField(5, EXTENT);
+    Pbf tile = new Pbf(l.size + 8);
+    tile.bytesField(3, l);
+    return tile.toBytes();
+  }
+
+  private static Pbf value(Object v) {
+    Pbf p = new Pbf(16);
+    if (v instanceof String s) p.stringField(1, s);
+    else if (v instanceof Integer || v instanceof Long) {
+      long l = ((Number) v).longValue();
+      if (l >= 0) p.varintField(5, l); else p.varintField(6, (l << 1) ^ (l >> 63));
+    }
+    else if (v instanceof Boolean b) p.varintField(7, b ? 1 : 0);
+    else if (v instanceof Number num) p.doubleField(3, num.doubleValue());
+    else p.stringField(1, String.valueOf(v));
+    return p;
+  }
+
+  /* ---------- geometry ---------- */
+
+  // Projects, clips and appends one ring's commands at geom[n]; returns the new length.
+  private int ring(double[] lonLat, boolean exterior, int n) {
+    int pts = lonLat.length / 2;
+    double scale = (double) EXTENT * (1 << z);
+    double[] a = ensure(clipA, pts * 2);
+    clipA = a;
+    for (int i = 0; i < pts; i++) {
+      double lon = lonLat[2 * i], lat = Math.max(-85.0511, Math.min(85.0511, lonLat[2 * i + 1]));
+      double s = Math.sin(Math.toRadians(lat));
+      a[2 * i] = ((lon + 180) / 360) * scale - (double) x * EXTENT;
+      a[2 * i + 1] = (0.5 - Math.log((1 + s) / (1 - s)) / (4 * Math.PI)) * scale - (double) y * EXTENT;
+    }
+    // Sutherland-Hodgman against the buffered tile square, one edge at a time
+    double lo = -buffer, hi = EXTENT + buffer;
+    int m = pts;
+    for (int edge = 0; edge < 4 && m > 0; edge++) {
+      m = clip(edge, lo, hi, m);
+    }
+    if (m < 3) return n;
+
+    // snap to the grid and drop repeats (including the closing point)
+    double[] c = clipA;
+    int k = 0;
+    for (int i = 0; i < m; i++) {
+      int px = (int) Math.round(c[2 * i]), py = (int) Math.round(c[2 * i + 1]);
+      if (k > 0 && px == (int) c[2 * (k - 1)] && py == (int) c[2 * (k - 1) + 1]) continue;
+      c[2 * k] = px;
+      c[2 * k + 1] = py;
+      k++;
+    }
+    while (k > 1 && c[0] == c[2 * (k - 1)] && c[1] == c[2 * (k - 1) + 1]) k--;
+    if (k < 3) return n;
+
+    double area = 0;
+    for (int i = 0, j = k - 1; i < k; j = i++) area += c[2 * j] * c[2 * i + 1] - c[2 * i] * c[2 * j + 1];
+    if (area == 0) return n;
+    boolean reverse = exterior != (area > 0);
+
+    geom = ensure(geom, n + 2 * k + 4);
+    int cx = 0, cy = 0; // cursor: commands are relative to the previous point of the feature
+    if (n > 0) { cx = lastX; cy = lastY; }
+    for (int i = 0; i < k; i++) {
+      int idx = reverse ? (i == 0 ? 0 : k - i) : i;
+      int px = (int) c[2 * idx], py = (int) c[2 * idx + 1];
+      if (i == 0) geom[n++] = command(CMD_MOVE_TO, 1);
+      else if (i == 1) geom[n++] = command(CMD_LINE_TO, k - 1);
+      geom[n++] = zigzag(px - cx);
+      geom[n++] = zigzag(py - cy);
+      cx = px;
+      cy = py;
+    }
+    geom[n++] = command(CMD_CLOSE_PATH, 1);
+    lastX = cx;
+    lastY = cy;
+    return n;
+  }
+
+  // clips clipA[0, m) against one tile edge into clipB, then swaps the buffers
+  private int clip(int edge, double lo, double hi, int m) {
+    double[] in = clipA;
+    double[] out = ensure(clipB, (m + 1) * 4);
+    int o = 0;
+    for (int i = 0; i < m; i++) {
+      int j = (i + m - 1) % m;
+      double px = in[2 * j], py = in[2 * j + 1], qx = in[2 * i], qy = in[2 * i + 1];
+      boolean pIn = inside(edge, px, py, lo, hi), qIn = inside(edge, qx, qy, lo, hi);
+      if (qIn != pIn) {
+        double bound = edge == 0 || edge == 2 ? lo : hi;
+        double t = edge < 2 ? (bound - px) / (qx - px) : (bound - py) / (qy - py);
+        out[o++] = px + t * (qx - px);
+        out[o++] = py + t * (qy - py);
+      }
+      if (qIn) {
+        out[o++] = qx;
+        out[o++] = qy;
+      }
+    }
+    clipB = in;
+    clipA = out;
+    return o / 2;
+  }
+
+  private static boolean inside(int edge, double px, double py, double lo, double hi) {
+    return switch (edge) {
+      case 0 -> px >= lo;
+      case 1 -> px <= hi;
+      case 2 -> py >= lo;
+      default -> py <= hi;
+    };
+  }
+
+  private static int command(int id, int count) {
+    return (id & 0x7) | (count << 3);
+  }
+
+  private static int zigzag(int v) {
+    return (v << 1) ^ (v >> 31);
+  }
+
+  private static double[] ensure(double[] a, int size) {
+    return a.length >= size ? a : Arrays.copyOf(a, Math.max(size, a.length * 2));
+  }
+
+  private static int[] ensure(int[] a, int size) {
+    return a.length >= size ? a : Arrays.copyOf(a, Math.max(size, a.length * 2));
+  }
+
+  /* ---------- protobuf wire format ---------- */
+
+  private static final class Pbf {
+    private byte[] buf;
+    private int size;
+
+    Pbf(int capacity) {
+      buf = new byte[Math.max(16, capacity)];
+    }
+
+    private void grow(int extra) {
+      if (size + extra > buf.length) buf = Arrays.copyOf(buf, Math.max(size + extra, buf.length * 2));
+    }
+
+    private void varint(long v) {
+      grow(10);
+      while ((v & ~0x7FL) != 0) {
+        buf[size++] = (byte) ((v & 0x7F) | 0x80);
+        v >>>= 7;
+      }
+      buf[size++] = (byte) v;
+    }
+
+    void varintField(int field, long v) {
+      varint((long) field << 3);
+      varint(v);
+    }
+
+    void doubleField(int field, double d) {
+      varint((long) field << 3 | 1);
+      long bits = Double.doubleToRawLongBits(d);
+      grow(8);
+      for (int i = 0; i < 8; i++) buf[size++] = (byte) (bits >>> (8 * i));
+    }
+
+    void stringField(int field, String s) {
+      byte[] b = s.getBytes(StandardCharsets.UTF_8);
+      varint((long) field << 3 | 2);
+      varint(b.length);
+      grow(b.length);
+      System.arraycopy(b, 0, buf, size, b.length);
+      size += b.length;
+    }
+
+    void bytesField(int field, Pbf msg) {
+      varint((long) field << 3 | 2);
+      varint(msg.size);
+      raw(msg);
+    }
+
+    void packedField(int field, int[] v, int len) {
+      if (len == 0) return;
+      int bytes = 0;
+      for (int i = 0; i < len; i++) bytes += varintSize(v[i] & 0xFFFFFFFFL);
+      varint((long) field << 3 | 2);
+      varint(bytes);
+      for (int i = 0; i < len; i++) varint(v[i] & 0xFFFFFFFFL);
+    }
+
+    void raw(Pbf other) {
+      grow(other.size);
+      System.arraycopy(other.buf, 0, buf, size, other.size);
+      size += other.size;
+    }
+
+    byte[] toBytes() {
+      return Arrays.copyOf(buf, size);
+    }
+
+    private static int varintSize(long v) {
+      int n = 1;
+      while ((v & ~0x7FL) != 0) { n++; v >>>= 7; }
+      return n;
+    }
+  }
+}
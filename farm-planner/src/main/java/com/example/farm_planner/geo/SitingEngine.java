@@ -0,0 +1,256 @@
+package com.example.farm_planner.geo;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+/**
+ * Packs rotated house rectangles into a parcel polygon.
+ *
+ * The parcel is projected once to a local planar frame in feet (equirectangular around the
+ * bbox centre, fine at parcel scale). Each orientation then rotates the edges so houses are
+ * axis-aligned and fills rows left to right: a house is accepted when its centre is inside
+ * the parcel and no boundary edge (outer ring or hole) comes within the setback of it, i.e.
+ * it lies inside the parcel buffered inward by the setback. Several row phases are tried per
+ * orientation; orientations run in parallel and the one placing the most houses wins (ties
+ * go to the smaller angle, so results are deterministic).
+ *
+ * Per orientation the work uses a handful of primitive arrays and nothing per candidate.
+ */
+public final class SitingEngine {
+
+  /** Feet per degree of latitude (mean); longitude scales by cos(lat). */
+  public static final double FT_PER_DEG_LAT = 364_000;
+
+  private static final int ROW_PHASES = 4;
+  private static final double EPS = 1e-9;
+
+  /**
+   * @param widthFt      house width (row height)
+   * @param lengthFt     house length (along the row)
+   * @param spacingFt    gap between neighbouring houses
+   * @param setbackFt    minimum distance from any parcel boundary
+   * @param maxHouses    stop once this many fit (county cap)
+   * @param angleStepDeg orientation step over [0, 180)
+   * @param slideStepFt  how far a candidate moves along a row after a rejection
+   */
+  public record Spec(double widthFt, double lengthFt, double spacingFt, double setbackFt,
+                     int maxHouses, double angleStepDeg, double slideStepFt) {}
+
+  /**
+   * Best layout found.
+   *
+   * @param corners lon/lat of each house's 4 corners, 8 doubles per house
+   */
+  public record Layout(int houses, double angleDeg, int orientations, double[] corners) {
+
+    /** Footprints as compact polygons, one closed ring per house (see {@link GeoJsonGeometry}). */
+    public double[][][] polygons() {
+      double[][][] out = new double[houses][1][];
+      for (int h = 0; h < houses; h++) {
+        double[] ring = new double[10];
+        System.arraycopy(corners, 8 * h, ring, 0, 8);
+        ring[8] = ring[0];
+        ring[9] = ring[1];
+        out[h][0] = ring;
+      }
+      return out;
+    }
+  }
+
+  private SitingEngine() {}
+
+  public static Layout plan(double[][][] polygons, Spec spec, ForkJoinPool pool) {
+    double[] b = GeoJsonGeometry.bounds(polygons);
+    if (!Double.isFinite(b[0]) || spec.maxHouses() <= 0 || spec.widthFt() <= 0 || spec.lengthFt() <= 0) {
+      return new Layout(0, 0, 0, new double[0]);
+    }
+    Frame frame = new Frame(polygons, (b[1] + b[3]) / 2, (b[0] + b[2]) / 2);
+    int n = Math.max(1, (int) Math.ceil(180 / Math.max(0.1, spec.angleStepDeg())));
+
+    Candidate best = pool.submit(() -> IntStream.range(0, n).parallel()
+        .mapToObj(i -> pack(frame, spec, i * 180.0 / n))
+        .reduce((x, y) -> y.houses > x.houses || (y.houses == x.houses && y.angleDeg < x.angleDeg) ? y : x)
+        .orElseThrow()).join();
+
+    return new Layout(best.houses, best.angleDeg, n, frame.corners(best, spec));
+  }
+
+  /* ---------- one orientation ---------- */
+
+  private record Candidate(double angleDeg, int houses, double[] origins) {}
+
+  private static Candidate pack(Frame f, Spec spec, double angleDeg) {
+    double a = Math.toRadians(angleDeg), c = Math.cos(a), s = Math.sin(a);
+    int m = f.edges;
+    // edges rotated into the house frame: x0, y0, x1, y1 per edge
+    double[] e = new double[4 * m];
+    double minX = Double.POSITIVE_INFINITY, minY = Double.POSITIVE_INFINITY;
+    double maxX = Double.NEGATIVE_INFINITY, maxY = Double.NEGATIVE_INFINITY;
+    for (int k = 0; k < m; k++) {
+      for (int p = 0; p < 2; p++) {
+        double x = f.edge[4 * k + 2 * p], y = f.edge[4 * k + 2 * p + 1];
+        double rx = x * c + y * s, ry = -x * s + y * c;
+        e[4 * k + 2 * p] = rx;
+        e[4 * k + 2 * p + 1] = ry;
+        minX = Math.min(minX, rx); maxX = Math.max(maxX, rx);
+        minY = Math.min(minY, ry); maxY = Math.max(maxY, ry);
+      }
+    }
+
+    double w = spec.widthFt(), l = spec.lengthFt(), gap = Math.max(0, spec.spacingFt());
+    double setback = Math.max(EPS, spec.setbackFt());
+    double slide = Math.max(1, spec.slideStepFt());
+    double pitch = w + gap;
+
+    int[] band = new int[m];
+    double[] origins = new double[2 * spec.maxHouses()];
+    double[] bestOrigins = new double[2 * spec.maxHouses()];
+    int best = 0;
+
+    for (int phase = 0; phase < ROW_PHASES && best < spec.maxHouses(); phase++) {
+      int count = 0;
+      for (double y0 = minY + setback + phase * pitch / ROW_PHASES; y0 + w <= maxY - setback + EPS
+          && count < spec.maxHouses(); y0 += pitch) {
+        double y1 = y0 + w;
+        // edges that can matter for this row: y-range within the setback of the row band
+        int nb = 0;
+        for (int k = 0; k < m; k++) {
+          double ey0 = e[4 * k + 1], ey1 = e[4 * k + 3];
+          if (Math.max(ey0, ey1) >= y0 - setback && Math.min(ey0, ey1) <= y1 + setback) band[nb++] = k;
+        }
+        double x0 = minX + setback;
+        while (x0 + l <= maxX - setback + EPS && count < spec.maxHouses()) {
+          if (fits(e, band, nb, x0, y0, x0 + l, y1, setback)) {
+            origins[2 * count] = x0;
+            origins[2 * count + 1] = y0;
+            count++;
+            x0 += l + gap;
+          } else {
+            x0 += slide;
+          }
+        }
+      }
+      if (count > best) {
+        best = count;
+        System.arraycopy(origins, 0, bestOrigins, 0, 2 * count);
+      }
+    }
+    return new Candidate(angleDeg, best, bestOrigins);
+  }
+
+  /** Box inside the parcel and at least {@code setback} away from every boundary edge. */
+  private static boolean fits(double[] e, int[] band, int nb, double x0, double y0, double x1, double y1,
+                              double setback) {
+    double cx = (x0 + x1) / 2, cy = (y0 + y1) / 2;
+    boolean inside = false;
+    for (int i = 0; i < nb; i++) {
+      int k = 4 * band[i];
+      double ax = e[k], ay = e[k + 1], bx = e[k + 2], by = e[k + 3];
+      // cheap reject of edges whose bbox is farther than the setback
+      if (Math.min(ax, bx) > x1 + setback || Math.max(ax, bx) < x0 - setback) {
+        if ((ay > cy) != (by > cy) && cx < (bx - ax) * (cy - ay) / (by - ay) + ax) inside = !inside;
+        continue;
+      }
+      if (segmentBoxDistance(ax, ay, bx, by, x0, y0, x1, y1) < setback) return false;
+      if ((ay > cy) != (by > cy) && cx < (bx - ax) * (cy - ay) / (by - ay) + ax) inside = !inside;
+    }
+    return inside;
+  }
+
+  /** Distance between segment AB and an axis-aligned box; 0 when they touch. */
+  static double segmentBoxDistance(double ax, double ay, double bx, double by,
+                                   double x0, double y0, double x1, double y1) {
+    if (segmentHitsBox(ax, ay, bx, by, x0, y0, x1, y1)) return 0;
+    // disjoint convex shapes: the closest pair involves a vertex of one of them
+    double d = Math.min(pointBoxDistance(ax, ay, x0, y0, x1, y1), pointBoxDistance(bx, by, x0, y0, x1, y1));
+    d = Math.min(d, pointSegmentDistance(x0, y0, ax, ay, bx, by));
+    d = Math.min(d, pointSegmentDistance(x1, y0, ax, ay, bx, by));
+    d = Math.min(d, pointSegmentDistance(x1, y1, ax, ay, bx, by));
+    d = Math.min(d, pointSegmentDistance(x0, y1, ax, ay, bx, by));
+    return d;
+  }
+
+  private static boolean segmentHitsBox(double ax, double ay, double bx, double by,
+                                        double x0, double y0, double x1, double y1) {
+    if ((ax >= x0 && ax <= x1 && ay >= y0 && ay <= y1) || (bx >= x0 && bx <= x1 && by >= y0 && by <= y1)) {
+      return true;
+    }
+    return segmentsCross(ax, ay, bx, by, x0, y0, x1, y0) || segmentsCross(ax, ay, bx, by, x1, y0, x1, y1)
+        || segmentsCross(ax, ay, bx, by, x1, y1, x0, y1) || segmentsCross(ax, ay, bx, by, x0, y1, x0, y0);
+  }
+
+  private static boolean segmentsCross(double ax, double ay, double bx, double by,
+                                       double cx, double cy, double dx, double dy) {
+    double d1 = cross(cx, cy, dx, dy, ax, ay), d2 = cross(cx, cy, dx, dy, bx, by);
+    double d3 = cross(ax, ay, bx, by, cx, cy), d4 = cross(ax, ay, bx, by, dx, dy);
+    // collinear/touching cases come out as distance 0 in the vertex checks anyway
+    return ((d1 > 0) != (d2 > 0)) && ((d3 > 0) != (d4 > 0)) && d1 != 0 && d2 != 0 && d3 != 0 && d4 != 0;
+  }
+
+  private static double cross(double ox, double oy, double px, double py, double qx, double qy) {
+    return (px - ox) * (qy - oy) - (py - oy) * (qx - ox);
+  }
+
+  private static double pointBoxDistance(double px, double py, double x0, double y0, double x1, double y1) {
+    double dx = Math.max(Math.max(x0 - px, 0), px - x1);
+    double dy = Math.max(Math.max(y0 - py, 0), py - y1);
+    return Math.hypot(dx, dy);
+  }
+
+  private static double pointSegmentDistance(double px, double py, double ax, double ay, double bx, double by) {
+    double dx = bx - ax, dy = by - ay, len2 = dx * dx + dy * dy;
+    double t = len2 == 0 ? 0 : Math.max(0, Math.min(1, ((px - ax) * dx + (py - ay) * dy) / len2));
+    return Math.hypot(px - (ax + t * dx), py - (ay + t * dy));
+  }
+
+  /* ---------- local planar frame ---------- */
+
+  private static final class Frame {
+    final double lat0, lon0, ftPerDegLon;
+    final int edges;
+    final double[] edge; // x0, y0, x1, y1 in feet, every ring of every polygon
+
+    Frame(double[][][] polygons, double lat0, double lon0) {
+      this.lat0 = lat0;
+      this.lon0 = lon0;
+      this.ftPerDegLon = FT_PER_DEG_LAT * Math.cos(Math.toRadians(lat0));
+      int count = 0;
+      for (double[][] poly : polygons) for (double[] ring : poly) count += ring.length / 2;
+      double[] buf = new double[4 * count];
+      int k = 0;
+      for (double[][] poly : polygons) {
+        for (double[] ring : poly) {
+          int n = ring.length / 2;
+          for (int i = 0, j = n - 1; i < n; j = i++) {
+            buf[k++] = x(ring[2 * j]);
+            buf[k++] = y(ring[2 * j + 1]);
+            buf[k++] = x(ring[2 * i]);
+            buf[k++] = y(ring[2 * i + 1]);
+          }
+        }
+      }
+      this.edges = count;
+      this.edge = buf;
+    }
+
+    double x(double lon) { return (lon - lon0) * ftPerDegLon; }
+    double y(double lat) { return (lat - lat0) * FT_PER_DEG_LAT; }
+
+    /** House corners back in lon/lat (counter-clockwise). */
+    double[] corners(Candidate best, Spec spec) {
+      double a = Math.toRadians(best.angleDeg), c = Math.cos(a), s = Math.sin(a);
+      double[] out = new double[8 * best.houses];
+      double[] dx = { 0, spec.lengthFt(), spec.lengthFt(), 0 };
+      double[] dy = { 0, 0, spec.widthFt(), spec.widthFt() };
+      for (int h = 0; h < best.houses; h++) {
+        for (int v = 0; v < 4; v++) {
+          double rx = best.origins[2 * h] + dx[v], ry = best.origins[2 * h + 1] + dy[v];
+          double x = rx * c - ry * s, y = rx * s + ry * c;
+          out[8 * h + 2 * v] = lon0 + x / ftPerDegLon;
+          out[8 * h + 2 * v + 1] = lat0 + y / FT_PER_DEG_LAT;
+        }
+      }
+      return out;
+    }
+  }
+}
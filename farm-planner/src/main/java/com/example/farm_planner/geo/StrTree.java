@@ -0,0 +1,165 @@
+package com.example.farm_planner.geo;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.IntPredicate;
+
+/**
+ * Static R-tree bulk-loaded with Sort-Tile-Recursive packing.
+ *
+ * Items are bounding boxes given as a flat {@code double[]} of {minX, minY, maxX, maxY}
+ * quadruples; queries report the item index. The tree is immutable once built and all
+ * node data lives in primitive arrays, so concurrent reads need no locking.
+ */
+public final class StrTree {
+
+  private static final int NODE_CAPACITY = 16;
+
+  private final int[] items;          // item ids in leaf order
+  private final double[] itemBounds;  // bounds of items[i] at 4*i
+  private final double[][] bounds;    // per level, node bounds; level 0 = leaves
+  private final int[][] childStart;   // per level, first child (items for level 0, level-1 nodes otherwise)
+  private final int[][] childEnd;
+
+  public StrTree(double[] itemBoxes) {
+    int n = itemBoxes.length / 4;
+    int[] ids = new int[n];
+    for (int i = 0; i < n; i++) ids[i] = i;
+
+    List<double[]> levelBounds = new ArrayList<>();
+    List<int[]> levelStart = new ArrayList<>();
+    List<int[]> levelEnd = new ArrayList<>();
+
+    // Leaf level: order the items themselves
+    List<int[]> groups = new ArrayList<>();
+    int[] perm = pack(itemBoxes, n, groups);
+    this.items = permute(ids, perm);
+    this.itemBounds = permuteBoxes(itemBoxes, perm);
+    double[] curBounds = itemBounds;
+    int[] curStart = null, curEnd = null;
+
+    while (n > 0) {
+      int parents = groups.size();
+      double[] pb = new double[parents * 4];
+      int[] ps = new int[parents], pe = new int[parents];
+      for (int g = 0; g < parents; g++) {
+        int from = groups.get(g)[0], to = groups.get(g)[1];
+        ps[g] = from;
+        pe[g] = to;
+        union(curBounds, from, to, pb, g);
+      }
+      if (curStart != null) {
+        // replace the previous level with its permuted copy so children stay contiguous
+        levelBounds.set(levelBounds.size() - 1, curBounds);
+        levelStart.set(levelStart.size() - 1, curStart);
+        levelEnd.set(levelEnd.size() - 1, curEnd);
+      }
+      levelBounds.add(pb);
+      levelStart.add(ps);
+      levelEnd.add(pe);
+      if (parents == 1) break;
+
+      groups = new ArrayList<>();
+      perm = pack(pb, parents, groups);
+      curBounds = permuteBoxes(pb, perm);
+      curStart = permute(ps, perm);
+      curEnd = permute(pe, perm);
+      n = parents;
+    }
+
+    this.bounds = levelBounds.toArray(new double[0][]);
+    this.childStart = levelStart.toArray(new int[0][]);
+    this.childEnd = levelEnd.toArray(new int[0][]);
+  }
+
+  public int size() { return items.length; }
+
+  /** Visit items whose box contains (x, y); stop early when the visitor returns false. */
+  public void query(double x, double y, IntPredicate visitor) {
+    query(x, y, x, y, visitor);
+  }
+
+  /** Visit items whose box intersects the query box; stop early when the visitor returns false. */
+  public void query(double minX, double minY, double maxX, double maxY, IntPredicate visitor) {
+    if (bounds.length == 0) return;
+    int top = bounds.length - 1;
+    search(top, 0, childStart[top].length, minX, minY, maxX, maxY, visitor);
+  }
+
+  private boolean search(int level, int from, int to,
+                         double minX, double minY, double maxX, double maxY, IntPredicate visitor) {
+    double[] b = bounds[level];
+    for (int i = from; i < to; i++) {
+      if (!intersects(b, i, minX, minY, maxX, maxY)) continue;
+      int s = childStart[level][i], e = childEnd[level][i];
+      if (level == 0) {
+        for (int j = s; j < e; j++) {
+          if (intersects(itemBounds, j, minX, minY, maxX, maxY) && !visitor.test(items[j])) return false;
+        }
+      } else if (!search(level - 1, s, e, minX, minY, maxX, maxY, visitor)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /* ---------- STR packing ---------- */
+
+  /**
+   * Sort entries into vertical slices by center x, each slice by center y, then cut
+   * runs of NODE_CAPACITY. Returns the permutation; fills [from, to) ranges per parent.
+   */
+  private static int[] pack(double[] boxes, int n, List<int[]> groups) {
+    Integer[] idx = new Integer[n];
+    for (int i = 0; i < n; i++) idx[i] = i;
+    Arrays.sort(idx, Comparator.comparingDouble(i -> boxes[4 * i] + boxes[4 * i + 2]));
+
+    int leaves = (n + NODE_CAPACITY - 1) / NODE_CAPACITY;
+    int slices = (int) Math.ceil(Math.sqrt(leaves));
+    int sliceSize = Math.max(1, slices * NODE_CAPACITY);
+    for (int s = 0; s < n; s += sliceSize) {
+      int e = Math.min(n, s + sliceSize);
+      Arrays.sort(idx, s, e, Comparator.comparingDouble(i -> boxes[4 * i + 1] + boxes[4 * i + 3]));
+      for (int g = s; g < e; g += NODE_CAPACITY) {
+        groups.add(new int[] { g, Math.min(e, g + NODE_CAPACITY) });
+      }
+    }
+
+    int[] perm = new int[n];
+    for (int i = 0; i < n; i++) perm[i] = idx[i];
+    return perm;
+  }
+
+  private static int[] permute(int[] src, int[] perm) {
+    int[] out = new int[perm.length];
+    for (int i = 0; i < perm.length; i++) out[i] = src[perm[i]];
+    return out;
+  }
+
+  private static double[] permuteBoxes(double[] src, int[] perm) {
+    double[] out = new double[perm.length * 4];
+    for (int i = 0; i < perm.length; i++) System.arraycopy(src, 4 * perm[i], out, 4 * i, 4);
+    return out;
+  }
+
+  private static void union(double[] src, int from, int to, double[] dst, int at) {
+    double minX = Double.POSITIVE_INFINITY, minY = Double.POSITIVE_INFINITY;
+    double maxX = Double.NEGATIVE_INFINITY, maxY = Double.NEGATIVE_INFINITY;
+    for (int i = from; i < to; i++) {
+      minX = Math.min(minX, src[4 * i]);
+      minY = Math.min(minY, src[4 * i + 1]);
+      maxX = Math.max(maxX, src[4 * i + 2]);
+      maxY = Math.max(maxY, src[4 * i + 3]);
+    }
+    dst[4 * at] = minX;
+    dst[4 * at + 1] = minY;
+    dst[4 * at + 2] = maxX;
+    dst[4 * at + 3] = maxY;
+  }
+
+  private static boolean intersects(double[] b, int i, double minX, double minY, double maxX, double maxY) {
+    return b[4 * i] <= maxX && b[4 * i + 2] >= minX && b[4 * i + 1] <= maxY && b[4 * i + 3] >= minY;
+  }
+}
@@ -2,10 +2,12 @@ package com.example.farm_planner.parcel;
 
 import java.net.URI;
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.util.LinkedMultiValueMap;
 import org.springframework.util.MultiValueMap;
@@ -16,6 +18,7 @@ import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.reactive.function.client.WebClient;
 import org.springframework.web.util.UriComponentsBuilder;
 
+import com.example.farm_planner.config.PipelineMetrics;
 import com.example.farm_planner.parcel.dto.ArcJsonFeatureSet;
 
 import reactor.core.publisher.Mono;
@@ -23,6 +26,9 @@ import reactor.core.publisher.Mono;
 /**
  * Helper endpoint to fetch a list of parcel addresses from the county layer
  * so you can quickly test the app with real data.
+ *
+ * Answered from the snapshot's attribute index while it is fresh (see
+ * {@link ParcelSnapshotStore#fresh()}); otherwise the layer is queried.
  */
 @RestController
 @RequestMapping("/api/parcels")
@@ -30,23 +36,42 @@ public class AddressesController {
 
   private final WebClient http;
   private final String layerUrl;
+  private final ParcelSnapshotStore snapshots;
+  private final PipelineMetrics metrics;
 
   public AddressesController(WebClient http,
-                             @Value("${app.worcesterParcelsLayerUrl}") String layerUrl) {
+                             @Value("${app.worcesterParcelsLayerUrl}") String layerUrl,
+                             ParcelSnapshotStore snapshots,
+                             PipelineMetrics metrics) {
     this.http = http;
     this.layerUrl = layerUrl;
+    this.snapshots = snapshots;
+    this.metrics = metrics;
   }
 
   /**
-   * GET /api/parcels/addresses?minAcres=10&limit=50[&town=Snow%20Hill]
-   * Returns a list of {acctId, acres, siteAddress, situs}
+   * GET /api/parcels/addresses?minAcres=10&limit=50[&town=Snow%20Hill][&q=Market%20St]
+   * Returns a list of {acctId, acres, siteAddress, situs}; town and q match anywhere in SITUS / SITEADDRESS.
    */
   @GetMapping("/addresses")
   public Mono<ResponseEntity<List<Map<String,Object>>>> list(
       @RequestParam(defaultValue = "10") double minAcres,
       @RequestParam(defaultValue = "50") int limit,
-      @RequestParam(required = false) String town
+      @RequestParam(required = false) String town,
+      @RequestParam(required = false) String q
   ) {
+    int max = Math.max(1, Math.min(limit, 500));
+    ParcelSnapshot local = snapshots.fresh();
+    if (local != null) {
+      return metrics.timed("addresses.list", Mono.fromSupplier(() -> {
+        List<Map<String,Object>> out = new ArrayList<>();
+        for (int i : local.addresses(minAcres, town, q, max)) {
+          out.add(row(local.acctId(i), local.acres(i), local.siteAddress(i), local.situs(i)));
+        }
+        return ResponseEntity.ok(out);
+      }));
+    }
+
     StringBuilder where = new StringBuilder();
     where.append("ACRES >= ").append(minAcres)
          .append(" AND SITEADDRESS IS NOT NULL AND SITEADDRESS <> ''");
@@ -54,44 +79,82 @@ public class AddressesController {
       String t = town.replace("'", "''");
       where.append(" AND UPPER(SITUS) LIKE UPPER('%").append(t).append("%')");
     }
+    if (q != null && !q.isBlank()) {
+      String t = q.replace("'", "''");
+      where.append(" AND UPPER(SITEADDRESS) LIKE UPPER('%").append(t).append("%')");
+    }
 
-    MultiValueMap<String,String> q = new LinkedMultiValueMap<>();
-    q.add("where", where.toString());
-    q.add("outFields", "ACCTID,ACRES,SITEADDRESS,SITUS");
-    q.add("returnGeometry", "false");
-    q.add("resultRecordCount", String.valueOf(Math.max(1, Math.min(limit, 500))));
-    q.add("f", "json");
+    MultiValueMap<String,String> query = new LinkedMultiValueMap<>();
+    query.add("where", where.toString());
+    query.add("outFields", "ACCTID,ACRES,SITEADDRESS,SITUS");
+    query.add("returnGeometry", "false");
+    query.add("resultRecordCount", String.valueOf(max));
+    query.add("f", "json");
 
     URI uri = UriComponentsBuilder.fromUriString(layerUrl + "/query")
-        .queryParams(q)
+        .queryParams(query)
         .build()
         .encode()
         .toUri();
 
-    return http.get()
+    Mono<ResponseEntity<List<Map<String,Object>>>> result = http.get()
         .uri(uri)
-        .exchangeToMono(resp -> resp.statusCode().is2xxSuccessful()
-            ? resp.bodyToMono(ArcJsonFeatureSet.class)
-            : Mono.just(new ArcJsonFeatureSet()))
+        .exchangeToMono(resp -> {
+          if (resp.statusCode().is2xxSuccessful()) return resp.bodyToMono(ArcJsonFeatureSet.class);
+          // non-2xx still reads as an empty list, but is counted
+          metrics.upstreamResult("arcgis", "failed", null);
+          return resp.releaseBody().thenReturn(new ArcJsonFeatureSet());
+        })
         .map(fs -> {
           List<Map<String,Object>> out = new ArrayList<>();
           if (fs != null && fs.features != null) {
             for (var f : fs.features) {
               if (f.attributes == null) continue;
-              Object acct = f.attributes.get("ACCTID");
-              Object acres = f.attributes.get("ACRES");
-              Object addr = f.attributes.get("SITEADDRESS");
-              Object situs = f.attributes.get("SITUS");
-              out.add(Map.of(
-                  "acctId", acct,
-                  "acres", acres,
-                  "siteAddress", addr,
-                  "situs", situs
-              ));
+              out.add(row(f.attributes.get("ACCTID"), f.attributes.get("ACRES"),
+                  f.attributes.get("SITEADDRESS"), f.attributes.get("SITUS")));
             }
           }
           return ResponseEntity.ok(out);
         });
+    return metrics.timed("addresses.list", result);
+  }
+
+  /**
+   * GET /api/parcels/suggest?q=217%20W%20Gr&limit=10 – typeahead over the snapshot's site addresses:
+   * {acctId, acres, siteAddress, situs} of parcels whose address starts with q; 503 without a fresh snapshot
+   */
+  @GetMapping("/suggest")
+  public ResponseEntity<List<Map<String,Object>>> suggest(@RequestParam String q,
+                                                          @RequestParam(defaultValue = "10") int limit) {
+    ParcelSnapshot local = snapshots.fresh();
+    if (local == null) return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+    int max = Math.max(1, Math.min(limit, 50));
+    return metrics.timed("addresses.suggest", () -> {
+      List<Map<String,Object>> out = new ArrayList<>();
+      for (int i : local.suggest(q, max)) {
+        out.add(row(local.acctId(i), local.acres(i), local.siteAddress(i), local.situs(i)));
+      }
+      return ResponseEntity.ok(out);
+    });
+  }
+
+  /** GET /api/parcels/towns – parcel count per town (SITUS) in the snapshot; 503 without a fresh snapshot */
+  @GetMapping("/towns")
+  public ResponseEntity<Map<String, Integer>> towns() {
+    ParcelSnapshot local = snapshots.fresh();
+    return local == null
+        ? ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build()
+        : ResponseEntity.ok(local.towns());
+  }
+
+  // attributes may be missing on either side, so no Map.of
+  private static Map<String,Object> row(Object acctId, Object acres, Object siteAddress, Object situs) {
+    Map<String,Object> m = new LinkedHashMap<>();
+    m.put("acctId", acctId);
+    m.put("acres", acres);
+    m.put("siteAddress", siteAddress);
+    m.put("situs", situs);
+    return m;
   }
 }
 
@@ -0,0 +1,81 @@
+package com.example.farm_planner.parcel;
+
+import java.util.Optional;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Service;
+import org.springframework.web.client.RestClient;
+import org.springframework.web.client.RestClientException;
+
+import com.example.farm_planner.config.PipelineMetrics;
+import com.example.farm_planner.parcel.dto.NominatimResult;
+import com.example.farm_planner.parcel.dto.ParcelResponse;
+
+/**
+ * Blocking twin of {@link GeocoderService} for the "virtual" profile. Shares the same
+ * {@link GeocodeCache}; upstream errors read as "not found" and are not cached.
+ */
+@Service
+@Profile("virtual")
+public class BlockingGeocoderService {
+
+  private final RestClient http;
+  private final String userAgent;
+  private final GeocodeCache cache;
+  private final ParcelSnapshotStore snapshots;
+  private final PipelineMetrics metrics;
+
+  public BlockingGeocoderService(RestClient http,
+                                 @Value("${app.nominatimUserAgent:FarmPlanner/0.1 (dev@example.com)}") String userAgent,
+                                 GeocodeCache cache,
+                                 ParcelSnapshotStore snapshots,
+                                 PipelineMetrics metrics) {
+    this.http = http;
+    this.userAgent = userAgent;
+    this.cache = cache;
+    this.snapshots = snapshots; // may be null (mock profile)
+    this.metrics = metrics;
+  }
+
+  /** Parcel at the address from the snapshot's address index, like {@link GeocoderService#findParcel}. */
+  public Optional<ParcelResponse> findParcel(String address) {
+    if (snapshots == null || snapshots.fresh() == null) return Optional.empty();
+    return metrics.timed("geocode.local", () -> snapshots.findByAddress(address));
+  }
+
+  /** [lat, lon] of the best match, or empty. Timed as stage "geocode", like the reactive twin. */
+  public Optional<double[]> geocode(String address) {
+    return metrics.timed("geocode", () -> lookup(address));
+  }
+
+  private Optional<double[]> lookup(String address) {
+    String key = GeocodeCache.normalize(address);
+    GeocodeCache.Entry cached = cache.get(key);
+    if (cached != null) {
+      return cached.found() ? Optional.of(new double[] { cached.lat(), cached.lon() }) : Optional.empty();
+    }
+
+    NominatimResult[] results;
+    try {
+      results = metrics.timed("geocode.nominatim", () -> http.get()
+          .uri(GeocoderService.searchUri(address))
+          .header(HttpHeaders.USER_AGENT, userAgent)
+          .retrieve()
+          .body(NominatimResult[].class));
+    } catch (RestClientException e) {
+      metrics.upstreamResult("nominatim", "failed", e);
+      return Optional.empty();
+    }
+
+    if (results == null || results.length == 0) {
+      cache.putMiss(key);
+      metrics.upstreamResult("nominatim", "empty", null);
+      return Optional.empty();
+    }
+    double[] ll = { Double.parseDouble(results[0].lat()), Double.parseDouble(results[0].lon()) };
+    cache.putHit(key, ll[0], ll[1]);
+    return Optional.of(ll);
+  }
+}
@@ -0,0 +1,58 @@
+package com.example.farm_planner.parcel;
+
+import java.util.Optional;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Service;
+import org.springframework.web.client.RestClient;
+
+import com.example.farm_planner.config.PipelineMetrics;
+import com.example.farm_planner.parcel.dto.GeoJsonFeatureCollection;
+import com.example.farm_planner.parcel.dto.ParcelResponse;
+
+/** Blocking twin of {@link ParcelService#findByPoint} for the "virtual" profile. */
+@Service
+@Profile("virtual")
+public class BlockingParcelService {
+
+  private final RestClient http;
+  private final String layerUrl;
+  private final ParcelSnapshotStore snapshots;
+  private final PipelineMetrics metrics;
+
+  public BlockingParcelService(RestClient http,
+                               @Value("${app.worcesterParcelsLayerUrl}") String layerUrl,
+                               ParcelSnapshotStore snapshots,
+                               PipelineMetrics metrics) {
+    this.http = http;
+    this.layerUrl = layerUrl;
+    this.snapshots = snapshots; // may be null (mock profile)
+    this.metrics = metrics;
+  }
+
+  /** Parcel intersecting the given WGS84 point (lat, lon), or empty. Timed as stage "parcel.point". */
+  public Optional<ParcelResponse> findByPoint(double lat, double lon) {
+    return metrics.timed("parcel.point", () -> lookup(lat, lon));
+  }
+
+  private Optional<ParcelResponse> lookup(double lat, double lon) {
+    if (snapshots != null && snapshots.ready()) {
+      return snapshots.findByPoint(lat, lon);
+    }
+
+    GeoJsonFeatureCollection fc = metrics.timed("parcel.arcgis", () -> http.get()
+        .uri(ParcelService.pointQueryUri(layerUrl, lat, lon))
+        // non-2xx reads as "no parcel" here (counted as a failed result)
+        .exchange((req, resp) -> {
+          if (resp.getStatusCode().is2xxSuccessful()) return resp.bodyTo(GeoJsonFeatureCollection.class);
+          metrics.upstreamResult("arcgis", "failed", null);
+          return null;
+        }));
+    if (fc == null || fc.features == null || fc.features.isEmpty()) {
+      metrics.upstreamResult("arcgis", "empty", null);
+      return Optional.empty();
+    }
+    return Optional.of(ParcelService.toParcelResponse(fc.features.get(0)));
+  }
+}
@@ -0,0 +1,162 @@
+package com.example.farm_planner.parcel;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.Ticker;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Normalized-address cache in front of Nominatim.
+ *
+ * Bounded by entry count with Caffeine's W-TinyLFU eviction. Hits expire after {@code ttl},
+ * misses (Nominatim answered but found nothing) after the shorter {@code negativeTtl}.
+ * Upstream errors are never cached. Entries are written to {@code file} on shutdown and
+ * read back at startup, keeping their original age.
+ */
+@Component
+public class GeocodeCache {
+
+  private static final Logger log = LoggerFactory.getLogger(GeocodeCache.class);
+  private static final ObjectMapper M = new ObjectMapper();
+
+  /** Cached answer; found=false is a negative entry. */
+  public record Entry(String key, double lat, double lon, boolean found, long storedAtMillis) {}
+
+  private final Cache<String, Entry> cache;
+  private final Path file;
+  private final LongSupplier wallClock; // epoch millis, for storedAtMillis and entry age
+  private final Duration ttl;
+  private final Duration negativeTtl;
+  private final AtomicLong negativeHits = new AtomicLong();
+
+  @Autowired
+  public GeocodeCache(@Value("${app.geocodeCache.maxEntries:50000}") long maxEntries,
+                      @Value("${app.geocodeCache.ttl:30d}") Duration ttl,
+                      @Value("${app.geocodeCache.negativeTtl:1d}") Duration negativeTtl,
+                      @Value("${app.geocodeCache.file:data/geocode-cache.json}") String file) {
+    this(maxEntries, ttl, negativeTtl, file, Ticker.systemTicker(), System::currentTimeMillis);
+  }
+
+  /** With a fake ticker and wall clock (tests). */
+  GeocodeCache(long maxEntries, Duration ttl, Duration negativeTtl, String file,
+               Ticker ticker, LongSupplier wallClock) {
+    this.file = Path.of(file);
+    this.wallClock = wallClock;
+    this.ttl = ttl;
+    this.negativeTtl = negativeTtl;
+    this.cache = Caffeine.newBuilder()
+        .maximumSize(maxEntries)
+        .ticker(ticker)
+        .expireAfter(new Expiry<String, Entry>() {
+          @Override
+          public long expireAfterCreate(String key, Entry e, long currentTime) {
+            return Math.max(0, remainingNanos(e));
+          }
+          @Override
+          public long expireAfterUpdate(String key, Entry e, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, e, currentTime);
+          }
+          @Override
+          public long expireAfterRead(String key, Entry e, long currentTime, long currentDuration) {
+            return currentDuration;
+          }
+        })
+        .recordStats()
+        .build();
+  }
+
+  // age-aware so entries restored from disk keep their original deadline
+  private long remainingNanos(Entry e) {
+    long ttlNanos = (e.found() ? ttl : negativeTtl).toNanos();
+    return ttlNanos - Duration.ofMillis(wallClock.getAsLong() - e.storedAtMillis()).toNanos();
+  }
+
+  /** Lower-case, strip punctuation and collapse whitespace so trivially different inputs share an entry. */
+  public static String normalize(String address) {
+    if (address == null) return "";
+    return address.toLowerCase(Locale.ROOT)
+        .replaceAll("[.,;#]", " ")
+        .replaceAll("\\s+", " ")
+        .trim();
+  }
+
+  public Entry get(String key) {
+    Entry e = cache.getIfPresent(key);
+    if (e != null && !e.found()) negativeHits.incrementAndGet();
+    return e;
+  }
+
+  public void putHit(String key, double lat, double lon) {
+    cache.put(key, new Entry(key, lat, lon, true, wallClock.getAsLong()));
+  }
+
+  public void putMiss(String key) {
+    cache.put(key, new Entry(key, 0, 0, false, wallClock.getAsLong()));
+  }
+
+  public Map<String, Object> stats() {
+    cache.cleanUp(); // settle pending evictions so size and counters agree
+    CacheStats s = cache.stats();
+    Map<String, Object> out = new LinkedHashMap<>();
+    out.put("size", cache.estimatedSize());
+    out.put("hits", s.hitCount());
+    out.put("negativeHits", negativeHits.get());
+    out.put("misses", s.missCount());
+    out.put("hitRate", s.hitRate());
+    out.put("evictions", s.evictionCount());
+    return out;
+  }
+
+  /* ---------- warm start ---------- */
+
+  @PostConstruct
+  void load() {
+    if (!Files.exists(file)) return;
+    try {
+      List<Entry> saved = M.readValue(file.toFile(), new TypeReference<List<Entry>>() {});
+      // skip anything that expired while we were down
+      saved.stream().filter(e -> remainingNanos(e) > 0).forEach(e -> cache.put(e.key(), e));
+      log.info("Restored {} geocode cache entries from {}", cache.estimatedSize(), file);
+    } catch (IOException e) {
+      log.warn("Ignoring unreadable geocode cache {}: {}", file, e.toString());
+    }
+  }
+
+  @PreDestroy
+  void save() {
+    if (cache.estimatedSize() == 0 && !Files.exists(file)) return;
+    try {
+      if (file.getParent() != null) Files.createDirectories(file.getParent());
+      Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+      M.writeValue(tmp.toFile(), new ArrayList<>(cache.asMap().values()));
+      Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    } catch (IOException e) {
+      log.warn("Could not save geocode cache to {}: {}", file, e.toString());
+    }
+  }
+}
@@ -1,31 +1,120 @@
 package com.example.farm_planner.parcel;
 
+import java.net.URI;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.LongAdder;
+
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpHeaders;
 import org.springframework.stereotype.Service;
 import org.springframework.web.reactive.function.client.WebClient;
 import org.springframework.web.util.UriComponentsBuilder;
 
+import com.example.farm_planner.config.OutboundRejectedException;
+import com.example.farm_planner.config.PipelineMetrics;
+import com.example.farm_planner.config.UpstreamException;
+import com.example.farm_planner.config.UpstreamUnavailableException;
 import com.example.farm_planner.parcel.dto.NominatimResult;
+import com.example.farm_planner.parcel.dto.ParcelResponse;
 
-import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
-/** Wraps Nominatim (OpenStreetMap) geocoding. Returns [lat, lon] for a given address. */
+/**
+ * Wraps Nominatim (OpenStreetMap) geocoding. Returns [lat, lon] for a given address.
+ *
+ * In-county addresses can skip it: {@link #findParcel} matches them against the parcel
+ * snapshot's own addresses, and only misses need Nominatim (1 request/second) and a point lookup.
+ */
 @Service
 public class GeocoderService {
 
   private final WebClient http;
   private final String userAgent;
+  private final GeocodeCache cache;
+  private final ParcelSnapshotStore snapshots;
+  private final PipelineMetrics metrics;
+  private final SingleFlight<String, double[]> inFlight = new SingleFlight<>();
+  private final LongAdder localHits = new LongAdder();
+  private final LongAdder localMisses = new LongAdder();
 
   public GeocoderService(WebClient http,
-                         @Value("${app.nominatimUserAgent:FarmPlanner/0.1 (dev@example.com)}") String userAgent) {
+                         @Value("${app.nominatimUserAgent:FarmPlanner/0.1 (dev@example.com)}") String userAgent,
+                         GeocodeCache cache,
+                         ParcelSnapshotStore snapshots,
+                         PipelineMetrics metrics) {
     this.http = http;
     this.userAgent = userAgent;
+    this.cache = cache;
+    this.snapshots = snapshots; // may be null (mock profile)
+    this.metrics = metrics;
+  }
+
+  /**
+   * Parcel at the address straight from the snapshot's address index (stage "geocode.local");
+   * empty when it isn't matched there or there is no fresh snapshot, in which case callers
+   * fall back to {@link #geocodeOne} and a point lookup.
+   */
+  public Mono<ParcelResponse> findParcel(String address) {
+    if (snapshots == null || snapshots.fresh() == null) return Mono.empty();
+    return metrics.timed("geocode.local", Mono.defer(() -> {
+      Optional<ParcelResponse> parcel = snapshots.findByAddress(address);
+      (parcel.isPresent() ? localHits : localMisses).increment();
+      return Mono.justOrEmpty(parcel);
+    }));
   }
 
+  /** Timed as stage "geocode" (cache hits included); the Nominatim call alone is "geocode.nominatim". */
   public Mono<double[]> geocodeOne(String address) {
-    var uri = UriComponentsBuilder
+    return metrics.timed("geocode", lookup(address));
+  }
+
+  private Mono<double[]> lookup(String address) {
+    String key = GeocodeCache.normalize(address);
+    GeocodeCache.Entry cached = cache.get(key);
+    if (cached != null) {
+      return cached.found() ? Mono.just(new double[] { cached.lat(), cached.lon() }) : Mono.empty();
+    }
+
+    // concurrent callers for the same normalized address share one Nominatim call
+    return inFlight.execute(key, () -> metrics.timed("geocode.nominatim", fetch(address))
+        .doOnNext(ll -> cache.putHit(key, ll[0], ll[1]))
+        // Nominatim answered with no match: remember the miss (errors are not cached)
+        .switchIfEmpty(Mono.fromRunnable(() -> {
+          cache.putMiss(key);
+          metrics.upstreamResult("nominatim", "empty", null);
+        }))
+        .doOnError(e -> metrics.upstreamResult("nominatim", "failed", e))
+        // a full outbound queue or a failing Nominatim is reported to the caller; other
+        // failures (e.g. an unparsable answer) read as "not found"
+        .onErrorResume(e -> !(e instanceof OutboundRejectedException || e instanceof UpstreamException
+            || e instanceof UpstreamUnavailableException), e -> Mono.empty()));
+  }
+
+  /** Local address matches, cache counters (hits, misses, evictions, ...) and in-flight coalescing counters. */
+  public Map<String, Object> stats() {
+    Map<String, Object> out = new LinkedHashMap<>();
+    out.put("local", Map.of("hits", localHits.sum(), "misses", localMisses.sum()));
+    out.put("cache", cache.stats());
+    out.put("coalescing", inFlight.stats());
+    return out;
+  }
+
+  private Mono<double[]> fetch(String address) {
+    return http.get()
+        .uri(searchUri(address))
+        .header(HttpHeaders.USER_AGENT, userAgent)
+        .exchangeToFlux(resp -> resp.statusCode().is2xxSuccessful()
+            ? resp.bodyToFlux(NominatimResult.class)
+            : resp.<NominatimResult>createError().flux())
+        .next()
+        .map(r -> new double[] { Double.parseDouble(r.lat()), Double.parseDouble(r.lon()) });
+  }
+
+  /** Nominatim search for the single best match (shared with the blocking client). */
+  static URI searchUri(String address) {
+    return UriComponentsBuilder
         .fromUriString("https://nominatim.openstreetmap.org/search")
         .queryParam("format", "jsonv2")
         .queryParam("limit", "1")
@@ -34,16 +123,6 @@ public class GeocoderService {
         .build()
         .encode()
         .toUri();
-
-    return http.get()
-        .uri(uri)
-        .header(HttpHeaders.USER_AGENT, userAgent)
-        .exchangeToFlux(resp -> resp.statusCode().is2xxSuccessful()
-            ? resp.bodyToFlux(NominatimResult.class)
-            : Flux.empty())
-        .onErrorResume(e -> Flux.empty())
-        .next()
-        .map(r -> new double[] { Double.parseDouble(r.lat()), Double.parseDouble(r.lon()) });
   }
 
   /** Convenience alias for older call sites. */
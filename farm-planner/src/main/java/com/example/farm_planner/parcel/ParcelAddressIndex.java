@@ -0,0 +1,333 @@
+package com.example.farm_planner.parcel;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.IntPredicate;
+import java.util.stream.IntStream;
+
+/**
+ * Free-form address matching against the parcels' own SITEADDRESS / SITUS attributes, so
+ * in-county addresses resolve to a parcel without Nominatim or a point lookup.
+ *
+ * Both sides are tokenized the same way: upper-cased, punctuation dropped, street types,
+ * directionals and ordinals abbreviated (Street → ST, West → W, First → 1ST, Saint → ST).
+ * Candidates are the parcels with the query's house number. A candidate's street is a name
+ * (every word required: exact 2, one edit away 1) between an optional leading directional
+ * and trailing street types / directionals (0.5 off when missing); "ST" in the name only
+ * matches "St" or "Saint", as a suffix only "St"/"Street". Every other query word must be
+ * the candidate's town (+1 each), so another street type or an out-of-county town rules it
+ * out. State names and unit numbers are ignored; a ZIP code counts only with the town named,
+ * since the snapshot has no ZIPs to check it against. A tie between different addresses is
+ * no match, so the caller can fall back to a real geocoder.
+ *
+ * For typeahead the same words are kept in two sorted orders of parcel ids (number, street,
+ * town and street, town, number), so a prefix of either shape is a binary search and a short
+ * scan. That costs two ints per parcel on top of the words matching already holds.
+ */
+final class ParcelAddressIndex {
+
+  private static final Map<String, String> ABBREVIATIONS = new HashMap<>();
+  private static final Set<String> STREET_TYPES = new HashSet<>();
+  private static final Set<String> DIRECTIONALS = Set.of("N", "S", "E", "W", "NE", "NW", "SE", "SW");
+  private static final Set<String> IGNORED = Set.of("MD", "MARYLAND", "USA");
+  private static final Set<String> UNITS = Set.of("APT", "UNIT", "STE", "SUITE", "LOT");
+
+  static {
+    String[][] types = {
+        { "ST", "STREET", "STR" }, { "AVE", "AVENUE", "AV" }, { "RD", "ROAD" }, { "DR", "DRIVE" },
+        { "LN", "LANE" }, { "CT", "COURT" }, { "CIR", "CIRCLE" }, { "BLVD", "BOULEVARD" },
+        { "HWY", "HIGHWAY" }, { "PL", "PLACE" }, { "TER", "TERRACE" }, { "PKWY", "PARKWAY" },
+        { "TRL", "TRAIL" }, { "WAY" }, { "PIKE" }, { "EXT", "EXTENDED" }, { "SQ", "SQUARE" },
+        { "XING", "CROSSING" }, { "LNDG", "LANDING" }, { "PT", "POINT" }, { "RUN" }, { "ROW" },
+    };
+    for (String[] t : types) {
+      STREET_TYPES.add(t[0]);
+      for (String alias : t) ABBREVIATIONS.put(alias, t[0]);
+    }
+    String[][] other = {
+        { "N", "NORTH" }, { "S", "SOUTH" }, { "E", "EAST" }, { "W", "WEST" },
+        { "NE", "NORTHEAST" }, { "NW", "NORTHWEST" }, { "SE", "SOUTHEAST" }, { "SW", "SOUTHWEST" },
+        { "1ST", "FIRST" }, { "2ND", "SECOND" }, { "3RD", "THIRD" }, { "4TH", "FOURTH" }, { "5TH", "FIFTH" },
+        { "6TH", "SIXTH" }, { "7TH", "SEVENTH" }, { "8TH", "EIGHTH" }, { "9TH", "NINTH" }, { "10TH", "TENTH" },
+        { "MT", "MOUNT" }, { "FT", "FORT" }, { "ST", "SAINT" },
+    };
+    for (String[] t : other) {
+      for (String alias : t) ABBREVIATIONS.put(alias, t[0]);
+    }
+  }
+
+  private final Map<String, int[]> byNumber = new HashMap<>(); // house number -> parcels
+  private final String[][] streets;                            // tokens after the number
+  private final String[][] towns;                              // SITUS tokens
+  private final String[] numbers;                              // house number, null if none
+  private final int[] numberOrder;                             // numbered parcels by number, street, town
+  private final int[] streetOrder;                             // parcels with an address by street, town, number
+
+  ParcelAddressIndex(String[] siteAddresses, String[] situs) {
+    int n = siteAddresses.length;
+    this.streets = new String[n][];
+    this.towns = new String[n][];
+    this.numbers = new String[n];
+    Map<String, List<Integer>> parcels = new HashMap<>();
+    for (int i = 0; i < n; i++) {
+      towns[i] = tokens(situs[i]);
+      String[] t = tokens(siteAddresses[i]);
+      if (t.length >= 2 && isNumber(t[0])) {
+        numbers[i] = t[0];
+        streets[i] = Arrays.copyOfRange(t, 1, t.length);
+        parcels.computeIfAbsent(t[0], k -> new ArrayList<>()).add(i);
+      } else if (t.length > 0) {
+        streets[i] = t; // no house number: only suggested by street
+      }
+    }
+    parcels.forEach((num, ids) -> byNumber.put(num, ids.stream().mapToInt(Integer::intValue).toArray()));
+    this.numberOrder = sorted(i -> numbers[i] != null, true);
+    this.streetOrder = sorted(i -> streets[i] != null, false);
+  }
+
+  /** Best parcel for a free-form address, or -1 when none matches unambiguously. */
+  int match(String address) {
+    // like tokens(), but "SAINT" stays itself so it is never read as a street type
+    String[] q = words(address);
+    if (q.length == 0 || !isNumber(q[0])) return -1;
+    int[] candidates = byNumber.get(q[0]);
+    if (candidates == null) return -1;
+    List<String> rest = new ArrayList<>();
+    boolean zip = false;
+    for (int i = 1; i < q.length; i++) {
+      String t = q[i];
+      if (UNITS.contains(t)) i++; // and its number
+      else if (isZip(t)) zip = true;
+      else if (!IGNORED.contains(t)) rest.add(t.equals("SAINT") ? t : ABBREVIATIONS.getOrDefault(t, t));
+    }
+
+    int best = -1;
+    double bestScore = Double.NEGATIVE_INFINITY;
+    boolean tie = false;
+    for (int c : candidates) {
+      double s = score(c, rest, zip);
+      if (Double.isNaN(s)) continue;
+      if (s > bestScore + 1e-9) {
+        best = c;
+        bestScore = s;
+        tie = false;
+      } else if (Math.abs(s - bestScore) <= 1e-9 && !sameAddress(c, best)) {
+        tie = true;
+      }
+    }
+    return tie ? -1 : best;
+  }
+
+  // NaN when the candidate is ruled out
+  private double score(int c, List<String> query, boolean zip) {
+    String[] street = streets[c];
+    // the name is what is left after the trailing types / directionals ("PT" of POINT RD)
+    // and a leading directional
+    int nameEnd = street.length;
+    while (nameEnd > 1 && isAffix(street[nameEnd - 1])) nameEnd--;
+    int nameStart = nameEnd > 1 && DIRECTIONALS.contains(street[0]) ? 1 : 0;
+
+    boolean[] used = new boolean[query.size()];
+    double score = 0;
+    for (int k = 0; k < street.length; k++) {
+      String t = street[k];
+      boolean name = k >= nameStart && k < nameEnd;
+      int at = find(query, used, t, name, false);
+      if (at >= 0) {
+        score += 2;
+      } else if (name && (at = find(query, used, t, true, true)) >= 0) {
+        score += 1;
+      } else if (!name) {
+        score -= 0.5;
+        continue;
+      } else {
+        return Double.NaN;
+      }
+      used[at] = true;
+    }
+    boolean town = false;
+    for (int i = 0; i < query.size(); i++) {
+      if (used[i]) continue;
+      if (!isTownWord(c, query.get(i))) return Double.NaN; // another type, direction or town
+      score += 1;
+      town = true;
+    }
+    return zip && !town ? Double.NaN : score;
+  }
+
+  private boolean isTownWord(int c, String t) {
+    for (String w : towns[c]) {
+      if (w.equals(t) || oneEditApart(w, t)) return true;
+    }
+    return false;
+  }
+
+  private static boolean isAffix(String t) {
+    return STREET_TYPES.contains(t) || DIRECTIONALS.contains(t);
+  }
+
+  /**
+   * Up to {@code limit} parcels whose address starts with the typed text: each typed word must
+   * equal the address's word at that position, except the one still being typed, which only
+   * has to start it ("217 W Gr", "Green St, Snow H"; "217 Wes" also finds "217 W ..."). Text
+   * starting with a house number is matched against number, street and town, other text
+   * against street and town; parcels come back in that order.
+   */
+  int[] suggest(String typed, int limit) {
+    String[] words = tokens(typed);
+    if (words.length == 0 || limit <= 0) return new int[0];
+    boolean byNumber = isNumber(words[0]);
+    int[] order = byNumber ? numberOrder : streetOrder;
+    char end = typed.charAt(typed.length() - 1);
+    if (!Character.isLetterOrDigit(end)) {
+      return ids(order, scan(order, byNumber, words, false, limit), limit);
+    }
+
+    // the last word as typed ("WES"), and every abbreviation it may be the start of ("W")
+    String[] raw = words(typed);
+    String partial = raw[raw.length - 1];
+    words[words.length - 1] = partial;
+    IntStream positions = scan(order, byNumber, words, true, limit);
+    if (partial.length() >= 2) {
+      Set<String> expansions = new HashSet<>();
+      ABBREVIATIONS.forEach((alias, abbreviation) -> {
+        if (alias.startsWith(partial) && !abbreviation.startsWith(partial)) expansions.add(abbreviation);
+      });
+      for (String abbreviation : expansions) {
+        String[] expanded = words.clone();
+        expanded[expanded.length - 1] = abbreviation;
+        positions = IntStream.concat(positions, scan(order, byNumber, expanded, false, limit));
+      }
+    }
+    return ids(order, positions, limit);
+  }
+
+  // positions in order of the first parcels matching the words, from a binary search
+  private IntStream scan(int[] order, boolean byNumber, String[] words, boolean lastIsPrefix, int limit) {
+    int lo = 0;
+    int hi = order.length;
+    while (lo < hi) {
+      int mid = (lo + hi) >>> 1;
+      if (compare(order[mid], byNumber, words, lastIsPrefix) < 0) lo = mid + 1;
+      else hi = mid;
+    }
+    int from = lo;
+    int to = from;
+    while (to < order.length && to - from < limit && compare(order[to], byNumber, words, lastIsPrefix) == 0) to++;
+    return IntStream.range(from, to);
+  }
+
+  private static int[] ids(int[] order, IntStream positions, int limit) {
+    return positions.sorted().distinct().limit(limit).map(at -> order[at]).toArray();
+  }
+
+  // <0, 0, >0: the parcel's words sort before, match, or sort after the typed ones
+  private int compare(int i, boolean byNumber, String[] words, boolean lastIsPrefix) {
+    for (int k = 0; k < words.length; k++) {
+      String w = word(i, byNumber, k);
+      if (w == null) return -1;
+      if (lastIsPrefix && k == words.length - 1 && w.startsWith(words[k])) return 0;
+      int c = w.compareTo(words[k]);
+      if (c != 0) return c;
+    }
+    return 0;
+  }
+
+  // k-th word of number, street, town (byNumber) or street, town; null past the end
+  private String word(int i, boolean byNumber, int k) {
+    if (byNumber) {
+      if (k == 0) return numbers[i];
+      k--;
+    }
+    if (k < streets[i].length) return streets[i][k];
+    k -= streets[i].length;
+    return k < towns[i].length ? towns[i][k] : null;
+  }
+
+  private int[] sorted(IntPredicate include, boolean byNumber) {
+    Comparator<Integer> words = (a, b) -> {
+      for (int k = 0; ; k++) {
+        String x = word(a, byNumber, k);
+        String y = word(b, byNumber, k);
+        if (x == null || y == null) return x == null ? (y == null ? 0 : -1) : 1;
+        int c = x.compareTo(y);
+        if (c != 0) return c;
+      }
+    };
+    return IntStream.range(0, streets.length).filter(include).boxed()
+        .sorted(words.thenComparingInt(this::houseNumber).thenComparingInt(i -> i))
+        .mapToInt(Integer::intValue)
+        .toArray();
+  }
+
+  private int houseNumber(int i) {
+    String n = numbers[i];
+    if (n == null) return -1;
+    int v = 0;
+    for (int k = 0; k < n.length() && Character.isDigit(n.charAt(k)) && v < 100_000_000; k++) v = v * 10 + n.charAt(k) - '0';
+    return v;
+  }
+
+  // a name word "ST" is Saint, and matches either spelling
+  private static int find(List<String> query, boolean[] used, String token, boolean name, boolean fuzzy) {
+    for (int i = 0; i < query.size(); i++) {
+      if (used[i]) continue;
+      String t = query.get(i);
+      if (fuzzy ? oneEditApart(t, token) : t.equals(token) || name && token.equals("ST") && t.equals("SAINT")) {
+        return i;
+      }
+    }
+    return -1;
+  }
+
+  private boolean sameAddress(int a, int b) {
+    return Arrays.equals(streets[a], streets[b]) && Arrays.equals(towns[a], towns[b]);
+  }
+
+  /** Upper-case words with punctuation dropped and street types, directionals and ordinals abbreviated. */
+  static String[] tokens(String s) {
+    String[] words = words(s);
+    for (int i = 0; i < words.length; i++) words[i] = ABBREVIATIONS.getOrDefault(words[i], words[i]);
+    return words;
+  }
+
+  private static String[] words(String s) {
+    if (s == null) return new String[0];
+    String[] raw = s.toUpperCase(Locale.ROOT).replaceAll("[^A-Z0-9 ]", " ").trim().split("\\s+");
+    return raw.length == 1 && raw[0].isEmpty() ? new String[0] : raw;
+  }
+
+  // "217", "217A"
+  private static boolean isNumber(String t) {
+    return Character.isDigit(t.charAt(0)) && t.chars().allMatch(Character::isLetterOrDigit)
+        && t.chars().filter(Character::isDigit).count() >= t.length() - 1;
+  }
+
+  private static boolean isZip(String t) {
+    return (t.length() == 5 || t.length() == 9) && t.chars().allMatch(Character::isDigit);
+  }
+
+  /** Levenshtein distance of at most one (or one adjacent swap); words of four letters or more only. */
+  static boolean oneEditApart(String a, String b) {
+    if (a.length() < 4 || b.length() < 4 || Math.abs(a.length() - b.length()) > 1) return false;
+    if (!Character.isLetter(a.charAt(0)) || !Character.isLetter(b.charAt(0))) return false;
+    int i = 0;
+    while (i < a.length() && i < b.length() && a.charAt(i) == b.charAt(i)) i++;
+    if (i == a.length() && i == b.length()) return true;
+    if (a.length() == b.length()) {
+      // substitution, or a swap of two neighbours
+      if (a.substring(i + 1).equals(b.substring(i + 1))) return true;
+      return i + 1 < a.length() && a.charAt(i) == b.charAt(i + 1) && a.charAt(i + 1) == b.charAt(i)
+          && a.substring(i + 2).equals(b.substring(i + 2));
+    }
+    // insertion / deletion
+    return a.length() > b.length() ? a.substring(i + 1).equals(b.substring(i)) : b.substring(i + 1).equals(a.substring(i));
+  }
+}
@@ -0,0 +1,173 @@
+package com.example.farm_planner.parcel;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.IntPredicate;
+
+/**
+ * Attribute indexes over a {@link ParcelSnapshot}, built with it and swapped with it:
+ * <ul>
+ *   <li>account id → parcel (hash, exact match);</li>
+ *   <li>trigram postings over account ids and site addresses for substring search, which
+ *       is what the layer's {@code LIKE '%...%'} queries did;</li>
+ *   <li>towns (SITUS) as facets: parcel ids per town and a count per town.</li>
+ * </ul>
+ * Matching ignores case and repeated whitespace. Searches visit parcels in snapshot (layer)
+ * order, like the layer's own answers; return false from the visitor to stop.
+ */
+final class ParcelAttributeIndex {
+
+  private final Map<String, Integer> byAcctId = new HashMap<>();
+  private final Trigrams acctIds;
+  private final Trigrams addresses;
+  private final Map<String, BitSet> towns = new HashMap<>();     // normalized SITUS -> parcels
+  private final Map<String, String> townNames = new TreeMap<>(); // normalized -> as first seen
+
+  ParcelAttributeIndex(String[] acctIds, String[] siteAddresses, String[] situs) {
+    String[] acct = normalizeAll(acctIds);
+    for (int i = 0; i < acct.length; i++) {
+      if (acct[i] != null) byAcctId.putIfAbsent(acct[i], i);
+    }
+    this.acctIds = new Trigrams(acct);
+    this.addresses = new Trigrams(normalizeAll(siteAddresses));
+
+    for (int i = 0; i < situs.length; i++) {
+      String town = normalize(situs[i]);
+      if (town == null) continue;
+      towns.computeIfAbsent(town, t -> new BitSet(situs.length)).set(i);
+      townNames.putIfAbsent(town, situs[i].trim());
+    }
+  }
+
+  /** Parcel whose account id equals {@code acctId}, or -1. */
+  int byAcctId(String acctId) {
+    String key = normalize(acctId);
+    return key == null ? -1 : byAcctId.getOrDefault(key, -1);
+  }
+
+  /** Visit parcels whose account id contains {@code text}. */
+  void acctIdsContaining(String text, IntPredicate visitor) {
+    acctIds.containing(normalize(text), visitor);
+  }
+
+  /** Visit parcels whose site address contains {@code text}. */
+  void addressesContaining(String text, IntPredicate visitor) {
+    addresses.containing(normalize(text), visitor);
+  }
+
+  /** Parcels of every town whose name contains {@code text} (read-only), or null for a blank text. */
+  BitSet townsContaining(String text) {
+    String q = normalize(text);
+    if (q == null) return null;
+    BitSet out = null;
+    boolean shared = false;
+    for (var e : towns.entrySet()) {
+      if (!e.getKey().contains(q)) continue;
+      if (out == null) {
+        out = e.getValue();
+        shared = true;
+      } else {
+        if (shared) out = (BitSet) out.clone();
+        shared = false;
+        out.or(e.getValue());
+      }
+    }
+    return out == null ? new BitSet() : out;
+  }
+
+  /** Parcel count per town, by name. */
+  Map<String, Integer> townFacets() {
+    Map<String, Integer> out = new LinkedHashMap<>();
+    townNames.forEach((town, name) -> out.put(name, towns.get(town).cardinality()));
+    return out;
+  }
+
+  /** Upper-cased, trimmed, inner whitespace collapsed; null for blank input. */
+  static String normalize(String s) {
+    if (s == null) return null;
+    String t = s.trim();
+    if (t.isEmpty()) return null;
+    return t.replaceAll("\\s+", " ").toUpperCase(Locale.ROOT);
+  }
+
+  private static String[] normalizeAll(String[] values) {
+    String[] out = new String[values.length];
+    for (int i = 0; i < values.length; i++) out[i] = normalize(values[i]);
+    return out;
+  }
+
+  /**
+   * Substring search over normalized values: candidates are the parcels in the postings of
+   * every trigram of the query (found by leapfrogging through them from the rarest, so a
+   * search that stops early reads little), then checked with {@link String#contains}.
+   * Queries under three characters scan all values.
+   */
+  private static final class Trigrams {
+    private final String[] values;
+    private final Map<Long, int[]> postings;
+
+    Trigrams(String[] values) {
+      this.values = values;
+      Map<Long, IntList> build = new HashMap<>();
+      for (int i = 0; i < values.length; i++) {
+        String v = values[i];
+        if (v == null) continue;
+        for (int k = 0; k + 3 <= v.length(); k++) build.computeIfAbsent(gram(v, k), g -> new IntList()).add(i);
+      }
+      this.postings = new HashMap<>(build.size() * 2);
+      build.forEach((g, ids) -> postings.put(g, ids.toArray()));
+    }
+
+    private static long gram(String s, int at) {
+      return ((long) s.charAt(at) << 32) | ((long) s.charAt(at + 1) << 16) | s.charAt(at + 2);
+    }
+
+    void containing(String q, IntPredicate visitor) {
+      if (q == null) return;
+      if (q.length() < 3) {
+        for (int i = 0; i < values.length; i++) {
+          if (values[i] != null && values[i].contains(q) && !visitor.test(i)) return;
+        }
+        return;
+      }
+      int[][] lists = new int[q.length() - 2][];
+      for (int k = 0; k < lists.length; k++) {
+        lists[k] = postings.get(gram(q, k));
+        if (lists[k] == null) return;
+      }
+      Arrays.sort(lists, (a, b) -> Integer.compare(a.length, b.length));
+      int[] from = new int[lists.length]; // per list: nothing before this position can match
+      candidates:
+      for (int i : lists[0]) {
+        for (int k = 1; k < lists.length; k++) {
+          int at = Arrays.binarySearch(lists[k], from[k], lists[k].length, i);
+          from[k] = at < 0 ? -at - 1 : at;
+          if (from[k] == lists[k].length) return;
+          if (at < 0) continue candidates;
+        }
+        if (values[i].contains(q) && !visitor.test(i)) return;
+      }
+    }
+  }
+
+  /** Growable ascending int list; parcels are added in order, so repeats are adjacent. */
+  private static final class IntList {
+    private int[] a = new int[4];
+    private int n;
+
+    void add(int v) {
+      if (n > 0 && a[n - 1] == v) return;
+      if (n == a.length) a = Arrays.copyOf(a, n * 2);
+      a[n++] = v;
+    }
+
+    int[] toArray() {
+      return Arrays.copyOf(a, n);
+    }
+  }
+}
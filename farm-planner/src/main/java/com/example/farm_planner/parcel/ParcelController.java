@@ -1,5 +1,8 @@
 package com.example.farm_planner.parcel;
 
+import java.util.Map;
+
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -7,8 +10,12 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import com.example.farm_planner.config.OutboundPools;
+import com.example.farm_planner.config.OutboundScheduler;
+import com.example.farm_planner.config.UpstreamResilience;
 import com.example.farm_planner.parcel.dto.AddressSearchRequest;
 import com.example.farm_planner.parcel.dto.ParcelResponse;
 
@@ -22,26 +29,76 @@ public class ParcelController {
 
   private final GeocoderService geocoder;
   private final ParcelService parcels;
+  private final ParcelHarvester harvester;
+  private final OutboundScheduler outbound;
+  private final ParcelGeometryLod lod;
+  private final UpstreamResilience resilience;
+  private final OutboundPools pools;
 
-  public ParcelController(GeocoderService geocoder, ParcelService parcels) {
+  public ParcelController(GeocoderService geocoder, ParcelService parcels, ParcelHarvester harvester,
+                          OutboundScheduler outbound, ParcelGeometryLod lod, UpstreamResilience resilience,
+                          OutboundPools pools) {
     this.geocoder = geocoder;
     this.parcels = parcels;
+    this.harvester = harvester;
+    this.outbound = outbound;
+    this.lod = lod;
+    this.resilience = resilience;
+    this.pools = pools;
   }
 
-  /** POST /api/parcels/search  { "address": "217 W Green St, Snow Hill, MD" } */
+  /**
+   * POST /api/parcels/search  { "address": "217 W Green St, Snow Hill, MD" }
+   * Optional ?zoom= (simplify to one map pixel) or ?tolerance= (metres), and ?encoding=polyline.
+   */
   @PostMapping("/search")
-  public Mono<ResponseEntity<ParcelResponse>> search(@Valid @RequestBody AddressSearchRequest req) {
-    return geocoder.geocodeOne(req.address())
-        .flatMap(ll -> parcels.findByPoint(ll[0], ll[1]))
-        .map(ResponseEntity::ok)
+  public Mono<ResponseEntity<ParcelResponse>> search(@Valid @RequestBody AddressSearchRequest req,
+                                                     @RequestParam(required = false) Integer zoom,
+                                                     @RequestParam(required = false) Double tolerance,
+                                                     @RequestParam(required = false) String encoding) {
+    var enc = ParcelGeometryLod.encoding(encoding);
+    ParcelGeometryLod.validate(zoom, tolerance);
+    // in-county addresses straight from the snapshot; Nominatim + point lookup for the rest
+    return geocoder.findParcel(req.address())
+        .switchIfEmpty(Mono.defer(() -> geocoder.geocodeOne(req.address())
+            .flatMap(ll -> parcels.findByPoint(ll[0], ll[1]))))
+        .map(p -> ResponseEntity.ok(lod.apply(p, zoom, tolerance, enc)))
         .defaultIfEmpty(ResponseEntity.notFound().build());
   }
 
-  /** GET /api/parcels/{acctId} – lookup by account id (adjust field name in service if needed) */
+  /** GET /api/parcels/{acctId} – lookup by account id; same zoom/tolerance/encoding options as search */
   @GetMapping("/{acctId}")
-  public Mono<ResponseEntity<ParcelResponse>> findByAccount(@PathVariable String acctId) {
+  public Mono<ResponseEntity<ParcelResponse>> findByAccount(@PathVariable String acctId,
+                                                            @RequestParam(required = false) Integer zoom,
+                                                            @RequestParam(required = false) Double tolerance,
+                                                            @RequestParam(required = false) String encoding) {
+    var enc = ParcelGeometryLod.encoding(encoding);
+    ParcelGeometryLod.validate(zoom, tolerance);
     return parcels.findByAcctId(acctId)
-        .map(ResponseEntity::ok)
+        .map(p -> ResponseEntity.ok(lod.apply(p, zoom, tolerance, enc)))
         .defaultIfEmpty(ResponseEntity.notFound().build());
   }
+
+  /** GET /api/parcels/lookup/stats – geocode cache, in-flight coalescing, outbound queue, upstream circuit, connection pool and LOD cache counters */
+  @GetMapping("/lookup/stats")
+  public Map<String, Object> lookupStats() {
+    return Map.of(
+        "geocode", geocoder.stats(),
+        "findByPoint", parcels.stats(),
+        "outbound", outbound.stats(),
+        "upstreams", resilience.stats(),
+        "pools", pools.stats(),
+        "geometryLod", lod.stats());
+  }
+
+  /** POST /api/parcels/harvest – download (or resume downloading) the whole layer into the local snapshot; 409 while one runs */
+  @PostMapping("/harvest")
+  public Mono<ResponseEntity<?>> harvest() {
+    return harvester.harvest()
+        .<ResponseEntity<?>>map(ResponseEntity::ok)
+        .onErrorResume(ParcelHarvester.AlreadyRunningException.class, ex -> Mono.just(
+            ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of("error", ex.getMessage()))))
+        .onErrorResume(ex -> Mono.just(ResponseEntity.status(HttpStatus.BAD_GATEWAY)
+            .body(Map.of("error", "Harvest stopped (re-run to resume): " + ex.getMessage()))));
+  }
 }
@@ -0,0 +1,108 @@
+package com.example.farm_planner.parcel;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ResponseStatusException;
+
+import com.example.farm_planner.geo.GeoJsonGeometry;
+import com.example.farm_planner.geo.GeometrySimplifier;
+import com.example.farm_planner.parcel.dto.ParcelResponse;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+
+/**
+ * Level-of-detail parcel geometry for the map: simplified to a zoom level (one screen
+ * pixel) or an explicit tolerance in metres, optionally as encoded polylines.
+ *
+ * Results are cached per parcel, detail level and encoding. The key carries a fingerprint
+ * of the raw geometry (vertex count + bounds) so a changed parcel misses the cache.
+ */
+@Component
+public class ParcelGeometryLod {
+
+  public enum Encoding { GEOJSON, POLYLINE }
+
+  private static final int POLYLINE_PRECISION = 6; // ~0.1 m
+
+  private record Key(String acctId, long fingerprint, String level, Encoding encoding) {}
+
+  private final Cache<Key, Map<String, Object>> cache;
+
+  public ParcelGeometryLod(@Value("${app.parcels.lod.maxEntries:20000}") long maxEntries) {
+    this.cache = Caffeine.newBuilder().maximumSize(maxEntries).recordStats().build();
+  }
+
+  /** Parse the ?encoding= parameter; null means plain GeoJSON. */
+  public static Encoding encoding(String value) {
+    if (value == null || value.isBlank()) return Encoding.GEOJSON;
+    try {
+      return Encoding.valueOf(value.trim().toUpperCase(Locale.ROOT));
+    } catch (IllegalArgumentException e) {
+      throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "encoding must be geojson or polyline");
+    }
+  }
+
+  /** Check the ?zoom= and ?tolerance= parameters; callers do this before any lookup. */
+  public static void validate(Integer zoom, Double toleranceM) {
+    if (zoom != null && (zoom < 0 || zoom > 24)) {
+      throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "zoom must be 0..24");
+    }
+    if (toleranceM != null && !(toleranceM >= 0)) {
+      throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "tolerance must be >= 0 (metres)");
+    }
+  }
+
+  /**
+   * Apply the requested detail level. With neither zoom nor tolerance and plain GeoJSON
+   * the response is returned untouched.
+   */
+  public ParcelResponse apply(ParcelResponse parcel, Integer zoom, Double toleranceM, Encoding encoding) {
+    validate(zoom, toleranceM);
+    if (parcel == null || parcel.geometry() == null
+        || (zoom == null && toleranceM == null && encoding == Encoding.GEOJSON)) {
+      return parcel;
+    }
+
+    double[][][] raw = GeoJsonGeometry.polygons(parcel.geometry());
+    if (raw.length == 0) return parcel;
+    double[] bounds = GeoJsonGeometry.bounds(raw);
+    // explicit tolerance wins over zoom
+    double tol = toleranceM != null ? toleranceM
+        : zoom != null ? GeometrySimplifier.pixelMetres(zoom, (bounds[1] + bounds[3]) / 2) : 0;
+    String level = toleranceM != null ? "t" + toleranceM : zoom != null ? "z" + zoom : "raw";
+
+    Map<String, Object> geometry;
+    if (parcel.acctId() == null) {
+      geometry = build(raw, tol, encoding);
+    } else {
+      long fingerprint = 31L * Arrays.hashCode(bounds) + GeometrySimplifier.vertices(raw);
+      geometry = cache.get(new Key(parcel.acctId(), fingerprint, level, encoding), k -> build(raw, tol, encoding));
+    }
+    return new ParcelResponse(parcel.acctId(), parcel.acres(), geometry);
+  }
+
+  private static Map<String, Object> build(double[][][] raw, double tol, Encoding encoding) {
+    double[][][] simplified = GeometrySimplifier.simplify(raw, tol);
+    return encoding == Encoding.POLYLINE
+        ? GeometrySimplifier.toEncodedGeometry(simplified, POLYLINE_PRECISION)
+        : GeoJsonGeometry.toGeometry(simplified);
+  }
+
+  public Map<String, Object> stats() {
+    CacheStats s = cache.stats();
+    Map<String, Object> out = new LinkedHashMap<>();
+    out.put("size", cache.estimatedSize());
+    out.put("hits", s.hitCount());
+    out.put("misses", s.missCount());
+    out.put("hitRate", s.hitRate());
+    out.put("evictions", s.evictionCount());
+    return out;
+  }
+}
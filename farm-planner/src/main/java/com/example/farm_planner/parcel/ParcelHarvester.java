@@ -0,0 +1,263 @@
+package com.example.farm_planner.parcel;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.util.FileSystemUtils;
+import org.springframework.util.LinkedMultiValueMap;
+import org.springframework.util.MultiValueMap;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.util.UriComponentsBuilder;
+
+import com.example.farm_planner.config.OutboundScheduler;
+import com.example.farm_planner.geo.GeoJsonGeometry;
+import com.example.farm_planner.parcel.dto.ArcJsonFeatureSet;
+import com.example.farm_planner.parcel.dto.ArcObjectIds;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * Walks the whole county parcel layer and writes it to the local snapshot file.
+ *
+ * The object ids are listed once, sorted and cut into objectId ranges of {@code pageSize};
+ * up to {@code concurrency} ranges are fetched at a time on the shared WebClient. Each page
+ * is written to its own part file as soon as it arrives and recorded in {@code checkpoint.json},
+ * so an interrupted harvest picks up with the pages that are still missing. When every page
+ * is on disk the parts are concatenated into the snapshot and the store is reloaded.
+ */
+@Service
+public class ParcelHarvester {
+
+  private static final Logger log = LoggerFactory.getLogger(ParcelHarvester.class);
+  private static final ObjectMapper M = new ObjectMapper();
+
+  private final WebClient http;
+  private final String layerUrl;
+  private final Path workDir;
+  private final Path target;
+  private final int pageSize;
+  private final int concurrency;
+  private final ParcelSnapshotStore snapshots;
+  private final AtomicBoolean running = new AtomicBoolean();
+
+  public ParcelHarvester(WebClient http,
+                         @Value("${app.worcesterParcelsLayerUrl}") String layerUrl,
+                         @Value("${app.parcels.harvest.workDir:data/harvest}") String workDir,
+                         @Value("${app.parcels.snapshotFile:data/worcester-parcels.ndjson}") String target,
+                         @Value("${app.parcels.harvest.pageSize:1000}") int pageSize,
+                         @Value("${app.parcels.harvest.concurrency:4}") int concurrency,
+                         ParcelSnapshotStore snapshots) {
+    this.http = http;
+    this.layerUrl = layerUrl;
+    this.workDir = Path.of(workDir);
+    this.target = Path.of(target);
+    this.pageSize = Math.max(1, pageSize);
+    this.concurrency = Math.max(1, concurrency);
+    this.snapshots = snapshots; // may be null (tests)
+  }
+
+  /** Checkpoint state: the page plan plus feature counts of pages already on disk. */
+  record Checkpoint(String layerUrl, String objectIdField, int pageSize,
+                    List<long[]> pages, Map<Integer, Integer> completed) {}
+
+  public record HarvestResult(int pages, int pagesFetched, int pagesResumed, long features, String file) {}
+
+  /** Another harvest holds the work directory; nothing was started. */
+  public static final class AlreadyRunningException extends IllegalStateException {
+    AlreadyRunningException() {
+      super("Harvest already running");
+    }
+  }
+
+  public boolean isRunning() { return running.get(); }
+
+  /** Run (or resume) a harvest. Errors with {@link AlreadyRunningException} if one is already running. */
+  public Mono<HarvestResult> harvest() {
+    return Mono.defer(() -> {
+      if (!running.compareAndSet(false, true)) {
+        return Mono.error(new AlreadyRunningException());
+      }
+      return Mono.fromCallable(this::readCheckpoint)
+          .subscribeOn(Schedulers.boundedElastic())
+          .flatMap(cp -> cp.isPresent() ? Mono.just(cp.get()) : plan())
+          .flatMap(this::run)
+          .contextWrite(OutboundScheduler.batch())
+          .doFinally(s -> running.set(false));
+    });
+  }
+
+  private Mono<HarvestResult> run(Checkpoint cp) {
+    int resumed = cp.completed().size();
+    return Flux.range(0, cp.pages().size())
+        .filter(i -> !cp.completed().containsKey(i))
+        .flatMap(i -> fetchPage(cp, i)
+            .publishOn(Schedulers.boundedElastic())
+            .map(fs -> writePage(cp, i, fs)), concurrency)
+        .count()
+        .publishOn(Schedulers.boundedElastic())
+        .map(fetched -> {
+          long features = assemble(cp);
+          if (snapshots != null && snapshots.enabled()) {
+            try { snapshots.reload(); } catch (IOException e) { throw new IllegalStateException(e); }
+          }
+          log.info("Harvested {} parcels in {} pages ({} resumed) into {}", features,
+              cp.pages().size(), resumed, target);
+          return new HarvestResult(cp.pages().size(), fetched.intValue(), resumed, features, target.toString());
+        });
+  }
+
+  /* ---------- planning ---------- */
+
+  private Mono<Checkpoint> plan() {
+    MultiValueMap<String, String> q = new LinkedMultiValueMap<>();
+    q.add("where", "1=1");
+    q.add("returnIdsOnly", "true");
+    q.add("f", "json");
+
+    return http.get()
+        .uri(queryUri(q))
+        .retrieve()
+        .bodyToMono(ArcObjectIds.class)
+        .publishOn(Schedulers.boundedElastic())
+        .map(ids -> {
+          if (ids.objectIdFieldName() == null || ids.objectIds() == null) {
+            throw new IllegalStateException("Layer did not return object ids: " + layerUrl);
+          }
+          long[] sorted = ids.objectIds().stream().mapToLong(Long::longValue).sorted().toArray();
+          List<long[]> pages = new ArrayList<>();
+          for (int i = 0; i < sorted.length; i += pageSize) {
+            pages.add(new long[] { sorted[i], sorted[Math.min(sorted.length, i + pageSize) - 1] });
+          }
+          Checkpoint cp = new Checkpoint(layerUrl, ids.objectIdFieldName(), pageSize, pages,
+              new ConcurrentHashMap<>());
+          try {
+            FileSystemUtils.deleteRecursively(workDir);
+            Files.createDirectories(workDir);
+            saveCheckpoint(cp);
+          } catch (IOException e) {
+            throw new IllegalStateException(e);
+          }
+          return cp;
+        });
+  }
+
+  private Optional<Checkpoint> readCheckpoint() throws IOException {
+    Path file = workDir.resolve("checkpoint.json");
+    if (!Files.exists(file)) return Optional.empty();
+    Checkpoint cp = M.readValue(file.toFile(), Checkpoint.class);
+    if (!layerUrl.equals(cp.layerUrl()) || cp.pageSize() != pageSize) {
+      log.info("Discarding harvest checkpoint for a different layer/page size");
+      return Optional.empty();
+    }
+    // keep only pages whose part file actually made it to disk
+    Map<Integer, Integer> done = new ConcurrentHashMap<>();
+    cp.completed().forEach((page, n) -> { if (Files.exists(part(page))) done.put(page, n); });
+    return Optional.of(new Checkpoint(cp.layerUrl(), cp.objectIdField(), cp.pageSize(), cp.pages(), done));
+  }
+
+  private synchronized void saveCheckpoint(Checkpoint cp) throws IOException {
+    Path tmp = workDir.resolve("checkpoint.json.tmp");
+    M.writeValue(tmp.toFile(), cp);
+    Files.move(tmp, workDir.resolve("checkpoint.json"), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+  }
+
+  /* ---------- pages ---------- */
+
+  private Mono<ArcJsonFeatureSet> fetchPage(Checkpoint cp, int page) {
+    long[] range = cp.pages().get(page);
+    String oid = cp.objectIdField();
+
+    MultiValueMap<String, String> q = new LinkedMultiValueMap<>();
+    q.add("where", oid + " >= " + range[0] + " AND " + oid + " <= " + range[1]);
+    q.add("outFields", "*");
+    q.add("returnGeometry", "true");
+    q.add("outSR", "4326");
+    q.add("f", "json");
+
+    return http.get()
+        .uri(queryUri(q))
+        .retrieve()
+        .bodyToMono(ArcJsonFeatureSet.class)
+        .map(fs -> {
+          if (fs.exceededTransferLimit) {
+            throw new IllegalStateException("Page " + page + " truncated by server; lower app.parcels.harvest.pageSize");
+          }
+          return fs;
+        });
+  }
+
+  /** Write one page as GeoJSON Feature lines; the part file only appears once complete. */
+  private int writePage(Checkpoint cp, int page, ArcJsonFeatureSet fs) {
+    Path part = part(page);
+    Path tmp = workDir.resolve(part.getFileName() + ".tmp");
+    int n = 0;
+    try {
+      try (BufferedWriter w = Files.newBufferedWriter(tmp)) {
+        if (fs.features != null) {
+          for (var f : fs.features) {
+            Map<String, Object> geometry = GeoJsonGeometry.fromEsri(f.geometry);
+            if (geometry == null) continue;
+            w.write(M.writeValueAsString(Map.of(
+                "type", "Feature",
+                "properties", f.attributes == null ? Map.of() : f.attributes,
+                "geometry", geometry)));
+            w.newLine();
+            n++;
+          }
+        }
+      }
+      Files.move(tmp, part, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+      cp.completed().put(page, n);
+      saveCheckpoint(cp);
+    } catch (IOException e) {
+      throw new IllegalStateException("Failed writing harvest page " + page, e);
+    }
+    return n;
+  }
+
+  /** Concatenate part files in page order into the snapshot file, then drop the work dir. */
+  private long assemble(Checkpoint cp) {
+    Path tmp = target.resolveSibling(target.getFileName() + ".tmp");
+    try {
+      if (target.getParent() != null) Files.createDirectories(target.getParent());
+      try (OutputStream out = Files.newOutputStream(tmp)) {
+        for (int i = 0; i < cp.pages().size(); i++) Files.copy(part(i), out);
+      }
+      Files.move(tmp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+      FileSystemUtils.deleteRecursively(workDir);
+    } catch (IOException e) {
+      throw new IllegalStateException("Failed assembling parcel snapshot " + target, e);
+    }
+    return cp.completed().values().stream().mapToLong(Integer::longValue).sum();
+  }
+
+  private Path part(int page) {
+    return workDir.resolve(String.format("page-%05d.ndjson", page));
+  }
+
+  private URI queryUri(MultiValueMap<String, String> q) {
+    return UriComponentsBuilder.fromUriString(layerUrl + "/query")
+        .queryParams(q)
+        .build()
+        .encode()
+        .toUri();
+  }
+}
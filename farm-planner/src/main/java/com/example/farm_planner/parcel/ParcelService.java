@@ -1,39 +1,135 @@
 package com.example.farm_planner.parcel;
 
+import java.io.IOException;
 import java.net.URI;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
 
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.http.HttpStatusCode;
 import org.springframework.stereotype.Service;
 import org.springframework.util.LinkedMultiValueMap;
 import org.springframework.util.MultiValueMap;
 import org.springframework.web.reactive.function.client.WebClient;
 import org.springframework.web.util.UriComponentsBuilder;
 
+import com.example.farm_planner.config.PipelineMetrics;
+import com.example.farm_planner.config.UpstreamException;
+import com.example.farm_planner.config.UpstreamUnavailableException;
 import com.example.farm_planner.parcel.dto.GeoJsonFeatureCollection;
 import com.example.farm_planner.parcel.dto.ParcelResponse;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
 
 import reactor.core.publisher.Mono;
 
-/** Queries the county ArcGIS layer and maps results to ParcelResponse. */
+/**
+ * Queries the county ArcGIS layer and maps results to ParcelResponse.
+ *
+ * Upstream failures surface as {@link UpstreamException} / {@link UpstreamUnavailableException}
+ * rather than "not found"; when a lookup fails that way, the last good answer for the same
+ * point or account (up to {@code app.parcels.staleEntries}) is served instead.
+ *
+ * Account lookups are answered from the snapshot's attribute index while the snapshot is
+ * fresh (see {@link ParcelSnapshotStore#fresh()}), otherwise by an ArcGIS LIKE query.
+ *
+ * Stages timed in {@link PipelineMetrics}: "parcel.point" / "parcel.acct" end to end,
+ * "parcel.arcgis" for the HTTP exchange including the body, "parcel.decode" for JSON parsing.
+ */
 @Service
 public class ParcelService {
 
   private final WebClient http;
   private final String layerUrl;
+  private final ParcelSnapshotStore snapshots;
+  private final PipelineMetrics metrics;
+  private final SingleFlight<PointKey, ParcelResponse> inFlight = new SingleFlight<>();
+  private final Cache<Object, ParcelResponse> lastGood;
+  private final LongAdder staleServed = new LongAdder();
   private static final ObjectMapper M = new ObjectMapper();
 
+  // Points closer than ~0.1 m (1e-6 degrees) share one upstream query
+  private static final double POINT_KEY_SCALE = 1e6;
+
+  private record PointKey(long lat, long lon) {}
+
   public ParcelService(WebClient http,
-                       @Value("${app.worcesterParcelsLayerUrl}") String layerUrl) {
+                       @Value("${app.worcesterParcelsLayerUrl}") String layerUrl,
+                       ParcelSnapshotStore snapshots,
+                       @Value("${app.parcels.staleEntries:10000}") long staleEntries,
+                       PipelineMetrics metrics) {
     this.http = http;
     this.layerUrl = layerUrl; // e.g. .../MapServer/5
+    this.snapshots = snapshots; // may be null (mock profile)
+    this.metrics = metrics;
+    this.lastGood = Caffeine.newBuilder().maximumSize(staleEntries).build();
   }
 
   /** Find the parcel intersecting the given WGS84 point (lat, lon). */
   public Mono<ParcelResponse> findByPoint(double lat, double lon) {
+    // Snapshot mode: answer from the in-memory spatial index, no network hop
+    if (snapshots != null && snapshots.ready()) {
+      return metrics.timed("parcel.point", Mono.defer(() -> Mono.justOrEmpty(snapshots.findByPoint(lat, lon))));
+    }
+
+    var key = new PointKey(Math.round(lat * POINT_KEY_SCALE), Math.round(lon * POINT_KEY_SCALE));
+    return metrics.timed("parcel.point", inFlight.execute(key, () -> queryPoint(lat, lon)));
+  }
+
+  /** In-flight coalescing counters for point lookups, plus stale answers served. */
+  public Map<String, Object> stats() {
+    Map<String, Object> out = new LinkedHashMap<>(inFlight.stats());
+    out.put("staleEntries", lastGood.estimatedSize());
+    out.put("staleServed", staleServed.sum());
+    return out;
+  }
+
+  private Mono<ParcelResponse> queryPoint(double lat, double lon) {
+    return query(pointQueryUri(layerUrl, lat, lon),
+        new PointKey(Math.round(lat * POINT_KEY_SCALE), Math.round(lon * POINT_KEY_SCALE)));
+  }
+
+  // First feature of the query; remembered as the stale fallback for staleKey
+  private Mono<ParcelResponse> query(URI uri, Object staleKey) {
+    Mono<byte[]> body = http.get()
+        .uri(uri)
+        .exchangeToMono(resp -> resp.statusCode().is2xxSuccessful()
+            ? resp.bodyToMono(byte[].class)
+            // 5xx is retried (and mapped) by the WebClient filter; anything else left is a 4xx
+            : resp.releaseBody().then(Mono.error(
+                new UpstreamException(uri.getHost(), "HTTP " + resp.statusCode().value(), null))));
+    return metrics.timed("parcel.arcgis", body)
+        // decoded separately so large polygons show up as decode time, not upstream time
+        .map(bytes -> metrics.timed("parcel.decode", () -> readFeatures(bytes)))
+        .flatMap(fc -> {
+          if (fc == null || fc.features == null || fc.features.isEmpty()) return Mono.empty();
+          var f = fc.features.get(0);
+          return Mono.just(toParcelResponse(f));
+        })
+        .switchIfEmpty(Mono.fromRunnable(() -> metrics.upstreamResult("arcgis", "empty", null)))
+        .doOnNext(p -> lastGood.put(staleKey, p))
+        .doOnError(e -> metrics.upstreamResult("arcgis", "failed", e))
+        .onErrorResume(e -> e instanceof UpstreamException || e instanceof UpstreamUnavailableException, e -> {
+          ParcelResponse stale = lastGood.getIfPresent(staleKey);
+          if (stale == null) return Mono.error(e);
+          staleServed.increment();
+          metrics.upstreamResult("arcgis", "stale", e);
+          return Mono.just(stale);
+        });
+  }
+
+  private static GeoJsonFeatureCollection readFeatures(byte[] json) {
+    try {
+      return M.readValue(json, GeoJsonFeatureCollection.class);
+    } catch (IOException e) {
+      throw new IllegalStateException("Unreadable ArcGIS response: " + e.getMessage(), e);
+    }
+  }
+
+  /** ArcGIS point-intersects query for the parcel layer (shared with the blocking client). */
+  static URI pointQueryUri(String layerUrl, double lat, double lon) {
     // ArcGIS expects x = lon, y = lat, wkid 4326
     var geometry = Map.of(
         "x", lon,
@@ -52,30 +148,21 @@ public class ParcelService {
     q.add("returnGeometry", "true");
     q.add("outFields", "*");
 
-    URI uri = UriComponentsBuilder.fromUriString(layerUrl + "/query")
+    return UriComponentsBuilder.fromUriString(layerUrl + "/query")
         .queryParams(q)
         .build()
         .encode()
         .toUri();
-
-    return http.get()
-        .uri(uri)
-        .exchangeToMono(resp -> {
-          HttpStatusCode sc = resp.statusCode();
-          if (sc.is2xxSuccessful()) {
-            return resp.bodyToMono(GeoJsonFeatureCollection.class);
-          }
-          return Mono.empty();
-        })
-        .flatMap(fc -> {
-          if (fc == null || fc.features == null || fc.features.isEmpty()) return Mono.empty();
-          var f = fc.features.get(0);
-          return Mono.just(toParcelResponse(f));
-        });
   }
 
   /** Lookup by (partial) account id. Adjust the field name as needed for your layer. */
   public Mono<ParcelResponse> findByAcctId(String acctId) {
+    // Fresh snapshot: exact hash hit, else first substring match, no network hop
+    ParcelSnapshot local = snapshots == null ? null : snapshots.fresh();
+    if (local != null) {
+      return metrics.timed("parcel.acct", Mono.defer(() -> Mono.justOrEmpty(local.findByAcctId(acctId))));
+    }
+
     // TODO: Confirm the actual field name in your layer (e.g., ACCOUNTID, ACCOUNTNO, ACCT).
     String where = "UPPER(COALESCE(ACCOUNTID, COALESCE(ACCOUNT, COALESCE(ACCT, AcctId)))) LIKE UPPER('%" + sanitize(acctId) + "%')";
 
@@ -92,23 +179,10 @@ public class ParcelService {
         .encode()
         .toUri();
 
-    return http.get()
-        .uri(uri)
-        .exchangeToMono(resp -> {
-          HttpStatusCode sc = resp.statusCode();
-          if (sc.is2xxSuccessful()) {
-            return resp.bodyToMono(GeoJsonFeatureCollection.class);
-          }
-          return Mono.empty();
-        })
-        .flatMap(fc -> {
-          if (fc == null || fc.features == null || fc.features.isEmpty()) return Mono.empty();
-          var f = fc.features.get(0);
-          return Mono.just(toParcelResponse(f));
-        });
+    return metrics.timed("parcel.acct", query(uri, "acct:" + acctId));
   }
 
-  private ParcelResponse toParcelResponse(GeoJsonFeatureCollection.Feature f) {
+  static ParcelResponse toParcelResponse(GeoJsonFeatureCollection.Feature f) {
     Map<String, Object> props = f.properties;
     String acct = firstNonNullString(props, List.of("ACCTID", "ACCOUNTID", "ACCOUNT", "ACCT", "AcctId"));
     Double acres = toDouble(firstNonNull(props, List.of("ACRES", "Acres")));
@@ -134,7 +208,7 @@ public class ParcelService {
     return null;
   }
 
-  private static String firstNonNullString(Map<String, Object> props, List<String> keys) {
+  static String firstNonNullString(Map<String, Object> props, List<String> keys) {
     Object v = firstNonNull(props, keys);
     return v == null ? null : v.toString();
   }
@@ -0,0 +1,162 @@
+package com.example.farm_planner.parcel;
+
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Map;
+import java.util.function.IntPredicate;
+
+import com.example.farm_planner.geo.GeoJsonGeometry;
+import com.example.farm_planner.geo.StrTree;
+import com.example.farm_planner.parcel.dto.ParcelResponse;
+
+/**
+ * Immutable in-memory copy of the county parcel layer with an STR-packed spatial index
+ * over parcel bounding boxes. Point lookups walk the index, then run exact ring tests
+ * on the candidates only. Account id, address and town lookups go through a
+ * {@link ParcelAttributeIndex}, free-form addresses through a {@link ParcelAddressIndex}.
+ */
+public final class ParcelSnapshot {
+
+  private final String[] acctIds;
+  private final double[] acres;          // NaN when the layer had no value
+  private final String[] siteAddresses;  // SITEADDRESS, may be null
+  private final String[] situs;          // SITUS (town / locality), may be null
+  private final double[][][][] polygons; // per parcel, see GeoJsonGeometry
+  private final StrTree index;
+  private final ParcelAttributeIndex attributes;
+  private final ParcelAddressIndex addressIndex;
+  private final Instant loadedAt;
+  private final Instant asOf;
+  private final String source;
+
+  ParcelSnapshot(List<String> acctIds, List<Double> acres, List<String> siteAddresses, List<String> situs,
+                 List<double[][][]> polygons, String source, Instant asOf) {
+    int n = acctIds.size();
+    this.acctIds = acctIds.toArray(new String[0]);
+    this.siteAddresses = siteAddresses.toArray(new String[0]);
+    this.situs = situs.toArray(new String[0]);
+    this.acres = new double[n];
+    this.polygons = polygons.toArray(new double[0][][][]);
+    double[] boxes = new double[n * 4];
+    for (int i = 0; i < n; i++) {
+      Double a = acres.get(i);
+      this.acres[i] = a == null ? Double.NaN : a;
+      System.arraycopy(GeoJsonGeometry.bounds(this.polygons[i]), 0, boxes, 4 * i, 4);
+    }
+    this.index = new StrTree(boxes);
+    this.attributes = new ParcelAttributeIndex(this.acctIds, this.siteAddresses, this.situs);
+    this.addressIndex = new ParcelAddressIndex(this.siteAddresses, this.situs);
+    this.loadedAt = Instant.now();
+    this.asOf = asOf;
+    this.source = source;
+  }
+
+  public int size() { return acctIds.length; }
+  public Instant loadedAt() { return loadedAt; }
+  /** When the data was taken from the layer (the snapshot file's modification time). */
+  public Instant asOf() { return asOf; }
+  public String source() { return source; }
+
+  /** Index of the parcel containing the WGS84 point, or -1. */
+  public int indexOf(double lat, double lon) {
+    int[] hit = { -1 };
+    index.query(lon, lat, i -> {
+      if (GeoJsonGeometry.contains(polygons[i], lon, lat)) {
+        hit[0] = i;
+        return false;
+      }
+      return true;
+    });
+    return hit[0];
+  }
+
+  public ParcelResponse findByPoint(double lat, double lon) {
+    int i = indexOf(lat, lon);
+    return i < 0 ? null : get(i);
+  }
+
+  /** Parcel with this account id or, failing that, the first whose account id contains it. */
+  public ParcelResponse findByAcctId(String acctId) {
+    int i = attributes.byAcctId(acctId);
+    if (i < 0) {
+      int[] hit = { -1 };
+      attributes.acctIdsContaining(acctId, j -> {
+        hit[0] = j;
+        return false;
+      });
+      i = hit[0];
+    }
+    return i < 0 ? null : get(i);
+  }
+
+  /** Parcel at a free-form street address ("217 W Green Street, Snow Hill"), or null. */
+  public ParcelResponse findByAddress(String address) {
+    int i = addressIndex.match(address);
+    return i < 0 ? null : get(i);
+  }
+
+  /** Up to {@code limit} parcels whose address starts with the typed text ("217 W Gr"), for typeahead. */
+  public int[] suggest(String typed, int limit) {
+    return addressIndex.suggest(typed, limit);
+  }
+
+  /**
+   * Up to {@code limit} parcels, in layer order, of at least {@code minAcres} that have a site
+   * address; optionally only in towns whose name contains {@code town} and with an address
+   * containing {@code address}.
+   */
+  public int[] addresses(double minAcres, String town, String address, int limit) {
+    if (limit <= 0) return new int[0];
+    BitSet inTown = attributes.townsContaining(town);
+    int[] out = new int[limit];
+    int[] n = { 0 };
+    IntPredicate collect = i -> {
+      if ((inTown == null || inTown.get(i)) && acres[i] >= minAcres
+          && siteAddresses[i] != null && !siteAddresses[i].isBlank()) {
+        out[n[0]++] = i;
+      }
+      return n[0] < out.length;
+    };
+    if (ParcelAttributeIndex.normalize(address) != null) {
+      attributes.addressesContaining(address, collect);
+    } else if (inTown != null) {
+      for (int i = inTown.nextSetBit(0); i >= 0; i = inTown.nextSetBit(i + 1)) {
+        if (!collect.test(i)) break;
+      }
+    } else {
+      for (int i = 0; i < acctIds.length; i++) {
+        if (!collect.test(i)) break;
+      }
+    }
+    return Arrays.copyOf(out, n[0]);
+  }
+
+  /** Parcel count per town (SITUS), by name. */
+  public Map<String, Integer> towns() {
+    return attributes.townFacets();
+  }
+
+  /** Visit parcels whose bounding box intersects the given lon/lat box; return false to stop. */
+  public void query(double minLon, double minLat, double maxLon, double maxLat, IntPredicate visitor) {
+    index.query(minLon, minLat, maxLon, maxLat, visitor);
+  }
+
+  public String acctId(int i) { return acctIds[i]; }
+
+  public Double acres(int i) { return Double.isNaN(acres[i]) ? null : acres[i]; }
+
+  public String siteAddress(int i) { return siteAddresses[i]; }
+
+  public String situs(int i) { return situs[i]; }
+
+  /** Compact geometry of parcel i (shared, do not modify). */
+  public double[][][] polygons(int i) { return polygons[i]; }
+
+  public ParcelResponse get(int i) {
+    double a = acres[i];
+    return new ParcelResponse(acctIds[i], Double.isNaN(a) ? null : a,
+        GeoJsonGeometry.toGeometry(polygons[i]));
+  }
+}
@@ -0,0 +1,152 @@
+package com.example.farm_planner.parcel;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.example.farm_planner.geo.GeoJsonGeometry;
+import com.example.farm_planner.parcel.dto.GeoJsonFeatureCollection;
+import com.example.farm_planner.parcel.dto.ParcelResponse;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import jakarta.annotation.PostConstruct;
+
+/**
+ * Holds the local parcel snapshot used when {@code app.parcels.source=snapshot}.
+ *
+ * The snapshot file is either a GeoJSON FeatureCollection ({@code *.geojson}, i.e. the raw
+ * output of {@code <layer>/query?where=1=1&outFields=*&outSR=4326&f=geojson}) or one GeoJSON
+ * Feature per line ({@code *.ndjson}). Features are streamed, never buffered as a tree.
+ * Reloading builds a new {@link ParcelSnapshot} off to the side and swaps the reference.
+ *
+ * Attribute lookups (account id, addresses, towns) use the snapshot only while it is
+ * {@link #fresh()}: data older than {@code app.parcels.maxSnapshotAge} goes back to ArcGIS.
+ */
+@Component
+public class ParcelSnapshotStore {
+
+  private static final Logger log = LoggerFactory.getLogger(ParcelSnapshotStore.class);
+  private static final ObjectMapper M = new ObjectMapper();
+  private static final List<String> ADDRESS_FIELDS = List.of("SITEADDRESS", "SiteAddress");
+  private static final List<String> SITUS_FIELDS = List.of("SITUS", "Situs");
+
+  private final boolean enabled;
+  private final Path file;
+  private final Duration maxAge;
+  private volatile ParcelSnapshot snapshot;
+
+  public ParcelSnapshotStore(@Value("${app.parcels.source:arcgis}") String source,
+                             @Value("${app.parcels.snapshotFile:data/worcester-parcels.ndjson}") String file,
+                             @Value("${app.parcels.maxSnapshotAge:30d}") Duration maxAge) {
+    this.enabled = "snapshot".equalsIgnoreCase(source);
+    this.file = Path.of(file);
+    this.maxAge = maxAge;
+  }
+
+  @PostConstruct
+  void init() {
+    if (!enabled) return;
+    try {
+      reload();
+    } catch (IOException e) {
+      // stay on ArcGIS until a snapshot is available
+      log.warn("Parcel snapshot {} not loaded ({}); falling back to live ArcGIS queries", file, e.toString());
+    }
+  }
+
+  /** True when configured for snapshot mode. */
+  public boolean enabled() { return enabled; }
+
+  /** True when configured for snapshot mode and a snapshot is loaded. */
+  public boolean ready() {
+    return enabled && snapshot != null;
+  }
+
+  public Path file() { return file; }
+
+  /** Current snapshot, or null when none is loaded. */
+  public ParcelSnapshot current() { return snapshot; }
+
+  /** Current snapshot if it is no older than maxSnapshotAge (0 = any age), else null. */
+  public ParcelSnapshot fresh() {
+    ParcelSnapshot s = ready() ? snapshot : null;
+    if (s == null || maxAge.isZero() || s.asOf().plus(maxAge).isAfter(Instant.now())) return s;
+    return null;
+  }
+
+  public Optional<ParcelResponse> findByPoint(double lat, double lon) {
+    ParcelSnapshot s = snapshot;
+    return s == null ? Optional.empty() : Optional.ofNullable(s.findByPoint(lat, lon));
+  }
+
+  /** Parcel at a street address while the snapshot is {@link #fresh()}. */
+  public Optional<ParcelResponse> findByAddress(String address) {
+    ParcelSnapshot s = fresh();
+    return s == null ? Optional.empty() : Optional.ofNullable(s.findByAddress(address));
+  }
+
+  /** Re-read the snapshot file and atomically replace the in-memory copy. */
+  public synchronized ParcelSnapshot reload() throws IOException {
+    long t0 = System.nanoTime();
+    ParcelSnapshot s = read(file);
+    this.snapshot = s;
+    log.info("Loaded {} parcels from {} in {} ms", s.size(), file, (System.nanoTime() - t0) / 1_000_000);
+    return s;
+  }
+
+  static ParcelSnapshot read(Path file) throws IOException {
+    List<String> acct = new ArrayList<>();
+    List<Double> acres = new ArrayList<>();
+    List<String> addresses = new ArrayList<>();
+    List<String> situs = new ArrayList<>();
+    List<double[][][]> polys = new ArrayList<>();
+
+    try (InputStream in = Files.newInputStream(file);
+         JsonParser p = M.getFactory().createParser(in)) {
+      if (file.getFileName().toString().endsWith(".geojson")) {
+        // advance to the "features" array of the FeatureCollection
+        while (p.nextToken() != null) {
+          if (p.currentToken() == JsonToken.FIELD_NAME && "features".equals(p.currentName())) {
+            p.nextToken();
+            break;
+          }
+        }
+        if (p.currentToken() != JsonToken.START_ARRAY) {
+          throw new IOException("No 'features' array in " + file);
+        }
+        p.nextToken();
+      }
+      try (MappingIterator<GeoJsonFeatureCollection.Feature> it =
+               M.readerFor(GeoJsonFeatureCollection.Feature.class).readValues(p)) {
+        while (it.hasNextValue()) {
+          var f = it.nextValue();
+          if (f == null || f.geometry == null || f.properties == null) continue;
+          double[][][] g = GeoJsonGeometry.polygons(f.geometry);
+          if (g.length == 0) continue;
+          ParcelResponse r = ParcelService.toParcelResponse(f);
+          acct.add(r.acctId());
+          acres.add(r.acres());
+          addresses.add(ParcelService.firstNonNullString(f.properties, ADDRESS_FIELDS));
+          situs.add(ParcelService.firstNonNullString(f.properties, SITUS_FIELDS));
+          polys.add(g);
+        }
+      }
+    }
+    return new ParcelSnapshot(acct, acres, addresses, situs, polys, file.toString(),
+        Files.getLastModifiedTime(file).toInstant());
+  }
+}
@@ -0,0 +1,55 @@
+package com.example.farm_planner.parcel;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import reactor.core.publisher.Mono;
+
+/**
+ * In-flight deduplication of identical upstream calls.
+ *
+ * While a call for a key is running, later callers for the same key subscribe to the same
+ * cached {@link Mono} instead of starting another one. The entry is dropped as soon as the
+ * call terminates, so nothing is cached beyond the life of the request.
+ */
+public final class SingleFlight<K, V> {
+
+  private final ConcurrentHashMap<K, Mono<V>> inFlight = new ConcurrentHashMap<>();
+  private final AtomicLong calls = new AtomicLong();
+  private final AtomicLong coalesced = new AtomicLong();
+
+  public Mono<V> execute(K key, Supplier<Mono<V>> call) {
+    return Mono.defer(() -> {
+      calls.incrementAndGet();
+      boolean[] started = { false };
+      Mono<V> shared = inFlight.computeIfAbsent(key, k -> {
+        started[0] = true;
+        Mono<V>[] self = newHolder();
+        // dropped before the result is passed on, so a caller reacting to it starts a new call;
+        // the shared call runs to the end even if some of its subscribers cancel
+        self[0] = call.get()
+            .doOnTerminate(() -> inFlight.remove(k, self[0]))
+            .cache();
+        return self[0];
+      });
+      if (!started[0]) coalesced.incrementAndGet();
+      return shared;
+    });
+  }
+
+  public Map<String, Object> stats() {
+    Map<String, Object> out = new LinkedHashMap<>();
+    out.put("calls", calls.get());
+    out.put("coalesced", coalesced.get());
+    out.put("inFlight", inFlight.size());
+    return out;
+  }
+
+  @SuppressWarnings("unchecked")
+  private static <V> Mono<V>[] newHolder() {
+    return (Mono<V>[]) new Mono<?>[1];
+  }
+}
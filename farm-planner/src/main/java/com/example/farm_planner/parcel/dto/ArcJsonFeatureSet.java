@@ -3,12 +3,13 @@ package com.example.farm_planner.parcel.dto;
 import java.util.List;
 import java.util.Map;
 
-/** Minimal model for ArcGIS f=json (returnGeometry=false) result. */
+/** Minimal model for ArcGIS f=json query results. */
 public class ArcJsonFeatureSet {
   public List<Feature> features;
+  public boolean exceededTransferLimit; // true when the server truncated the page
 
   public static class Feature {
     public Map<String, Object> attributes;
+    public Map<String, Object> geometry; // esri JSON, e.g. {rings: [...]}, when returnGeometry=true
   }
 }
-
@@ -0,0 +1,12 @@
+package com.example.farm_planner.parcel.dto;
+
+import java.util.List;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+
+/** Minimal model for an ArcGIS query with returnIdsOnly=true. */
+@JsonIgnoreProperties(ignoreUnknown = true)
+public record ArcObjectIds(
+    String objectIdFieldName,
+    List<Long> objectIds
+) {}
@@ -0,0 +1,50 @@
+package com.example.farm_planner.rules;
+
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import com.example.farm_planner.geo.GeoJsonGeometry;
+
+/**
+ * One loaded county: its compiled rules plus where they came from.
+ *
+ * @param version the file's {@code version:} value, else a short hash of its content
+ * @param bounds   optional {minLon, minLat, maxLon, maxLat} used to pick the county for a point
+ * @param boundary optional county outline (see {@link GeoJsonGeometry}); when present a point
+ *                 must also lie inside it
+ */
+public record CountyRules(
+    String county,
+    String version,
+    String source,
+    Instant loadedAt,
+    double[] bounds,
+    double[][][] boundary,
+    Rules rules
+) {
+
+    public boolean contains(double lat, double lon) {
+        return bounds != null
+                && lon >= bounds[0] && lat >= bounds[1] && lon <= bounds[2] && lat <= bounds[3]
+                && (boundary == null || GeoJsonGeometry.contains(boundary, lon, lat));
+    }
+
+    /** Area of the bounds in square degrees (infinite without bounds); the tie-break for overlaps. */
+    double boundsArea() {
+        return bounds == null ? Double.POSITIVE_INFINITY : (bounds[2] - bounds[0]) * (bounds[3] - bounds[1]);
+    }
+
+    /** Listing entry for GET /api/rules. */
+    public Map<String, Object> describe() {
+        Map<String, Object> out = new LinkedHashMap<>();
+        out.put("county", county);
+        out.put("version", version);
+        out.put("source", source);
+        out.put("loadedAt", loadedAt.toString());
+        out.put("bounds", bounds);
+        out.put("boundary", boundary != null);
+        out.put("rules", rules.asMap());
+        return out;
+    }
+}
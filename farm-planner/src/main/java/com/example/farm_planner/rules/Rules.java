@@ -0,0 +1,83 @@
+package com.example.farm_planner.rules;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Immutable, typed county rules compiled once from the merged configuration.
+ * Derived values used on every fit() are computed here instead of per request.
+ */
+public record Rules(
+    double houseWidthFt,
+    double houseLengthFt,
+    double perHouseAreaLimitSqFt,
+    int maxHousesPerParcel,
+    double setbackLossPct,
+    double infraLossPct,
+    double minParcelAcres,
+    double setbackFt,             // boundary setback for house footprints (siting)
+    double houseSpacingFt,        // gap between neighbouring houses (siting)
+    // derived
+    double rawHouseSqFt,          // width * length
+    double perHouseSqFtCapped     // min(rawHouseSqFt, perHouseAreaLimitSqFt)
+) {
+
+    /** Keys of the flat rules map (app.rules.* and the county file). */
+    public static final List<String> KEYS = List.of(
+            "houseWidthFt", "houseLengthFt", "perHouseAreaLimitSqFt", "maxHousesPerParcel",
+            "setbackLossPct", "infraLossPct", "minParcelAcres", "setbackFt", "houseSpacingFt");
+
+    /**
+     * Parse and validate a merged rules map. Every malformed value is collected and
+     * reported together so a bad county file fails at load time, not mid-request.
+     *
+     * @throws IllegalArgumentException listing each missing or non-numeric key
+     */
+    public static Rules compile(Map<String, ?> map) {
+        List<String> errors = new ArrayList<>();
+        double[] v = new double[KEYS.size()];
+        for (int i = 0; i < v.length; i++) {
+            v[i] = number(map, KEYS.get(i), errors);
+        }
+        if (!errors.isEmpty()) {
+            throw new IllegalArgumentException("Invalid rules: " + String.join("; ", errors));
+        }
+        double raw = v[0] * v[1];
+        return new Rules(v[0], v[1], v[2], (int) Math.round(v[3]), v[4], v[5], v[6], v[7], v[8],
+                raw, Math.min(raw, v[2]));
+    }
+
+    /** Flat view, as served by GET /api/rules. */
+    public Map<String, Object> asMap() {
+        Map<String, Object> out = new LinkedHashMap<>();
+        out.put("houseWidthFt", houseWidthFt);
+        out.put("houseLengthFt", houseLengthFt);
+        out.put("perHouseAreaLimitSqFt", perHouseAreaLimitSqFt);
+        out.put("maxHousesPerParcel", maxHousesPerParcel);
+        out.put("setbackLossPct", setbackLossPct);
+        out.put("infraLossPct", infraLossPct);
+        out.put("minParcelAcres", minParcelAcres);
+        out.put("setbackFt", setbackFt);
+        out.put("houseSpacingFt", houseSpacingFt);
+        out.put("perHouseSqFtCapped", perHouseSqFtCapped);
+        return out;
+    }
+
+    private static double number(Map<String, ?> map, String key, List<String> errors) {
+        Object o = map.get(key);
+        if (o == null) {
+            errors.add(key + " is missing");
+            return Double.NaN;
+        }
+        try {
+            double d = o instanceof Number n ? n.doubleValue() : Double.parseDouble(o.toString().trim());
+            if (Double.isFinite(d)) return d;
+        } catch (NumberFormatException ignored) {
+            // reported below
+        }
+        errors.add(key + " is not a number: '" + o + "'");
+        return Double.NaN;
+    }
+}
@@ -1,8 +1,11 @@
 package com.example.farm_planner.rules;
 
+import java.util.LinkedHashMap;
 import java.util.Map;
 
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RestController;
 
 @RestController
@@ -11,8 +14,20 @@ public class RulesController {
 
     public RulesController(RulesService rules) { this.rules = rules; }
 
+    /** All loaded counties with their versions and rules. */
     @GetMapping("/api/rules")
     public Map<String, Object> get() {
-        return rules.asMap();
+        Map<String, Object> out = new LinkedHashMap<>();
+        out.put("defaultCounty", rules.defaultCounty());
+        out.put("counties", rules.counties().stream().map(CountyRules::describe).toList());
+        return out;
+    }
+
+    /** Flat rules of one county. */
+    @GetMapping("/api/rules/{county}")
+    public ResponseEntity<Map<String, Object>> get(@PathVariable String county) {
+        return rules.forCounty(county)
+                .map(c -> ResponseEntity.ok(c.rules().asMap()))
+                .orElse(ResponseEntity.notFound().build());
     }
 }
@@ -1,21 +1,80 @@
 package com.example.farm_planner.rules;
 
+import java.io.IOException;
 import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Locale;
 import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicReference;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.core.io.Resource;
 import org.springframework.stereotype.Service;
 import org.yaml.snakeyaml.Yaml;
 
+import com.example.farm_planner.geo.GeoJsonGeometry;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Registry of per-county {@link Rules}.
+ *
+ * Every {@code classpath:rules/*.yml} is loaded at startup, then any {@code *.yml} in the
+ * optional external {@code app.rules.dir}, which wins for the same county (file name,
+ * lower-cased). Each county is the app.rules.* defaults merged with its file.
+ *
+ * A point belongs to a county when it lies inside the file's {@code bounds} box and, if the
+ * file has one, its {@code boundary} polygon. Where counties still overlap, the one with the
+ * smallest bounds wins, then the first by name, so every run picks the same county.
+ *
+ * The whole registry is one immutable map behind an AtomicReference: readers never lock,
+ * and a watcher thread on {@code app.rules.dir} recompiles a changed file and publishes a
+ * new map with a single swap. A file that fails to load at startup stops the app; one that
+ * fails on reload is logged and the previous rules stay in effect.
+ */
 @Service
 public class RulesService {
 
-    private final Map<String, Object> rules = new HashMap<>();
+    private static final Logger log = LoggerFactory.getLogger(RulesService.class);
+
+    // county files may use the older nested form: chickenHouse: { width, length, limit, maxHouses, setback }
+    private static final Map<String, String> CHICKEN_HOUSE_KEYS = Map.of(
+            "width", "houseWidthFt",
+            "length", "houseLengthFt",
+            "limit", "perHouseAreaLimitSqFt",
+            "maxHouses", "maxHousesPerParcel",
+            "setback", "setbackFt");
+
+    private final Map<String, Object> defaults = new HashMap<>();
+    private final Map<String, CountyRules> bundled = new TreeMap<>();
+    private final Path dir;
+    private final String defaultCounty;
+    private final AtomicReference<Map<String, CountyRules>> counties = new AtomicReference<>();
+    private WatchService watcher;
 
     public RulesService(
-            // Defaults from application.yml (can be overridden by worcester.yml)
+            // Defaults from application.yml (each county file overrides them)
             @Value("${app.rules.houseWidthFt:66}") double houseWidthFt,
             @Value("${app.rules.houseLengthFt:650}") double houseLengthFt,
             @Value("${app.rules.perHouseAreaLimitSqFt:40000}") double perHouseAreaLimitSqFt,
@@ -23,50 +82,245 @@ public class RulesService {
             @Value("${app.rules.setbackLossPct:0.20}") double setbackLossPct,
             @Value("${app.rules.infraLossPct:0.10}") double infraLossPct,
             @Value("${app.rules.minParcelAcres:5.0}") double minParcelAcres,
+            @Value("${app.rules.setbackFt:200}") double setbackFt,
+            @Value("${app.rules.houseSpacingFt:50}") double houseSpacingFt,
 
-            // County file (optional, overrides the above when present)
-            @Value("classpath:rules/Worcester.yml") Resource countyFile
+            // Bundled county files, plus an optional hot-reloaded directory
+            @Value("classpath*:rules/*.yml") Resource[] countyFiles,
+            @Value("${app.rules.dir:}") String dir,
+            @Value("${app.rules.defaultCounty:worcester}") String defaultCounty
     ) {
         // seed with app defaults
-        rules.put("houseWidthFt", houseWidthFt);
-        rules.put("houseLengthFt", houseLengthFt);
-        rules.put("perHouseAreaLimitSqFt", perHouseAreaLimitSqFt);
-        rules.put("maxHousesPerParcel", maxHousesPerParcel);
-        rules.put("setbackLossPct", setbackLossPct);
-        rules.put("infraLossPct", infraLossPct);
-        rules.put("minParcelAcres", minParcelAcres);
-
-        // merge county overrides
+        defaults.put("houseWidthFt", houseWidthFt);
+        defaults.put("houseLengthFt", houseLengthFt);
+        defaults.put("perHouseAreaLimitSqFt", perHouseAreaLimitSqFt);
+        defaults.put("maxHousesPerParcel", maxHousesPerParcel);
+        defaults.put("setbackLossPct", setbackLossPct);
+        defaults.put("infraLossPct", infraLossPct);
+        defaults.put("minParcelAcres", minParcelAcres);
+        defaults.put("setbackFt", setbackFt);
+        defaults.put("houseSpacingFt", houseSpacingFt);
+        this.dir = dir == null || dir.isBlank() ? null : Path.of(dir);
+        this.defaultCounty = defaultCounty.toLowerCase(Locale.ROOT);
+
+        // an unreadable or malformed file fails startup
+        for (Resource r : countyFiles) {
+            String name = countyName(r.getFilename());
+            try (InputStream in = r.getInputStream()) {
+                bundled.put(name, compile(name, "classpath:rules/" + r.getFilename(), in.readAllBytes()));
+            } catch (IOException | RuntimeException e) {
+                throw new IllegalStateException("Cannot load rules file " + r.getDescription() + ": " + e.getMessage(), e);
+            }
+        }
+        if (!bundled.containsKey(this.defaultCounty)) {
+            bundled.put(this.defaultCounty, new CountyRules(this.defaultCounty, "defaults", "app.rules",
+                    Instant.now(), null, null, Rules.compile(defaults)));
+        }
+
+        Map<String, CountyRules> all = new TreeMap<>(bundled);
+        if (this.dir != null && Files.isDirectory(this.dir)) {
+            try (DirectoryStream<Path> files = Files.newDirectoryStream(this.dir, "*.{yml,yaml}")) {
+                for (Path p : files) {
+                    String name = countyName(p.getFileName().toString());
+                    all.put(name, compile(name, p.toString(), Files.readAllBytes(p)));
+                }
+            } catch (IOException | RuntimeException e) {
+                throw new IllegalStateException("Cannot load rules from " + this.dir + ": " + e.getMessage(), e);
+            }
+        }
+        publish(all);
+    }
+
+    // name-ordered, so lookups that scan all counties see them in the same order every run
+    private void publish(Map<String, CountyRules> all) {
+        counties.set(Collections.unmodifiableMap(new TreeMap<>(all)));
+    }
+
+    /** Rules of the default county (app.rules.defaultCounty). */
+    public Rules current() {
+        return counties.get().get(defaultCounty).rules();
+    }
+
+    public String defaultCounty() {
+        return defaultCounty;
+    }
+
+    /** Explicit selection by county name (case-insensitive). */
+    public Optional<CountyRules> forCounty(String county) {
+        return county == null ? Optional.empty()
+                : Optional.ofNullable(counties.get().get(county.trim().toLowerCase(Locale.ROOT)));
+    }
+
+    /**
+     * County containing the point (the smallest by bounds, then the first by name, where
+     * several do), else the default county.
+     */
+    public CountyRules forPoint(double lat, double lon) {
+        Map<String, CountyRules> all = counties.get();
+        CountyRules best = null;
+        for (CountyRules c : all.values()) {
+            if (c.contains(lat, lon) && (best == null || c.boundsArea() < best.boundsArea())) best = c;
+        }
+        return best != null ? best : all.get(defaultCounty);
+    }
+
+    /**
+     * Rules for a parcel: the county whose bounds contain its bbox centre, else the default.
+     * Skips geometry parsing entirely while only one county is loaded.
+     */
+    public Rules forGeometry(Map<String, Object> geometry) {
+        if (countyCount() < 2 || geometry == null) return current();
+        double[] b = GeoJsonGeometry.bounds(GeoJsonGeometry.polygons(geometry));
+        if (!Double.isFinite(b[0])) return current();
+        return forPoint((b[1] + b[3]) / 2, (b[0] + b[2]) / 2).rules();
+    }
+
+    /** All loaded counties, sorted by name. */
+    public Collection<CountyRules> counties() {
+        return counties.get().values();
+    }
+
+    public int countyCount() {
+        return counties.get().size();
+    }
+
+    /* ---------- hot reload ---------- */
+
+    @PostConstruct
+    void watch() throws IOException {
+        if (dir == null || !Files.isDirectory(dir)) return;
+        watcher = dir.getFileSystem().newWatchService();
+        dir.register(watcher, StandardWatchEventKinds.ENTRY_CREATE,
+                StandardWatchEventKinds.ENTRY_MODIFY, StandardWatchEventKinds.ENTRY_DELETE);
+        Thread t = new Thread(this::watchLoop, "rules-watcher");
+        t.setDaemon(true);
+        t.start();
+        log.info("Watching {} for county rules changes", dir);
+    }
+
+    @PreDestroy
+    void stopWatching() throws IOException {
+        if (watcher != null) watcher.close();
+    }
+
+    private void watchLoop() {
         try {
-            if (countyFile.exists()) {
-                try (InputStream in = countyFile.getInputStream()) {
-                    Object data = new Yaml().load(in);
-                    if (data instanceof Map<?,?> m) {
-                        //noinspection unchecked
-                        rules.putAll((Map<String, Object>) m);
+            while (true) {
+                WatchKey key = watcher.take();
+                Thread.sleep(100); // let editors finish writing before we read
+                for (WatchEvent<?> ev : key.pollEvents()) {
+                    if (ev.context() instanceof Path name && isRulesFile(name.toString())) {
+                        reload(dir.resolve(name));
                     }
                 }
+                if (!key.reset()) return;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ClosedWatchServiceException e) {
+            // shutting down
+        }
+    }
+
+    /** Recompile one external file (or drop back to the bundled copy if it was deleted). */
+    synchronized void reload(Path file) {
+        String name = countyName(file.getFileName().toString());
+        Map<String, CountyRules> next = new HashMap<>(counties.get());
+        try {
+            if (Files.exists(file)) {
+                next.put(name, compile(name, file.toString(), Files.readAllBytes(file)));
+            } else if (bundled.containsKey(name)) {
+                next.put(name, bundled.get(name));
+            } else {
+                next.remove(name);
             }
-        } catch (Exception ignored) {
-            // keep defaults if file missing/invalid
+        } catch (IOException | RuntimeException e) {
+            log.warn("Keeping previous rules for {}; {} failed to load: {}", name, file, e.getMessage());
+            return;
         }
+        publish(next);
+        CountyRules now = next.get(name);
+        log.info("Rules for {} reloaded: {}", name, now == null ? "removed" : "version " + now.version());
     }
 
-    // Accessors
-    public double houseWidthFt()          { return d("houseWidthFt"); }
-    public double houseLengthFt()         { return d("houseLengthFt"); }
-    public double perHouseAreaLimitSqFt() { return d("perHouseAreaLimitSqFt"); }
-    public int    maxHousesPerParcel()    { return (int) Math.round(d("maxHousesPerParcel")); }
-    public double setbackLossPct()        { return d("setbackLossPct"); }
-    public double infraLossPct()          { return d("infraLossPct"); }
-    public double minParcelAcres()        { return d("minParcelAcres"); }
+    /* ---------- parsing ---------- */
 
-    // Helpers
-    public double acreToSqFt(double acres) { return acres * 43_560.0; }
+    private CountyRules compile(String county, String source, byte[] yaml) {
+        Object data = new Yaml().load(new String(yaml, StandardCharsets.UTF_8));
+        Map<String, Object> merged = new HashMap<>(defaults);
+        String version = null;
+        double[] bounds = null;
+        double[][][] boundary = null;
+        if (data instanceof Map<?, ?> m) {
+            m.forEach((k, v) -> {
+                if (Rules.KEYS.contains(String.valueOf(k))) merged.put(String.valueOf(k), v);
+            });
+            if (m.get("chickenHouse") instanceof Map<?, ?> ch) {
+                CHICKEN_HOUSE_KEYS.forEach((alias, key) -> {
+                    if (ch.containsKey(alias)) merged.put(key, ch.get(alias));
+                });
+            }
+            if (m.get("version") != null) version = String.valueOf(m.get("version"));
+            bounds = bounds(m.get("bounds"));
+            boundary = boundary(m.get("boundary"));
+            if (bounds == null && boundary != null) bounds = GeoJsonGeometry.bounds(boundary);
+        }
+        Rules rules = Rules.compile(merged);
+        return new CountyRules(county, version != null ? version : contentHash(yaml), source,
+                Instant.now(), bounds, boundary, rules);
+    }
 
-    private double d(String key) {
-        return Double.parseDouble(String.valueOf(rules.get(key)));
+    private static double[] bounds(Object o) {
+        if (o == null) return null;
+        if (o instanceof List<?> l && l.size() == 4 && l.stream().allMatch(Number.class::isInstance)) {
+            double[] b = new double[4];
+            for (int i = 0; i < 4; i++) b[i] = ((Number) l.get(i)).doubleValue();
+            return b;
+        }
+        throw new IllegalArgumentException("bounds must be [minLon, minLat, maxLon, maxLat]: " + o);
     }
 
-    public Map<String,Object> asMap() { return Map.copyOf(rules); }
+    // GeoJSON Polygon / MultiPolygon: {type: Polygon, coordinates: [[[lon, lat], ...]]}
+    @SuppressWarnings("unchecked")
+    private static double[][][] boundary(Object o) {
+        if (o == null) return null;
+        double[][][] polygons = o instanceof Map<?, ?> m ? GeoJsonGeometry.polygons((Map<String, Object>) m) : null;
+        if (polygons == null || polygons.length == 0) {
+            throw new IllegalArgumentException("boundary must be a GeoJSON Polygon or MultiPolygon: " + o);
+        }
+        return polygons;
+    }
+
+    private static String contentHash(byte[] content) {
+        try {
+            byte[] d = MessageDigest.getInstance("SHA-256").digest(content);
+            return "sha256:" + HexFormat.of().formatHex(d, 0, 6);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static boolean isRulesFile(String name) {
+        return name.endsWith(".yml") || name.endsWith(".yaml");
+    }
+
+    private static String countyName(String fileName) {
+        String n = fileName == null ? "" : fileName;
+        int dot = n.lastIndexOf('.');
+        return (dot > 0 ? n.substring(0, dot) : n).toLowerCase(Locale.ROOT);
+    }
+
+    // Accessors for the default county (prefer one current()/forPoint() snapshot per request)
+    public double houseWidthFt()          { return current().houseWidthFt(); }
+    public double houseLengthFt()         { return current().houseLengthFt(); }
+    public double perHouseAreaLimitSqFt() { return current().perHouseAreaLimitSqFt(); }
+    public int    maxHousesPerParcel()    { return current().maxHousesPerParcel(); }
+    public double setbackLossPct()        { return current().setbackLossPct(); }
+    public double infraLossPct()          { return current().infraLossPct(); }
+    public double minParcelAcres()        { return current().minParcelAcres(); }
+
+    // Helpers
+    public double acreToSqFt(double acres) { return acres * 43_560.0; }
+
+    public Map<String,Object> asMap() { return current().asMap(); }
 }
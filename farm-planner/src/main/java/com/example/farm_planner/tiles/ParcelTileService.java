@@ -0,0 +1,260 @@
+package com.example.farm_planner.tiles;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.example.farm_planner.analysis.AnalysisService;
+import com.example.farm_planner.geo.GeoJsonGeometry;
+import com.example.farm_planner.geo.GeometrySimplifier;
+import com.example.farm_planner.geo.MvtEncoder;
+import com.example.farm_planner.parcel.ParcelSnapshot;
+import com.example.farm_planner.parcel.ParcelSnapshotStore;
+import com.example.farm_planner.parcel.dto.ParcelResponse;
+import com.example.farm_planner.rules.CountyRules;
+import com.example.farm_planner.rules.RulesService;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+
+/**
+ * Mapbox Vector Tiles of the local parcel snapshot (layer "parcels": acctId, acres,
+ * maxHouses).
+ *
+ * Tiles are built on first request, then served from an in-memory LRU and from
+ * {@code dir/<generation>/z/x/y.mvt}. The generation is derived from the snapshot file
+ * (source, parcel count, modification time) and the county rules versions, so the disk
+ * cache survives a restart while a changed snapshot or rules version starts a fresh one
+ * (older generations are deleted from disk). House capacity is computed once per generation
+ * for every parcel with {@link AnalysisService#fit}.
+ *
+ * A new generation is built once, in the background on the compute pool; tiles of the
+ * previous one are served until it is ready, and only the very first generation is waited
+ * for. Nothing blocks a pool thread: {@link #tile} completes asynchronously.
+ */
+@Service
+public class ParcelTileService {
+
+  private static final Logger log = LoggerFactory.getLogger(ParcelTileService.class);
+
+  public static final String LAYER = "parcels";
+  private static final int BUFFER = 64; // tile units, 1/64 of the tile
+
+  /** Snapshot + rules the current cache was built for. */
+  private record Generation(String id, ParcelSnapshot snapshot, String rulesKey, int[] maxHouses) {
+    boolean isFor(ParcelSnapshot s, String rules) {
+      return snapshot == s && rulesKey.equals(rules);
+    }
+  }
+
+  /** The generation being built for a snapshot + rules. */
+  private record Build(ParcelSnapshot snapshot, String rulesKey, CompletableFuture<Generation> result) {}
+
+  /** An encoded tile and the generation it belongs to (for ETags). */
+  public record Tile(String generation, byte[] body) {}
+
+  private record TileKey(String generation, int z, int x, int y) {}
+
+  private final ParcelSnapshotStore store;
+  private final RulesService rules;
+  private final AnalysisService analysis;
+  private final ForkJoinPool pool;
+  private final Path dir;
+  private final int minZoom;
+  private final int maxZoom;
+  private final Cache<TileKey, byte[]> memory;
+  private volatile Generation generation;
+  private Build building; // guarded by this
+
+  public ParcelTileService(ParcelSnapshotStore store, RulesService rules, AnalysisService analysis,
+                           ForkJoinPool computePool,
+                           @Value("${app.tiles.dir:data/tiles}") String dir,
+                           @Value("${app.tiles.minZoom:10}") int minZoom,
+                           @Value("${app.tiles.maxZoom:20}") int maxZoom,
+                           @Value("${app.tiles.memoryMaxBytes:67108864}") long memoryMaxBytes) {
+    this.store = store;
+    this.rules = rules;
+    this.analysis = analysis;
+    this.pool = computePool;
+    this.dir = Path.of(dir);
+    this.minZoom = minZoom;
+    this.maxZoom = maxZoom;
+    this.memory = Caffeine.newBuilder()
+        .maximumWeight(memoryMaxBytes)
+        .<TileKey, byte[]>weigher((k, v) -> v.length + 64)
+        .recordStats()
+        .build();
+  }
+
+  /** True when a parcel snapshot is loaded (tiles are only served from local data). */
+  public boolean ready() {
+    return store.current() != null;
+  }
+
+  public boolean validTile(int z, int x, int y) {
+    return z >= 0 && z <= 30 && x >= 0 && y >= 0 && x < (1 << z) && y < (1 << z);
+  }
+
+  /** Encoded tile, built on the compute pool; empty outside [minZoom, maxZoom] or where there are no parcels. */
+  public CompletableFuture<Tile> tile(int z, int x, int y) {
+    CompletableFuture<Generation> g = z < minZoom || z > maxZoom ? null : currentGeneration();
+    if (g == null) return CompletableFuture.completedFuture(new Tile(null, new byte[0]));
+    return g.thenApplyAsync(gen -> new Tile(gen.id(), cached(gen, z, x, y)), pool);
+  }
+
+  private byte[] cached(Generation g, int z, int x, int y) {
+    TileKey key = new TileKey(g.id(), z, x, y);
+    if (g != generation) {
+      // superseded while queued: still served, but not cached again after the old tiles were dropped
+      byte[] hit = memory.getIfPresent(key);
+      return hit != null ? hit : build(g, z, x, y);
+    }
+    return memory.get(key, k -> fromDiskOrBuild(g, z, x, y));
+  }
+
+  private byte[] fromDiskOrBuild(Generation g, int z, int x, int y) {
+    Path file = dir.resolve(g.id()).resolve(Integer.toString(z)).resolve(Integer.toString(x)).resolve(y + ".mvt");
+    try {
+      if (Files.exists(file)) return Files.readAllBytes(file);
+    } catch (IOException e) {
+      log.warn("Unreadable cached tile {} ({}); rebuilding", file, e.toString());
+    }
+    byte[] tile = build(g, z, x, y);
+    try {
+      Files.createDirectories(file.getParent());
+      Path tmp = Files.createTempFile(file.getParent(), "tile", ".tmp");
+      Files.write(tmp, tile);
+      Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    } catch (IOException e) {
+      log.warn("Could not cache tile {} on disk: {}", file, e.toString());
+    }
+    return tile;
+  }
+
+  private byte[] build(Generation g, int z, int x, int y) {
+    ParcelSnapshot s = g.snapshot();
+    double[] b = MvtEncoder.bounds(z, x, y, BUFFER);
+    // a quarter of a tile unit: invisible at this zoom, but drops most vertices
+    double tol = GeometrySimplifier.pixelMetres(z, (b[1] + b[3]) / 2) * 256 / MvtEncoder.EXTENT / 4;
+    MvtEncoder mvt = new MvtEncoder(LAYER, z, x, y, BUFFER);
+    s.query(b[0], b[1], b[2], b[3], i -> {
+      Map<String, Object> props = new LinkedHashMap<>();
+      props.put("acctId", s.acctId(i));
+      props.put("acres", s.acres(i));
+      props.put("maxHouses", g.maxHouses()[i]);
+      mvt.addPolygon(i, GeometrySimplifier.simplify(s.polygons(i), tol), props);
+      return true;
+    });
+    return mvt.encode();
+  }
+
+  /* ---------- generations ---------- */
+
+  // the generation to serve: the current one, or the previous one while its successor is built
+  private CompletableFuture<Generation> currentGeneration() {
+    ParcelSnapshot s = store.current();
+    if (s == null) return null;
+    String rulesKey = rules.counties().stream()
+        .map(c -> c.county() + "@" + c.version())
+        .collect(Collectors.joining(","));
+    Generation g = generation;
+    if (g != null && g.isFor(s, rulesKey)) return CompletableFuture.completedFuture(g);
+    CompletableFuture<Generation> next = nextGeneration(s, rulesKey);
+    return g != null ? CompletableFuture.completedFuture(g) : next;
+  }
+
+  // starts at most one build per snapshot + rules; the lock is held only to start or publish one
+  private synchronized CompletableFuture<Generation> nextGeneration(ParcelSnapshot s, String rulesKey) {
+    if (building != null && building.snapshot() == s && building.rulesKey().equals(rulesKey)) {
+      return building.result();
+    }
+    Build b = new Build(s, rulesKey, new CompletableFuture<>());
+    building = b;
+    CompletableFuture.supplyAsync(() -> newGeneration(s, rulesKey), pool)
+        .whenComplete((next, e) -> publish(b, next, e));
+    return b.result();
+  }
+
+  // completes the build only once published, so requests waiting for it see it as the current generation
+  private synchronized void publish(Build b, Generation next, Throwable e) {
+    if (e != null) {
+      if (building == b) building = null;
+      log.warn("Tile generation failed (retried on the next tile): {}", e.toString());
+      b.result().completeExceptionally(e);
+      return;
+    }
+    if (building != b) { // superseded by a newer snapshot or rules change
+      b.result().complete(next);
+      return;
+    }
+    building = null;
+    generation = next;
+    // tiles of older generations, including any still being served while this one was built
+    memory.asMap().keySet().removeIf(k -> !k.generation().equals(next.id()));
+    pool.execute(() -> deleteOtherGenerations(next.id()));
+    b.result().complete(next);
+  }
+
+  // runs on the compute pool, so the parallel stream uses that pool too
+  private Generation newGeneration(ParcelSnapshot s, String rulesKey) {
+    long t0 = System.nanoTime();
+    // the snapshot's identity, not its load time, so tiles on disk are reused after a restart
+    String id = Long.toHexString(s.asOf().toEpochMilli()) + "-"
+        + Integer.toHexString(Objects.hash(s.source(), s.size(), rulesKey));
+    int[] houses = IntStream.range(0, s.size()).parallel().map(i -> capacity(s, i)).toArray();
+    log.info("Tile generation {}: house capacity for {} parcels in {} ms", id, s.size(),
+        (System.nanoTime() - t0) / 1_000_000);
+    return new Generation(id, s, rulesKey, houses);
+  }
+
+  private int capacity(ParcelSnapshot s, int i) {
+    double[] b = GeoJsonGeometry.bounds(s.polygons(i));
+    CountyRules county = rules.forPoint((b[1] + b[3]) / 2, (b[0] + b[2]) / 2);
+    return analysis.fit(new ParcelResponse(s.acctId(i), s.acres(i), null), s.polygons(i), county.rules()).maxHouses();
+  }
+
+  private void deleteOtherGenerations(String keep) {
+    if (!Files.isDirectory(dir)) return;
+    try (DirectoryStream<Path> gens = Files.newDirectoryStream(dir)) {
+      for (Path gen : gens) {
+        if (gen.getFileName().toString().equals(keep)) continue;
+        try (Stream<Path> files = Files.walk(gen)) {
+          files.sorted(Comparator.reverseOrder()).forEach(p -> p.toFile().delete());
+        }
+      }
+    } catch (IOException e) {
+      log.warn("Could not clean old tile generations in {}: {}", dir, e.toString());
+    }
+  }
+
+  public Map<String, Object> stats() {
+    CacheStats st = memory.stats();
+    Generation g = generation;
+    Map<String, Object> out = new LinkedHashMap<>();
+    out.put("generation", g == null ? null : g.id());
+    synchronized (this) {
+      out.put("building", building != null);
+    }
+    out.put("memoryTiles", memory.estimatedSize());
+    out.put("hits", st.hitCount());
+    out.put("misses", st.missCount());
+    out.put("evictions", st.evictionCount());
+    return out;
+  }
+}
@@ -0,0 +1,51 @@
+package com.example.farm_planner.tiles;
+
+import java.util.Map;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import reactor.core.publisher.Mono;
+
+/** Parcel vector tiles for the map (see ParcelTileService). */
+@RestController
+@RequestMapping("/tiles")
+public class TileController {
+
+  static final MediaType MVT = MediaType.parseMediaType("application/vnd.mapbox-vector-tile");
+
+  private final ParcelTileService tiles;
+
+  public TileController(ParcelTileService tiles) {
+    this.tiles = tiles;
+  }
+
+  /** GET /tiles/{z}/{x}/{y}.mvt – 204 when the tile has no parcels or is outside the zoom range */
+  @GetMapping("/{z}/{x}/{y}.mvt")
+  public Mono<ResponseEntity<byte[]>> tile(@PathVariable int z, @PathVariable int x, @PathVariable int y) {
+    if (!tiles.validTile(z, x, y)) {
+      return Mono.just(ResponseEntity.badRequest().build());
+    }
+    if (!tiles.ready()) {
+      return Mono.just(ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build());
+    }
+    return Mono.fromFuture(() -> tiles.tile(z, x, y))
+        .map(tile -> tile.body().length == 0
+            ? ResponseEntity.noContent().<byte[]>build()
+            : ResponseEntity.ok()
+                .contentType(MVT)
+                .eTag(tile.generation())
+                .body(tile.body()));
+  }
+
+  /** GET /tiles/stats – current cache generation and in-memory LRU counters */
+  @GetMapping("/stats")
+  public Map<String, Object> stats() {
+    return tiles.stats();
+  }
+}
@@ -0,0 +1,224 @@
+package com.example.farm_planner.analysis;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import com.example.farm_planner.analysis.model.BatchItemResult;
+import com.example.farm_planner.analysis.model.EconAssessRequest;
+import com.example.farm_planner.config.PipelineMetrics;
+import com.example.farm_planner.parcel.GeocoderService;
+import com.example.farm_planner.parcel.ParcelService;
+import com.example.farm_planner.parcel.dto.ParcelResponse;
+import com.example.farm_planner.rules.RulesService;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.micrometer.observation.ObservationRegistry;
+import reactor.core.publisher.Mono;
+
+/**
+ * /econ/assess binding, and /batch over stub lookups: addresses starting with "slow" geocode after a delay, "nowhere"
+ * does not geocode, every point is parcel "PT", and acctId "missing" has no parcel.
+ */
+class AnalysisControllerTest {
+
+    private static final Map<String, Object> SQUARE = Map.of("type", "Polygon", "coordinates",
+            List.of(List.of(List.of(-75.40, 38.17), List.of(-75.39, 38.17), List.of(-75.39, 38.18),
+                    List.of(-75.40, 38.18), List.of(-75.40, 38.17))));
+
+    @TempDir
+    Path dir;
+
+    private WebTestClient client;
+
+    @BeforeEach
+    void setUp() {
+        PipelineMetrics metrics = new PipelineMetrics(new SimpleMeterRegistry(), ObservationRegistry.NOOP);
+        GeocoderService geocoder = new GeocoderService(null, "test", null, null, metrics) {
+            @Override
+            public Mono<double[]> geocode(String address) {
+                if (address.startsWith("nowhere")) return Mono.empty();
+                Mono<double[]> ll = Mono.just(new double[] { 38.175, -75.395 });
+                return address.startsWith("slow") ? ll.delayElement(Duration.ofMillis(300)) : ll;
+            }
+        };
+        ParcelService parcels = new ParcelService(null, "test://layer", null, 0, metrics) {
+            @Override
+            public Mono<ParcelResponse> findByPoint(double lat, double lon) {
+                return Mono.just(new ParcelResponse("PT", 20.0, SQUARE));
+            }
+
+            @Override
+            public Mono<ParcelResponse> findByAcctId(String acctId) {
+                return acctId.equals("missing") ? Mono.empty() : Mono.just(new ParcelResponse(acctId, 20.0, SQUARE));
+            }
+        };
+        RulesService rules = new RulesService(66, 650, 40_000, 8, 0.20, 0.10, 5.0, 200, 50,
+                new Resource[] { new ClassPathResource("rules/Worcester.yml") }, dir.toString(), "worcester");
+        client = WebTestClient.bindToController(new AnalysisController(parcels, geocoder, new AnalysisService(rules),
+                null, null, null, rules, metrics, 8, 100)).build();
+    }
+
+    private List<BatchItemResult> batch(MediaType contentType, Object body) {
+        List<BatchItemResult> rows = client.post().uri("/api/analysis/batch")
+                .contentType(contentType)
+                .accept(MediaType.APPLICATION_NDJSON)
+                .bodyValue(body)
+                .exchange()
+                .expectStatus().isOk()
+                .returnResult(BatchItemResult.class)
+                .getResponseBody()
+                .collectList()
+                .block(Duration.ofSeconds(5));
+        rows.sort(Comparator.comparingLong(BatchItemResult::index));
+        return rows;
+    }
+
+    @Test
+    void csvWithHeaderUsesNamedColumnsAndQuotedCommas() {
+        List<BatchItemResult> rows = batch(MediaType.parseMediaType("text/csv"), """
+                name,address,acctId
+                "Smith, J","217 W Green St, Snow Hill",
+                Jones,"1 Bay Rd, Berlin",02-000001
+
+                "Lee ""Jr""\",nowhere,
+                """);
+
+        assertEquals(3, rows.size());
+        assertEquals("217 W Green St, Snow Hill", rows.get(0).input());
+        assertEquals("PT", rows.get(0).fit().acctId());
+        assertEquals("02-000001", rows.get(1).input()); // acctId wins over the address
+        assertEquals("02-000001", rows.get(1).fit().acctId());
+        assertEquals(List.of("Address could not be geocoded."), rows.get(2).fit().messages());
+    }
+
+    @Test
+    void csvWithoutHeaderIsOneAddressPerLine() {
+        List<BatchItemResult> rows = batch(MediaType.parseMediaType("text/csv"),
+                "\"217 W Green St, Snow Hill\"\r\n1 Bay Rd\r\n");
+
+        assertEquals(List.of("217 W Green St, Snow Hill", "1 Bay Rd"),
+                rows.stream().map(BatchItemResult::input).toList());
+        assertTrue(rows.stream().allMatch(r -> r.fit().found()));
+    }
+
+    @Test
+    void jsonMixesAddressesAndAcctIds() {
+        List<BatchItemResult> rows = batch(MediaType.APPLICATION_JSON, Map.of(
+                "addresses", List.of("217 W Green St", "nowhere"),
+                "acctIds", List.of("02-000001", "missing", " ")));
+
+        assertEquals(List.of("217 W Green St", "nowhere", "02-000001", "missing", " "),
+                rows.stream().map(BatchItemResult::input).toList());
+        assertEquals("PT", rows.get(0).fit().acctId());
+        assertEquals(List.of("Address could not be geocoded."), rows.get(1).fit().messages());
+        assertEquals("02-000001", rows.get(2).fit().acctId());
+        assertEquals(List.of("Parcel not found."), rows.get(3).fit().messages());
+        assertEquals(List.of("Empty input."), rows.get(4).fit().messages());
+    }
+
+    @Test
+    void ndjsonStreamsOneLinePerItemInCompletionOrder() {
+        String body = client.post().uri("/api/analysis/batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .accept(MediaType.APPLICATION_NDJSON)
+                .bodyValue(Map.of("addresses", List.of("slow 217 W Green St", "1 Bay Rd")))
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON)
+                .expectBody(String.class)
+                .returnResult()
+                .getResponseBody();
+
+        String[] lines = body.strip().split("\n");
+        assertEquals(2, lines.length);
+        assertTrue(lines[0].startsWith("{\"index\":1,\"input\":\"1 Bay Rd\",\"fit\":{\"found\":true,\"acctId\":\"PT\""), lines[0]);
+        assertTrue(lines[1].startsWith("{\"index\":0,\"input\":\"slow 217 W Green St\""), lines[1]);
+    }
+
+    @Test
+    void sseSendsEachResultAsAnEvent() {
+        String body = client.post().uri("/api/analysis/batch")
+                .contentType(MediaType.parseMediaType("text/csv"))
+                .accept(MediaType.TEXT_EVENT_STREAM)
+                .bodyValue("address\n1 Bay Rd\n2 Bay Rd\n")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(String.class)
+                .returnResult()
+                .getResponseBody();
+
+        assertEquals(2, body.split("data:", -1).length - 1, body);
+        assertTrue(body.contains("\"input\":\"2 Bay Rd\""), body);
+    }
+
+    private static final String FIT = "{\"found\":true,\"acctId\":\"A1\",\"parcelAcres\":20,\"usableAcres\":14,"
+            + "\"perHouseSqFt\":40000,\"maxHouses\":6,\"messages\":[]}";
+
+    private WebTestClient.ResponseSpec assess(String json) {
+        return client.post().uri("/api/analysis/econ/assess")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(json)
+                .exchange();
+    }
+
+    @Test
+    void assessBindsTheOldUntypedPayloads() {
+        // as test.html sends it: strings, an explicit null amount, no years
+        assess("{\"fit\":" + FIT + ",\"workers\":\"6\",\"weeklyPayPerWorker\":\"750\",\"landPrice\":\"400000\","
+                + "\"downPaymentAmount\":null,\"downPaymentPct\":\"0.2\",\"annualInterestRatePct\":\"6.5\"}")
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.houses").isEqualTo(6)
+                .jsonPath("$.annualWorkerCost").isEqualTo(6 * 750 * 52.0)
+                .jsonPath("$.annualLoanPayment").isEqualTo(AnalysisService.loanAnnual(320_000, 6.5, 1));
+    }
+
+    @Test
+    void assessClampsOutOfRangeNumbersLikeBefore() {
+        assess("{\"fit\":" + FIT + ",\"workers\":-2,\"landPrice\":100000,\"downPaymentPct\":1.5,\"years\":0}")
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.annualWorkerCost").isEqualTo(0.0)
+                .jsonPath("$.annualLoanPayment").isEqualTo(0.0); // all down
+        assess("{\"fit\":" + FIT + ",\"landPrice\":100000,\"downPaymentAmount\":-5,\"annualInterestRatePct\":-3,"
+                + "\"years\":0}")
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.annualLoanPayment").isEqualTo(100_000.0); // no down, 0%, one year
+    }
+
+    @Test
+    void assessRejectsMissingFitAndWrongTypes() {
+        assess("{\"workers\":6}").expectStatus().isBadRequest();
+        assess("{\"fit\":" + FIT + ",\"workers\":\"six\"}").expectStatus().isBadRequest();
+    }
+
+    @Test
+    void assessRejectsFitsAndMagnitudesItCannotClamp() {
+        assess("{\"fit\":" + FIT.replace("\"perHouseSqFt\":40000,", "") + "}").expectStatus().isBadRequest();
+        assess("{\"fit\":" + FIT.replace("\"maxHouses\":6", "\"maxHouses\":-1") + "}").expectStatus().isBadRequest();
+        assess("{\"fit\":" + FIT + ",\"workers\":1000000}").expectStatus().isBadRequest();
+        assess("{\"fit\":" + FIT + ",\"years\":5000}").expectStatus().isBadRequest();
+
+        // the limits themselves, and a not-found fit echoed back, still answer
+        assess("{\"fit\":" + FIT + ",\"workers\":" + EconAssessRequest.MAX_WORKERS + ",\"years\":"
+                + EconAssessRequest.MAX_YEARS + "}").expectStatus().isOk();
+        assess("{\"fit\":{\"found\":false,\"perHouseSqFt\":0,\"maxHouses\":0,\"messages\":[\"Parcel not found.\"]}}")
+                .expectStatus().isOk()
+                .expectBody().jsonPath("$.eligible").isEqualTo(false);
+    }
+}
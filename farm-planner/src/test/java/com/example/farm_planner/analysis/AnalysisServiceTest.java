@@ -0,0 +1,96 @@
+package com.example.farm_planner.analysis;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.core.io.Resource;
+
+import com.example.farm_planner.analysis.model.QuickAnalysisResult;
+import com.example.farm_planner.geo.GeoJsonGeometry;
+import com.example.farm_planner.geo.SitingEngine;
+import com.example.farm_planner.parcel.dto.ParcelResponse;
+import com.example.farm_planner.rules.RulesService;
+
+/** The flat-rate fit is capped by what the siting search places on the parcel's shape. */
+class AnalysisServiceTest {
+
+    private static final double LAT0 = 38.2, LON0 = -75.4;
+    private static final double FT_PER_DEG_LON = SitingEngine.FT_PER_DEG_LAT * Math.cos(Math.toRadians(LAT0));
+
+    @TempDir
+    Path dir;
+
+    private final ForkJoinPool pool = new ForkJoinPool(2);
+
+    @AfterEach
+    void shutDown() throws Exception {
+        pool.shutdown();
+        pool.awaitTermination(5, TimeUnit.SECONDS);
+    }
+
+    private RulesService rules() {
+        return new RulesService(66, 650, 40_000, 8, 0.20, 0.10, 5.0, 200, 50,
+                new Resource[] { new ClassPathResource("rules/Worcester.yml") }, dir.toString(), "worcester");
+    }
+
+    // axis-aligned rectangle of the given size in feet, with its GeoJSON acreage
+    private static ParcelResponse rect(String acctId, double widthFt, double heightFt) {
+        double x1 = LON0 + widthFt / FT_PER_DEG_LON, y1 = LAT0 + heightFt / SitingEngine.FT_PER_DEG_LAT;
+        List<List<Double>> ring = List.of(List.of(LON0, LAT0), List.of(x1, LAT0), List.of(x1, y1),
+                List.of(LON0, y1), List.of(LON0, LAT0));
+        return new ParcelResponse(acctId, widthFt * heightFt / 43_560,
+                Map.of("type", "Polygon", "coordinates", List.of(ring)));
+    }
+
+    @Test
+    void squareParcelKeepsTheFlatEstimate() {
+        RulesService rules = rules();
+        var analysis = new AnalysisService(rules, new SitingService(rules, pool, 2, 10, 10, 25));
+
+        QuickAnalysisResult fit = analysis.fit(rect("SQ", 2087, 2087)); // 100 acres
+        assertEquals(8, fit.maxHouses());
+        assertTrue(fit.messages().stream().noneMatch(m -> m.startsWith("Parcel shape")), fit.messages().toString());
+    }
+
+    @Test
+    void longNarrowParcelIsCappedByItsShape() {
+        RulesService rules = rules();
+        var analysis = new AnalysisService(rules, new SitingService(rules, pool, 2, 10, 10, 25));
+
+        // 500 x 2400 ft, 27.5 acres: the flat rate says 8, but inside the 200 ft setback is one 100 ft row
+        ParcelResponse row = rect("ROW", 500, 2400);
+        assertEquals(8, new AnalysisService(rules).fit(row).maxHouses());
+        QuickAnalysisResult fit = analysis.fit(row);
+        assertEquals(3, fit.maxHouses());
+        assertTrue(fit.messages().contains("Parcel shape leaves room for 3 houses inside the 200 ft setback."),
+                fit.messages().toString());
+        assertEquals(3, analysis.fitAsync(row, null).join().maxHouses());
+
+        // 300 x 14,520 ft, 100 acres: the setbacks meet
+        ParcelResponse strip = rect("STRIP", 300, 14_520);
+        assertEquals(0, analysis.fit(strip).maxHouses());
+
+        // the bulk pass sees the same shapes
+        var r = rules.forGeometry(row.geometry());
+        assertEquals(3, analysis.fit(row, GeoJsonGeometry.polygons(row.geometry()), r).maxHouses());
+        assertEquals(0, analysis.fit(strip, GeoJsonGeometry.polygons(strip.geometry()), r).maxHouses());
+    }
+
+    @Test
+    void withoutGeometryTheFlatEstimateStands() {
+        RulesService rules = rules();
+        var analysis = new AnalysisService(rules, new SitingService(rules, pool, 2, 10, 10, 25));
+
+        assertEquals(8, analysis.fit(new ParcelResponse("NOGEOM", 27.5, null)).maxHouses());
+    }
+}
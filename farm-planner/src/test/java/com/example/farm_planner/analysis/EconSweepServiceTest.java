@@ -0,0 +1,71 @@
+package com.example.farm_planner.analysis;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import com.example.farm_planner.analysis.model.EconSweepRequest;
+import com.example.farm_planner.analysis.model.EconSweepRequest.Range;
+import com.example.farm_planner.analysis.model.EconomicInputs;
+import com.example.farm_planner.analysis.model.QuickAnalysisResult;
+
+class EconSweepServiceTest {
+
+    private static final QuickAnalysisResult FIT =
+            new QuickAnalysisResult(true, "A1", 20, 14, 40_000, 6, List.of());
+
+    private static EconSweepRequest request(int priceSteps) {
+        return new EconSweepRequest(FIT, 800,
+                new Range(50_000, 2_000_000, priceSteps), new Range(0, 0.5, 3), new Range(0, 9, 4),
+                new Range(10, 30, 3), new Range(0, 6, 4));
+    }
+
+    @Test
+    void everyPointMatchesSingleEcon() {
+        var service = new EconSweepService(new ForkJoinPool(4), 10_000_000, 1_000_000);
+        var analysis = new AnalysisService(null); // econ does not read rules
+        var res = service.sweep(request(500)); // 72k points, several fork-join leaves
+
+        assertEquals(500L * 3 * 4 * 3 * 4, res.points());
+        double max = Double.NEGATIVE_INFINITY;
+        long i = 0;
+        for (int w : res.workers()) for (int y : res.years()) for (double r : res.annualInterestRatePct())
+            for (double d : res.downPaymentPct()) for (double p : res.landPrice()) {
+                double expected = analysis.econ(FIT, new EconomicInputs(w, 800, p, null, d, r, y)).annualNetRevenue();
+                assertEquals(expected, res.annualNetRevenue()[(int) i++], 0.0);
+                max = Math.max(max, expected);
+            }
+        assertEquals(max, res.summary().maxNet().annualNetRevenue(), 0.0);
+    }
+
+    @Test
+    void overColumnBudgetKeepsSummaryAndFrontierOnly() {
+        var full = new EconSweepService(new ForkJoinPool(4), 10_000_000, 1_000_000).sweep(request(500));
+        var capped = new EconSweepService(new ForkJoinPool(4), 10_000_000, 1_000).sweep(request(500));
+
+        assertNull(capped.annualNetRevenue());
+        assertNotNull(capped.breakEvenLandPrice()); // 144 rows still fit
+        assertEquals(full.summary(), capped.summary());
+        assertEquals(144, capped.breakEvenLandPrice().length);
+    }
+
+    @Test
+    void gridsPastTheLimitAreRejectedEvenWhenTheirSizeOverflows() {
+        var service = new EconSweepService(new ForkJoinPool(1), 10_000_000, 1_000_000);
+        Range huge = new Range(0, 1, 65_536);
+        // 65 536^4 = 2^64 wraps to 0 in a long
+        var e = assertThrows(ResponseStatusException.class, () -> service.sweep(
+                new EconSweepRequest(FIT, 800, huge, huge, huge, huge, null)));
+        assertEquals(HttpStatus.PAYLOAD_TOO_LARGE, e.getStatusCode());
+        assertThrows(ResponseStatusException.class, () -> service.sweep(
+                new EconSweepRequest(FIT, 800, new Range(0, 1, Integer.MAX_VALUE), null, null, null, null)));
+    }
+}
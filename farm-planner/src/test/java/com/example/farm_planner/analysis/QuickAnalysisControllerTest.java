@@ -0,0 +1,62 @@
+package com.example.farm_planner.analysis;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.nio.file.Path;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import com.example.farm_planner.config.OutboundRejectedException;
+import com.example.farm_planner.config.PipelineMetrics;
+import com.example.farm_planner.config.UpstreamUnavailableException;
+import com.example.farm_planner.parcel.GeocoderService;
+import com.example.farm_planner.rules.RulesService;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.micrometer.observation.ObservationRegistry;
+import reactor.core.publisher.Mono;
+
+/** Overload is a retryable 503; any other lookup failure still reads as "not found". */
+class QuickAnalysisControllerTest {
+
+    @TempDir
+    Path dir;
+
+    private final PipelineMetrics metrics = new PipelineMetrics(new SimpleMeterRegistry(), ObservationRegistry.NOOP);
+
+    private ResponseEntity<Object> quick(RuntimeException geocodeFailure) {
+        GeocoderService geocoder = new GeocoderService(null, "test", null, null, metrics) {
+            @Override
+            public Mono<double[]> geocode(String address) {
+                return Mono.error(geocodeFailure);
+            }
+        };
+        RulesService rules = new RulesService(66, 650, 40_000, 8, 0.20, 0.10, 5.0, 200, 50,
+                new Resource[] { new ClassPathResource("rules/Worcester.yml") }, dir.toString(), "worcester");
+        return new QuickAnalysisController(null, geocoder, null, rules, metrics)
+                .search(Map.of("address", "217 W Green St, Snow Hill"))
+                .block();
+    }
+
+    @Test
+    void overloadAnswers503WithRetryAfter() {
+        ResponseEntity<Object> rejected = quick(new OutboundRejectedException("nominatim.openstreetmap.org", 4));
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, rejected.getStatusCode());
+        assertEquals("4", rejected.getHeaders().getFirst(HttpHeaders.RETRY_AFTER));
+
+        ResponseEntity<Object> open = quick(new UpstreamUnavailableException("nominatim.openstreetmap.org", 12));
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, open.getStatusCode());
+        assertEquals("12", open.getHeaders().getFirst(HttpHeaders.RETRY_AFTER));
+
+        ResponseEntity<Object> failed = quick(new IllegalStateException("unreadable answer"));
+        assertEquals(HttpStatus.OK, failed.getStatusCode());
+        assertEquals(false, ((Map<?, ?>) failed.getBody()).get("found"));
+    }
+}
@@ -0,0 +1,56 @@
+package com.example.farm_planner.analysis;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.jupiter.api.Test;
+
+import com.example.farm_planner.analysis.model.EconomicInputs;
+import com.example.farm_planner.analysis.model.QuickAnalysisResult;
+import com.example.farm_planner.analysis.model.SimulationRequest;
+import com.example.farm_planner.analysis.model.SimulationRequest.Dist;
+
+class SimulationServiceTest {
+
+    private static final QuickAnalysisResult FIT =
+            new QuickAnalysisResult(true, "A1", 20, 14, 40_000, 6, List.of());
+
+    private static SimulationRequest request(Dist income, Dist rate, long seed) {
+        return new SimulationRequest(FIT, 4, 800, 600_000, null, 0.2, 20, 10_000, seed,
+                income, Dist.fixed(0.5), new Dist("normal", 3.0, 1.0, 0.0, null, null), rate);
+    }
+
+    @Test
+    void fixedInputsReproduceStaticEcon() {
+        var service = new SimulationService(new ForkJoinPool(4), 20_000, 200_000, 50);
+        var res = service.simulate(new SimulationRequest(FIT, 4, 800, 600_000, null, 0.2, 20, 5_000, 1L,
+                null, null, null, Dist.fixed(6.5)));
+        double net = new AnalysisService(null)
+                .econ(FIT, new EconomicInputs(4, 800, 600_000, null, 0.2, 6.5, 20)).annualNetRevenue();
+
+        for (int y = 0; y < 20; y++) {
+            assertEquals(Math.round(net), res.annualNet().p5()[y], 1.0);
+            assertEquals(Math.round(net), res.annualNet().p95()[y], 1.0);
+        }
+        assertEquals(net < 0 ? 1.0 : 0.0, res.probAnyNegativeYear(), 0.0);
+    }
+
+    @Test
+    void seedIsReproducibleAcrossPoolSizes() {
+        var income = new Dist("triangular", null, null, 1.8, 3.2, 2.5);
+        var rate = new Dist("uniform", null, null, 4.0, 9.0, null);
+        var a = new SimulationService(new ForkJoinPool(1), 0, 200_000, 50).simulate(request(income, rate, 42));
+        var b = new SimulationService(new ForkJoinPool(4), 0, 200_000, 50).simulate(request(income, rate, 42));
+
+        assertArrayEquals(a.cumulativeNet().p50(), b.cumulativeNet().p50());
+        assertEquals(a.probNegativeCumulative(), b.probNegativeCumulative(), 0.0);
+        for (int y = 0; y < 20; y++) {
+            assertTrue(a.annualNet().p5()[y] <= a.annualNet().p50()[y]);
+            assertTrue(a.annualNet().p50()[y] <= a.annualNet().p95()[y]);
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package com.example.farm_planner.analysis;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.core.io.Resource;
+
+import com.example.farm_planner.parcel.ParcelSnapshotStore;
+import com.example.farm_planner.rules.RulesService;
+
+class SuitabilityIndexTest {
+
+    @TempDir
+    Path dir;
+
+    private static String feature(int i) {
+        double x = -75.40 + i * 0.01;
+        return "{\"type\":\"Feature\",\"properties\":{\"ACCTID\":\"P" + i + "\",\"ACRES\":" + (2 + i * 3)
+                + ",\"SITUS\":\"" + (i % 2 == 0 ? "SNOW HILL" : "BERLIN") + "\"},\"geometry\":{\"type\":\"Polygon\","
+                + "\"coordinates\":[[[" + x + ",38.2],[" + (x + 0.005) + ",38.2],[" + (x + 0.005) + ",38.205],[" + x + ",38.2]]]}}";
+    }
+
+    private SuitabilityIndex index(ParcelSnapshotStore store, Path rulesDir) {
+        RulesService rules = new RulesService(66, 650, 40_000, 8, 0.20, 0.10, 5.0, 200, 50,
+                new Resource[] { new ClassPathResource("rules/Worcester.yml") }, rulesDir.toString(), "worcester");
+        return new SuitabilityIndex(store, rules, new AnalysisService(rules), new ForkJoinPool(2),
+                dir.resolve("index.bin").toString(), Duration.ofHours(1));
+    }
+
+    @Test
+    void ranksByCapacityAndRefitsFromDiskWhenRulesChange() throws Exception {
+        Path snapshot = dir.resolve("parcels.ndjson");
+        Files.writeString(snapshot, IntStream.range(0, 20).mapToObj(SuitabilityIndexTest::feature)
+                .collect(Collectors.joining("\n")));
+        var store = new ParcelSnapshotStore("snapshot", snapshot.toString(), Duration.ZERO);
+        store.reload();
+        Path rulesDir = Files.createDirectory(dir.resolve("rules"));
+
+        SuitabilityIndex first = index(store, rulesDir);
+        first.refresh();
+        var top = first.query("snow", 4, 0, 3);
+        assertEquals(3, top.rows().size());
+        assertTrue(top.rows().stream().allMatch(r -> r.situs().equals("SNOW HILL") && r.maxHouses() >= 4));
+        assertTrue(top.rows().get(0).maxHouses() >= top.rows().get(2).maxHouses());
+        int eightOrMore = first.query(null, 8, 0, 0).matched();
+        assertTrue(eightOrMore > 0);
+
+        // new process, stricter county rules: loads the saved table, then refits it
+        Files.writeString(rulesDir.resolve("Worcester.yml"), "version: strict\nmaxHousesPerParcel: 3\n");
+        SuitabilityIndex second = index(store, rulesDir);
+        second.refresh();
+        assertEquals(0, second.query(null, 4, 0, 10).matched());
+        assertEquals("strict", second.query(null, 0, 0, 0).rulesVersions().get("worcester"));
+        assertEquals(20, second.query(null, 0, 0, 0).matched());
+    }
+}
@@ -0,0 +1,91 @@
+package com.example.farm_planner.config;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.GZIPOutputStream;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import com.sun.net.httpserver.HttpServer;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import reactor.core.publisher.Flux;
+import reactor.netty.http.client.HttpClient;
+
+/** Per-host pool limits, pool stats and gzip decoding against a local stub. */
+class OutboundPoolsTest {
+
+  private HttpServer server;
+  private ExecutorService executor;
+  private final AtomicInteger concurrent = new AtomicInteger();
+  private final AtomicInteger maxConcurrent = new AtomicInteger();
+
+  @BeforeEach
+  void startStub() throws IOException {
+    server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+    executor = Executors.newCachedThreadPool();
+    server.setExecutor(executor);
+    server.createContext("/", ex -> {
+      maxConcurrent.accumulateAndGet(concurrent.incrementAndGet(), Math::max);
+      try {
+        Thread.sleep(50);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+      concurrent.decrementAndGet();
+      ex.getResponseHeaders().add("Content-Encoding", "gzip");
+      ex.sendResponseHeaders(200, 0);
+      try (OutputStream out = new GZIPOutputStream(ex.getResponseBody())) {
+        out.write(("ae=" + ex.getRequestHeaders().getFirst("Accept-Encoding")).getBytes());
+      }
+    });
+    server.start();
+  }
+
+  @AfterEach
+  void stopStub() {
+    server.stop(0);
+    executor.shutdownNow();
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  void capsConnectionsPerHostAndReportsPoolState() {
+    String hostPort = "127.0.0.1:" + server.getAddress().getPort();
+    OutboundPools pools = new OutboundPools(new OutboundProperties(Map.of(), Map.of(),
+        Map.of(hostPort, new OutboundProperties.Pool(2, null, null, null, null))), new SimpleMeterRegistry());
+    try {
+      WebClient http = WebClient.builder()
+          .clientConnector(new ReactorClientHttpConnector(HttpClient.create(pools.provider()).compress(true)))
+          .build();
+      List<String> bodies = Flux.range(0, 8)
+          .flatMap(i -> http.get().uri("http://" + hostPort + "/").retrieve().bodyToMono(String.class))
+          .collectList()
+          .block(Duration.ofSeconds(10));
+
+      assertEquals(8, bodies.size());
+      assertEquals("ae=gzip", bodies.get(0)); // decompressed transparently
+      assertTrue(maxConcurrent.get() <= 2, "at most 2 connections, saw " + maxConcurrent.get());
+      Map<String, Object> pool = (Map<String, Object>) pools.stats().get(hostPort);
+      assertEquals(2, pool.get("maxConnections"));
+      assertEquals(0, pool.get("pending"));
+      assertEquals(pool.get("allocated"), pool.get("idle"));
+    } finally {
+      pools.close();
+    }
+  }
+}
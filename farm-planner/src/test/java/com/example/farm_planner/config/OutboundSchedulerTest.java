@@ -0,0 +1,146 @@
+package com.example.farm_planner.config;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import com.example.farm_planner.config.OutboundScheduler.Priority;
+
+import reactor.core.Disposable;
+import reactor.test.scheduler.VirtualTimeScheduler;
+
+/** Token bucket, priority order, rejection and cancellation for one host, on virtual time. */
+class OutboundSchedulerTest {
+
+  private final VirtualTimeScheduler time = VirtualTimeScheduler.create();
+  private final List<String> events = new ArrayList<>();
+  private final List<Throwable> errors = new ArrayList<>();
+  private final AtomicLong timerLateNanos = new AtomicLong(); // the limiter's clock runs this far ahead of its timer
+
+  @AfterEach
+  void stopTime() {
+    time.dispose();
+  }
+
+  private OutboundScheduler scheduler(double ratePerSecond, int burst, int maxQueue) {
+    var limit = new OutboundProperties.HostLimit(ratePerSecond, burst, maxQueue);
+    return new OutboundScheduler(new OutboundProperties(Map.of("h", limit), null, null),
+        time, () -> time.now(TimeUnit.NANOSECONDS) + timerLateNanos.get());
+  }
+
+  private Disposable acquire(OutboundScheduler s, Priority priority, String name) {
+    return s.acquire("h", priority).subscribe(null, e -> {
+      events.add(name + " rejected");
+      errors.add(e);
+    }, () -> events.add(name));
+  }
+
+  private Disposable acquire(OutboundScheduler s, String name) {
+    return acquire(s, Priority.INTERACTIVE, name);
+  }
+
+  private void advance(long millis) {
+    time.advanceTimeBy(Duration.ofMillis(millis));
+  }
+
+  @SuppressWarnings("unchecked")
+  private static Map<String, Object> stats(OutboundScheduler s) {
+    return (Map<String, Object>) s.stats().get("h");
+  }
+
+  @Test
+  void burstThenOneTokenPerRefillInterval() {
+    OutboundScheduler s = scheduler(2, 2, 10);
+    acquire(s, "a");
+    acquire(s, "b");
+    acquire(s, "c");
+    assertEquals(List.of("a", "b"), events);
+
+    advance(499);
+    assertEquals(List.of("a", "b"), events);
+    advance(1);
+    assertEquals(List.of("a", "b", "c"), events);
+
+    Map<String, Object> stats = stats(s);
+    assertEquals(3L, stats.get("granted"));
+    assertEquals(1L, stats.get("waited"));
+    assertEquals(500.0, stats.get("avgWaitMs")); // only c waited
+    assertEquals(500.0, stats.get("maxWaitMs"));
+  }
+
+  @Test
+  void interactiveRequestsGoBeforeQueuedBatchWork() {
+    OutboundScheduler s = scheduler(1, 1, 10);
+    acquire(s, "now");
+    acquire(s, Priority.BATCH, "batch 1");
+    acquire(s, Priority.BATCH, "batch 2");
+    acquire(s, Priority.INTERACTIVE, "user");
+
+    advance(1000);
+    assertEquals(List.of("now", "user"), events);
+    advance(2000);
+    assertEquals(List.of("now", "user", "batch 1", "batch 2"), events);
+  }
+
+  @Test
+  void fullQueueRejectsWithTheTimeToDrainIt() {
+    OutboundScheduler s = scheduler(1, 1, 2);
+    acquire(s, "now");
+    acquire(s, "q1");
+    acquire(s, "q2");
+    acquire(s, "q3");
+
+    assertEquals(List.of("now", "q3 rejected"), events);
+    OutboundRejectedException rejected = (OutboundRejectedException) errors.get(0);
+    assertEquals(3, rejected.retryAfterSeconds());
+    assertEquals(1L, stats(s).get("rejected"));
+  }
+
+  @Test
+  void cancelledWaiterLeavesTheQueue() {
+    OutboundScheduler s = scheduler(1, 1, 1);
+    acquire(s, "now");
+    acquire(s, "gone").dispose();
+    acquire(s, "next"); // the freed slot, not a rejection
+
+    advance(1000);
+    assertEquals(List.of("now", "next"), events);
+    assertEquals(1L, stats(s).get("cancelled"));
+    assertEquals(0, stats(s).get("queuedInteractive"));
+  }
+
+  @Test
+  void waiterCancelledAfterItsTokenWasHandedOutGivesItBack() {
+    OutboundScheduler s = scheduler(1, 2, 10);
+    acquire(s, "a");
+    acquire(s, "b");
+    Disposable[] second = new Disposable[1];
+    // one drain hands tokens to first and second; first's completion cancels second before it hears
+    s.acquire("h", Priority.INTERACTIVE).subscribe(null, null, () -> {
+      events.add("first");
+      second[0].dispose();
+    });
+    second[0] = acquire(s, "second");
+    acquire(s, "third");
+
+    timerLateNanos.set(TimeUnit.SECONDS.toNanos(1)); // the drain due in 1 s finds two tokens
+    advance(1000);
+    assertEquals(List.of("a", "b", "first"), events);
+    assertEquals(1L, stats(s).get("cancelled"));
+    assertEquals(3L, stats(s).get("granted"));
+
+    // second's token went back: third gets it on the next drain without waiting for a refill
+    advance(1000);
+    assertEquals(List.of("a", "b", "first", "third"), events);
+    acquire(s, "fourth"); // and the refill is still there
+    assertEquals(List.of("a", "b", "first", "third", "fourth"), events);
+  }
+}
@@ -0,0 +1,61 @@
+package com.example.farm_planner.config;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.net.URI;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ClientResponse;
+
+import io.micrometer.core.instrument.observation.DefaultMeterObservationHandler;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.micrometer.observation.ObservationRegistry;
+import reactor.core.publisher.Mono;
+
+class PipelineMetricsTest {
+
+  private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+  private final ObservationRegistry observations = ObservationRegistry.create();
+  private final PipelineMetrics metrics = new PipelineMetrics(registry, observations);
+
+  {
+    observations.observationConfig().observationHandler(new DefaultMeterObservationHandler(registry));
+  }
+
+  private long count(String stage, String outcome) {
+    var t = registry.find(PipelineMetrics.STAGE).tag("stage", stage).tag("outcome", outcome).timer();
+    return t == null ? 0 : t.count();
+  }
+
+  @Test
+  void tagsStagesByOutcome() {
+    metrics.timed("geocode", Mono.just(1)).block();
+    metrics.timed("geocode", Mono.empty()).block();
+    metrics.timed("geocode", Mono.error(new IllegalStateException("boom"))).onErrorResume(e -> Mono.empty()).block();
+    metrics.timed("analysis.fit", () -> "ok");
+
+    assertEquals(1, count("geocode", "found"));
+    assertEquals(1, count("geocode", "empty"));
+    assertEquals(1, count("geocode", "error"));
+    assertEquals(1, registry.find(PipelineMetrics.STAGE).tag("error", "IllegalStateException").timer().count());
+    assertEquals(1, count("analysis.fit", "found"));
+  }
+
+  @Test
+  void recordsDecodedPayloadSizePerHost() {
+    ClientRequest request = ClientRequest.create(HttpMethod.GET, URI.create("https://gis.example/layer/query")).build();
+    ClientResponse response = ClientResponse.create(HttpStatus.OK).body("{\"features\":[]}").build();
+
+    String body = metrics.payloadSizes()
+        .filter(request, r -> Mono.just(response))
+        .flatMap(r -> r.bodyToMono(String.class))
+        .block();
+
+    var summary = registry.find(PipelineMetrics.PAYLOAD).tag("host", "gis.example").summary();
+    assertEquals(1, summary.count());
+    assertEquals(body.length(), summary.totalAmount());
+  }
+}
@@ -0,0 +1,36 @@
+package com.example.farm_planner.config;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+/** The Prometheus scrape is only for the METRICS user; health stays open. */
+@AutoConfigureObservability(tracing = false) // tests turn metrics export off by default
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+    properties = { "app.metrics.username=scraper", "app.metrics.password=scrape-secret" })
+class SecurityConfigTest {
+
+  @Autowired
+  TestRestTemplate rest;
+
+  @Test
+  void prometheusNeedsTheMetricsUser() {
+    assertEquals(HttpStatus.UNAUTHORIZED, rest.getForEntity("/actuator/prometheus", String.class).getStatusCode());
+    assertEquals(HttpStatus.FORBIDDEN,
+        rest.withBasicAuth("user", "user").getForEntity("/actuator/prometheus", String.class).getStatusCode());
+
+    ResponseEntity<String> scrape = rest.withBasicAuth("scraper", "scrape-secret")
+        .getForEntity("/actuator/prometheus", String.class);
+    assertEquals(HttpStatus.OK, scrape.getStatusCode());
+    assertTrue(scrape.getBody().contains("jvm_"), scrape.getBody());
+
+    assertEquals(HttpStatus.OK, rest.getForEntity("/actuator/health", String.class).getStatusCode());
+  }
+}
@@ -0,0 +1,68 @@
+package com.example.farm_planner.config;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.LoggerFactory;
+
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.read.ListAppender;
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.api.trace.Tracer;
+import io.opentelemetry.context.Context;
+import io.opentelemetry.sdk.trace.SdkTracerProvider;
+
+/** Span trees are logged only for local roots over the threshold. */
+class SlowRequestLogTest {
+
+  private static final long T0 = 1_000_000; // ms; 0 would mean "now" to the SDK
+
+  private final ListAppender<ILoggingEvent> logged = new ListAppender<>();
+  private final Logger logger = (Logger) LoggerFactory.getLogger(SlowRequestLog.class);
+  private SdkTracerProvider provider;
+  private Tracer tracer;
+
+  @BeforeEach
+  void setUp() {
+    logged.start();
+    logger.addAppender(logged);
+    provider = SdkTracerProvider.builder().addSpanProcessor(new SlowRequestLog(Duration.ofMillis(100))).build();
+    tracer = provider.get("test");
+  }
+
+  @AfterEach
+  void tearDown() {
+    logger.detachAppender(logged);
+    provider.close();
+  }
+
+  /** A root span lasting rootMs with one child of childMs, on explicit timestamps. */
+  private void request(String name, long rootMs, long childMs) {
+    Span root = tracer.spanBuilder(name).setStartTimestamp(T0, TimeUnit.MILLISECONDS).startSpan();
+    Span child = tracer.spanBuilder("geocode")
+        .setParent(Context.current().with(root))
+        .setAttribute("outcome", "found")
+        .setStartTimestamp(T0 + 10, TimeUnit.MILLISECONDS)
+        .startSpan();
+    child.end(T0 + 10 + childMs, TimeUnit.MILLISECONDS);
+    root.end(T0 + rootMs, TimeUnit.MILLISECONDS);
+  }
+
+  @Test
+  void logsBreakdownOfSlowRequestsOnly() {
+    request("http post /fast", 40, 20);
+    request("http post /slow", 250, 200);
+
+    assertEquals(1, logged.list.size());
+    String message = logged.list.get(0).getFormattedMessage();
+    assertTrue(message.startsWith("Slow request: http post /slow took 250 ms"), message);
+    assertTrue(message.contains("10.0 ms    200.0 ms    geocode {outcome=found}"), message);
+  }
+}
@@ -0,0 +1,132 @@
+package com.example.farm_planner.config;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntUnaryOperator;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientRequestException;
+
+import com.sun.net.httpserver.HttpServer;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.micrometer.observation.ObservationRegistry;
+
+/** Drives the resilience filter against a local stub that injects errors and latency. */
+class UpstreamResilienceTest {
+
+  private HttpServer server;
+  private ExecutorService executor;
+  private final AtomicInteger hits = new AtomicInteger();
+  // request number (1-based) -> status; negative = sleep that many ms, then answer 200
+  private volatile IntUnaryOperator behaviour = n -> 200;
+
+  @BeforeEach
+  void startStub() throws IOException {
+    server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+    executor = Executors.newCachedThreadPool();
+    server.setExecutor(executor); // hedged copies must not queue behind the slow original
+    server.createContext("/", ex -> {
+      int status = behaviour.applyAsInt(hits.incrementAndGet());
+      if (status < 0) {
+        try {
+          Thread.sleep(-status);
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+        }
+        status = 200;
+      }
+      byte[] body = "ok".getBytes(StandardCharsets.UTF_8);
+      ex.sendResponseHeaders(status, body.length);
+      try (OutputStream out = ex.getResponseBody()) {
+        out.write(body);
+      } catch (IOException ignored) {
+        // client gave up (timeout or losing hedge)
+      }
+    });
+    server.start();
+  }
+
+  @AfterEach
+  void stopStub() {
+    server.stop(0);
+    executor.shutdownNow();
+  }
+
+  private WebClient client(UpstreamResilience resilience) {
+    return WebClient.builder().filter(resilience.filter()).build();
+  }
+
+  private String get(WebClient http) {
+    return http.get().uri("http://127.0.0.1:" + server.getAddress().getPort() + "/q")
+        .retrieve().bodyToMono(String.class).block(Duration.ofSeconds(10));
+  }
+
+  private static UpstreamResilience resilience(OutboundProperties.Upstream policy) {
+    return new UpstreamResilience(new OutboundProperties(Map.of(), Map.of("127.0.0.1", policy), Map.of()),
+        new SimpleMeterRegistry(), ObservationRegistry.NOOP);
+  }
+
+  @SuppressWarnings("unchecked")
+  private static Map<String, Object> stats(UpstreamResilience r) {
+    return (Map<String, Object>) r.stats().get("127.0.0.1");
+  }
+
+  @Test
+  void retriesServerErrorsThenOpensTheCircuit() {
+    UpstreamResilience r = resilience(new OutboundProperties.Upstream(
+        Duration.ofSeconds(2), 2, Duration.ofMillis(5), Duration.ofMillis(20), 0.5, 3, Duration.ofMinutes(1), null));
+    WebClient http = client(r);
+
+    behaviour = n -> n <= 2 ? 503 : 200;
+    assertEquals("ok", get(http));
+    assertEquals(3, hits.get());
+    assertEquals(2, stats(r).get("retries"));
+
+    behaviour = n -> 500;
+    Exception failed = assertThrows(UpstreamException.class, () -> get(http));
+    assertTrue(failed.getMessage().contains("HTTP 500"), failed.getMessage());
+    assertEquals(6, hits.get());
+    assertEquals("OPEN", stats(r).get("state"));
+
+    // open circuit: fails fast without reaching the server
+    assertThrows(UpstreamUnavailableException.class, () -> get(http));
+    assertEquals(6, hits.get());
+    assertEquals(1L, stats(r).get("shortCircuited"));
+  }
+
+  @Test
+  void timesOutSlowAttemptsAndHedgesPastThem() {
+    get(WebClient.create()); // warm up the shared Netty resources outside the timed call
+    behaviour = n -> n == 2 ? -3000 : 200;
+    UpstreamResilience hedging = resilience(new OutboundProperties.Upstream(
+        Duration.ofSeconds(5), 0, null, null, null, null, null, Duration.ofMillis(100)));
+    long t0 = System.nanoTime();
+    assertEquals("ok", get(client(hedging)));
+    // whichever copy reached the stub second answers at once; the 3 s one is cancelled
+    assertTrue(System.nanoTime() - t0 < 2_000_000_000L, "fast copy should answer first");
+    assertEquals(1, stats(hedging).get("hedges"));
+
+    behaviour = n -> -3000;
+    UpstreamResilience strict = resilience(new OutboundProperties.Upstream(
+        Duration.ofMillis(200), 0, null, null, null, null, null, null));
+    Exception failed = assertThrows(UpstreamException.class, () -> get(client(strict)));
+    assertInstanceOf(WebClientRequestException.class, failed.getCause());
+    assertTrue(failed.getMessage().contains("no response within 200 ms"), failed.getMessage());
+  }
+}
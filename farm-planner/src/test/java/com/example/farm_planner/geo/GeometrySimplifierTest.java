@@ -0,0 +1,50 @@
+package com.example.farm_planner.geo;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import org.junit.jupiter.api.Test;
+
+class GeometrySimplifierTest {
+
+  // closed square ring with every edge split into `per` segments plus small jitter
+  private static double[] noisySquare(double lon0, double lat0, double side, int per) {
+    double[] ring = new double[(4 * per + 1) * 2];
+    double[][] corners = { { 0, 0 }, { side, 0 }, { side, side }, { 0, side } };
+    int k = 0;
+    for (int c = 0; c < 4; c++) {
+      double[] a = corners[c], b = corners[(c + 1) % 4];
+      for (int i = 0; i < per; i++) {
+        double t = (double) i / per, wobble = i == 0 ? 0 : (i % 2 == 0 ? 1e-6 : -1e-6); // ~0.1 m
+        ring[k++] = lon0 + a[0] + (b[0] - a[0]) * t + wobble;
+        ring[k++] = lat0 + a[1] + (b[1] - a[1]) * t + wobble;
+      }
+    }
+    ring[k++] = ring[0];
+    ring[k] = ring[1];
+    return ring;
+  }
+
+  @Test
+  void collapsesNoiseToCornersAndDropsTinyHoles() {
+    double[] outer = noisySquare(-75.4, 38.2, 0.005, 200); // ~440 x 550 m, 801 vertices
+    double[] hole = noisySquare(-75.398, 38.202, 0.00001, 3); // ~1 m hole
+    double[][][] simplified = GeometrySimplifier.simplify(new double[][][] { { outer, hole } }, 2.0);
+
+    assertEquals(1, simplified[0].length);
+    assertEquals(5, simplified[0][0].length / 2);
+    assertArrayEquals(new double[] { -75.4, 38.2 }, new double[] { simplified[0][0][0], simplified[0][0][1] });
+    assertNull(GeometrySimplifier.simplifyRing(hole, 2.0, false));
+    assertEquals(4, GeometrySimplifier.simplifyRing(hole, 2.0, true).length / 2); // outer rings keep a triangle
+    // tolerance below the noise keeps everything
+    assertEquals(801, GeometrySimplifier.simplify(new double[][][] { { outer } }, 0.01)[0][0].length / 2);
+  }
+
+  @Test
+  void encodesGooglePolylineReference() {
+    // reference example from Google's polyline documentation (precision 5, lat before lon)
+    double[] line = { -120.2, 38.5, -120.95, 40.7, -126.453, 43.252 };
+    assertEquals("_p~iF~ps|U_ulLnnqC_mqNvxq`@", GeometrySimplifier.encodePolyline(line, 5));
+  }
+}
@@ -0,0 +1,78 @@
+package com.example.farm_planner.geo;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+class MvtEncoderTest {
+
+  // square in lon/lat, counter-clockwise (GeoJSON exterior)
+  private static double[][][] square(double lon, double lat, double d) {
+    return new double[][][] { { { lon, lat, lon + d, lat, lon + d, lat + d, lon, lat + d, lon, lat } } };
+  }
+
+  @Test
+  void writesExteriorWithPositiveAreaInTileUnits() {
+    // z1 tile 0/0 covers lon -180..0, lat 0..85; the square sits inside it
+    MvtEncoder mvt = new MvtEncoder("parcels", 1, 0, 0, 0);
+    assertTrue(mvt.addPolygon(7, square(-100, 20, 10), Map.of("acctId", "A1")));
+    assertFalse(mvt.addPolygon(8, square(50, 20, 10), Map.of("acctId", "B2"))); // other tile
+    byte[] tile = mvt.encode();
+    assertEquals(1, mvt.features());
+    assertEquals(0x1A, tile[0] & 0xFF); // Tile.layers: field 3, length-delimited
+
+    // feature: id=7, tags=[0,0], type=POLYGON, geometry=...
+    int at = indexOf(tile, new byte[] { 0x08, 0x07, 0x12, 0x02, 0x00, 0x00, 0x18, 0x03, 0x22 });
+    assertTrue(at > 0);
+    int[] pos = { at + 9 };
+    int end = varint(tile, pos) + pos[0];
+    assertEquals(1 | 1 << 3, varint(tile, pos)); // MoveTo x1
+    long[] xs = new long[4], ys = new long[4];
+    xs[0] = zigzag(varint(tile, pos));
+    ys[0] = zigzag(varint(tile, pos));
+    assertEquals(2 | 3 << 3, varint(tile, pos)); // LineTo x3, closing point not repeated
+    for (int i = 1; i < 4; i++) {
+      xs[i] = xs[i - 1] + zigzag(varint(tile, pos));
+      ys[i] = ys[i - 1] + zigzag(varint(tile, pos));
+    }
+    assertEquals(7 | 1 << 3, varint(tile, pos)); // ClosePath
+    assertEquals(end, pos[0]);
+
+    long area2 = 0;
+    for (int i = 0, j = 3; i < 4; j = i++) area2 += xs[j] * ys[i] - xs[i] * ys[j];
+    assertTrue(area2 > 0, "exterior ring must have positive area in tile coordinates");
+  }
+
+  @Test
+  void tileBoundsMatchWebMercator() {
+    assertArrayEquals(new double[] { -180, 0, 0, 85.0511 }, MvtEncoder.bounds(1, 0, 0, 0), 1e-4);
+  }
+
+  private static int varint(byte[] b, int[] pos) {
+    int v = 0, shift = 0, c;
+    do {
+      c = b[pos[0]++] & 0xFF;
+      v |= (c & 0x7F) << shift;
+      shift += 7;
+    } while (c >= 0x80);
+    return v;
+  }
+
+  private static int zigzag(int v) {
+    return (v >>> 1) ^ -(v & 1);
+  }
+
+  private static int indexOf(byte[] haystack, byte[] needle) {
+    outer:
+    for (int i = 0; i + needle.length <= haystack.length; i++) {
+      for (int j = 0; j < needle.length; j++) if (haystack[i + j] != needle[j]) continue outer;
+      return i;
+    }
+    return -1;
+  }
+}
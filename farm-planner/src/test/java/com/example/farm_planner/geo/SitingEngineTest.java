@@ -0,0 +1,53 @@
+package com.example.farm_planner.geo;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.jupiter.api.Test;
+
+class SitingEngineTest {
+
+  private static final double LAT0 = 38.2, LON0 = -75.4;
+  private static final double FT_PER_DEG_LON = SitingEngine.FT_PER_DEG_LAT * Math.cos(Math.toRadians(LAT0));
+
+  // axis-aligned rectangle of the given size in feet, as a compact polygon
+  private static double[][][] rect(double widthFt, double heightFt) {
+    double x1 = LON0 + widthFt / FT_PER_DEG_LON, y1 = LAT0 + heightFt / SitingEngine.FT_PER_DEG_LAT;
+    return new double[][][] { { { LON0, LAT0, x1, LAT0, x1, y1, LON0, y1, LON0, LAT0 } } };
+  }
+
+  private static SitingEngine.Spec spec(double setbackFt, int maxHouses) {
+    return new SitingEngine.Spec(66, 606, 50, setbackFt, maxHouses, 5, 10);
+  }
+
+  @Test
+  void packsRowsInsideTheSetback() {
+    // 1000 x 1500 ft: inner 600 x 1100 after a 200 ft setback, too narrow for a 606 ft house across
+    var layout = SitingEngine.plan(rect(1000, 1500), spec(200, 100), ForkJoinPool.commonPool());
+
+    // axis-aligned the best is 5 (houses along the long side); tilting them does better
+    assertTrue(layout.houses() >= 5, "houses: " + layout.houses());
+    double[][][] parcel = rect(1000, 1500);
+    for (double[][] house : layout.polygons()) {
+      double[] ring = house[0];
+      for (int i = 0; i < 8; i += 2) {
+        assertTrue(GeoJsonGeometry.contains(parcel, ring[i], ring[i + 1]));
+        double xFt = (ring[i] - LON0) * FT_PER_DEG_LON, yFt = (ring[i + 1] - LAT0) * SitingEngine.FT_PER_DEG_LAT;
+        assertTrue(xFt >= 200 - 1e-6 && xFt <= 800 + 1e-6 && yFt >= 200 - 1e-6 && yFt <= 1300 + 1e-6,
+            "corner inside setback: " + xFt + "," + yFt);
+      }
+    }
+  }
+
+  @Test
+  void narrowParcelFitsNothingAndCapStopsEarly() {
+    // 350 ft wide strip: 200 ft setback on both sides leaves nothing, however long it is
+    assertEquals(0, SitingEngine.plan(rect(350, 8000), spec(200, 100), ForkJoinPool.commonPool()).houses());
+
+    var capped = SitingEngine.plan(rect(3000, 3000), spec(200, 8), ForkJoinPool.commonPool());
+    assertEquals(8, capped.houses());
+    assertEquals(0.0, capped.angleDeg(), 1e-9);
+  }
+}
@@ -0,0 +1,111 @@
+package com.example.farm_planner.loadtest;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.http.MediaType;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import com.example.farm_planner.FarmPlannerApplication;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+/**
+ * Boots the app in the mock profile (with simulated upstream latency) under a given run
+ * mode and drives POST /api/analysis/quick at fixed concurrency, recording per-request
+ * latency. Tunables: -Dload.requests, -Dload.concurrency, -Dload.upstreamLatencyMs.
+ */
+final class LoadHarness {
+
+  static final int REQUESTS = Integer.getInteger("load.requests", 20_000);
+  static final int CONCURRENCY = Integer.getInteger("load.concurrency", 512);
+  static final long UPSTREAM_LATENCY_MS = Long.getLong("load.upstreamLatencyMs", 50);
+
+  record Result(String mode, int requests, int errors, double seconds,
+                double requestsPerSecond, double p50Ms, double p99Ms, double maxMs) {}
+
+  private LoadHarness() {}
+
+  /** Run one mode; extraProfiles are added to "mock", extraProps are Spring properties. */
+  static Result run(String mode, String[] extraProfiles, String... extraProps) {
+    String[] profiles = new String[extraProfiles.length + 1];
+    profiles[0] = "mock";
+    System.arraycopy(extraProfiles, 0, profiles, 1, extraProfiles.length);
+
+    String[] props = Arrays.copyOf(extraProps, extraProps.length + 3);
+    props[extraProps.length] = "server.port=0";
+    props[extraProps.length + 1] = "app.mock.latencyMs=" + UPSTREAM_LATENCY_MS;
+    props[extraProps.length + 2] = "logging.level.root=WARN";
+
+    try (ConfigurableApplicationContext ctx = new SpringApplicationBuilder(FarmPlannerApplication.class)
+        .profiles(profiles).properties(props).run()) {
+      String base = "http://localhost:" + ctx.getEnvironment().getProperty("local.server.port");
+      ConnectionProvider pool = ConnectionProvider.builder("load")
+          .maxConnections(CONCURRENCY)
+          .pendingAcquireMaxCount(-1)
+          .build();
+      try {
+        WebClient client = WebClient.builder()
+            .baseUrl(base)
+            .clientConnector(new ReactorClientHttpConnector(HttpClient.create(pool)))
+            .build();
+        drive(client, Math.min(REQUESTS, 2_000), new long[Math.min(REQUESTS, 2_000)]); // warm-up
+        long[] latencies = new long[REQUESTS];
+        long t0 = System.nanoTime();
+        int errors = drive(client, REQUESTS, latencies);
+        double seconds = (System.nanoTime() - t0) / 1e9;
+        Arrays.sort(latencies);
+        return new Result(mode, REQUESTS, errors, seconds, REQUESTS / seconds,
+            pct(latencies, 0.50), pct(latencies, 0.99), latencies[latencies.length - 1] / 1e6);
+      } finally {
+        pool.disposeLater().block();
+      }
+    }
+  }
+
+  private static int drive(WebClient client, int n, long[] latencies) {
+    AtomicInteger errors = new AtomicInteger();
+    Flux.range(0, n)
+        .flatMap(i -> {
+          long start = System.nanoTime();
+          return client.post().uri("/api/analysis/quick")
+              .contentType(MediaType.APPLICATION_JSON)
+              .bodyValue("{\"address\":\"load test " + (i % 100) + "\"}")
+              .retrieve()
+              .toBodilessEntity()
+              .doOnError(e -> errors.incrementAndGet())
+              .onErrorResume(e -> Mono.empty())
+              .doFinally(s -> latencies[i] = System.nanoTime() - start);
+        }, CONCURRENCY)
+        .blockLast(Duration.ofMinutes(10));
+    return errors.get();
+  }
+
+  private static double pct(long[] sorted, double p) {
+    return sorted[Math.min(sorted.length - 1, (int) Math.ceil(p * sorted.length) - 1)] / 1e6;
+  }
+
+  /** Print a table and write target/loadtest/{name}.json. */
+  static void report(String name, List<Result> results) throws IOException {
+    System.out.printf("%n%-12s %8s %7s %10s %9s %9s %9s%n", "mode", "requests", "errors", "req/s", "p50 ms", "p99 ms", "max ms");
+    for (Result r : results) {
+      System.out.printf("%-12s %8d %7d %10.0f %9.1f %9.1f %9.1f%n",
+          r.mode(), r.requests(), r.errors(), r.requestsPerSecond(), r.p50Ms(), r.p99Ms(), r.maxMs());
+    }
+    Path out = Path.of("target", "loadtest", name + ".json");
+    Files.createDirectories(out.getParent());
+    new ObjectMapper().writerWithDefaultPrettyPrinter().writeValue(out.toFile(), results);
+  }
+}
@@ -0,0 +1,29 @@
+package com.example.farm_planner.loadtest;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Mono-on-servlet (Tomcat + async dispatch) vs straight-line blocking code on virtual
+ * threads. Needs a JDK 21+ (skipped otherwise: the "virtual" profile does not start there).
+ * Run with: mvn test -Ploadtest -Dtest=VirtualThreadLoadTest
+ */
+@Tag("load")
+class VirtualThreadLoadTest {
+
+  @Test
+  void monoOnServletVersusVirtualThreads() throws Exception {
+    assumeTrue(Runtime.version().feature() >= 21, "virtual threads need Java 21+");
+    var servlet = LoadHarness.run("servlet-mono", new String[0]);
+    var virtual = LoadHarness.run("virtual-threads", new String[] { "virtual" });
+
+    LoadHarness.report("virtual-threads", List.of(servlet, virtual));
+    assertEquals(0, servlet.errors());
+    assertEquals(0, virtual.errors());
+  }
+}
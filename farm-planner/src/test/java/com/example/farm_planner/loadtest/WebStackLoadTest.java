@@ -0,0 +1,26 @@
+package com.example.farm_planner.loadtest;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Servlet (Tomcat + async dispatch of Mono results) vs reactive (WebFlux on Netty) at
+ * high concurrency. Run with: mvn test -Ploadtest -Dtest=WebStackLoadTest
+ */
+@Tag("load")
+class WebStackLoadTest {
+
+  @Test
+  void servletVersusReactive() throws Exception {
+    var servlet = LoadHarness.run("servlet", new String[0]);
+    var reactive = LoadHarness.run("reactive", new String[] { "reactive" });
+
+    LoadHarness.report("web-stack", List.of(servlet, reactive));
+    assertEquals(0, servlet.errors());
+    assertEquals(0, reactive.errors());
+  }
+}
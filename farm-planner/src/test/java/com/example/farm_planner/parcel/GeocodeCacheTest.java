@@ -0,0 +1,105 @@
+package com.example.farm_planner.parcel;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/** Expiry, warm start and counters, on a fake clock: hits live ten days, misses one. */
+class GeocodeCacheTest {
+
+  @TempDir
+  Path dir;
+
+  private final AtomicLong nanos = new AtomicLong(TimeUnit.DAYS.toNanos(20_000)); // shared by ticker and wall clock
+
+  private GeocodeCache cache(long maxEntries) {
+    return new GeocodeCache(maxEntries, Duration.ofDays(10), Duration.ofDays(1),
+        dir.resolve("geocode-cache.json").toString(), nanos::get, () -> TimeUnit.NANOSECONDS.toMillis(nanos.get()));
+  }
+
+  private void advance(Duration d) {
+    nanos.addAndGet(d.toNanos());
+  }
+
+  @Test
+  void hitsAndMissesExpireAfterTheirOwnTtl() {
+    GeocodeCache cache = cache(100);
+    cache.putHit("217 w green st", 38.17, -75.39);
+    cache.putMiss("nowhere");
+
+    advance(Duration.ofHours(23));
+    assertFalse(cache.get("nowhere").found());
+    advance(Duration.ofHours(2));
+    assertNull(cache.get("nowhere"));
+    assertTrue(cache.get("217 w green st").found());
+
+    advance(Duration.ofDays(9));
+    assertNull(cache.get("217 w green st"));
+  }
+
+  @Test
+  void savedOnShutdownAndRestoredWithTheirRemainingTtl() throws Exception {
+    GeocodeCache before = cache(100);
+    before.putHit("217 w green st", 38.17, -75.39);
+    before.putMiss("nowhere");
+    advance(Duration.ofHours(12));
+    before.putMiss("nowhere else");
+    before.save();
+    assertTrue(Files.exists(dir.resolve("geocode-cache.json")));
+
+    advance(Duration.ofHours(13)); // down for 13 hours: "nowhere" (25 h old) has expired
+    GeocodeCache after = cache(100);
+    after.load();
+
+    assertEquals(2L, after.stats().get("size"));
+    assertNull(after.get("nowhere"));
+    assertFalse(after.get("nowhere else").found());
+    GeocodeCache.Entry hit = after.get("217 w green st");
+    assertEquals(38.17, hit.lat());
+    assertEquals(-75.39, hit.lon());
+
+    // ten days after it was first stored, not after the restart
+    advance(Duration.ofDays(8).plusHours(22)); // 9 d 23 h old
+    assertNotNull(after.get("217 w green st"));
+    advance(Duration.ofHours(2));
+    assertNull(after.get("217 w green st"));
+  }
+
+  @Test
+  void countsHitsNegativeHitsMissesAndEvictions() {
+    GeocodeCache cache = cache(2);
+    cache.putHit("a", 1, 1);
+    cache.putMiss("b");
+    cache.get("a");
+    cache.get("b");
+    cache.get("c");
+
+    Map<String, Object> stats = cache.stats();
+    assertEquals(2L, stats.get("hits"));
+    assertEquals(1L, stats.get("negativeHits"));
+    assertEquals(1L, stats.get("misses"));
+    assertEquals(0L, stats.get("evictions"));
+
+    cache.putHit("c", 3, 3);
+    stats = cache.stats();
+    assertEquals(2L, stats.get("size"));
+    assertEquals(1L, stats.get("evictions"));
+
+    advance(Duration.ofDays(11)); // expiry counts as eviction too
+    stats = cache.stats();
+    assertEquals(0L, stats.get("size"));
+    assertEquals(3L, stats.get("evictions"));
+  }
+}
@@ -0,0 +1,77 @@
+package com.example.farm_planner.parcel;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import org.junit.jupiter.api.Test;
+
+/** Free-form addresses resolve to the parcel's own SITEADDRESS / SITUS, or to nothing when unsure. */
+class ParcelAddressIndexTest {
+
+  private final ParcelAddressIndex index = new ParcelAddressIndex(
+      new String[] { "217 W GREEN ST", "217 MARKET ST", "10 MAIN ST", "10 MAIN ST", "12 BAY RD", "12 BAY RD",
+          "100 POINT RD", "5 ST MARTINS NECK RD" },
+      new String[] { "SNOW HILL", "SNOW HILL", "BERLIN", "POCOMOKE CITY", "BERLIN", "BERLIN", "BERLIN", "BERLIN" });
+
+  @Test
+  void normalizesSpellingAndIgnoresStateAndZip() {
+    assertEquals(0, index.match("217 West Green Street, Snow Hill, MD 21863"));
+    assertEquals(0, index.match("217 w. green st"));
+    assertEquals(1, index.match("217 Market Street Snow Hill Maryland"));
+  }
+
+  @Test
+  void toleratesOneTypoInTheStreetName() {
+    assertEquals(0, index.match("217 W Grene St"));
+    assertEquals(-1, index.match("217 W Brown St"));
+  }
+
+  @Test
+  void townDecidesBetweenSameStreetAddresses() {
+    assertEquals(2, index.match("10 Main St, Berlin"));
+    assertEquals(3, index.match("10 Main St, Pocomoke City"));
+    assertEquals(-1, index.match("10 Main St"));              // could be either
+    assertEquals(-1, index.match("217 Market St, Berlin"));   // that street is in Snow Hill
+    assertEquals(4, index.match("12 Bay Road Berlin"));       // same address twice: first parcel
+  }
+
+  @Test
+  void rejectsTownsOutsideTheCounty() {
+    assertEquals(-1, index.match("217 Market St, Salisbury, MD 21801"));
+    assertEquals(-1, index.match("217 W Green St, Baltimore MD 21201"));
+    assertEquals(-1, index.match("217 Market St 21801"));                // a ZIP needs the town to check it
+    assertEquals(1, index.match("217 Market St, Snow Hill 21863"));
+    assertEquals(1, index.match("217 Market St, Snwo Hill"));
+    assertEquals(0, index.match("217 W Green St Apt 2, Snow Hill"));
+  }
+
+  @Test
+  void streetTypeAndDirectionMustAgree() {
+    assertEquals(-1, index.match("217 W Green Ave"));
+    assertEquals(-1, index.match("217 E Green St"));
+    assertEquals(0, index.match("217 Green St"));                        // left out, not different
+    assertEquals(0, index.match("217 W Green"));
+  }
+
+  @Test
+  void streetNamesMadeOfTypeWordsAndSaint() {
+    assertEquals(6, index.match("100 Point Road"));
+    assertEquals(6, index.match("100 Point, Berlin"));
+    assertEquals(-1, index.match("100 Rd"));
+    assertEquals(7, index.match("5 Saint Martins Neck Rd"));
+    assertEquals(7, index.match("5 St. Martins Neck Road, Berlin"));
+    assertEquals(-1, index.match("5 Martins Neck Rd"));                  // Saint is part of the name
+    assertEquals(-1, index.match("217 W Green Saint"));                  // and never a street type
+  }
+
+  @Test
+  void suggestsAddressesStartingWithTheTypedText() {
+    assertArrayEquals(new int[] { 0 }, index.suggest("217 W Gr", 10));
+    assertArrayEquals(new int[] { 0 }, index.suggest("217 Wes", 10));        // West -> W
+    assertArrayEquals(new int[] { 1, 0 }, index.suggest("21", 10));          // 217 MARKET before 217 W
+    assertArrayEquals(new int[0], index.suggest("2 ", 10));                   // "2" is a whole word
+    assertArrayEquals(new int[] { 2, 3 }, index.suggest("main st", 10));      // by town
+    assertArrayEquals(new int[] { 3 }, index.suggest("Main Street, Poc", 10));
+    assertArrayEquals(new int[] { 2 }, index.suggest("10 Main St", 1));
+  }
+}
@@ -0,0 +1,64 @@
+package com.example.farm_planner.parcel;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import com.example.farm_planner.parcel.dto.AddressSearchRequest;
+import com.example.farm_planner.parcel.dto.ParcelResponse;
+
+/** The per-parcel, per-level cache, and bad detail levels refused before any lookup. */
+class ParcelGeometryLodTest {
+
+  // a 0.01° square near Snow Hill with an extra vertex on its south edge
+  private static ParcelResponse parcel(double east) {
+    return new ParcelResponse("A1", 20.0, Map.of("type", "Polygon", "coordinates", List.of(List.of(
+        List.of(-75.40, 38.17), List.of(-75.395, 38.17), List.of(east, 38.17), List.of(east, 38.18),
+        List.of(-75.40, 38.18), List.of(-75.40, 38.17)))));
+  }
+
+  private static long stat(ParcelGeometryLod lod, String name) {
+    return (Long) lod.stats().get(name);
+  }
+
+  @Test
+  void sameParcelAndZoomIsACacheHitUntilItsGeometryChanges() {
+    ParcelGeometryLod lod = new ParcelGeometryLod(100);
+    var enc = ParcelGeometryLod.Encoding.GEOJSON;
+
+    Map<String, Object> first = lod.apply(parcel(-75.39), 14, null, enc).geometry();
+    assertSame(first, lod.apply(parcel(-75.39), 14, null, enc).geometry());
+    assertEquals(1, stat(lod, "hits"));
+    assertEquals(1, stat(lod, "misses"));
+
+    // another zoom is its own entry
+    lod.apply(parcel(-75.39), 10, null, enc);
+    assertEquals(2, stat(lod, "misses"));
+
+    // the parcel was redrawn: same account and zoom, new bounds, so a new fingerprint
+    Map<String, Object> redrawn = lod.apply(parcel(-75.38), 14, null, enc).geometry();
+    assertNotSame(first, redrawn);
+    assertEquals(3, stat(lod, "misses"));
+    assertEquals(1, stat(lod, "hits"));
+  }
+
+  @Test
+  void badZoomOrToleranceIsRefusedBeforeAnyLookup() {
+    // no geocoder or parcel service: reaching them would fail with something other than a 400
+    ParcelController controller = new ParcelController(null, null, null, null, new ParcelGeometryLod(100), null, null);
+
+    var zoom = assertThrows(ResponseStatusException.class, () -> controller.findByAccount("A1", 30, null, null));
+    assertEquals(HttpStatus.BAD_REQUEST, zoom.getStatusCode());
+    var tolerance = assertThrows(ResponseStatusException.class,
+        () -> controller.search(new AddressSearchRequest("217 W Green St"), null, -1.0, null));
+    assertEquals(HttpStatus.BAD_REQUEST, tolerance.getStatusCode());
+  }
+}
@@ -0,0 +1,146 @@
+package com.example.farm_planner.parcel;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import reactor.core.publisher.Mono;
+
+/** Runs the harvester against a local stub layer serving canned ArcGIS f=json pages. */
+class ParcelHarvesterTest {
+
+  private static final int PARCELS = 25;
+  private static final Pattern RANGE = Pattern.compile("OBJECTID >= (\\d+) AND OBJECTID <= (\\d+)");
+
+  @TempDir
+  Path dir;
+
+  private HttpServer server;
+  private final AtomicInteger pageRequests = new AtomicInteger();
+  private final AtomicBoolean failThirdPage = new AtomicBoolean();
+
+  @BeforeEach
+  void startStub() throws IOException {
+    server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+    server.createContext("/layer/query", this::handle);
+    server.start();
+  }
+
+  @AfterEach
+  void stopStub() {
+    server.stop(0);
+  }
+
+  private void handle(HttpExchange ex) throws IOException {
+    String query = URLDecoder.decode(ex.getRequestURI().getRawQuery(), StandardCharsets.UTF_8);
+    String body;
+    int status = 200;
+    if (query.contains("returnIdsOnly=true")) {
+      StringBuilder ids = new StringBuilder();
+      for (int i = PARCELS; i >= 1; i--) ids.append(i).append(i > 1 ? "," : "");
+      body = "{\"objectIdFieldName\":\"OBJECTID\",\"objectIds\":[" + ids + "]}";
+    } else {
+      pageRequests.incrementAndGet();
+      Matcher m = RANGE.matcher(query);
+      m.find();
+      int lo = Integer.parseInt(m.group(1)), hi = Integer.parseInt(m.group(2));
+      if (lo == 21 && failThirdPage.get()) {
+        status = 500;
+        body = "{}";
+      } else {
+        StringBuilder features = new StringBuilder();
+        for (int id = lo; id <= hi; id++) {
+          double x = -75.5 + id * 0.001, y = 38.1, d = 0.001;
+          if (features.length() > 0) features.append(',');
+          // esri outer rings are clockwise
+          features.append("{\"attributes\":{\"OBJECTID\":").append(id)
+              .append(",\"ACCTID\":\"A").append(id).append("\",\"ACRES\":").append(id)
+              .append("},\"geometry\":{\"rings\":[[[").append(x).append(',').append(y).append("],[")
+              .append(x).append(',').append(y + d).append("],[").append(x + d).append(',').append(y + d)
+              .append("],[").append(x + d).append(',').append(y).append("],[").append(x).append(',').append(y)
+              .append("]]]}}");
+        }
+        body = "{\"features\":[" + features + "]}";
+      }
+    }
+    byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+    ex.getResponseHeaders().add("Content-Type", "application/json");
+    ex.sendResponseHeaders(status, bytes.length);
+    try (OutputStream out = ex.getResponseBody()) { out.write(bytes); }
+  }
+
+  private ParcelHarvester harvester(Path target) {
+    String layer = "http://127.0.0.1:" + server.getAddress().getPort() + "/layer";
+    return new ParcelHarvester(WebClient.create(), layer, dir.resolve("work").toString(),
+        target.toString(), 10, 2, null);
+  }
+
+  @Test
+  void harvestsAllPagesIntoSnapshot() throws Exception {
+    Path target = dir.resolve("parcels.ndjson");
+
+    var result = harvester(target).harvest().block();
+
+    assertEquals(3, result.pages());
+    assertEquals(PARCELS, result.features());
+    assertEquals(PARCELS, Files.readAllLines(target).size());
+    ParcelSnapshot snapshot = ParcelSnapshotStore.read(target);
+    assertEquals("A7", snapshot.findByPoint(38.1005, -75.5 + 7.5 * 0.001).acctId());
+  }
+
+  @Test
+  void resumesInterruptedHarvestFromCheckpoint() {
+    Path target = dir.resolve("parcels.ndjson");
+    failThirdPage.set(true);
+    assertThrows(RuntimeException.class, () -> harvester(target).harvest().block());
+    assertTrue(Files.exists(dir.resolve("work/checkpoint.json")));
+
+    failThirdPage.set(false);
+    pageRequests.set(0);
+    var result = harvester(target).harvest().block();
+
+    // the failing page always runs after the first one has been checkpointed
+    assertTrue(result.pagesResumed() >= 1);
+    assertEquals(3, result.pagesFetched() + result.pagesResumed());
+    assertEquals(result.pagesFetched(), pageRequests.get());
+    assertEquals(PARCELS, result.features());
+  }
+
+  @Test
+  void concurrentHarvestRequestGetsConflict() {
+    ParcelController controller = new ParcelController(null, null, harvester(dir.resolve("parcels.ndjson")),
+        null, null, null, null);
+
+    // the first one is running (on another thread) by the time the second subscribes
+    var both = Mono.zip(controller.harvest(), controller.harvest()).block();
+
+    assertEquals(HttpStatus.OK, both.getT1().getStatusCode());
+    ResponseEntity<?> second = both.getT2();
+    assertEquals(HttpStatus.CONFLICT, second.getStatusCode());
+    assertEquals(Map.of("error", "Harvest already running"), second.getBody());
+  }
+}
@@ -0,0 +1,89 @@
+package com.example.farm_planner.parcel;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class ParcelSnapshotStoreTest {
+
+  @TempDir
+  Path dir;
+
+  // 0.001° squares laid out on a 50x50 grid; square (i, j) has ACCTID "P<i>-<j>", address
+  // "<j + 1> ROAD <i>" and is in Snow Hill for even i, Berlin for odd i
+  private static String square(int i, int j) {
+    double x = -75.5 + i * 0.001, y = 38.1 + j * 0.001, d = 0.001;
+    return "{\"type\":\"Feature\",\"properties\":{\"ACCTID\":\"P" + i + "-" + j + "\",\"ACRES\":" + (i + j)
+        + ",\"SITEADDRESS\":\"" + (j + 1) + " ROAD " + i + "\",\"SITUS\":\"" + (i % 2 == 0 ? "Snow Hill" : "Berlin")
+        + "\"},\"geometry\":{\"type\":\"Polygon\",\"coordinates\":[[[" + x + "," + y + "],[" + (x + d) + "," + y + "],["
+        + (x + d) + "," + (y + d) + "],[" + x + "," + (y + d) + "],[" + x + "," + y + "]]]}}";
+  }
+
+  @Test
+  void findsContainingParcelInNdjsonSnapshot() throws Exception {
+    StringBuilder sb = new StringBuilder();
+    for (int i = 0; i < 50; i++) for (int j = 0; j < 50; j++) sb.append(square(i, j)).append('\n');
+    Path file = dir.resolve("parcels.ndjson");
+    Files.writeString(file, sb);
+
+    ParcelSnapshot s = ParcelSnapshotStore.read(file);
+
+    assertEquals(2500, s.size());
+    var hit = s.findByPoint(38.1 + 17.5 * 0.001, -75.5 + 33.5 * 0.001);
+    assertEquals("P33-17", hit.acctId());
+    assertEquals(50.0, hit.acres());
+    assertNull(s.findByPoint(38.0, -75.5));
+  }
+
+  @Test
+  void answersAttributeLookupsFromIndexesWhileFresh() throws Exception {
+    StringBuilder sb = new StringBuilder();
+    for (int i = 0; i < 50; i++) for (int j = 0; j < 50; j++) sb.append(square(i, j)).append('\n');
+    Path file = dir.resolve("parcels.ndjson");
+    Files.writeString(file, sb);
+    ParcelSnapshotStore store = new ParcelSnapshotStore("snapshot", file.toString(), Duration.ofDays(1));
+    ParcelSnapshot s = store.reload();
+
+    assertEquals("P33-17", s.findByAcctId(" p33-17 ").acctId()); // exact, case-insensitive
+    assertEquals("P33-4", s.findByAcctId("33-4").acctId());      // first substring match (trigrams)
+    assertEquals("P0-4", s.findByAcctId("-4").acctId());         // short: scanned
+    assertNull(s.findByAcctId("Q1"));
+
+    // Snow Hill (even i), acres = i + j >= 60, in layer order
+    int[] snowHill = s.addresses(60, "snow", null, 5);
+    assertArrayEquals(new String[] { "P12-48", "P12-49", "P14-46", "P14-47", "P14-48" },
+        Arrays.stream(snowHill).mapToObj(s::acctId).toArray());
+    assertArrayEquals(new String[] { "P7-0", "P7-1", "P7-2" },
+        Arrays.stream(s.addresses(0, null, "road  7", 3)).mapToObj(s::acctId).toArray());
+    assertEquals(Map.of("Berlin", 1250, "Snow Hill", 1250), s.towns());
+
+    assertSame(s, store.fresh());
+    Files.setLastModifiedTime(file, FileTime.from(Instant.now().minus(Duration.ofDays(2))));
+    store.reload();
+    assertNull(store.fresh()); // stale: attribute lookups go back to ArcGIS
+  }
+
+  @Test
+  void readsFeatureCollectionSnapshot() throws Exception {
+    Path file = dir.resolve("parcels.geojson");
+    Files.writeString(file, "{\"type\":\"FeatureCollection\",\"crs\":{\"type\":\"name\"},\"features\":["
+        + square(0, 0) + "," + square(1, 0) + "]}");
+
+    ParcelSnapshot s = ParcelSnapshotStore.read(file);
+
+    assertEquals(2, s.size());
+    assertEquals("P1-0", s.findByPoint(38.1005, -75.4985).acctId());
+  }
+}
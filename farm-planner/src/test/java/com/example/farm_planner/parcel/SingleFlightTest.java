@@ -0,0 +1,98 @@
+package com.example.farm_planner.parcel;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+/** One upstream call per key while it runs; its outcome goes to every waiter and is not kept. */
+class SingleFlightTest {
+
+  private final SingleFlight<String, String> flight = new SingleFlight<>();
+  private final AtomicInteger upstreamCalls = new AtomicInteger();
+  private final AtomicBoolean upstreamCancelled = new AtomicBoolean();
+  private Sinks.One<String> upstream;
+
+  // a call that is answered when the test says so
+  private Mono<String> call() {
+    return Mono.defer(() -> {
+      upstreamCalls.incrementAndGet();
+      upstream = Sinks.one();
+      return upstream.asMono().doOnCancel(() -> upstreamCancelled.set(true));
+    });
+  }
+
+  @Test
+  void concurrentCallersShareOneUpstreamCall() {
+    List<String> results = new ArrayList<>();
+    for (int i = 0; i < 5; i++) flight.execute("a", this::call).subscribe(results::add);
+    assertEquals(1, flight.stats().get("inFlight"));
+
+    upstream.tryEmitValue("A");
+
+    assertEquals(List.of("A", "A", "A", "A", "A"), results);
+    assertEquals(1, upstreamCalls.get());
+    assertEquals(5L, flight.stats().get("calls"));
+    assertEquals(4L, flight.stats().get("coalesced"));
+    assertEquals(0, flight.stats().get("inFlight"));
+  }
+
+  @Test
+  void errorReachesEveryWaiterAndIsNotKept() {
+    List<Throwable> errors = new ArrayList<>();
+    for (int i = 0; i < 3; i++) flight.execute("a", this::call).subscribe(v -> {}, errors::add);
+
+    upstream.tryEmitError(new IllegalStateException("down"));
+
+    assertEquals(3, errors.size());
+    errors.forEach(e -> assertInstanceOf(IllegalStateException.class, e));
+    Mono<String> retry = flight.execute("a", this::call);
+    List<String> results = new ArrayList<>();
+    retry.subscribe(results::add);
+    upstream.tryEmitValue("A");
+    assertEquals(List.of("A"), results);
+    assertEquals(2, upstreamCalls.get());
+  }
+
+  @Test
+  void keyIsFetchedAgainOnceItsCallCompletes() {
+    List<String> results = new ArrayList<>();
+    // resubscribing from inside the first result must already start a new call
+    flight.execute("a", this::call).subscribe(v -> {
+      results.add(v);
+      flight.execute("a", this::call).subscribe(results::add);
+    });
+    upstream.tryEmitValue("first");
+    upstream.tryEmitValue("second");
+
+    assertEquals(List.of("first", "second"), results);
+    assertEquals(2, upstreamCalls.get());
+    assertEquals(0L, flight.stats().get("coalesced"));
+  }
+
+  @Test
+  void cancellingOneCallerLeavesTheOthersWaiting() {
+    List<String> results = new ArrayList<>();
+    Disposable first = flight.execute("a", this::call).subscribe(v -> results.add("first " + v));
+    flight.execute("a", this::call).subscribe(v -> results.add("second " + v));
+
+    first.dispose();
+    assertFalse(upstreamCancelled.get());
+    upstream.tryEmitValue("A");
+
+    assertEquals(List.of("second A"), results);
+    assertTrue(first.isDisposed());
+    assertEquals(1, upstreamCalls.get());
+  }
+}
@@ -0,0 +1,76 @@
+package com.example.farm_planner.rules;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.core.io.Resource;
+
+class RulesServiceTest {
+
+    @TempDir
+    Path dir;
+
+    private RulesService service() {
+        return new RulesService(66, 650, 40_000, 8, 0.20, 0.10, 5.0, 200, 50,
+                new Resource[] { new ClassPathResource("rules/Worcester.yml") }, dir.toString(), "worcester");
+    }
+
+    @Test
+    void selectsCountyByLocationAndReloadsChangedFile() throws Exception {
+        Path somerset = dir.resolve("Somerset.yml");
+        Files.writeString(somerset, "version: 1\nbounds: [-76.05, 37.90, -75.50, 38.30]\nmaxHousesPerParcel: 4\n");
+        RulesService rules = service();
+
+        assertEquals(2, rules.countyCount());
+        assertEquals("somerset", rules.forPoint(38.10, -75.80).county());
+        assertEquals("worcester", rules.forPoint(38.20, -75.30).county());
+        assertEquals("worcester", rules.forPoint(40.0, -80.0).county()); // outside all: default
+        assertEquals(4, rules.forCounty("Somerset").orElseThrow().rules().maxHousesPerParcel());
+
+        Files.writeString(somerset, "version: 2\nbounds: [-76.05, 37.90, -75.50, 38.30]\nmaxHousesPerParcel: 6\n");
+        rules.reload(somerset);
+        assertEquals("2", rules.forCounty("somerset").orElseThrow().version());
+        assertEquals(6, rules.forCounty("somerset").orElseThrow().rules().maxHousesPerParcel());
+
+        // a broken edit keeps the previous rules
+        Files.writeString(somerset, "maxHousesPerParcel: lots\n");
+        rules.reload(somerset);
+        assertEquals(6, rules.forCounty("somerset").orElseThrow().rules().maxHousesPerParcel());
+
+        Files.delete(somerset);
+        rules.reload(somerset);
+        assertTrue(rules.forCounty("somerset").isEmpty());
+    }
+
+    @Test
+    void overlappingCountiesResolveByBoundaryThenSmallestBox() throws Exception {
+        // Somerset's box overlaps Worcester's [-75.67, 37.88, -75.04, 38.46] west of -75.50
+        Path somerset = dir.resolve("Somerset.yml");
+        Files.writeString(somerset, "bounds: [-76.05, 37.90, -75.50, 38.30]\n");
+        RulesService rules = service();
+        assertEquals("somerset", rules.forPoint(38.10, -75.60).county()); // inside both: smaller box
+
+        // with an outline that stops at -75.62 the same point is Worcester's, every time
+        Files.writeString(somerset, "bounds: [-76.05, 37.90, -75.50, 38.30]\n"
+                + "boundary: {type: Polygon, coordinates: [[[-76.05, 37.90], [-75.62, 37.90], [-75.62, 38.30], "
+                + "[-76.05, 38.30], [-76.05, 37.90]]]}\n");
+        rules.reload(somerset);
+        assertEquals("worcester", rules.forPoint(38.10, -75.60).county());
+        assertEquals("somerset", rules.forPoint(38.10, -75.64).county());
+        assertEquals("somerset", service().forPoint(38.10, -75.64).county());
+    }
+
+    @Test
+    void malformedValueFailsAtStartup() throws Exception {
+        Files.writeString(dir.resolve("kent.yml"), "setbackLossPct: twenty\n");
+        var e = assertThrows(IllegalStateException.class, this::service);
+        assertTrue(e.getMessage().contains("setbackLossPct"), e.getMessage());
+    }
+}
@@ -0,0 +1,156 @@
+package com.example.farm_planner.tiles;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.core.io.Resource;
+
+import com.example.farm_planner.analysis.AnalysisService;
+import com.example.farm_planner.parcel.ParcelSnapshotStore;
+import com.example.farm_planner.rules.CountyRules;
+import com.example.farm_planner.rules.RulesService;
+
+/**
+ * A new snapshot or rules version starts a new generation and drops the tiles of the old one;
+ * the same snapshot file and rules after a restart reuse the tiles on disk.
+ */
+class ParcelTileServiceTest {
+
+  private static final int Z = 14;
+
+  @TempDir
+  Path dir;
+
+  private final ForkJoinPool pool = new ForkJoinPool(2);
+  private volatile String version = "v1";
+
+  @AfterEach
+  void shutDown() throws Exception {
+    pool.shutdown();
+    pool.awaitTermination(5, TimeUnit.SECONDS);
+  }
+
+  // 0.001° squares on a 10x10 grid south-west of Snow Hill
+  private static String square(int i, int j) {
+    double x = -75.5 + i * 0.001, y = 38.1 + j * 0.001, d = 0.001;
+    return "{\"type\":\"Feature\",\"properties\":{\"ACCTID\":\"P" + i + "-" + j + "\",\"ACRES\":20},"
+        + "\"geometry\":{\"type\":\"Polygon\",\"coordinates\":[[[" + x + "," + y + "],[" + (x + d) + "," + y + "],["
+        + (x + d) + "," + (y + d) + "],[" + x + "," + (y + d) + "],[" + x + "," + y + "]]]}}";
+  }
+
+  private static int tileX(double lon) {
+    return (int) Math.floor((lon + 180) / 360 * (1 << Z));
+  }
+
+  private static int tileY(double lat) {
+    double r = Math.toRadians(lat);
+    return (int) Math.floor((1 - Math.log(Math.tan(r) + 1 / Math.cos(r)) / Math.PI) / 2 * (1 << Z));
+  }
+
+  private static void await(BooleanSupplier condition) throws InterruptedException {
+    long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+    while (!condition.getAsBoolean()) {
+      assertTrue(System.nanoTime() < deadline, "timed out");
+      Thread.sleep(10);
+    }
+  }
+
+  private Path snapshotFile() throws IOException {
+    StringBuilder sb = new StringBuilder();
+    for (int i = 0; i < 10; i++) for (int j = 0; j < 10; j++) sb.append(square(i, j)).append('\n');
+    Path file = dir.resolve("parcels.ndjson");
+    Files.writeString(file, sb);
+    return file;
+  }
+
+  private static ParcelSnapshotStore store(Path file) throws IOException {
+    ParcelSnapshotStore store = new ParcelSnapshotStore("snapshot", file.toString(), Duration.ofDays(1));
+    store.reload();
+    return store;
+  }
+
+  private RulesService rules() {
+    return new RulesService(66, 650, 40_000, 8, 0.20, 0.10, 5.0, 200, 50,
+        new Resource[] { new ClassPathResource("rules/Worcester.yml") }, dir.resolve("rules").toString(), "worcester") {
+      @Override
+      public Collection<CountyRules> counties() {
+        return super.counties().stream()
+            .map(c -> new CountyRules(c.county(), version, c.source(), c.loadedAt(), c.bounds(), c.boundary(), c.rules()))
+            .toList();
+      }
+    };
+  }
+
+  private ParcelTileService tiles(ParcelSnapshotStore store, RulesService rules) {
+    return new ParcelTileService(store, rules, new AnalysisService(rules), pool,
+        dir.resolve("tiles").toString(), 10, 20, 1 << 20);
+  }
+
+  @Test
+  void newSnapshotOrRulesVersionInvalidatesMemoryAndDiskTiles() throws Exception {
+    Path file = snapshotFile();
+    ParcelSnapshotStore store = store(file);
+    Path tilesDir = dir.resolve("tiles");
+    ParcelTileService tiles = tiles(store, rules());
+    int x = tileX(-75.495), y = tileY(38.105);
+
+    ParcelTileService.Tile first = tiles.tile(Z, x, y).get(10, TimeUnit.SECONDS);
+    assertTrue(first.body().length > 0);
+    assertTrue(Files.exists(tilesDir.resolve(first.generation()).resolve(Z + "/" + x + "/" + y + ".mvt")));
+    assertEquals(1L, tiles.stats().get("memoryTiles"));
+
+    version = "v2";
+    String second = awaitNewGeneration(tiles, first.generation(), x, y);
+    await(() -> !Files.exists(tilesDir.resolve(first.generation())));
+    await(() -> tiles.stats().get("memoryTiles").equals(1L));
+
+    // a new snapshot file: generations follow the file, not the reload
+    Files.setLastModifiedTime(file, FileTime.from(Files.getLastModifiedTime(file).toInstant().plusSeconds(60)));
+    store.reload();
+    String third = awaitNewGeneration(tiles, second, x, y);
+    await(() -> !Files.exists(tilesDir.resolve(second)));
+    assertNotEquals(first.generation(), third);
+    await(() -> tiles.stats().get("memoryTiles").equals(1L));
+    assertFalse((Boolean) tiles.stats().get("building"));
+  }
+
+  @Test
+  void restartWithTheSameSnapshotAndRulesServesTilesFromDisk() throws Exception {
+    Path file = snapshotFile();
+    int x = tileX(-75.495), y = tileY(38.105);
+    ParcelTileService.Tile first = tiles(store(file), rules()).tile(Z, x, y).get(10, TimeUnit.SECONDS);
+    Path cached = dir.resolve("tiles").resolve(first.generation()).resolve(Z + "/" + x + "/" + y + ".mvt");
+    assertTrue(Files.exists(cached));
+
+    // mark the tile on disk: a rebuild would not reproduce these bytes
+    byte[] marker = { 1, 2, 3 };
+    Files.write(cached, marker);
+    ParcelTileService.Tile again = tiles(store(file), rules()).tile(Z, x, y).get(10, TimeUnit.SECONDS);
+    assertEquals(first.generation(), again.generation());
+    assertArrayEquals(marker, again.body());
+  }
+
+  // the previous generation keeps being served until the new one is built
+  private static String awaitNewGeneration(ParcelTileService tiles, String old, int x, int y) throws Exception {
+    String[] generation = { old };
+    await(() -> !(generation[0] = tiles.tile(Z, x, y).join().generation()).equals(old));
+    return generation[0];
+  }
+}